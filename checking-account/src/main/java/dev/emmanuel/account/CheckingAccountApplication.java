@@ -1,12 +1,22 @@
 package dev.emmanuel.account;
 
+import dev.emmanuel.account.startup.StartupTimingReport;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class CheckingAccountApplication {
 
+    // a refresh records about a thousand steps, the oldest ones beyond are dropped
+    private static final int STARTUP_STEPS_CAPACITY = 4096;
+
     public static void main(String[] args) {
-        SpringApplication.run(CheckingAccountApplication.class, args);
+        var applicationStartup = new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY);
+
+        var application = new SpringApplication(CheckingAccountApplication.class);
+        application.setApplicationStartup(applicationStartup);
+        application.addListeners(new StartupTimingReport(applicationStartup));
+        application.run(args);
     }
 }
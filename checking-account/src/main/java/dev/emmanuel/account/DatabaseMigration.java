@@ -0,0 +1,41 @@
+package dev.emmanuel.account;
+
+import dev.emmanuel.account.persistence.sharding.ShardMigrationStrategy;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies the Flyway migrations ({@code db/migration}) with the {@code spring.flyway.*} configuration of the
+ * application, then exits: run once per release, before the new replicas start, instead of by every replica
+ * on boot (the {@code fast-startup} profile disables them). Only the Flyway auto-configuration is loaded, so
+ * neither Kafka nor the R2DBC pools are touched. With sharding enabled, every shard is migrated (see
+ * {@link ShardMigrationStrategy}):
+ * <pre>
+ * java -cp checking-account.jar -Dloader.main=dev.emmanuel.account.DatabaseMigration org.springframework.boot.loader.PropertiesLauncher
+ * </pre>
+ * Not a configuration class, so the application's component scan ignores it.
+ */
+@ImportAutoConfiguration({PropertyPlaceholderAutoConfiguration.class, FlywayAutoConfiguration.class})
+@Import(ShardMigrationStrategy.class)
+public class DatabaseMigration {
+
+    public static void main(String[] args) {
+        // even with the fast-startup profile active, a lazy Flyway initializer would never migrate
+        List<String> arguments = new ArrayList<>(List.of(args));
+        arguments.add("--spring.flyway.enabled=true");
+        arguments.add("--spring.main.lazy-initialization=false");
+
+        new SpringApplicationBuilder(DatabaseMigration.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments.toArray(new String[0]))
+                .close();
+    }
+
+}
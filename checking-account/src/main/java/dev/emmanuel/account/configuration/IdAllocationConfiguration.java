@@ -0,0 +1,23 @@
+package dev.emmanuel.account.configuration;
+
+import dev.emmanuel.account.persistence.repository.IdSequenceRepository;
+import dev.emmanuel.account.service.HiLoIdAllocator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdAllocationConfiguration {
+
+    public static final String CHECKING_ACCOUNTS_SEQUENCE = "checking_accounts";
+
+    @Value("${checking-account.id.block-size:500}")
+    private int blockSize;
+
+    @Bean
+    public HiLoIdAllocator checkingAccountIdAllocator(IdSequenceRepository idSequenceRepository, MeterRegistry meterRegistry) {
+        return new HiLoIdAllocator(idSequenceRepository, CHECKING_ACCOUNTS_SEQUENCE, this.blockSize, meterRegistry);
+    }
+
+}
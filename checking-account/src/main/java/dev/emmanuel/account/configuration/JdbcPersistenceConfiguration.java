@@ -0,0 +1,117 @@
+package dev.emmanuel.account.configuration;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import dev.emmanuel.account.persistence.jdbc.JdbcAccountEventOutboxRepository;
+import dev.emmanuel.account.persistence.jdbc.JdbcCheckingAccountRepository;
+import dev.emmanuel.account.persistence.jdbc.JdbcIdSequenceRepository;
+import dev.emmanuel.account.persistence.jdbc.VirtualThreadJdbc;
+import dev.emmanuel.account.persistence.jdbc.VirtualThreadJdbcTransactionManager;
+import dev.emmanuel.account.persistence.repository.AccountEventOutboxRepository;
+import dev.emmanuel.account.persistence.repository.CheckingAccountRepository;
+import dev.emmanuel.account.persistence.repository.IdSequenceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.ReactiveTransactionManager;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Alternative persistence mode running the repositories over blocking JDBC, one virtual thread per statement,
+ * selected with {@code checking-account.persistence.mode=jdbc}. The JDBC repositories and transaction manager
+ * take precedence over the R2DBC ones, which stay defined (and keep serving the replica lag monitor); services
+ * are unchanged. Only meant to compare both drivers under the same workload, on a single database: it can't be
+ * combined with sharding.
+ */
+@Configuration
+@ConditionalOnProperty(value = "checking-account.persistence.mode", havingValue = "jdbc")
+public class JdbcPersistenceConfiguration {
+
+    @Value("${checking-account.jdbc.url:${spring.flyway.url}}")
+    private String url;
+
+    @Value("${checking-account.jdbc.username:${spring.flyway.user}}")
+    private String username;
+
+    @Value("${checking-account.jdbc.password:${spring.flyway.password}}")
+    private String password;
+
+    @Value("${checking-account.sharding.enabled:false}")
+    private boolean shardingEnabled;
+
+    @Value("${checking-account.jdbc.pool.max-size:20}")
+    private int poolMaxSize;
+
+    @Value("${checking-account.jdbc.pool.max-acquire-time:2s}")
+    private Duration poolMaxAcquireTime;
+
+    @PostConstruct
+    public void checkNotSharded() {
+        if (this.shardingEnabled) {
+            throw new IllegalStateException("The jdbc persistence mode doesn't support sharding");
+        }
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource jdbcDataSource(MeterRegistry meterRegistry) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("jdbc");
+        config.setJdbcUrl(this.url);
+        config.setUsername(this.username);
+        config.setPassword(this.password);
+        config.setMaximumPoolSize(this.poolMaxSize);
+        config.setMinimumIdle(this.poolMaxSize);
+        config.setConnectionTimeout(this.poolMaxAcquireTime.toMillis());
+        config.setMetricRegistry(meterRegistry);
+        return new HikariDataSource(config);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService jdbcVirtualThreadExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("jdbc-", 0).factory());
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler(ExecutorService jdbcVirtualThreadExecutor) {
+        return Schedulers.fromExecutorService(jdbcVirtualThreadExecutor, "jdbc");
+    }
+
+    @Bean
+    public VirtualThreadJdbc virtualThreadJdbc(HikariDataSource jdbcDataSource, Scheduler jdbcScheduler) {
+        return new VirtualThreadJdbc(jdbcDataSource, jdbcScheduler);
+    }
+
+    @Bean
+    @Primary
+    public ReactiveTransactionManager jdbcTransactionManager(VirtualThreadJdbc virtualThreadJdbc) {
+        return new VirtualThreadJdbcTransactionManager(virtualThreadJdbc);
+    }
+
+    @Bean
+    @Primary
+    public CheckingAccountRepository jdbcCheckingAccountRepository(VirtualThreadJdbc virtualThreadJdbc) {
+        return new JdbcCheckingAccountRepository(virtualThreadJdbc);
+    }
+
+    @Bean
+    @Primary
+    public IdSequenceRepository jdbcIdSequenceRepository(VirtualThreadJdbc virtualThreadJdbc) {
+        return new JdbcIdSequenceRepository(virtualThreadJdbc);
+    }
+
+    @Bean
+    @Primary
+    public AccountEventOutboxRepository jdbcAccountEventOutboxRepository(VirtualThreadJdbc virtualThreadJdbc) {
+        return new JdbcAccountEventOutboxRepository(virtualThreadJdbc);
+    }
+
+}
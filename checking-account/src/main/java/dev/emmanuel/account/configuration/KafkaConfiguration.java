@@ -2,48 +2,158 @@ package dev.emmanuel.account.configuration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.emmanuel.account.event.AccountEvent;
+import dev.emmanuel.account.event.publisher.AccountEventPublisher;
+import dev.emmanuel.account.event.publisher.AccountEventSendMetrics;
+import dev.emmanuel.account.event.publisher.KafkaTemplateAccountEventPublisher;
+import dev.emmanuel.account.event.publisher.LedgerShardPartitioner;
+import dev.emmanuel.account.event.publisher.ReactiveKafkaAccountEventPublisher;
+import dev.emmanuel.account.event.serialization.AccountEventFormat;
+import dev.emmanuel.account.event.serialization.AccountEventSerializer;
+import dev.emmanuel.account.tracing.Tracer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.kafka.KafkaClientMetrics;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.config.TopicConfig;
 import org.apache.kafka.common.serialization.LongSerializer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
+@Slf4j
 @EnableKafka
 @Configuration
 public class KafkaConfiguration {
 
+    public static final String ACCOUNT_EVENTS_TOPIC = "checking_account_event";
+    public static final String ACCOUNT_SNAPSHOTS_TOPIC = "checking_account_snapshot";
+
+    private static final String PRODUCER_MODE = "checking-account.kafka.producer.mode";
+
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String kafkaBootstrapConfig;
 
+    @Value("${checking-account.kafka.producer.max-in-flight:256}")
+    private int producerMaxInFlight;
+
+    @Value("${checking-account.kafka.producer.linger:5ms}")
+    private Duration producerLinger;
+
+    @Value("${checking-account.kafka.producer.batch-size:65536}")
+    private int producerBatchSize;
+
+    @Value("${checking-account.kafka.producer.compression-type:lz4}")
+    private String producerCompressionType;
+
+    @Value("${checking-account.kafka.producer.max-block:1s}")
+    private Duration producerMaxBlock;
+
+    @Value("${checking-account.kafka.topics.checking_account_event.format:json}")
+    private AccountEventFormat accountEventsFormat;
+
+    @Value("${checking-account.kafka.topics.checking_account_event.partitions:4}")
+    private int accountEventsPartitions;
+
+    @Value("${checking-account.kafka.topics.checking_account_event.replicas:1}")
+    private short accountEventsReplicas;
+
+    @Value("${checking-account.kafka.topics.checking_account_snapshot.format:json}")
+    private AccountEventFormat accountSnapshotsFormat;
+
+    @Value("${checking-account.kafka.topics.checking_account_snapshot.partitions:4}")
+    private int accountSnapshotsPartitions;
+
+    @Value("${checking-account.kafka.topics.checking_account_snapshot.replicas:1}")
+    private short accountSnapshotsReplicas;
+
+    @Value("${checking-account.kafka.topics.checking_account_snapshot.segment:1h}")
+    private Duration accountSnapshotsSegment;
+
+    @Value("${checking-account.ledger.number-of-shards:100}")
+    private int ledgerNumberOfShards;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    /**
+     * The topics are created when Boot's {@code KafkaAdmin} is instantiated, which lazy initialization (the
+     * {@code fast-startup} profile) would otherwise never do.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerKafkaAdmin() {
+        return LazyInitializationExcludeFilter.forBeanTypes(KafkaAdmin.class);
+    }
+
+    /**
+     * Only created when missing, partitions added to an existing topic must be added with the Kafka tools (which
+     * moves accounts to other partitions, so the ledger consumers should be drained first).
+     */
     @Bean
     public NewTopic accountEventsTopic() {
+        if (this.ledgerNumberOfShards % this.accountEventsPartitions != 0) {
+            log.warn("{} partitions don't divide the {} ledger shards, some partitions of {} will get one shard more than others",
+                    this.accountEventsPartitions, this.ledgerNumberOfShards, ACCOUNT_EVENTS_TOPIC);
+        }
+
         return TopicBuilder
-                .name("checking_account_event")
-                .partitions(4)
-                .replicas(1)
+                .name(ACCOUNT_EVENTS_TOPIC)
+                .partitions(this.accountEventsPartitions)
+                .replicas(this.accountEventsReplicas)
                 .build();
     }
 
+    /**
+     * Latest state of every account, keyed by account id like the events, so a new consumer can bootstrap from
+     * it instead of replaying every event. Compaction only cleans closed segments, so segments are rolled every
+     * {@code segment} to bound the superseded snapshots a bootstrap reads.
+     */
     @Bean
-    public ProducerFactory<Long, AccountEvent> producerFactory() {
-        return new DefaultKafkaProducerFactory<>(producerConfigs(),
+    public NewTopic accountSnapshotsTopic() {
+        return TopicBuilder
+                .name(ACCOUNT_SNAPSHOTS_TOPIC)
+                .partitions(this.accountSnapshotsPartitions)
+                .replicas(this.accountSnapshotsReplicas)
+                .compact()
+                .config(TopicConfig.SEGMENT_MS_CONFIG, String.valueOf(this.accountSnapshotsSegment.toMillis()))
+                .build();
+    }
+
+    @Bean
+    public ProducerFactory<Long, AccountEvent> producerFactory(MeterRegistry meterRegistry) {
+        DefaultKafkaProducerFactory<Long, AccountEvent> producerFactory = new DefaultKafkaProducerFactory<>(producerConfigs(),
                 new LongSerializer(),
-                new JsonSerializer<>(objectMapper)
+                accountEventSerializer()
         );
+        producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return producerFactory;
+    }
+
+    /**
+     * Value serializer shared by both producer modes, the wire format is chosen per topic.
+     */
+    @Bean
+    public AccountEventSerializer accountEventSerializer() {
+        return new AccountEventSerializer(objectMapper, Map.of(
+                ACCOUNT_EVENTS_TOPIC, this.accountEventsFormat,
+                ACCOUNT_SNAPSHOTS_TOPIC, this.accountSnapshotsFormat
+        ));
     }
 
     @Bean
@@ -51,13 +161,65 @@ public class KafkaConfiguration {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, this.kafkaBootstrapConfig);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, LongSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        // no value serializer class: AccountEventSerializer needs the object mapper and the topic formats, both
+        // producers are given the accountEventSerializer instance
+        props.put(ProducerConfig.LINGER_MS_CONFIG, (int) this.producerLinger.toMillis());
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, this.producerBatchSize);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, this.producerCompressionType);
+        props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, this.producerMaxBlock.toMillis());
+        props.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, LedgerShardPartitioner.class);
+        props.put(LedgerShardPartitioner.NUMBER_OF_SHARDS_CONFIG, this.ledgerNumberOfShards);
         return props;
     }
 
     @Bean
-    public KafkaTemplate<Long, AccountEvent> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<Long, AccountEvent> kafkaTemplate(ProducerFactory<Long, AccountEvent> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    @Bean
+    public AccountEventSendMetrics accountEventSendMetrics(MeterRegistry meterRegistry) {
+        return new AccountEventSendMetrics(meterRegistry);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(value = PRODUCER_MODE, havingValue = "reactive", matchIfMissing = true)
+    public KafkaSender<Long, AccountEvent> kafkaSender() {
+        SenderOptions<Long, AccountEvent> senderOptions = SenderOptions
+                .<Long, AccountEvent>create(producerConfigs())
+                .withKeySerializer(new LongSerializer())
+                .withValueSerializer(accountEventSerializer())
+                .maxInFlight(this.producerMaxInFlight)
+                .stopOnError(false);
+
+        return KafkaSender.create(senderOptions);
+    }
+
+    /**
+     * Metrics of the producer owned by the sender (record send/error rates, request latency, buffer usage...), the
+     * same metrics the template mode gets from its {@link MicrometerProducerListener}. Boot binds it while creating the
+     * meter registry, so it must neither bind itself nor depend on the registry.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(value = PRODUCER_MODE, havingValue = "reactive", matchIfMissing = true)
+    public KafkaClientMetrics kafkaSenderMetrics(KafkaSender<Long, AccountEvent> kafkaSender) {
+        return kafkaSender.doOnProducer(KafkaClientMetrics::new).block();
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = PRODUCER_MODE, havingValue = "reactive", matchIfMissing = true)
+    public AccountEventPublisher reactiveAccountEventPublisher(KafkaSender<Long, AccountEvent> kafkaSender,
+                                                               AccountEventSendMetrics sendMetrics,
+                                                               Tracer tracer) {
+        return new ReactiveKafkaAccountEventPublisher(kafkaSender, sendMetrics, tracer);
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = PRODUCER_MODE, havingValue = "template")
+    public AccountEventPublisher templateAccountEventPublisher(KafkaTemplate<Long, AccountEvent> kafkaTemplate,
+                                                               AccountEventSendMetrics sendMetrics,
+                                                               Tracer tracer) {
+        return new KafkaTemplateAccountEventPublisher(kafkaTemplate, sendMetrics, tracer, this.producerMaxInFlight);
     }
 
 }
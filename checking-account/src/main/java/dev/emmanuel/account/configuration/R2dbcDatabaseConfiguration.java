@@ -2,45 +2,256 @@ package dev.emmanuel.account.configuration;
 
 import dev.emmanuel.account.persistence.converter.CheckingAccountReaderConverter;
 import dev.emmanuel.account.persistence.converter.CheckingAccountWriterConverter;
+import dev.emmanuel.account.persistence.pool.InstrumentedConnectionPool;
+import dev.emmanuel.account.persistence.routing.ReadWriteRoutingConnectionFactory;
+import dev.emmanuel.account.persistence.routing.ReplicaReads;
+import dev.emmanuel.account.persistence.routing.ReplicationLagMonitor;
+import dev.emmanuel.account.persistence.routing.ShardRoutingConnectionFactory;
+import dev.emmanuel.account.persistence.sharding.ShardDirectory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
 import io.r2dbc.spi.ConnectionFactories;
 import io.r2dbc.spi.ConnectionFactory;
 import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.ValidationDepth;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.r2dbc.config.AbstractR2dbcConfiguration;
-import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
-import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
 
+import javax.annotation.PreDestroy;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+@Slf4j
 @Configuration
 public class R2dbcDatabaseConfiguration extends AbstractR2dbcConfiguration {
 
+    private static final String PRIMARY_POOL_NAME = "connectionFactory";
+    private static final String REPLICA_POOL_NAME = "replica-";
+    private static final String SHARD_POOL_NAME = "shard-";
+
     @Value("${spring.r2dbc.url}")
     private String url;
 
-    @Bean
-    public ConnectionFactoryInitializer initializeDatabaseConnection(ConnectionFactory connectionFactory) {
-        ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
-        initializer.setConnectionFactory(connectionFactory);
+    @Value("${checking-account.r2dbc.replica.urls:}")
+    private String replicaUrls;
 
-        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
-        initializer.setDatabasePopulator(populator);
+    @Value("${checking-account.r2dbc.replica.max-lag:1s}")
+    private Duration replicaMaxLag;
 
-        return initializer;
-    }
+    @Value("${checking-account.r2dbc.replica.heartbeat-interval:250ms}")
+    private Duration replicaHeartbeatInterval;
+
+    @Value("${checking-account.r2dbc.replica.hedge.enabled:false}")
+    private boolean replicaHedgeEnabled;
+
+    @Value("${checking-account.r2dbc.replica.hedge.percentile:0.95}")
+    private double replicaHedgePercentile;
+
+    @Value("${checking-account.r2dbc.replica.hedge.min-delay:5ms}")
+    private Duration replicaHedgeMinDelay;
+
+    @Value("${checking-account.sharding.enabled:false}")
+    private boolean shardingEnabled;
+
+    @Value("${checking-account.sharding.r2dbc-urls:}")
+    private String shardUrls;
+
+    @Value("${checking-account.sharding.refresh-interval:1s}")
+    private Duration shardMapRefreshInterval;
+
+    @Value("${checking-account.sharding.max-staleness:5s}")
+    private Duration shardMapMaxStaleness;
+
+    @Value("${checking-account.r2dbc.pool.initial-size:10}")
+    private int poolInitialSize;
+
+    @Value("${checking-account.r2dbc.pool.max-size:20}")
+    private int poolMaxSize;
+
+    @Value("${checking-account.r2dbc.pool.max-idle-time:30m}")
+    private Duration poolMaxIdleTime;
 
+    @Value("${checking-account.r2dbc.pool.max-life-time:1h}")
+    private Duration poolMaxLifeTime;
+
+    @Value("${checking-account.r2dbc.pool.max-acquire-time:2s}")
+    private Duration poolMaxAcquireTime;
+
+    @Value("${checking-account.r2dbc.pool.max-create-connection-time:5s}")
+    private Duration poolMaxCreateConnectionTime;
+
+    @Value("${checking-account.r2dbc.pool.validation-query:}")
+    private String poolValidationQuery;
+
+    @Value("${checking-account.r2dbc.pool.validation-depth:local}")
+    private ValidationDepth poolValidationDepth;
+
+    @Value("${checking-account.r2dbc.pool.warmup-timeout:10s}")
+    private Duration poolWarmupTimeout;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ConnectionPool primaryPool;
+    private Map<String, ConnectionPool> replicaPools;
+    private Map<String, ConnectionPool> shardPools;
+
+    /**
+     * Pool around the driver found for {@code spring.r2dbc.url}, which must therefore not be a {@code r2dbc:pool:} url.
+     * When replicas are configured, a routing connection factory over the primary and replica pools, see {@link ReplicaReads}.
+     * When sharding is enabled, a routing connection factory over the pools of the shards, {@code spring.r2dbc.url}
+     * being the first one, see {@link ShardDirectory}. A bean, so Boot doesn't create its own pool from
+     * {@code spring.r2dbc.url} for the database client and the transaction manager.
+     */
+    @Bean
     @Override
     public ConnectionFactory connectionFactory() {
+        createPools();
+
+        if (this.replicaPools.isEmpty() && !this.shardingEnabled) {
+            return this.primaryPool;
+        }
+
+        // Boot only binds the pool metrics of ConnectionPool beans, the routing factories hide them
+        new ConnectionPoolMetrics(this.primaryPool, PRIMARY_POOL_NAME, Tags.empty()).bindTo(this.meterRegistry);
+        this.replicaPools.forEach((name, pool) -> new ConnectionPoolMetrics(pool, name, Tags.empty()).bindTo(this.meterRegistry));
+        this.shardPools.forEach((name, pool) -> new ConnectionPoolMetrics(pool, name, Tags.empty()).bindTo(this.meterRegistry));
+
+        if (this.shardingEnabled) {
+            return new ShardRoutingConnectionFactory(ShardDirectory.FIRST_SHARD, this.primaryPool, this.shardPools);
+        }
+        return new ReadWriteRoutingConnectionFactory(this.primaryPool, this.replicaPools);
+    }
+
+    /**
+     * Shard map read from the first shard when sharding is enabled, otherwise every slot on the only database.
+     */
+    @Bean
+    public ShardDirectory shardDirectory() {
+        createPools();
+
+        if (!this.shardingEnabled) {
+            return ShardDirectory.unsharded();
+        }
+
+        List<String> shards = new ArrayList<>();
+        shards.add(ShardDirectory.FIRST_SHARD);
+        shards.addAll(this.shardPools.keySet());
+        return new ShardDirectory(this.primaryPool, shards, this.meterRegistry,
+                this.shardMapRefreshInterval, this.shardMapMaxStaleness);
+    }
+
+    @Bean
+    public ReplicationLagMonitor replicationLagMonitor() {
+        createPools();
+        return new ReplicationLagMonitor(this.primaryPool, this.replicaPools, this.meterRegistry,
+                this.replicaMaxLag, this.replicaHeartbeatInterval);
+    }
+
+    @Bean
+    public ReplicaReads replicaReads() {
+        return new ReplicaReads(replicationLagMonitor(), this.meterRegistry,
+                this.replicaHedgeEnabled, this.replicaHedgePercentile, this.replicaHedgeMinDelay);
+    }
+
+    private synchronized void createPools() {
+        if (this.primaryPool != null) {
+            return;
+        }
+
+        this.primaryPool = createPool(this.url, PRIMARY_POOL_NAME);
+        this.replicaPools = new LinkedHashMap<>();
+
+        String[] urls = StringUtils.commaDelimitedListToStringArray(this.replicaUrls);
+        for (int i = 0; i < urls.length; i++) {
+            String name = REPLICA_POOL_NAME + i;
+            this.replicaPools.put(name, createPool(urls[i].trim(), name));
+        }
+
+        this.shardPools = new LinkedHashMap<>();
+        if (!this.shardingEnabled) {
+            return;
+        }
+        if (!this.replicaPools.isEmpty()) {
+            throw new IllegalStateException("Read replicas and sharding can't be enabled together");
+        }
+
+        // the first shard is spring.r2dbc.url
+        String[] shardUrls = StringUtils.commaDelimitedListToStringArray(this.shardUrls);
+        for (int i = 0; i < shardUrls.length; i++) {
+            String name = SHARD_POOL_NAME + (i + 1);
+            this.shardPools.put(name, createPool(shardUrls[i].trim(), name));
+        }
+    }
+
+    private ConnectionPool createPool(String url, String name) {
         ConnectionFactoryOptions connectionFactoryOptions = ConnectionFactoryOptions
-                .parse(this.url)
+                .parse(url)
                 .mutate()
                 .build();
 
-        return ConnectionFactories.find(connectionFactoryOptions);
+        ConnectionPoolConfiguration.Builder poolConfiguration = ConnectionPoolConfiguration
+                .builder(ConnectionFactories.find(connectionFactoryOptions))
+                .name(name)
+                .initialSize(this.poolInitialSize)
+                .maxSize(this.poolMaxSize)
+                .maxIdleTime(this.poolMaxIdleTime)
+                .maxLifeTime(this.poolMaxLifeTime)
+                .maxAcquireTime(this.poolMaxAcquireTime)
+                .maxCreateConnectionTime(this.poolMaxCreateConnectionTime);
+
+        // a validation query costs a round trip per acquisition, the local check only looks at the connection state
+        if (StringUtils.hasText(this.poolValidationQuery)) {
+            poolConfiguration.validationQuery(this.poolValidationQuery);
+        } else {
+            poolConfiguration.validationDepth(this.poolValidationDepth);
+        }
+
+        return new InstrumentedConnectionPool(poolConfiguration.build(), this.meterRegistry, name);
+    }
+
+    /**
+     * Opens the {@code initial-size} connections of every pool before the application reports itself ready, so the
+     * first requests after a rollout don't pay for the connection handshakes. A database that isn't reachable yet
+     * doesn't prevent the startup, connections are then opened on demand.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void warmUpConnectionPool() {
+        createPools();
+
+        try {
+            Integer warmedUp = Flux
+                    .concat(Flux.just(this.primaryPool), Flux.fromIterable(this.replicaPools.values()), Flux.fromIterable(this.shardPools.values()))
+                    .flatMap(ConnectionPool::warmup)
+                    .reduce(0, Integer::sum)
+                    .block(this.poolWarmupTimeout);
+            log.info("Connection pool warmed up with {} connections", warmedUp);
+        } catch (RuntimeException ex) {
+            log.warn("Failure to warm up the connection pool, connections will be opened on demand", ex);
+        }
+    }
+
+    @PreDestroy
+    public void closePools() {
+        if (this.primaryPool != null) {
+            this.primaryPool.dispose();
+            this.replicaPools.values().forEach(ConnectionPool::dispose);
+            this.shardPools.values().forEach(ConnectionPool::dispose);
+        }
     }
 
     @Override
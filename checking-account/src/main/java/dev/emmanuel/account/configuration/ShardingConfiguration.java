@@ -0,0 +1,49 @@
+package dev.emmanuel.account.configuration;
+
+import dev.emmanuel.account.persistence.repository.CheckingAccountRepository;
+import dev.emmanuel.account.persistence.sharding.ShardDirectory;
+import dev.emmanuel.account.persistence.sharding.ShardRebalancer;
+import dev.emmanuel.account.persistence.sharding.ShardedCheckingAccountRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+
+/**
+ * Spreads the checking accounts over the databases of {@code checking-account.sharding.r2dbc-urls} and
+ * {@code spring.r2dbc.url}, selected with {@code checking-account.sharding.enabled}. The accounts of a customer
+ * live on the shard owning its slot in the {@link ShardDirectory}; the id sequences and the shard map stay on the
+ * first shard, and every shard has its own outbox. Only supported by the R2DBC persistence mode, without read
+ * replicas.
+ */
+@Configuration
+@ConditionalOnProperty(value = "checking-account.sharding.enabled", havingValue = "true")
+public class ShardingConfiguration {
+
+    @Value("${checking-account.sharding.rebalance.settle-time:10s}")
+    private Duration settleTime;
+
+    @Value("${checking-account.sharding.rebalance.lease-time:1m}")
+    private Duration leaseTime;
+
+    @Value("${checking-account.sharding.rebalance.batch-size:500}")
+    private int batchSize;
+
+    @Bean
+    @Primary
+    public CheckingAccountRepository shardedCheckingAccountRepository(@Qualifier("checkingAccountRepository") CheckingAccountRepository checkingAccountRepository,
+                                                                      ShardDirectory shardDirectory) {
+        return new ShardedCheckingAccountRepository(checkingAccountRepository, shardDirectory);
+    }
+
+    @Bean
+    public ShardRebalancer shardRebalancer(DatabaseClient databaseClient, ShardDirectory shardDirectory) {
+        return new ShardRebalancer(databaseClient, shardDirectory, this.settleTime, this.leaseTime, this.batchSize);
+    }
+
+}
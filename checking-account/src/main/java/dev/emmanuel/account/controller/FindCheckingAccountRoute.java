@@ -0,0 +1,59 @@
+package dev.emmanuel.account.controller;
+
+import dev.emmanuel.account.controller.dto.ErrorResponse;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.service.FindCheckingAccountService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+import static org.springframework.web.reactive.function.BodyInserters.fromValue;
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+import static org.springframework.web.reactive.function.server.ServerResponse.badRequest;
+import static org.springframework.web.reactive.function.server.ServerResponse.notFound;
+import static org.springframework.web.reactive.function.server.ServerResponse.ok;
+
+@Configuration
+@RequiredArgsConstructor
+public class FindCheckingAccountRoute {
+
+    private final FindCheckingAccountService findCheckingAccountService;
+
+    @Bean
+    RouterFunction<ServerResponse> findAccount() {
+        return route(GET("/checking-accounts/{id}"), findAccountHandler(request -> findCheckingAccountService.findById(longPathVariable(request, "id"))))
+                .andRoute(GET("/checking-accounts/iban/{iban}"), findAccountHandler(request -> findCheckingAccountService.findByIban(request.pathVariable("iban"))))
+                .andRoute(GET("/customers/{customerId}/checking-account"), findAccountHandler(request -> findCheckingAccountService.findByCustomerId(longPathVariable(request, "customerId"))));
+    }
+
+    /**
+     * Answers with the account and its {@code @Version} as ETag, or 304 when it matches {@code If-None-Match}.
+     * Cached accounts are answered without touching the database.
+     */
+    private HandlerFunction<ServerResponse> findAccountHandler(Function<ServerRequest, Mono<CheckingAccount>> finder) {
+        return request -> Mono
+                .defer(() -> finder.apply(request))
+                .flatMap(account -> request
+                        .checkNotModified(eTagOf(account))
+                        .switchIfEmpty(Mono.defer(() -> ok().eTag(eTagOf(account)).body(fromValue(account)))))
+                .switchIfEmpty(Mono.defer(() -> notFound().build()))
+                .onErrorResume(NumberFormatException.class, ex -> badRequest().bodyValue(ErrorResponse.from(ex)));
+    }
+
+    private long longPathVariable(ServerRequest request, String name) {
+        return Long.parseLong(request.pathVariable(name));
+    }
+
+    private String eTagOf(CheckingAccount account) {
+        return account.getId() + "." + account.getVersion();
+    }
+
+}
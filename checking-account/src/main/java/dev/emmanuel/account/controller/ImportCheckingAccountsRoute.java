@@ -0,0 +1,96 @@
+package dev.emmanuel.account.controller;
+
+import dev.emmanuel.account.controller.codec.CheckingAccountJsonReader;
+import dev.emmanuel.account.controller.dto.ErrorResponse;
+import dev.emmanuel.account.controller.imports.ImportLineParser;
+import dev.emmanuel.account.service.ImportCheckingAccountsService;
+import dev.emmanuel.account.service.ImportRecord;
+import dev.emmanuel.account.service.ImportResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.function.Supplier;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+import static org.springframework.web.reactive.function.server.ServerResponse.badRequest;
+import static org.springframework.web.reactive.function.server.ServerResponse.ok;
+
+/**
+ * Bulk import of checking accounts, streaming a body of newline delimited JSON accounts (the same as the
+ * {@code POST /checking-accounts} body) or CSV, and streaming back one newline delimited JSON result per record
+ * with its line number, in line order. The body is only read as fast as the accounts are written. An interrupted
+ * import is resumed by sending the same body with the last line a result was received for as {@code after}.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ImportCheckingAccountsRoute {
+
+    private static final String IMPORT_PATH = "/checking-accounts/import";
+
+    private final ImportCheckingAccountsService importCheckingAccountsService;
+    private final CheckingAccountJsonReader checkingAccountJsonReader;
+
+    @Bean
+    RouterFunction<ServerResponse> importAccounts() {
+        return route(POST(IMPORT_PATH).and(contentType(MediaType.APPLICATION_NDJSON)), importHandler(() -> ImportLineParser.ndjson(checkingAccountJsonReader)))
+                .andRoute(POST(IMPORT_PATH).and(contentType(MediaType.parseMediaType("text/csv"))), importHandler(ImportLineParser::csv));
+    }
+
+    private HandlerFunction<ServerResponse> importHandler(Supplier<ImportLineParser> parsers) {
+        return request -> Mono
+                .fromCallable(() -> resumeAfter(request))
+                .flatMap(afterLine -> ok()
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .body(importCheckingAccountsService.importAccounts(records(request, parsers.get(), afterLine)), ImportResult.class))
+                .onErrorResume(NumberFormatException.class, ex -> badRequest().bodyValue(ErrorResponse.from(ex)));
+    }
+
+    private Flux<ImportRecord> records(ServerRequest request, ImportLineParser parser, long afterLine) {
+        var lines = StringDecoder.allMimeTypes().decode(
+                request.body(BodyExtractors.toDataBuffers()),
+                ResolvableType.forClass(String.class),
+                null,
+                Collections.emptyMap()
+        );
+
+        return lines
+                .index((index, content) -> ImportLine.of(index + 1, content))
+                .filter(line -> line.number > afterLine || parser.awaitsHeader())
+                .handle((line, sink) -> {
+                    var record = parser.parse(line.number, line.content);
+                    if (record != null) {
+                        sink.next(record);
+                    }
+                });
+    }
+
+    private static long resumeAfter(ServerRequest request) {
+        return request
+                .queryParam("after")
+                .map(Long::parseLong)
+                .orElse(0L);
+    }
+
+    @RequiredArgsConstructor(staticName = "of")
+    private static class ImportLine {
+
+        private final long number;
+        private final String content;
+
+    }
+
+}
@@ -0,0 +1,71 @@
+package dev.emmanuel.account.controller;
+
+import dev.emmanuel.account.controller.dto.ErrorResponse;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.service.ListCheckingAccountsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.accept;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+import static org.springframework.web.reactive.function.server.ServerResponse.badRequest;
+import static org.springframework.web.reactive.function.server.ServerResponse.ok;
+
+/**
+ * Streams all checking accounts in the order they were opened, as server-sent events or newline delimited JSON.
+ * Clients resume an interrupted stream from the last account id they received, passed as {@code after}
+ * (or as {@code Last-Event-ID}, which SSE clients send by themselves on reconnection).
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ListCheckingAccountsRoute {
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private final ListCheckingAccountsService listCheckingAccountsService;
+
+    @Bean
+    RouterFunction<ServerResponse> listAccounts() {
+        return route(GET("/checking-accounts").and(accept(MediaType.TEXT_EVENT_STREAM)), serverSentEventsHandler())
+                .andRoute(GET("/checking-accounts"), newlineDelimitedJsonHandler());
+    }
+
+    private HandlerFunction<ServerResponse> serverSentEventsHandler() {
+        return request -> Mono
+                .fromCallable(() -> cursorOf(request))
+                .flatMap(afterId -> ok()
+                        .contentType(MediaType.TEXT_EVENT_STREAM)
+                        .body(listCheckingAccountsService
+                                .findAllAfter(afterId)
+                                .map(account -> ServerSentEvent.builder(account).id(String.valueOf(account.getId())).build()),
+                                ServerSentEvent.class))
+                .onErrorResume(NumberFormatException.class, ex -> badRequest().bodyValue(ErrorResponse.from(ex)));
+    }
+
+    private HandlerFunction<ServerResponse> newlineDelimitedJsonHandler() {
+        return request -> Mono
+                .fromCallable(() -> cursorOf(request))
+                .flatMap(afterId -> ok()
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .body(listCheckingAccountsService.findAllAfter(afterId), CheckingAccount.class))
+                .onErrorResume(NumberFormatException.class, ex -> badRequest().bodyValue(ErrorResponse.from(ex)));
+    }
+
+    private long cursorOf(ServerRequest request) {
+        return request
+                .queryParam("after")
+                .or(() -> request.headers().header(LAST_EVENT_ID).stream().findFirst())
+                .map(Long::parseLong)
+                .orElse(0L);
+    }
+
+}
@@ -1,48 +1,163 @@
 package dev.emmanuel.account.controller;
 
-import dev.emmanuel.account.controller.dto.CheckingAccountDto;
+import dev.emmanuel.account.controller.codec.CheckingAccountJsonReader;
 import dev.emmanuel.account.controller.dto.ErrorResponse;
+import dev.emmanuel.account.controller.idempotency.IdempotencyKeyReusedException;
+import dev.emmanuel.account.controller.idempotency.IdempotencyKeyStore;
+import dev.emmanuel.account.controller.idempotency.StoredResponse;
+import dev.emmanuel.account.controller.limit.ConcurrencyLimitFilter;
 import dev.emmanuel.account.exception.CheckingAccountAlreadyOpened;
 import dev.emmanuel.account.exception.violation.ViolationException;
 import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.service.OpenCheckingAccountMetrics;
 import dev.emmanuel.account.service.OpenCheckingAccountService;
-import lombok.RequiredArgsConstructor;
+import dev.emmanuel.account.service.OpenedAccountJson;
+import dev.emmanuel.account.service.SingleFlight;
+import dev.emmanuel.account.tracing.Tracer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.BodyExtractors;
 import org.springframework.web.reactive.function.server.HandlerFunction;
 import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Mono;
 
-import static org.springframework.web.reactive.function.BodyInserters.fromValue;
+import java.io.IOException;
+import java.util.Collections;
+
+import static dev.emmanuel.account.controller.idempotency.IdempotencyKeyStore.IDEMPOTENCY_KEY_HEADER;
+import static dev.emmanuel.account.controller.idempotency.IdempotencyKeyStore.MAX_KEY_LENGTH;
+import static dev.emmanuel.account.event.publisher.AccountEventHeaders.TRACEPARENT;
 import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
 import static org.springframework.web.reactive.function.server.RouterFunctions.route;
 import static org.springframework.web.reactive.function.server.ServerResponse.badRequest;
-import static org.springframework.web.reactive.function.server.ServerResponse.ok;
+import static org.springframework.web.reactive.function.server.ServerResponse.unprocessableEntity;
 
 @Configuration
-@RequiredArgsConstructor
 public class OpenCheckingAccountRoute {
 
     private final OpenCheckingAccountService openCheckingAccountService;
+    private final OpenCheckingAccountMetrics openCheckingAccountMetrics;
+    private final IdempotencyKeyStore idempotencyKeyStore;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
+    private final CheckingAccountJsonReader checkingAccountJsonReader;
+    private final Tracer tracer;
+    private final int maxBodySize;
+    private final SingleFlight<Long, CheckingAccount> openByCustomer;
+
+    public OpenCheckingAccountRoute(OpenCheckingAccountService openCheckingAccountService,
+                                    OpenCheckingAccountMetrics openCheckingAccountMetrics,
+                                    IdempotencyKeyStore idempotencyKeyStore,
+                                    ConcurrencyLimitFilter concurrencyLimitFilter,
+                                    CheckingAccountJsonReader checkingAccountJsonReader,
+                                    Tracer tracer,
+                                    @Value("${spring.codec.max-in-memory-size:256KB}") DataSize maxBodySize) {
+        this.openCheckingAccountService = openCheckingAccountService;
+        this.openCheckingAccountMetrics = openCheckingAccountMetrics;
+        this.idempotencyKeyStore = idempotencyKeyStore;
+        this.concurrencyLimitFilter = concurrencyLimitFilter;
+        this.checkingAccountJsonReader = checkingAccountJsonReader;
+        this.tracer = tracer;
+        this.maxBodySize = (int) maxBodySize.toBytes();
+        this.openByCustomer = new SingleFlight<>(openCheckingAccountMetrics::countCoalesced);
+    }
 
     @Bean
     RouterFunction<ServerResponse> openAccount() {
-        return route(POST("/checking-accounts"), openAccountHandler());
+        return route(POST("/checking-accounts"), openAccountHandler()).filter(concurrencyLimitFilter);
     }
 
+    /**
+     * With an {@code Idempotency-Key}, replays get the stored response of the first request; a key reused for
+     * a different request is rejected with a 422.
+     * <p>
+     * The request is traced, continuing the caller's trace when it sends a {@code traceparent} header: the trace
+     * travels in the subscriber context down to the account's outbox entry, and from there to its Kafka record.
+     */
     private HandlerFunction<ServerResponse> openAccountHandler() {
-        return request -> request
-                .bodyToMono(CheckingAccountDto.class)
-                .flatMap(this::toPersistenceModel)
-                .flatMap(openCheckingAccountService::open)
-                .flatMap(openedAccount -> ok().body(fromValue(openedAccount)))
-                .onErrorResume(CheckingAccountAlreadyOpened.class, ex -> badRequest().bodyValue(ErrorResponse.from(ex)))
-                .onErrorResume(ViolationException.class, ex -> badRequest().bodyValue(ErrorResponse.from(ex)));
+        return request -> {
+            var idempotencyKey = request.headers().firstHeader(IDEMPOTENCY_KEY_HEADER);
+            if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH)) {
+                return badRequest().bodyValue(new ErrorResponse("Invalid " + IDEMPOTENCY_KEY_HEADER, Collections.emptyList()));
+            }
+
+            var trace = tracer.start(request.headers().firstHeader(TRACEPARENT));
+            var span = tracer.requestSpan(trace, "open_checking_account");
+
+            return readAccount(request)
+                    .flatMap(account -> idempotencyKey == null
+                            ? open(account)
+                            : idempotencyKeyStore.replayOrExecute(idempotencyKey, account, () -> open(account)))
+                    .flatMap(StoredResponse::toServerResponse)
+                    .onErrorResume(IdempotencyKeyReusedException.class, ex -> unprocessableEntity().bodyValue(ErrorResponse.from(ex)))
+                    .doOnNext(response -> span
+                            .attribute("status", response.rawStatusCode())
+                            .end(response.statusCode().isError() ? "failure" : "success"))
+                    .doOnError(ex -> span.end(ex.getClass().getSimpleName()))
+                    .contextWrite(context -> tracer.addTo(context, trace));
+        };
+    }
+
+    /**
+     * Decodes the body straight into the account to open, without binding a {@code CheckingAccountDto} first.
+     */
+    private Mono<CheckingAccount> readAccount(ServerRequest request) {
+        return DataBufferUtils
+                .join(request.body(BodyExtractors.toDataBuffers()), maxBodySize)
+                .map(this::readAccount)
+                .onErrorMap(DataBufferLimitException.class, ex -> new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, ex.getMessage(), ex));
+    }
+
+    private CheckingAccount readAccount(DataBuffer body) {
+        try (var json = body.asInputStream(true)) {
+            return checkingAccountJsonReader.read(json);
+        } catch (IOException ex) {
+            throw new ServerWebInputException("Failed to read the checking account", null, ex);
+        }
+    }
+
+    /**
+     * Answers with the account JSON the writer serialized for the "opened" event when it was written under this
+     * request, and lets the encoder serialize it otherwise.
+     */
+    private Mono<StoredResponse> open(CheckingAccount checkingAccount) {
+        var openedAccountJson = new OpenedAccountJson();
+        return openCheckingAccountMetrics
+                .timeRequest(Mono.defer(() -> openOncePerCustomer(checkingAccount)).contextWrite(openedAccountJson::addTo))
+                .map(openedAccount -> openedAccountJson.get() == null
+                        ? StoredResponse.of(HttpStatus.OK, openedAccount)
+                        : StoredResponse.json(HttpStatus.OK, openedAccountJson.get()))
+                .onErrorResume(CheckingAccountAlreadyOpened.class, ex -> badRequestResponse(ErrorResponse.from(ex)))
+                .onErrorResume(ViolationException.class, ex -> badRequestResponse(ErrorResponse.from(ex)));
+    }
+
+    /**
+     * Concurrent identical requests for a customer (e.g. a client retrying on timeout) share one execution
+     * instead of racing on the duplicate check and the unique indexes.
+     */
+    private Mono<CheckingAccount> openOncePerCustomer(CheckingAccount checkingAccount) {
+        if (checkingAccount.getCustomer() == null) {
+            return openCheckingAccountService.open(checkingAccount);
+        }
+
+        return openByCustomer.execute(
+                checkingAccount.getCustomer().getId(),
+                checkingAccount,
+                () -> openCheckingAccountService.open(checkingAccount)
+        );
     }
 
-    private Mono<CheckingAccount> toPersistenceModel(CheckingAccountDto dto) {
-        return Mono.just(CheckingAccount.from(dto));
+    private static Mono<StoredResponse> badRequestResponse(ErrorResponse errorResponse) {
+        return Mono.just(StoredResponse.of(HttpStatus.BAD_REQUEST, errorResponse));
     }
 
 }
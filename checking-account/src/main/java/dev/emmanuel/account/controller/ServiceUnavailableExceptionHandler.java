@@ -0,0 +1,62 @@
+package dev.emmanuel.account.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.emmanuel.account.controller.dto.ErrorResponse;
+import dev.emmanuel.account.persistence.pool.ConnectionAcquireTimeoutException;
+import dev.emmanuel.account.persistence.sharding.ShardUnavailableException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+
+/**
+ * Answers requests that failed because no database connection could be acquired in time with a 503 and a
+ * {@code Retry-After}, instead of the default 500, so clients and load balancers back off and retry elsewhere.
+ * So are the writes to a shard that can't be written for now, see {@link ShardUnavailableException}.
+ * Runs before Spring Boot's error handler ({@code @Order(-1)}).
+ */
+@Order(-2)
+@Component
+@RequiredArgsConstructor
+public class ServiceUnavailableExceptionHandler implements WebExceptionHandler {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        var unavailable = findUnavailable(ex);
+        if (unavailable == null || exchange.getResponse().isCommitted()) {
+            return Mono.error(ex);
+        }
+
+        var response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+
+        return response.writeWith(Mono.fromCallable(() -> toBuffer(exchange, unavailable)));
+    }
+
+    private DataBuffer toBuffer(ServerWebExchange exchange, RuntimeException ex) throws Exception {
+        var body = objectMapper.writeValueAsBytes(ErrorResponse.from(ex));
+        return exchange.getResponse().bufferFactory().wrap(body);
+    }
+
+    private static RuntimeException findUnavailable(Throwable ex) {
+        for (var cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectionAcquireTimeoutException || cause instanceof ShardUnavailableException) {
+                return (RuntimeException) cause;
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,63 @@
+package dev.emmanuel.account.controller;
+
+import dev.emmanuel.account.controller.dto.ErrorResponse;
+import dev.emmanuel.account.persistence.sharding.ShardRebalancer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Operations on the shards, served by the actuator on the management port rather than the application port the
+ * ingress exposes: the slots owned by every shard ({@code GET /actuator/shards}), the rebalancing of every shard
+ * answering the slots moved ({@code POST /actuator/shards}), and the move of a slot to another shard
+ * ({@code POST /actuator/shards/{slot}} of {@code {"to": "shard-1"}}). A slot takes about twice the rebalance settle
+ * time to move, and moves run one at a time across the replicas (409 while one is running).
+ */
+@Component
+@Endpoint(id = "shards")
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "checking-account.sharding.enabled", havingValue = "true")
+public class ShardsEndpoint {
+
+    private final ShardRebalancer shardRebalancer;
+
+    @ReadOperation
+    public Mono<Map<String, Integer>> slotCounts() {
+        return shardRebalancer.slotCounts();
+    }
+
+    @WriteOperation
+    public Mono<WebEndpointResponse<Object>> rebalance() {
+        return respond(shardRebalancer.rebalance().collectList());
+    }
+
+    @WriteOperation
+    public Mono<WebEndpointResponse<Object>> move(@Selector int slot, @Nullable String to) {
+        if (to == null) {
+            return Mono.just(error(new IllegalArgumentException("The target shard is missing, e.g. {\"to\": \"shard-1\"}"), HttpStatus.BAD_REQUEST));
+        }
+        return respond(shardRebalancer.move(slot, to));
+    }
+
+    private Mono<WebEndpointResponse<Object>> respond(Mono<?> operation) {
+        return operation
+                .map(result -> new WebEndpointResponse<Object>(result))
+                .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(error(ex, HttpStatus.BAD_REQUEST)))
+                .onErrorResume(IllegalStateException.class, ex -> Mono.just(error(ex, HttpStatus.CONFLICT)));
+    }
+
+    private static WebEndpointResponse<Object> error(Exception ex, HttpStatus status) {
+        return new WebEndpointResponse<>(ErrorResponse.from(ex), status.value());
+    }
+
+}
@@ -0,0 +1,125 @@
+package dev.emmanuel.account.controller.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import dev.emmanuel.account.controller.dto.CheckingAccountDto;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the JSON of a {@link CheckingAccountDto} straight into a new {@link CheckingAccount}, with a streaming
+ * parser instead of binding the DTO and copying it. Unknown fields are skipped and missing ones are left null,
+ * as the application {@link ObjectMapper} does, so the validator reports them.
+ */
+@Component
+public class CheckingAccountJsonReader {
+
+    private final JsonFactory jsonFactory;
+
+    public CheckingAccountJsonReader(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public CheckingAccount read(InputStream json) throws IOException {
+        try (var parser = jsonFactory.createParser(json)) {
+            return readAccount(parser);
+        }
+    }
+
+    public CheckingAccount read(String json) throws IOException {
+        try (var parser = jsonFactory.createParser(json)) {
+            return readAccount(parser);
+        }
+    }
+
+    private static CheckingAccount readAccount(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw MismatchedInputException.from(parser, CheckingAccountDto.class, "Expected a JSON object");
+        }
+
+        String iban = null;
+        String currencyCode = null;
+        Customer customer = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "iban":
+                    iban = readString(parser);
+                    break;
+                case "currencyCode":
+                    currencyCode = readString(parser);
+                    break;
+                case "customer":
+                    customer = readCustomer(parser);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        return CheckingAccount.of(iban, currencyCode, customer);
+    }
+
+    private static Customer readCustomer(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw MismatchedInputException.from(parser, Customer.class, "Expected customer to be a JSON object");
+        }
+
+        long id = 0;
+        String name = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "id":
+                    id = readLong(parser);
+                    break;
+                case "name":
+                    name = readString(parser);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        return Customer.of(id, name);
+    }
+
+    private static String readString(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            throw MismatchedInputException.from(parser, String.class, "Expected " + parser.getCurrentName() + " to be a string");
+        }
+        return parser.getValueAsString();
+    }
+
+    private static long readLong(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT:
+                return parser.getLongValue();
+            case VALUE_NULL:
+                return 0;
+            case VALUE_STRING:
+                try {
+                    return Long.parseLong(parser.getText().trim());
+                } catch (NumberFormatException ex) {
+                    throw MismatchedInputException.from(parser, Long.class, "Expected " + parser.getCurrentName() + " to be a number");
+                }
+            default:
+                throw MismatchedInputException.from(parser, Long.class, "Expected " + parser.getCurrentName() + " to be a number");
+        }
+    }
+
+}
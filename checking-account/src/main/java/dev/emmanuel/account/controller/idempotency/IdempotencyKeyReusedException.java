@@ -0,0 +1,9 @@
+package dev.emmanuel.account.controller.idempotency;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException() {
+        super("Idempotency-Key already used by a different request");
+    }
+
+}
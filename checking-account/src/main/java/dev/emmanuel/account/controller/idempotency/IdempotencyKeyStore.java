@@ -0,0 +1,74 @@
+package dev.emmanuel.account.controller.idempotency;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Size and TTL bounded store of the responses given to requests carrying an {@code Idempotency-Key} header.
+ * A replay of the key gets the stored response back without running the request again, and a request arriving
+ * while the first one is still running waits for its response. Executions that fail with an error instead of
+ * producing a response (e.g. the database being unavailable) aren't stored, so the client can retry them. An
+ * execution runs with the subscriber context of the request that started it (trace, database routing...).
+ * <p>
+ * The store is local to the instance: a replay reaching another instance runs again and relies on the
+ * database constraints, as a request without key does.
+ */
+@Component
+public class IdempotencyKeyStore {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final AsyncCache<String, Entry> responses;
+
+    public IdempotencyKeyStore(MeterRegistry meterRegistry,
+                               @Value("${checking-account.idempotency.maximum-size:100000}") long maximumSize,
+                               @Value("${checking-account.idempotency.expire-after-write:24h}") Duration expireAfterWrite) {
+        this.responses = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync(), "open_checking_account_idempotency_keys");
+    }
+
+    /**
+     * Fails with {@link IdempotencyKeyReusedException} when the key was first used with another request.
+     */
+    public Mono<StoredResponse> replayOrExecute(String key, Object request, Supplier<Mono<StoredResponse>> execution) {
+        return Mono.deferContextual(context -> {
+            var executed = new AtomicBoolean();
+            return Mono
+                    .fromFuture(() -> responses.get(key, (k, executor) -> {
+                        executed.set(true);
+                        return Mono.defer(execution)
+                                .map(response -> new Entry(request, response))
+                                .contextWrite(context)
+                                .toFuture();
+                    }).copy())
+                    .flatMap(entry -> {
+                        if (!entry.getRequest().equals(request)) {
+                            return Mono.error(new IdempotencyKeyReusedException());
+                        }
+                        return Mono.just(executed.get() ? entry.getResponse() : entry.getResponse().asReplay());
+                    });
+        });
+    }
+
+    @lombok.Value
+    private static class Entry {
+
+        Object request;
+        StoredResponse response;
+
+    }
+
+}
@@ -0,0 +1,48 @@
+package dev.emmanuel.account.controller.idempotency;
+
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Final outcome of a request, kept to answer the replays of its idempotency key.
+ */
+@Value
+public class StoredResponse {
+
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final HttpStatus status;
+    private final Object body;
+    private final MediaType contentType;
+    private final boolean replayed;
+
+    public static StoredResponse of(HttpStatus status, Object body) {
+        return new StoredResponse(status, body, null, false);
+    }
+
+    /**
+     * Response whose body is already serialized JSON, written as is.
+     */
+    public static StoredResponse json(HttpStatus status, byte[] json) {
+        return new StoredResponse(status, json, MediaType.APPLICATION_JSON, false);
+    }
+
+    StoredResponse asReplay() {
+        return new StoredResponse(this.status, this.body, this.contentType, true);
+    }
+
+    public Mono<ServerResponse> toServerResponse() {
+        var response = ServerResponse.status(this.status);
+        if (this.replayed) {
+            response.header(REPLAYED_HEADER, "true");
+        }
+        if (this.contentType != null) {
+            response.contentType(this.contentType);
+        }
+        return response.bodyValue(this.body);
+    }
+
+}
@@ -0,0 +1,163 @@
+package dev.emmanuel.account.controller.imports;
+
+import dev.emmanuel.account.controller.codec.CheckingAccountJsonReader;
+import dev.emmanuel.account.controller.dto.CheckingAccountDto;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import dev.emmanuel.account.service.ImportRecord;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the lines of an import body into {@link ImportRecord}s, either as newline delimited JSON
+ * {@link CheckingAccountDto}s or as CSV. A CSV body starts with a header naming the {@code iban},
+ * {@code currencyCode}, {@code customerId} and {@code customerName} columns, in any order; fields may be quoted
+ * ({@code "..."}, with {@code ""} for a quote) but not span lines. A parser reads a single body: the CSV one
+ * keeps the header, a body without a valid one is rejected with a 400.
+ */
+public abstract class ImportLineParser {
+
+    public static final List<String> CSV_COLUMNS = List.of("iban", "currencyCode", "customerId", "customerName");
+
+    public static ImportLineParser ndjson(CheckingAccountJsonReader jsonReader) {
+        return new NdjsonParser(jsonReader);
+    }
+
+    public static ImportLineParser csv() {
+        return new CsvParser();
+    }
+
+    /**
+     * Record of the line, or {@code null} for lines that hold no record (blank lines and the CSV header).
+     */
+    public ImportRecord parse(long line, String content) {
+        if (content.isBlank()) {
+            return null;
+        }
+
+        try {
+            return ImportRecord.of(line, read(line, content));
+        } catch (Exception ex) {
+            return ImportRecord.malformed(line, ex.getMessage());
+        }
+    }
+
+    /**
+     * Whether the next line is a header, which has to be read even when resuming after it.
+     */
+    public boolean awaitsHeader() {
+        return false;
+    }
+
+    protected abstract CheckingAccount read(long line, String content) throws Exception;
+
+    private static class NdjsonParser extends ImportLineParser {
+
+        private final CheckingAccountJsonReader jsonReader;
+
+        private NdjsonParser(CheckingAccountJsonReader jsonReader) {
+            this.jsonReader = jsonReader;
+        }
+
+        @Override
+        protected CheckingAccount read(long line, String content) throws Exception {
+            var account = jsonReader.read(content);
+            if (account.getCustomer() == null) {
+                throw new IllegalArgumentException("customer is required");
+            }
+            return account;
+        }
+
+    }
+
+    private static class CsvParser extends ImportLineParser {
+
+        private Map<String, Integer> columns;
+
+        @Override
+        public boolean awaitsHeader() {
+            return columns == null;
+        }
+
+        @Override
+        public ImportRecord parse(long line, String content) {
+            if (columns == null && !content.isBlank()) {
+                readHeader(content);
+                return null;
+            }
+            return super.parse(line, content);
+        }
+
+        @Override
+        protected CheckingAccount read(long line, String content) {
+            var fields = split(content);
+            if (fields.size() != columns.size()) {
+                throw new IllegalArgumentException("expected " + columns.size() + " fields, found " + fields.size());
+            }
+
+            var customerId = fields.get(columns.get("customerId"));
+            return CheckingAccount.of(
+                    emptyToNull(fields.get(columns.get("iban"))),
+                    emptyToNull(fields.get(columns.get("currencyCode"))),
+                    Customer.of(customerId.isEmpty() ? 0 : Long.parseLong(customerId), emptyToNull(fields.get(columns.get("customerName"))))
+            );
+        }
+
+        private void readHeader(String content) {
+            var header = split(content);
+            var indexes = new HashMap<String, Integer>();
+            for (int i = 0; i < header.size(); i++) {
+                indexes.put(header.get(i).trim(), i);
+            }
+
+            if (header.size() != CSV_COLUMNS.size() || !indexes.keySet().containsAll(CSV_COLUMNS)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header must name the columns " + String.join(",", CSV_COLUMNS));
+            }
+            this.columns = indexes;
+        }
+
+        private static List<String> split(String content) {
+            var fields = new ArrayList<String>();
+            var field = new StringBuilder();
+            var quoted = false;
+
+            for (int i = 0; i < content.length(); i++) {
+                char c = content.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < content.length() && content.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+
+            if (quoted) {
+                throw new IllegalArgumentException("unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private static String emptyToNull(String field) {
+            return field.isEmpty() ? null : field;
+        }
+
+    }
+
+}
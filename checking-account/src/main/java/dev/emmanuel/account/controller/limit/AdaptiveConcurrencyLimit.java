@@ -0,0 +1,99 @@
+package dev.emmanuel.account.controller.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit adjusted from the measured latency, in the spirit of the gradient limit of Netflix's
+ * concurrency-limits: a long term average latency is compared with each new sample, the limit grows by a
+ * small queue allowance while the latency stays within {@code rttTolerance} of the average and shrinks in
+ * proportion as soon as it rises above it, i.e. as soon as requests start queueing in front of the database.
+ * Failed (dropped) requests halve the target. Samples taken while less than half of the limit was in use
+ * don't move it, the latency then says nothing about the capacity.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double LONG_RTT_DECAY = 0.95;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final double longRttFactor;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double smoothing,
+                                    double rttTolerance, int longRttWindow) {
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("limits must satisfy 0 < min <= initial <= max");
+        }
+
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.longRttFactor = 2.0 / (longRttWindow + 1);
+    }
+
+    /**
+     * @return the number of requests in flight, including this one, or 0 when the limit is reached
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return 0;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public synchronized void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        double target;
+
+        if (dropped) {
+            target = limit * MIN_GRADIENT;
+        } else {
+            if (longRttNanos == 0) {
+                longRttNanos = rttNanos;
+            } else {
+                longRttNanos += (rttNanos - longRttNanos) * longRttFactor;
+            }
+
+            // the average catches up faster after a latency drop, e.g. once a slow database recovered
+            if (longRttNanos > 2 * rttNanos) {
+                longRttNanos *= LONG_RTT_DECAY;
+            }
+
+            if (inFlightAtStart < limit / 2) {
+                return;
+            }
+
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * longRttNanos / Math.max(rttNanos, 1)));
+            target = limit * gradient + Math.sqrt(limit);
+        }
+
+        double smoothed = limit * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+}
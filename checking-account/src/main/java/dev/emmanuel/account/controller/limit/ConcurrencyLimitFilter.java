@@ -0,0 +1,84 @@
+package dev.emmanuel.account.controller.limit;
+
+import dev.emmanuel.account.controller.dto.ErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+
+/**
+ * Bounds the requests in flight on a route with an {@link AdaptiveConcurrencyLimit} driven by the latency of
+ * the route itself. Requests over the limit are rejected right away with a 503 and a {@code Retry-After},
+ * before decoding their body or taking a database connection, so the accepted ones keep their latency when
+ * the database slows down instead of all of them timing out. Server errors count as dropped requests.
+ */
+@Component
+public class ConcurrencyLimitFilter implements HandlerFilterFunction<ServerResponse, ServerResponse> {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimit limit;
+    private final Counter rejected;
+
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry,
+                                  @Value("${checking-account.concurrency-limit.enabled:true}") boolean enabled,
+                                  @Value("${checking-account.concurrency-limit.initial-limit:20}") int initialLimit,
+                                  @Value("${checking-account.concurrency-limit.min-limit:4}") int minLimit,
+                                  @Value("${checking-account.concurrency-limit.max-limit:200}") int maxLimit,
+                                  @Value("${checking-account.concurrency-limit.smoothing:0.2}") double smoothing,
+                                  @Value("${checking-account.concurrency-limit.rtt-tolerance:1.5}") double rttTolerance,
+                                  @Value("${checking-account.concurrency-limit.long-rtt-window:600}") int longRttWindow) {
+        this.enabled = enabled;
+        this.limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, smoothing, rttTolerance, longRttWindow);
+
+        Gauge.builder("checking_account.open.concurrency.limit", this.limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current limit of open account requests in flight")
+                .register(meterRegistry);
+        Gauge.builder("checking_account.open.concurrency.in_flight", this.limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Open account requests in flight")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("checking_account.open.concurrency.rejected")
+                .description("Open account requests rejected because the concurrency limit was reached")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<ServerResponse> filter(ServerRequest request, HandlerFunction<ServerResponse> next) {
+        if (!enabled) {
+            return next.handle(request);
+        }
+
+        int inFlight = limit.tryAcquire();
+        if (inFlight == 0) {
+            rejected.increment();
+            return ServerResponse
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .bodyValue(new ErrorResponse("Too many requests in flight, retry later", Collections.emptyList()));
+        }
+
+        long startedAt = System.nanoTime();
+        return Mono
+                .defer(() -> next.handle(request))
+                .doOnSuccess(response -> limit.onSample(System.nanoTime() - startedAt, inFlight,
+                        response == null || response.statusCode().is5xxServerError()))
+                .doOnError(ex -> limit.onSample(System.nanoTime() - startedAt, inFlight, true))
+                .doFinally(signal -> limit.release());
+    }
+
+    AdaptiveConcurrencyLimit getLimit() {
+        return limit;
+    }
+
+}
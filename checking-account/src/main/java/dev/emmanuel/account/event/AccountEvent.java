@@ -9,9 +9,12 @@ import java.time.LocalDateTime;
 @Value
 public class AccountEvent {
 
+    public static final String SNAPSHOT_TYPE = "snapshot";
+    public static final String TIMESTAMP_PATTERN = "yyyy-MM-dd'T'HH:mm:ss";
+
     private final String type;
 
-    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    @JsonFormat(pattern = TIMESTAMP_PATTERN)
     private final LocalDateTime timestamp;
 
     private final CheckingAccount checkingAccount;
@@ -20,4 +23,11 @@ public class AccountEvent {
         return new AccountEvent(type, LocalDateTime.now(), checkingAccount);
     }
 
+    /**
+     * Latest state of the account, for the compacted snapshot topic.
+     */
+    public static AccountEvent snapshot(CheckingAccount checkingAccount) {
+        return of(SNAPSHOT_TYPE, checkingAccount);
+    }
+
 }
@@ -0,0 +1,151 @@
+package dev.emmanuel.account.event;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.RawValue;
+import dev.emmanuel.account.persistence.entity.AccountEventOutboxEntry;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.repository.AccountEventOutboxRepository;
+import dev.emmanuel.account.tracing.TraceContext;
+import dev.emmanuel.account.tracing.Tracer;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records account events in the {@code account_event_outbox} table. Callers are expected to run inside the
+ * same transaction as the change being described, so the event is stored if and only if the change is.
+ * <p>
+ * The payload is the JSON of the {@link AccountEvent}, written by the configured {@link ObjectMapper}. Its account
+ * is serialized once, embedded as is, and that JSON is handed back to the caller, which can answer with it instead of serializing the account again.
+ */
+@Component
+public class AccountEventOutbox {
+
+    private final AccountEventOutboxRepository outboxRepository;
+    private final ObjectWriter accountWriter;
+    private final ObjectWriter payloadWriter;
+    private final ObjectReader eventReader;
+
+    public AccountEventOutbox(AccountEventOutboxRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.accountWriter = objectMapper.writerFor(CheckingAccount.class);
+        this.payloadWriter = objectMapper.writerFor(Payload.class);
+        this.eventReader = objectMapper.readerFor(AccountEvent.class);
+    }
+
+    /**
+     * Emits the JSON of the event's account. The event is recorded with the trace of the subscriber context, if
+     * any.
+     */
+    public Mono<byte[]> record(AccountEvent event) {
+        return Mono.deferContextual(context -> Mono
+                .fromCallable(() -> accountWriter.writeValueAsBytes(event.getCheckingAccount()))
+                .flatMap(accountJson -> Mono
+                        .fromCallable(() -> toEntry(event, accountJson, Tracer.current(context).orElse(null)))
+                        .flatMap(outboxRepository::save)
+                        .thenReturn(accountJson)));
+    }
+
+    /**
+     * Emits the JSON of the events' accounts, in the order of the events.
+     */
+    public Mono<List<byte[]>> recordAll(List<AccountEvent> events) {
+        return recordAll(events, Collections.nCopies(events.size(), null));
+    }
+
+    /**
+     * Same as {@link #recordAll(List)}, every event with the trace at the same index ({@code null} for none).
+     */
+    public Mono<List<byte[]>> recordAll(List<AccountEvent> events, List<TraceContext> traces) {
+        return Mono
+                .fromCallable(() -> serializeAll(events, traces))
+                .flatMap(this::save);
+    }
+
+    /**
+     * First half of {@link #recordAll(List, List)}: serializes the events without touching the database, so it
+     * can be done before the transaction that {@link #save saves} them starts.
+     */
+    public Serialized serializeAll(List<AccountEvent> events, List<TraceContext> traces) throws JsonProcessingException {
+        var accountsJson = new ArrayList<byte[]>(events.size());
+        var entries = new ArrayList<AccountEventOutboxEntry>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            var event = events.get(i);
+            var accountJson = accountWriter.writeValueAsBytes(event.getCheckingAccount());
+            accountsJson.add(accountJson);
+            entries.add(toEntry(event, accountJson, traces.get(i)));
+        }
+        return new Serialized(accountsJson, entries);
+    }
+
+    /**
+     * Emits the JSON of the serialized events' accounts, in the order of the events.
+     */
+    public Mono<List<byte[]>> save(Serialized serialized) {
+        return Flux
+                .fromIterable(serialized.entries)
+                .transform(outboxRepository::saveAll)
+                .then(Mono.just(serialized.accountsJson));
+    }
+
+    private AccountEventOutboxEntry toEntry(AccountEvent event, byte[] accountJson, TraceContext trace) throws JsonProcessingException {
+        return AccountEventOutboxEntry.of(
+                event.getCheckingAccount().getId(),
+                event.getType(),
+                payload(event, accountJson),
+                trace
+        );
+    }
+
+    /**
+     * Same JSON as {@code objectMapper.writeValueAsString(event)}, with the already serialized account embedded as
+     * is.
+     */
+    String payload(AccountEvent event, byte[] accountJson) throws JsonProcessingException {
+        var checkingAccount = new RawValue(new String(accountJson, StandardCharsets.UTF_8));
+        return payloadWriter.writeValueAsString(new Payload(event.getType(), event.getTimestamp(), checkingAccount));
+    }
+
+    public AccountEvent read(AccountEventOutboxEntry entry) throws JsonProcessingException {
+        return eventReader.readValue(entry.getPayload());
+    }
+
+    /**
+     * The properties of an {@link AccountEvent}, its account already serialized.
+     */
+    @Value
+    static class Payload {
+
+        private final String type;
+
+        @JsonFormat(pattern = AccountEvent.TIMESTAMP_PATTERN)
+        private final LocalDateTime timestamp;
+
+        private final RawValue checkingAccount;
+
+    }
+
+    /**
+     * Outbox entries of events, with the JSON of their accounts.
+     */
+    @RequiredArgsConstructor
+    public static class Serialized {
+
+        private final List<byte[]> accountsJson;
+        private final List<AccountEventOutboxEntry> entries;
+
+    }
+
+}
@@ -0,0 +1,170 @@
+package dev.emmanuel.account.event;
+
+import dev.emmanuel.account.event.publisher.AccountEventPublisher;
+import dev.emmanuel.account.event.publisher.AccountEventRecord;
+import dev.emmanuel.account.event.publisher.AccountEventSendResult;
+import dev.emmanuel.account.persistence.entity.AccountEventOutboxEntry;
+import dev.emmanuel.account.persistence.repository.AccountEventOutboxRepository;
+import dev.emmanuel.account.persistence.sharding.ShardDirectory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static dev.emmanuel.account.configuration.KafkaConfiguration.ACCOUNT_EVENTS_TOPIC;
+import static dev.emmanuel.account.configuration.KafkaConfiguration.ACCOUNT_SNAPSHOTS_TOPIC;
+import static dev.emmanuel.account.persistence.routing.ShardRoutingConnectionFactory.routeTo;
+
+/**
+ * Drains the {@code account_event_outbox} table into Kafka in batches: the entries of a batch are pipelined
+ * through the {@link AccountEventPublisher} and the acknowledged entries are deleted with a single
+ * statement. Every entry is also sent as a snapshot of the account to the compacted snapshot topic, an entry is
+ * only deleted once both were acknowledged. Entries whose send failed stay claimed and are retried on the next
+ * round. Events carry the trace of the request that recorded them. Every shard has its own outbox, drained in
+ * turn (see {@link ShardDirectory}).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "checking-account.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class AccountEventOutboxRelay {
+
+    private final String relayId = UUID.randomUUID().toString();
+
+    private final AccountEventOutboxRepository outboxRepository;
+    private final AccountEventOutbox outbox;
+    private final AccountEventPublisher publisher;
+    private final ShardDirectory shardDirectory;
+
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration claimTimeout;
+
+    private Disposable subscription;
+
+    public AccountEventOutboxRelay(AccountEventOutboxRepository outboxRepository,
+                                   AccountEventOutbox outbox,
+                                   AccountEventPublisher publisher,
+                                   ShardDirectory shardDirectory,
+                                   @Value("${checking-account.outbox.relay.batch-size:500}") int batchSize,
+                                   @Value("${checking-account.outbox.relay.poll-interval:200ms}") Duration pollInterval,
+                                   @Value("${checking-account.outbox.relay.claim-timeout:30s}") Duration claimTimeout) {
+        this.outboxRepository = outboxRepository;
+        this.outbox = outbox;
+        this.publisher = publisher;
+        this.shardDirectory = shardDirectory;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.claimTimeout = claimTimeout;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        log.info("Starting account event outbox relay {}", relayId);
+
+        this.subscription = Flux
+                .interval(pollInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> drain().onErrorResume(this::handleRelayFailure), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Relays batches until the outbox of every shard has fewer pending entries than a full batch. A shard failing
+     * doesn't keep the others from being drained.
+     */
+    public Mono<Long> drain() {
+        return Flux
+                .fromIterable(shardDirectory.shards())
+                .concatMap(shard -> drain(shard).onErrorResume(ex -> handleShardFailure(shard, ex)))
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> drain(String shard) {
+        return relayBatch()
+                .expand(relayed -> relayed == batchSize ? relayBatch() : Mono.empty())
+                .reduce(0L, Long::sum)
+                .contextWrite(routeTo(shard));
+    }
+
+    Mono<Integer> relayBatch() {
+        return outboxRepository
+                .claim(relayId, claimTimeout.toSeconds(), batchSize)
+                .thenMany(outboxRepository.findClaimedBy(relayId, batchSize))
+                .concatMap(this::toRecords)
+                .transform(publisher::send)
+                .collectList()
+                .map(this::relayedEntries)
+                .flatMap(this::deleteRelayed);
+    }
+
+    private Flux<AccountEventRecord<Long>> toRecords(AccountEventOutboxEntry entry) {
+        return Mono
+                .fromCallable(() -> outbox.read(entry))
+                .flatMapMany(event -> Flux.just(
+                        AccountEventRecord.of(ACCOUNT_EVENTS_TOPIC, entry.getAggregateId(), event, entry.getId(), entry.traceContext()),
+                        AccountEventRecord.of(ACCOUNT_SNAPSHOTS_TOPIC, entry.getAggregateId(), AccountEvent.snapshot(event.getCheckingAccount()), entry.getId())
+                ))
+                .onErrorResume(ex -> {
+                    log.error("Failure to read outbox entry {}, it will be retried", entry.getId(), ex);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Ids of the entries whose event and snapshot were both acknowledged.
+     */
+    private List<Long> relayedEntries(List<AccountEventSendResult<Long>> results) {
+        var failed = new HashSet<Long>();
+        for (var result : results) {
+            if (!result.isSuccess() && failed.add(result.getCorrelation())) {
+                log.error("Failure to relay outbox entry {}, it will be retried", result.getCorrelation(), result.getException());
+            }
+        }
+
+        return results.stream()
+                .map(AccountEventSendResult::getCorrelation)
+                .filter(id -> !failed.contains(id))
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    private Mono<Integer> deleteRelayed(List<Long> relayedIds) {
+        if (relayedIds.isEmpty()) {
+            return Mono.just(0);
+        }
+
+        return outboxRepository
+                .deleteByIdIn(relayedIds)
+                .thenReturn(relayedIds.size());
+    }
+
+    private Mono<Long> handleShardFailure(String shard, Throwable ex) {
+        log.error("Failure to drain the account event outbox of {}", shard, ex);
+        return Mono.empty();
+    }
+
+    private Mono<Long> handleRelayFailure(Throwable ex) {
+        log.error("Failure to drain the account event outbox", ex);
+        return Mono.empty();
+    }
+
+}
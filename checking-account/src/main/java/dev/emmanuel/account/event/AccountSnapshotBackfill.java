@@ -0,0 +1,149 @@
+package dev.emmanuel.account.event;
+
+import dev.emmanuel.account.event.publisher.AccountEventPublisher;
+import dev.emmanuel.account.event.publisher.AccountEventRecord;
+import dev.emmanuel.account.event.publisher.AccountEventSendResult;
+import dev.emmanuel.account.service.ListCheckingAccountsService;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static dev.emmanuel.account.configuration.KafkaConfiguration.ACCOUNT_SNAPSHOTS_TOPIC;
+
+/**
+ * Seeds the snapshot topic by streaming the {@code checking_accounts} table into it, for accounts opened before
+ * the topic existed. Runs alongside the relay, so a backfilled snapshot can land after a newer one: consumers
+ * keep the snapshot with the highest {@code version}. A run logs the {@code after-id} to resume from if some
+ * snapshots failed.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "checking-account.snapshot.backfill.enabled", havingValue = "true")
+public class AccountSnapshotBackfill {
+
+    private final ListCheckingAccountsService listCheckingAccountsService;
+    private final AccountEventPublisher publisher;
+    private final long afterId;
+
+    private Disposable subscription;
+
+    public AccountSnapshotBackfill(ListCheckingAccountsService listCheckingAccountsService,
+                                   AccountEventPublisher publisher,
+                                   @Value("${checking-account.snapshot.backfill.after-id:0}") long afterId) {
+        this.listCheckingAccountsService = listCheckingAccountsService;
+        this.publisher = publisher;
+        this.afterId = afterId;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        log.info("Backfilling the account snapshots after account {}", afterId);
+
+        this.subscription = backfill().subscribe(
+                progress -> log.info("Account snapshots backfilled: {}", progress),
+                ex -> log.error("Failure to backfill the account snapshots", ex)
+        );
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    Mono<Progress> backfill() {
+        return Flux
+                .defer(() -> {
+                    var previousId = new AtomicLong(afterId);
+                    return listCheckingAccountsService
+                            .findAllAfter(afterId)
+                            .index((index, account) -> AccountEventRecord.of(ACCOUNT_SNAPSHOTS_TOPIC, account.getId(), AccountEvent.snapshot(account),
+                                    new Streamed(index, account.getId(), previousId.getAndSet(account.getId()))));
+                })
+                .transform(publisher::send)
+                .reduce(new Progress(afterId), Progress::add);
+    }
+
+    /**
+     * Account at {@code index} of the stream, following the account {@code previousId} ({@code after-id} for
+     * the first one): ids don't follow the stream order.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    static class Streamed {
+
+        private final long index;
+        private final long accountId;
+        private final long previousId;
+
+    }
+
+    /**
+     * Snapshots sent and failed, and the id to resume after: the account streamed just before the first one that
+     * failed, or the last account streamed when none did (acknowledgements are only ordered within a partition).
+     */
+    static class Progress {
+
+        private long sent;
+        private long failed;
+        private long lastSentIndex = -1;
+        private long lastSentId;
+        private long firstFailedIndex = Long.MAX_VALUE;
+        private long firstFailedPreviousId;
+
+        Progress(long afterId) {
+            this.lastSentId = afterId;
+        }
+
+        Progress add(AccountEventSendResult<Streamed> result) {
+            var streamed = result.getCorrelation();
+            if (result.isSuccess()) {
+                sent++;
+                if (streamed.getIndex() > lastSentIndex) {
+                    lastSentIndex = streamed.getIndex();
+                    lastSentId = streamed.getAccountId();
+                }
+            } else {
+                if (failed++ == 0) {
+                    log.error("Failure to backfill the snapshot of account {}", streamed.getAccountId(), result.getException());
+                }
+                if (streamed.getIndex() < firstFailedIndex) {
+                    firstFailedIndex = streamed.getIndex();
+                    firstFailedPreviousId = streamed.getPreviousId();
+                }
+            }
+            return this;
+        }
+
+        long getSent() {
+            return sent;
+        }
+
+        long getFailed() {
+            return failed;
+        }
+
+        long getResumeAfterId() {
+            return failed == 0 ? lastSentId : firstFailedPreviousId;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d sent, %d failed, resume with after-id=%d", sent, failed, getResumeAfterId());
+        }
+
+    }
+
+}
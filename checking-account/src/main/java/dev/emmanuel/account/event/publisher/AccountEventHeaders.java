@@ -0,0 +1,41 @@
+package dev.emmanuel.account.event.publisher;
+
+import dev.emmanuel.account.tracing.MonotonicClock;
+import dev.emmanuel.account.tracing.TraceContext;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Headers stamped on every account event record, read by the ledger to measure its end-to-end latency:
+ * <ul>
+ *     <li>{@code produced-at}: when the record was handed to the producer</li>
+ *     <li>{@code traceparent}: W3C trace context of the request that caused the event, if any</li>
+ *     <li>{@code request-started-at}: when that request started</li>
+ * </ul>
+ * Times are {@link MonotonicClock} epoch microseconds, as decimal strings.
+ */
+public final class AccountEventHeaders {
+
+    public static final String PRODUCED_AT = "produced-at";
+    public static final String TRACEPARENT = "traceparent";
+    public static final String REQUEST_STARTED_AT = "request-started-at";
+
+    private AccountEventHeaders() {
+    }
+
+    public static Headers of(TraceContext trace, long producedAt) {
+        var headers = new RecordHeaders().add(PRODUCED_AT, ascii(Long.toString(producedAt)));
+        if (trace != null) {
+            headers.add(TRACEPARENT, ascii(trace.toTraceparent()))
+                    .add(REQUEST_STARTED_AT, ascii(Long.toString(trace.getStartedAt())));
+        }
+        return headers;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+}
@@ -0,0 +1,14 @@
+package dev.emmanuel.account.event.publisher;
+
+import reactor.core.publisher.Flux;
+
+public interface AccountEventPublisher {
+
+    /**
+     * Sends the records, keeping a bounded number of them in flight and requesting more from upstream
+     * only as acknowledgements come back. Emits one result per record; a failed send is reported in its
+     * result instead of terminating the stream.
+     */
+    <T> Flux<AccountEventSendResult<T>> send(Flux<AccountEventRecord<T>> records);
+
+}
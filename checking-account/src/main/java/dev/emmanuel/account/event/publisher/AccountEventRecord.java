@@ -0,0 +1,50 @@
+package dev.emmanuel.account.event.publisher;
+
+import dev.emmanuel.account.event.AccountEvent;
+import dev.emmanuel.account.tracing.Span;
+import dev.emmanuel.account.tracing.TraceContext;
+import dev.emmanuel.account.tracing.Tracer;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.apache.kafka.clients.producer.ProducerRecord;
+
+/**
+ * Event to be sent to a topic, carrying a correlation value that is handed back with its send result, and the
+ * trace of the request that caused it, if any.
+ */
+@Value
+@AllArgsConstructor(staticName = "of")
+public class AccountEventRecord<T> {
+
+    private final String topic;
+    private final Long key;
+    private final AccountEvent event;
+    private final T correlation;
+    private final TraceContext trace;
+
+    public static <T> AccountEventRecord<T> of(String topic, Long key, AccountEvent event, T correlation) {
+        return of(topic, key, event, correlation, null);
+    }
+
+    /**
+     * The Kafka record, stamped with the {@link AccountEventHeaders}.
+     */
+    ProducerRecord<Long, AccountEvent> toProducerRecord(long producedAt) {
+        return new ProducerRecord<>(topic, null, null, key, event, AccountEventHeaders.of(trace, producedAt));
+    }
+
+    /**
+     * Span of the send of the record, from {@code producedAt} until its acknowledgement, when its trace is
+     * sampled.
+     */
+    Span produceSpan(Tracer tracer, long producedAt) {
+        if (trace == null) {
+            return Span.NOOP;
+        }
+        return tracer
+                .childSpan(trace, "kafka_produce")
+                .attribute("topic", topic)
+                .attribute("sinceRequestStarted", producedAt - trace.getStartedAt());
+    }
+
+}
@@ -0,0 +1,49 @@
+package dev.emmanuel.account.event.publisher;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Send latency of account events, from the moment a record is handed to the producer until the
+ * broker acknowledges it (or the send fails), and the acknowledged records per partition, whose rate
+ * shows hot partitions.
+ */
+public class AccountEventSendMetrics {
+
+    private static final String SEND_TIMER = "checking_account.event.send";
+    private static final String SENT_COUNTER = "checking_account.event.sent";
+
+    private final MeterRegistry meterRegistry;
+
+    public AccountEventSendMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void record(String topic, long startedAt, boolean success) {
+        Timer.builder(SEND_TIMER)
+                .description("Latency to get an account event acknowledged by Kafka")
+                .tag("topic", topic)
+                .tag("result", success ? "success" : "failure")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    public void countSent(RecordMetadata metadata) {
+        Counter.builder(SENT_COUNTER)
+                .description("Account events acknowledged by Kafka, per partition")
+                .tag("topic", metadata.topic())
+                .tag("partition", String.valueOf(metadata.partition()))
+                .register(meterRegistry)
+                .increment();
+    }
+
+}
@@ -0,0 +1,25 @@
+package dev.emmanuel.account.event.publisher;
+
+import lombok.Value;
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+@Value
+public class AccountEventSendResult<T> {
+
+    private final T correlation;
+    private final RecordMetadata recordMetadata;
+    private final Throwable exception;
+
+    public boolean isSuccess() {
+        return exception == null;
+    }
+
+    public static <T> AccountEventSendResult<T> success(T correlation, RecordMetadata recordMetadata) {
+        return new AccountEventSendResult<>(correlation, recordMetadata, null);
+    }
+
+    public static <T> AccountEventSendResult<T> failure(T correlation, Throwable exception) {
+        return new AccountEventSendResult<>(correlation, null, exception);
+    }
+
+}
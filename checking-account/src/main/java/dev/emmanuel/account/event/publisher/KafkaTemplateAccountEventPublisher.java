@@ -0,0 +1,57 @@
+package dev.emmanuel.account.event.publisher;
+
+import dev.emmanuel.account.event.AccountEvent;
+import dev.emmanuel.account.tracing.MonotonicClock;
+import dev.emmanuel.account.tracing.Tracer;
+import org.springframework.kafka.core.KafkaTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Publisher backed by the classic {@link KafkaTemplate}. {@code KafkaTemplate.send} may block the calling
+ * thread on metadata refreshes or a full {@code buffer.memory}, so sends are issued from the bounded
+ * elastic scheduler.
+ */
+public class KafkaTemplateAccountEventPublisher implements AccountEventPublisher {
+
+    private final KafkaTemplate<Long, AccountEvent> kafkaTemplate;
+    private final AccountEventSendMetrics sendMetrics;
+    private final Tracer tracer;
+    private final int maxInFlight;
+
+    public KafkaTemplateAccountEventPublisher(KafkaTemplate<Long, AccountEvent> kafkaTemplate,
+                                              AccountEventSendMetrics sendMetrics,
+                                              Tracer tracer,
+                                              int maxInFlight) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.sendMetrics = sendMetrics;
+        this.tracer = tracer;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public <T> Flux<AccountEventSendResult<T>> send(Flux<AccountEventRecord<T>> records) {
+        return records.flatMapSequential(this::send, maxInFlight);
+    }
+
+    private <T> Mono<AccountEventSendResult<T>> send(AccountEventRecord<T> record) {
+        return Mono.defer(() -> {
+            var startedAt = sendMetrics.start();
+            var producedAt = MonotonicClock.epochMicros();
+            var span = record.produceSpan(tracer, producedAt);
+
+            return Mono
+                    .fromFuture(kafkaTemplate.send(record.toProducerRecord(producedAt)).completable())
+                    .doOnNext(result -> sendMetrics.countSent(result.getRecordMetadata()))
+                    .doOnNext(result -> span.attribute("partition", result.getRecordMetadata().partition()).end("success"))
+                    .map(result -> AccountEventSendResult.success(record.getCorrelation(), result.getRecordMetadata()))
+                    .onErrorResume(ex -> {
+                        span.end(ex.getClass().getSimpleName());
+                        return Mono.just(AccountEventSendResult.failure(record.getCorrelation(), ex));
+                    })
+                    .doOnNext(result -> sendMetrics.record(record.getTopic(), startedAt, result.isSuccess()));
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+}
@@ -0,0 +1,69 @@
+package dev.emmanuel.account.event.publisher;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.clients.producer.internals.DefaultPartitioner;
+import org.apache.kafka.common.Cluster;
+
+import java.util.Map;
+
+/**
+ * Partitions keyed records the way the ledger shards its {@code AccountLedgerActor} entities: the entity id is
+ * the account id as a string and Akka's default extractor allocates it to shard
+ * {@code abs(id.hashCode) % number-of-shards}. Shard {@code s} is always produced to partition
+ * {@code s % partitions}, so each partition feeds a fixed set of ledger shards, evenly spread when the number of
+ * partitions divides the number of shards. Records without a key fall back to Kafka's default partitioner.
+ */
+public class LedgerShardPartitioner implements Partitioner {
+
+    /**
+     * Must match {@code akka.cluster.sharding.number-of-shards} of the ledger.
+     */
+    public static final String NUMBER_OF_SHARDS_CONFIG = "ledger.number-of-shards";
+
+    static final int DEFAULT_NUMBER_OF_SHARDS = 100;
+
+    private final DefaultPartitioner unkeyedPartitioner = new DefaultPartitioner();
+
+    private int numberOfShards = DEFAULT_NUMBER_OF_SHARDS;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        var shards = configs.get(NUMBER_OF_SHARDS_CONFIG);
+        if (shards != null) {
+            this.numberOfShards = Integer.parseInt(shards.toString());
+        }
+        unkeyedPartitioner.configure(configs);
+    }
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        if (key == null) {
+            return unkeyedPartitioner.partition(topic, null, null, value, valueBytes, cluster);
+        }
+
+        return partitionOf(shardOf(key.toString(), numberOfShards), cluster.partitionCountForTopic(topic));
+    }
+
+    @Override
+    public void onNewBatch(String topic, Cluster cluster, int prevPartition) {
+        unkeyedPartitioner.onNewBatch(topic, cluster, prevPartition);
+    }
+
+    @Override
+    public void close() {
+        unkeyedPartitioner.close();
+    }
+
+    /**
+     * Same arithmetic as Akka's {@code HashCodeMessageExtractor.shardId}, including its negative shard for the
+     * one id whose hash code is {@link Integer#MIN_VALUE}.
+     */
+    static int shardOf(String entityId, int numberOfShards) {
+        return Math.abs(entityId.hashCode()) % numberOfShards;
+    }
+
+    static int partitionOf(int shard, int partitions) {
+        return Math.floorMod(shard, partitions);
+    }
+
+}
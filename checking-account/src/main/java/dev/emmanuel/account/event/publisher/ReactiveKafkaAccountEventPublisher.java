@@ -0,0 +1,87 @@
+package dev.emmanuel.account.event.publisher;
+
+import dev.emmanuel.account.event.AccountEvent;
+import dev.emmanuel.account.tracing.MonotonicClock;
+import dev.emmanuel.account.tracing.Span;
+import dev.emmanuel.account.tracing.Tracer;
+import lombok.Value;
+import reactor.core.publisher.Flux;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publisher backed by a reactor-kafka {@link KafkaSender}. The sender never blocks the subscribing thread,
+ * limits the number of unacknowledged records to its {@code maxInFlight} and only requests more records
+ * from upstream as acknowledgements arrive.
+ */
+public class ReactiveKafkaAccountEventPublisher implements AccountEventPublisher {
+
+    private final KafkaSender<Long, AccountEvent> kafkaSender;
+    private final AccountEventSendMetrics sendMetrics;
+    private final Tracer tracer;
+
+    public ReactiveKafkaAccountEventPublisher(KafkaSender<Long, AccountEvent> kafkaSender,
+                                              AccountEventSendMetrics sendMetrics,
+                                              Tracer tracer) {
+        this.kafkaSender = kafkaSender;
+        this.sendMetrics = sendMetrics;
+        this.tracer = tracer;
+    }
+
+    /**
+     * Without {@code stopOnError}, the sender still terminates with the first failed send once every result is
+     * emitted; that failure was reported in its result, so the stream completes instead.
+     */
+    @Override
+    public <T> Flux<AccountEventSendResult<T>> send(Flux<AccountEventRecord<T>> records) {
+        return Flux.defer(() -> {
+            var firstFailure = new AtomicReference<Throwable>();
+            return kafkaSender
+                    .send(records.map(this::toSenderRecord))
+                    .doOnNext(senderResult -> {
+                        if (senderResult.exception() != null) {
+                            firstFailure.compareAndSet(null, senderResult.exception());
+                        }
+                    })
+                    .map(this::toSendResult)
+                    .onErrorResume(ex -> ex == firstFailure.get(), ex -> Flux.empty());
+        });
+    }
+
+    private <T> SenderRecord<Long, AccountEvent, InFlight<T>> toSenderRecord(AccountEventRecord<T> record) {
+        var producedAt = MonotonicClock.epochMicros();
+        var inFlight = new InFlight<>(record.getTopic(), record.getCorrelation(), sendMetrics.start(), record.produceSpan(tracer, producedAt));
+        return SenderRecord.create(record.toProducerRecord(producedAt), inFlight);
+    }
+
+    private <T> AccountEventSendResult<T> toSendResult(SenderResult<InFlight<T>> senderResult) {
+        var inFlight = senderResult.correlationMetadata();
+        var success = senderResult.exception() == null;
+
+        sendMetrics.record(inFlight.getTopic(), inFlight.getStartedAt(), success);
+        if (success) {
+            sendMetrics.countSent(senderResult.recordMetadata());
+            inFlight.getSpan()
+                    .attribute("partition", senderResult.recordMetadata().partition())
+                    .end("success");
+        } else {
+            inFlight.getSpan().end(senderResult.exception().getClass().getSimpleName());
+        }
+
+        return success
+                ? AccountEventSendResult.success(inFlight.getCorrelation(), senderResult.recordMetadata())
+                : AccountEventSendResult.failure(inFlight.getCorrelation(), senderResult.exception());
+    }
+
+    @Value
+    private static class InFlight<T> {
+        private final String topic;
+        private final T correlation;
+        private final long startedAt;
+        private final Span span;
+    }
+
+}
@@ -0,0 +1,272 @@
+package dev.emmanuel.account.event.serialization;
+
+import dev.emmanuel.account.event.AccountEvent;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Hand-rolled binary layout for {@link AccountEvent}.
+ *
+ * <pre>
+ * magic     1 byte   0xCA, never the first byte of a JSON document
+ * version   1 byte   layout version, currently 1
+ * presence  varint   one bit per nullable field, see the FIELD_* constants
+ * type      string
+ * timestamp zig-zag varlong epoch seconds (UTC) + varint nanos
+ * account   varlong id, varlong version, string iban, string currency
+ * customer  varlong id, string name
+ * </pre>
+ * <p>
+ * Strings are a varint byte length followed by UTF-8 bytes; fields whose presence bit is unset are omitted.
+ * Decoders must reject versions they don't know, new fields require a new version.
+ */
+public final class AccountEventBinaryCodec {
+
+    public static final byte MAGIC = (byte) 0xCA;
+    public static final byte VERSION = 1;
+
+    private static final int FIELD_TYPE = 1;
+    private static final int FIELD_TIMESTAMP = 1 << 1;
+    private static final int FIELD_ACCOUNT = 1 << 2;
+    private static final int FIELD_ACCOUNT_ID = 1 << 3;
+    private static final int FIELD_ACCOUNT_VERSION = 1 << 4;
+    private static final int FIELD_IBAN = 1 << 5;
+    private static final int FIELD_CURRENCY = 1 << 6;
+    private static final int FIELD_CUSTOMER = 1 << 7;
+    private static final int FIELD_CUSTOMER_NAME = 1 << 8;
+
+    private static final int HEADER_SIZE = 2;
+
+    private AccountEventBinaryCodec() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == MAGIC;
+    }
+
+    public static byte[] encode(AccountEvent event) {
+        var account = event.getCheckingAccount();
+        var customer = account == null ? null : account.getCustomer();
+
+        byte[] type = utf8(event.getType());
+        byte[] iban = account == null ? null : utf8(account.getIban());
+        byte[] currency = account == null ? null : utf8(account.getCurrency());
+        byte[] customerName = customer == null ? null : utf8(customer.getName());
+
+        int presence = 0;
+        int size = HEADER_SIZE;
+
+        if (type != null) {
+            presence |= FIELD_TYPE;
+            size += sizeOf(type);
+        }
+        if (event.getTimestamp() != null) {
+            presence |= FIELD_TIMESTAMP;
+            size += varLongSize(zigZag(event.getTimestamp().toEpochSecond(ZoneOffset.UTC)));
+            size += varLongSize(event.getTimestamp().getNano());
+        }
+        if (account != null) {
+            presence |= FIELD_ACCOUNT;
+            if (account.getId() != null) {
+                presence |= FIELD_ACCOUNT_ID;
+                size += varLongSize(zigZag(account.getId()));
+            }
+            if (account.getVersion() != null) {
+                presence |= FIELD_ACCOUNT_VERSION;
+                size += varLongSize(zigZag(account.getVersion()));
+            }
+            if (iban != null) {
+                presence |= FIELD_IBAN;
+                size += sizeOf(iban);
+            }
+            if (currency != null) {
+                presence |= FIELD_CURRENCY;
+                size += sizeOf(currency);
+            }
+        }
+        if (customer != null) {
+            presence |= FIELD_CUSTOMER;
+            size += varLongSize(zigZag(customer.getId()));
+            if (customerName != null) {
+                presence |= FIELD_CUSTOMER_NAME;
+                size += sizeOf(customerName);
+            }
+        }
+        size += varLongSize(presence);
+
+        var writer = new Writer(new byte[size]);
+        writer.writeByte(MAGIC);
+        writer.writeByte(VERSION);
+        writer.writeVarLong(presence);
+
+        if (type != null) {
+            writer.writeBytes(type);
+        }
+        if (event.getTimestamp() != null) {
+            writer.writeVarLong(zigZag(event.getTimestamp().toEpochSecond(ZoneOffset.UTC)));
+            writer.writeVarLong(event.getTimestamp().getNano());
+        }
+        if (account != null) {
+            if (account.getId() != null) {
+                writer.writeVarLong(zigZag(account.getId()));
+            }
+            if (account.getVersion() != null) {
+                writer.writeVarLong(zigZag(account.getVersion()));
+            }
+            if (iban != null) {
+                writer.writeBytes(iban);
+            }
+            if (currency != null) {
+                writer.writeBytes(currency);
+            }
+        }
+        if (customer != null) {
+            writer.writeVarLong(zigZag(customer.getId()));
+            if (customerName != null) {
+                writer.writeBytes(customerName);
+            }
+        }
+
+        return writer.buffer;
+    }
+
+    public static AccountEvent decode(byte[] data) {
+        if (!isBinary(data)) {
+            throw new SerializationException("Not a binary account event");
+        }
+        if (data.length < HEADER_SIZE || data[1] != VERSION) {
+            throw new SerializationException("Unsupported binary account event version " + (data.length < HEADER_SIZE ? "?" : data[1]));
+        }
+
+        var reader = new Reader(data, HEADER_SIZE);
+        var presence = (int) reader.readVarLong();
+
+        String type = has(presence, FIELD_TYPE) ? reader.readString() : null;
+
+        LocalDateTime timestamp = null;
+        if (has(presence, FIELD_TIMESTAMP)) {
+            var epochSecond = unZigZag(reader.readVarLong());
+            var nanos = (int) reader.readVarLong();
+            timestamp = LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC);
+        }
+
+        CheckingAccount account = null;
+        if (has(presence, FIELD_ACCOUNT)) {
+            Long id = has(presence, FIELD_ACCOUNT_ID) ? unZigZag(reader.readVarLong()) : null;
+            Long version = has(presence, FIELD_ACCOUNT_VERSION) ? unZigZag(reader.readVarLong()) : null;
+            String iban = has(presence, FIELD_IBAN) ? reader.readString() : null;
+            String currency = has(presence, FIELD_CURRENCY) ? reader.readString() : null;
+
+            Customer customer = null;
+            if (has(presence, FIELD_CUSTOMER)) {
+                var customerId = unZigZag(reader.readVarLong());
+                var customerName = has(presence, FIELD_CUSTOMER_NAME) ? reader.readString() : null;
+                customer = Customer.of(customerId, customerName);
+            }
+
+            account = new CheckingAccount(id, version, iban, currency, customer);
+        }
+
+        return new AccountEvent(type, timestamp, account);
+    }
+
+    private static boolean has(int presence, int field) {
+        return (presence & field) != 0;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int sizeOf(byte[] value) {
+        return varLongSize(value.length) + value.length;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static final class Writer {
+
+        private final byte[] buffer;
+        private int position;
+
+        private Writer(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        private void writeByte(byte value) {
+            buffer[position++] = value;
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeBytes(byte[] value) {
+            writeVarLong(value.length);
+            System.arraycopy(value, 0, buffer, position, value.length);
+            position += value.length;
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] buffer;
+        private int position;
+
+        private Reader(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            while (shift < 64) {
+                if (position >= buffer.length) {
+                    throw new SerializationException("Truncated binary account event");
+                }
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+                shift += 7;
+            }
+            throw new SerializationException("Malformed varint in binary account event");
+        }
+
+        private String readString() {
+            var length = (int) readVarLong();
+            if (length < 0 || position + length > buffer.length) {
+                throw new SerializationException("Truncated binary account event");
+            }
+            var value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package dev.emmanuel.account.event.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.emmanuel.account.event.AccountEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads account events written in either format: binary payloads are recognised by their magic byte,
+ * everything else is read as JSON. Consumers can therefore switch before the producers do.
+ */
+public class AccountEventDeserializer implements Deserializer<AccountEvent> {
+
+    private final ObjectReader jsonReader;
+
+    public AccountEventDeserializer(ObjectMapper objectMapper) {
+        this.jsonReader = objectMapper.readerFor(AccountEvent.class);
+    }
+
+    @Override
+    public AccountEvent deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+
+        if (AccountEventBinaryCodec.isBinary(data)) {
+            return AccountEventBinaryCodec.decode(data);
+        }
+
+        try {
+            return jsonReader.readValue(data);
+        } catch (IOException ex) {
+            throw new SerializationException("Can't deserialize JSON account event from topic " + topic, ex);
+        }
+    }
+
+}
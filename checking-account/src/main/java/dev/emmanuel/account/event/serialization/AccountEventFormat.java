@@ -0,0 +1,15 @@
+package dev.emmanuel.account.event.serialization;
+
+public enum AccountEventFormat {
+
+    /**
+     * Jackson JSON, the format every consumer understands.
+     */
+    JSON,
+
+    /**
+     * Compact, schema-versioned layout written by {@link AccountEventBinaryCodec}.
+     */
+    BINARY
+
+}
@@ -0,0 +1,59 @@
+package dev.emmanuel.account.event.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.emmanuel.account.event.AccountEvent;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/**
+ * Serializes account events in the format configured for the destination topic, JSON when the topic
+ * has no explicit format.
+ */
+public class AccountEventSerializer implements Serializer<AccountEvent> {
+
+    private final JsonSerializer<AccountEvent> jsonSerializer;
+    private final Map<String, AccountEventFormat> topicFormats;
+
+    public AccountEventSerializer(ObjectMapper objectMapper, Map<String, AccountEventFormat> topicFormats) {
+        this.jsonSerializer = new JsonSerializer<>(objectMapper);
+        this.topicFormats = Map.copyOf(topicFormats);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, AccountEvent event) {
+        return serialize(topic, null, event);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, AccountEvent event) {
+        if (event == null) {
+            return null;
+        }
+
+        if (formatOf(topic) == AccountEventFormat.BINARY) {
+            return AccountEventBinaryCodec.encode(event);
+        }
+
+        return headers == null
+                ? jsonSerializer.serialize(topic, event)
+                : jsonSerializer.serialize(topic, headers, event);
+    }
+
+    public AccountEventFormat formatOf(String topic) {
+        return topicFormats.getOrDefault(topic, AccountEventFormat.JSON);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+
+}
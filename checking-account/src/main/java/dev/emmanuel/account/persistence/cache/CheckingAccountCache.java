@@ -0,0 +1,74 @@
+package dev.emmanuel.account.persistence.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Size and TTL bounded read-through cache of checking accounts, indexed by id, customer id and IBAN.
+ * Concurrent misses on the same key share a single database query; absent accounts are never cached.
+ * Hit, miss and eviction metrics are published under the {@code cache.*} meters.
+ */
+@Component
+public class CheckingAccountCache {
+
+    private final AsyncCache<Long, CheckingAccount> byId;
+    private final AsyncCache<Long, CheckingAccount> byCustomerId;
+    private final AsyncCache<String, CheckingAccount> byIban;
+
+    public CheckingAccountCache(MeterRegistry meterRegistry,
+                                @Value("${checking-account.cache.maximum-size:100000}") long maximumSize,
+                                @Value("${checking-account.cache.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.byId = CaffeineCacheMetrics.monitor(meterRegistry, buildCache(maximumSize, expireAfterWrite), "checking_accounts_by_id");
+        this.byCustomerId = CaffeineCacheMetrics.monitor(meterRegistry, buildCache(maximumSize, expireAfterWrite), "checking_accounts_by_customer_id");
+        this.byIban = CaffeineCacheMetrics.monitor(meterRegistry, buildCache(maximumSize, expireAfterWrite), "checking_accounts_by_iban");
+    }
+
+    public Mono<CheckingAccount> getById(long id, Function<Long, Mono<CheckingAccount>> loader) {
+        return get(byId, id, loader);
+    }
+
+    public Mono<CheckingAccount> getByCustomerId(long customerId, Function<Long, Mono<CheckingAccount>> loader) {
+        return get(byCustomerId, customerId, loader);
+    }
+
+    public Mono<CheckingAccount> getByIban(String iban, Function<String, Mono<CheckingAccount>> loader) {
+        return get(byIban, iban, loader);
+    }
+
+    public void evict(CheckingAccount checkingAccount) {
+        if (checkingAccount.getId() != null) {
+            byId.synchronous().invalidate(checkingAccount.getId());
+        }
+        if (checkingAccount.getCustomer() != null) {
+            byCustomerId.synchronous().invalidate(checkingAccount.getCustomer().getId());
+        }
+        if (checkingAccount.getIban() != null) {
+            byIban.synchronous().invalidate(checkingAccount.getIban());
+        }
+    }
+
+    private <K> Mono<CheckingAccount> get(AsyncCache<K, CheckingAccount> cache,
+                                          K key,
+                                          Function<K, Mono<CheckingAccount>> loader) {
+        // copy() so a cancelled subscriber can't cancel the load shared with the other callers
+        return Mono.fromFuture(() -> cache.get(key, (k, executor) -> loader.apply(k).toFuture()).copy());
+    }
+
+    private static <K> AsyncCache<K, CheckingAccount> buildCache(long maximumSize, Duration expireAfterWrite) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+    }
+
+}
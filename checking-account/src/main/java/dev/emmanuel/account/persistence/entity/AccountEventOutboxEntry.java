@@ -0,0 +1,62 @@
+package dev.emmanuel.account.persistence.entity;
+
+import dev.emmanuel.account.tracing.TraceContext;
+import lombok.Value;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Immutable;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event waiting to be published, written in the same transaction as the change it describes
+ * and removed by the relay once the broker acknowledged it.
+ */
+@Value
+@Immutable
+@Table("account_event_outbox")
+public class AccountEventOutboxEntry {
+
+    @Id
+    private final Long id;
+
+    private final Long aggregateId;
+
+    private final String eventType;
+
+    private final String payload;
+
+    private final LocalDateTime createdAt;
+
+    private final String claimedBy;
+
+    private final LocalDateTime claimedAt;
+
+    /**
+     * W3C trace context of the request that recorded the event, stamped on its Kafka record.
+     */
+    private final String traceparent;
+
+    /**
+     * When that request started, in epoch microseconds.
+     */
+    private final Long requestStartedAt;
+
+    public static AccountEventOutboxEntry of(long aggregateId, String eventType, String payload) {
+        return of(aggregateId, eventType, payload, null);
+    }
+
+    public static AccountEventOutboxEntry of(long aggregateId, String eventType, String payload, TraceContext trace) {
+        return new AccountEventOutboxEntry(null, aggregateId, eventType, payload, LocalDateTime.now(), null, null,
+                trace == null ? null : trace.toTraceparent(),
+                trace == null ? null : trace.getStartedAt());
+    }
+
+    /**
+     * The trace of the request that recorded the event, {@code null} for events recorded outside a request.
+     */
+    public TraceContext traceContext() {
+        return requestStartedAt == null ? null : TraceContext.parse(traceparent, requestStartedAt);
+    }
+
+}
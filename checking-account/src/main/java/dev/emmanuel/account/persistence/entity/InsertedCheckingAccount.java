@@ -0,0 +1,15 @@
+package dev.emmanuel.account.persistence.entity;
+
+import lombok.Value;
+
+/**
+ * Account read in insertion order, with its {@link InsertionPosition}.
+ */
+@Value(staticConstructor = "of")
+public class InsertedCheckingAccount {
+
+    private final InsertionPosition position;
+
+    private final CheckingAccount checkingAccount;
+
+}
@@ -0,0 +1,42 @@
+package dev.emmanuel.account.persistence.entity;
+
+import lombok.Value;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Position of an account in the insertion order of {@code checking_accounts}: the {@code created_at} of its row,
+ * then its id among the rows inserted at the same time. Ids are taken from blocks reserved by every replica and
+ * don't follow that order.
+ */
+@Value(staticConstructor = "of")
+public class InsertionPosition implements Comparable<InsertionPosition> {
+
+    /**
+     * Before every account.
+     */
+    public static final InsertionPosition START = of(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+    private static final Comparator<InsertionPosition> ORDER = Comparator
+            .comparing(InsertionPosition::getCreatedAt)
+            .thenComparingLong(InsertionPosition::getId);
+
+    private final LocalDateTime createdAt;
+
+    private final long id;
+
+    /**
+     * Before every account inserted {@code duration} before this one or later.
+     */
+    public InsertionPosition minus(Duration duration) {
+        return of(createdAt.minus(duration), 0L);
+    }
+
+    @Override
+    public int compareTo(InsertionPosition other) {
+        return ORDER.compare(this, other);
+    }
+
+}
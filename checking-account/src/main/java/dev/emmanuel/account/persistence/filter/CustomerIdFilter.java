@@ -0,0 +1,157 @@
+package dev.emmanuel.account.persistence.filter;
+
+import dev.emmanuel.account.persistence.entity.InsertedCheckingAccount;
+import dev.emmanuel.account.persistence.entity.InsertionPosition;
+import dev.emmanuel.account.persistence.repository.CheckingAccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory Bloom filter of the customers that already have a checking account.
+ * <p>
+ * A negative answer means this instance never saw an account for the customer, so the duplicate lookup
+ * can be skipped. Until the initial load of {@code checking_accounts} completes every customer is
+ * reported as possibly known. Accounts opened by other replicas are picked up by a periodic keyset scan
+ * of the rows inserted since the last scan, in insertion order: ids, reserved in blocks by every replica,
+ * don't follow it. The scan starts {@code refresh-overlap} before the last row loaded, to catch the rows
+ * committed after a later one was read; it must exceed the longest insert transaction, plus the clock skew
+ * between shards when sharded. Within that window a duplicate can only be caught by the database itself.
+ */
+@Slf4j
+@Component
+public class CustomerIdFilter {
+
+    private static final String LOOKUPS = "checking_account.customer_filter.lookups";
+
+    private final CheckingAccountRepository checkingAccountRepository;
+    private final LongBloomFilter bloomFilter;
+    private final int loadPageSize;
+    private final Duration refreshInterval;
+    private final Duration refreshOverlap;
+
+    private volatile InsertionPosition lastLoaded = InsertionPosition.START;
+    private volatile boolean loaded;
+
+    private final Counter negativeLookups;
+    private final Counter positiveLookups;
+    private final Counter falsePositives;
+
+    private Disposable refresh;
+
+    public CustomerIdFilter(CheckingAccountRepository checkingAccountRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${checking-account.customer-filter.expected-customers:1000000}") long expectedCustomers,
+                            @Value("${checking-account.customer-filter.false-positive-probability:0.01}") double falsePositiveProbability,
+                            @Value("${checking-account.customer-filter.load-page-size:5000}") int loadPageSize,
+                            @Value("${checking-account.customer-filter.refresh-interval:5s}") Duration refreshInterval,
+                            @Value("${checking-account.customer-filter.refresh-overlap:2s}") Duration refreshOverlap) {
+        this.checkingAccountRepository = checkingAccountRepository;
+        this.bloomFilter = new LongBloomFilter(expectedCustomers, falsePositiveProbability);
+        this.loadPageSize = loadPageSize;
+        this.refreshInterval = refreshInterval;
+        this.refreshOverlap = refreshOverlap;
+
+        this.negativeLookups = lookupCounter(meterRegistry, "negative");
+        this.positiveLookups = lookupCounter(meterRegistry, "positive");
+        this.falsePositives = Counter.builder("checking_account.customer_filter.false_positives")
+                .description("Positive answers for customers that had no account")
+                .register(meterRegistry);
+
+        Gauge.builder("checking_account.customer_filter.fill_ratio", bloomFilter, LongBloomFilter::fillRatio)
+                .description("Fraction of the filter bits set")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        this.refresh = Flux
+                .interval(Duration.ZERO, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> load().onErrorResume(this::handleLoadFailure), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refresh != null) {
+            refresh.dispose();
+        }
+    }
+
+    /**
+     * Adds every account inserted since the last load, the first call marks the filter as loaded.
+     */
+    public Mono<Long> load() {
+        return Mono.defer(() -> {
+            var cursor = new AtomicReference<>(loaded ? lastLoaded.minus(refreshOverlap) : InsertionPosition.START);
+            return loadPage(cursor)
+                    .expand(page -> page.size() == loadPageSize ? loadPage(cursor) : Mono.empty())
+                    .map(List::size)
+                    .reduce(0L, Long::sum)
+                    .doOnNext(count -> {
+                        if (cursor.get().compareTo(lastLoaded) > 0) {
+                            lastLoaded = cursor.get();
+                        }
+                        if (!loaded) {
+                            log.info("Customer filter loaded with {} accounts", count);
+                            loaded = true;
+                        }
+                    });
+        });
+    }
+
+    private Mono<List<InsertedCheckingAccount>> loadPage(AtomicReference<InsertionPosition> cursor) {
+        return checkingAccountRepository
+                .findPageInsertedAfter(cursor.get(), loadPageSize)
+                .doOnNext(inserted -> {
+                    bloomFilter.put(inserted.getCheckingAccount().getCustomer().getId());
+                    cursor.set(inserted.getPosition());
+                })
+                .collectList();
+    }
+
+    public boolean mightHaveAccount(long customerId) {
+        if (loaded && !bloomFilter.mightContain(customerId)) {
+            negativeLookups.increment();
+            return false;
+        }
+
+        positiveLookups.increment();
+        return true;
+    }
+
+    public void recordOpened(long customerId) {
+        bloomFilter.put(customerId);
+    }
+
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    private Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(LOOKUPS)
+                .description("Customer filter lookups, negative ones skip the duplicate account query")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Mono<Long> handleLoadFailure(Throwable ex) {
+        log.error("Failure to load the customer filter", ex);
+        return Mono.empty();
+    }
+
+}
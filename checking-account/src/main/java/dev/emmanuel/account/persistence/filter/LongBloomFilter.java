@@ -0,0 +1,93 @@
+package dev.emmanuel.account.persistence.filter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over primitive {@code long} values. Bits are set with atomic OR operations, so
+ * concurrent {@link #put(long)} and {@link #mightContain(long)} calls need no further synchronisation and
+ * no value is ever boxed.
+ */
+public class LongBloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long numberOfBits;
+    private final int numberOfHashes;
+
+    public LongBloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expected insertions must be positive");
+        }
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("false positive probability must be between 0 and 1");
+        }
+
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (LN2 * LN2));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) >>> 6);
+
+        this.words = new AtomicLongArray(words);
+        this.numberOfBits = (long) words << 6;
+        this.numberOfHashes = Math.max(1, (int) Math.round((double) numberOfBits / expectedInsertions * LN2));
+    }
+
+    public void put(long value) {
+        long hash1 = mix(value);
+        long hash2 = mix(hash1) | 1;
+
+        for (int i = 0; i < numberOfHashes; i++) {
+            long bit = Long.remainderUnsigned(hash1 + i * hash2, numberOfBits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            if ((words.get(word) & mask) == 0) {
+                words.getAndAccumulate(word, mask, (current, newBit) -> current | newBit);
+            }
+        }
+    }
+
+    public boolean mightContain(long value) {
+        long hash1 = mix(value);
+        long hash2 = mix(hash1) | 1;
+
+        for (int i = 0; i < numberOfHashes; i++) {
+            long bit = Long.remainderUnsigned(hash1 + i * hash2, numberOfBits);
+
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public long getNumberOfBits() {
+        return numberOfBits;
+    }
+
+    public int getNumberOfHashes() {
+        return numberOfHashes;
+    }
+
+    /**
+     * Fraction of bits set, the false positive probability is roughly this value to the power of the
+     * number of hashes.
+     */
+    public double fillRatio() {
+        long setBits = 0;
+        for (int i = 0; i < words.length(); i++) {
+            setBits += Long.bitCount(words.get(i));
+        }
+        return (double) setBits / numberOfBits;
+    }
+
+    /**
+     * SplitMix64 finalizer, spreads sequential ids over the whole bit array.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+}
@@ -0,0 +1,199 @@
+package dev.emmanuel.account.persistence.jdbc;
+
+import dev.emmanuel.account.persistence.entity.AccountEventOutboxEntry;
+import dev.emmanuel.account.persistence.repository.AccountEventOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.springframework.jdbc.core.RowMapper;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * {@link AccountEventOutboxRepository} over blocking JDBC on virtual threads. Entries recorded inside a
+ * {@code @Transactional} method join the JDBC transaction of the account insert, as they join the R2DBC one
+ * in the default mode.
+ */
+@RequiredArgsConstructor
+public class JdbcAccountEventOutboxRepository implements AccountEventOutboxRepository {
+
+    private static final String COLUMNS = "o.id, o.aggregate_id, o.event_type, o.payload, o.created_at, o.claimed_by, o.claimed_at, " +
+            "o.traceparent, o.request_started_at";
+
+    private static final RowMapper<AccountEventOutboxEntry> ROW_MAPPER = (resultSet, rowNum) -> new AccountEventOutboxEntry(
+            resultSet.getLong("id"),
+            resultSet.getLong("aggregate_id"),
+            resultSet.getString("event_type"),
+            resultSet.getString("payload"),
+            toLocalDateTime(resultSet.getTimestamp("created_at")),
+            resultSet.getString("claimed_by"),
+            toLocalDateTime(resultSet.getTimestamp("claimed_at")),
+            resultSet.getString("traceparent"),
+            resultSet.getObject("request_started_at", Long.class)
+    );
+
+    private final VirtualThreadJdbc jdbc;
+
+    @Override
+    public Mono<Integer> claim(String owner, long claimTimeoutSeconds, int limit) {
+        return jdbc.update("update account_event_outbox set claimed_by = ?, claimed_at = now(6) " +
+                "where claimed_by is null or claimed_at < now(6) - interval ? second " +
+                "order by id limit ?", statement -> {
+            statement.setString(1, owner);
+            statement.setLong(2, claimTimeoutSeconds);
+            statement.setInt(3, limit);
+        });
+    }
+
+    @Override
+    public Flux<AccountEventOutboxEntry> findClaimedBy(String owner, int limit) {
+        return jdbc.query("select " + COLUMNS + " from account_event_outbox o where o.claimed_by = ? order by o.id limit ?",
+                statement -> {
+                    statement.setString(1, owner);
+                    statement.setInt(2, limit);
+                }, ROW_MAPPER);
+    }
+
+    @Override
+    public Mono<Integer> deleteByIdIn(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(0);
+        }
+
+        var placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return jdbc.update("delete from account_event_outbox where id in (" + placeholders + ")", statement -> {
+            var index = 1;
+            for (Long id : ids) {
+                statement.setLong(index++, id);
+            }
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends AccountEventOutboxEntry> Mono<S> save(S entity) {
+        if (entity.getId() != null) {
+            return jdbc
+                    .update("update account_event_outbox set claimed_by = ?, claimed_at = ? where id = ?", statement -> {
+                        statement.setString(1, entity.getClaimedBy());
+                        statement.setObject(2, toTimestamp(entity.getClaimedAt()), Types.TIMESTAMP);
+                        statement.setLong(3, entity.getId());
+                    })
+                    .thenReturn(entity);
+        }
+
+        return jdbc
+                .insert("insert into account_event_outbox (aggregate_id, event_type, payload, created_at, claimed_by, claimed_at, " +
+                        "traceparent, request_started_at) values (?, ?, ?, ?, ?, ?, ?, ?)", statement -> {
+                    statement.setLong(1, entity.getAggregateId());
+                    statement.setString(2, entity.getEventType());
+                    statement.setString(3, entity.getPayload());
+                    statement.setTimestamp(4, toTimestamp(entity.getCreatedAt()));
+                    statement.setString(5, entity.getClaimedBy());
+                    statement.setObject(6, toTimestamp(entity.getClaimedAt()), Types.TIMESTAMP);
+                    statement.setString(7, entity.getTraceparent());
+                    statement.setObject(8, entity.getRequestStartedAt(), Types.BIGINT);
+                })
+                .map(id -> (S) new AccountEventOutboxEntry(id, entity.getAggregateId(), entity.getEventType(),
+                        entity.getPayload(), entity.getCreatedAt(), entity.getClaimedBy(), entity.getClaimedAt(),
+                        entity.getTraceparent(), entity.getRequestStartedAt()));
+    }
+
+    @Override
+    public <S extends AccountEventOutboxEntry> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends AccountEventOutboxEntry> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream).concatMap(this::save);
+    }
+
+    @Override
+    public Mono<AccountEventOutboxEntry> findById(Long id) {
+        return jdbc.queryForObject("select " + COLUMNS + " from account_event_outbox o where o.id = ?",
+                statement -> statement.setLong(1, id), ROW_MAPPER);
+    }
+
+    @Override
+    public Mono<AccountEventOutboxEntry> findById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Long id) {
+        return findById(id).hasElement();
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<AccountEventOutboxEntry> findAll() {
+        return jdbc.query("select " + COLUMNS + " from account_event_outbox o order by o.id", statement -> {
+        }, ROW_MAPPER);
+    }
+
+    @Override
+    public Flux<AccountEventOutboxEntry> findAllById(Iterable<Long> ids) {
+        return Flux.fromIterable(ids).concatMap(this::findById);
+    }
+
+    @Override
+    public Flux<AccountEventOutboxEntry> findAllById(Publisher<Long> idStream) {
+        return Flux.from(idStream).concatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return jdbc.queryForObject("select count(*) from account_event_outbox", statement -> {
+        }, (resultSet, rowNum) -> resultSet.getLong(1));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return jdbc.update("delete from account_event_outbox where id = ?", statement -> statement.setLong(1, id)).then();
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(AccountEventOutboxEntry entity) {
+        return deleteById(entity.getId());
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends AccountEventOutboxEntry> entities) {
+        return Flux.fromIterable(entities).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends AccountEventOutboxEntry> entityStream) {
+        return Flux.from(entityStream).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return jdbc.update("delete from account_event_outbox", statement -> {
+        }).then();
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return dateTime == null ? null : Timestamp.valueOf(dateTime);
+    }
+
+}
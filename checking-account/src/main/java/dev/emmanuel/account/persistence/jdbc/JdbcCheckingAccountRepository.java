@@ -0,0 +1,254 @@
+package dev.emmanuel.account.persistence.jdbc;
+
+import dev.emmanuel.account.exception.CheckingAccountAlreadyOpened;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import dev.emmanuel.account.persistence.entity.InsertedCheckingAccount;
+import dev.emmanuel.account.persistence.entity.InsertionPosition;
+import dev.emmanuel.account.persistence.repository.CheckingAccountRepository;
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.RowMapper;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * {@link CheckingAccountRepository} over blocking JDBC on virtual threads, with the same statements as the
+ * R2DBC repository and the same {@link CheckingAccountAlreadyOpened} on a unique index violation (the
+ * {@link DuplicateKeyException} of the error code translation), other integrity violations propagate.
+ */
+@RequiredArgsConstructor
+public class JdbcCheckingAccountRepository implements CheckingAccountRepository {
+
+    private static final String COLUMNS = "ca.id, ca.version, ca.iban, ca.currency, ca.customer_id, ca.customer_name";
+
+    private static final RowMapper<CheckingAccount> ROW_MAPPER = (resultSet, rowNum) -> new CheckingAccount(
+            resultSet.getLong("id"),
+            resultSet.getLong("version"),
+            resultSet.getString("iban"),
+            resultSet.getString("currency"),
+            Customer.of(resultSet.getLong("customer_id"), resultSet.getString("customer_name"))
+    );
+
+    private final VirtualThreadJdbc jdbc;
+
+    @Override
+    public Mono<CheckingAccount> insertIfAbsent(CheckingAccount checkingAccount) {
+        return insert(checkingAccount)
+                .onErrorMap(DuplicateKeyException.class, ex -> new CheckingAccountAlreadyOpened());
+    }
+
+    @Override
+    public Flux<CheckingAccount> insertAllIfAbsent(List<CheckingAccount> checkingAccounts) {
+        var values = String.join(", ", Collections.nCopies(checkingAccounts.size(), "(?, 0, ?, ?, ?, ?)"));
+
+        return jdbc
+                .update("insert into checking_accounts (id, version, iban, currency, customer_id, customer_name) values " + values,
+                        statement -> {
+                            var index = 1;
+                            for (var account : checkingAccounts) {
+                                statement.setLong(index++, account.getId());
+                                statement.setString(index++, account.getIban());
+                                statement.setString(index++, account.getCurrency());
+                                statement.setLong(index++, account.getCustomer().getId());
+                                statement.setString(index++, account.getCustomer().getName());
+                            }
+                        })
+                .thenMany(Flux.fromIterable(checkingAccounts))
+                .map(account -> new CheckingAccount(account.getId(), 0L, account.getIban(), account.getCurrency(), account.getCustomer()))
+                .onErrorMap(DuplicateKeyException.class, ex -> new CheckingAccountAlreadyOpened());
+    }
+
+    @Override
+    public Mono<CheckingAccount> findByCustomerId(long customerId) {
+        return jdbc.queryForObject("select " + COLUMNS + " from checking_accounts ca where ca.customer_id = ?",
+                statement -> statement.setLong(1, customerId), ROW_MAPPER);
+    }
+
+    @Override
+    public Mono<CheckingAccount> findByIban(String iban) {
+        return jdbc.queryForObject("select " + COLUMNS + " from checking_accounts ca where ca.iban = ?",
+                statement -> statement.setString(1, iban), ROW_MAPPER);
+    }
+
+    @Override
+    public Flux<InsertedCheckingAccount> findPageInsertedAfter(InsertionPosition after, int limit) {
+        return jdbc.query("select " + COLUMNS + ", ca.created_at from checking_accounts ca " +
+                        "where ca.created_at >= ? and (ca.created_at > ? or ca.id > ?) order by ca.created_at, ca.id limit ?",
+                statement -> {
+                    var createdAt = Timestamp.valueOf(after.getCreatedAt());
+                    statement.setTimestamp(1, createdAt);
+                    statement.setTimestamp(2, createdAt);
+                    statement.setLong(3, after.getId());
+                    statement.setInt(4, limit);
+                }, (resultSet, rowNum) -> InsertedCheckingAccount.of(
+                        InsertionPosition.of(resultSet.getTimestamp("created_at").toLocalDateTime(), resultSet.getLong("id")),
+                        ROW_MAPPER.mapRow(resultSet, rowNum)));
+    }
+
+    @Override
+    public Mono<InsertionPosition> findInsertionPosition(long id) {
+        return jdbc.queryForObject("select ca.created_at from checking_accounts ca where ca.id = ?",
+                statement -> statement.setLong(1, id),
+                (resultSet, rowNum) -> InsertionPosition.of(resultSet.getTimestamp("created_at").toLocalDateTime(), id));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends CheckingAccount> Mono<S> save(S entity) {
+        if (entity.getId() == null) {
+            return (Mono<S>) insert(entity);
+        }
+
+        var updated = new CheckingAccount(entity.getId(), entity.getVersion() + 1, entity.getIban(),
+                entity.getCurrency(), entity.getCustomer());
+
+        return jdbc
+                .update("update checking_accounts set version = ?, iban = ?, currency = ?, customer_id = ?, customer_name = ? " +
+                        "where id = ? and version = ?", statement -> {
+                    statement.setLong(1, updated.getVersion());
+                    statement.setString(2, updated.getIban());
+                    statement.setString(3, updated.getCurrency());
+                    statement.setLong(4, updated.getCustomer().getId());
+                    statement.setString(5, updated.getCustomer().getName());
+                    statement.setLong(6, entity.getId());
+                    statement.setLong(7, entity.getVersion());
+                })
+                .flatMap(rows -> rows == 1
+                        ? Mono.just((S) updated)
+                        : Mono.error(new OptimisticLockingFailureException("Checking account " + entity.getId() + " was updated concurrently")));
+    }
+
+    @Override
+    public <S extends CheckingAccount> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends CheckingAccount> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream).concatMap(this::save);
+    }
+
+    @Override
+    public Mono<CheckingAccount> findById(Long id) {
+        return jdbc.queryForObject("select " + COLUMNS + " from checking_accounts ca where ca.id = ?",
+                statement -> statement.setLong(1, id), ROW_MAPPER);
+    }
+
+    @Override
+    public Mono<CheckingAccount> findById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Long id) {
+        return findById(id).hasElement();
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<CheckingAccount> findAll() {
+        return jdbc.query("select " + COLUMNS + " from checking_accounts ca order by ca.id", statement -> {
+        }, ROW_MAPPER);
+    }
+
+    @Override
+    public Flux<CheckingAccount> findAllById(Iterable<Long> ids) {
+        return Flux.fromIterable(ids).concatMap(this::findById);
+    }
+
+    @Override
+    public Flux<CheckingAccount> findAllById(Publisher<Long> idStream) {
+        return Flux.from(idStream).concatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return jdbc.queryForObject("select count(*) from checking_accounts", statement -> {
+        }, (resultSet, rowNum) -> resultSet.getLong(1));
+    }
+
+    @Override
+    public Mono<Long> countInSlots(Collection<Integer> slots) {
+        var markers = String.join(", ", Collections.nCopies(slots.size(), "?"));
+        return jdbc.queryForObject("select count(*) from checking_accounts where shard_slot in (" + markers + ")", statement -> {
+            int index = 1;
+            for (var slot : slots) {
+                statement.setInt(index++, slot);
+            }
+        }, (resultSet, rowNum) -> resultSet.getLong(1));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return jdbc.update("delete from checking_accounts where id = ?", statement -> statement.setLong(1, id)).then();
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(CheckingAccount entity) {
+        return deleteById(entity.getId());
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends CheckingAccount> entities) {
+        return Flux.fromIterable(entities).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends CheckingAccount> entityStream) {
+        return Flux.from(entityStream).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return jdbc.update("delete from checking_accounts", statement -> {
+        }).then();
+    }
+
+    /**
+     * Inserts the account with its id. Without one (a new entity passed to {@link #save}), the id is left to the
+     * database.
+     */
+    private Mono<CheckingAccount> insert(CheckingAccount checkingAccount) {
+        if (checkingAccount.getId() != null) {
+            return jdbc
+                    .update("insert into checking_accounts (id, version, iban, currency, customer_id, customer_name) values (?, 0, ?, ?, ?, ?)",
+                            statement -> {
+                                statement.setLong(1, checkingAccount.getId());
+                                statement.setString(2, checkingAccount.getIban());
+                                statement.setString(3, checkingAccount.getCurrency());
+                                statement.setLong(4, checkingAccount.getCustomer().getId());
+                                statement.setString(5, checkingAccount.getCustomer().getName());
+                            })
+                    .thenReturn(new CheckingAccount(checkingAccount.getId(), 0L, checkingAccount.getIban(), checkingAccount.getCurrency(), checkingAccount.getCustomer()));
+        }
+
+        return jdbc
+                .insert("insert into checking_accounts (version, iban, currency, customer_id, customer_name) values (0, ?, ?, ?, ?)",
+                        statement -> {
+                            statement.setString(1, checkingAccount.getIban());
+                            statement.setString(2, checkingAccount.getCurrency());
+                            statement.setLong(3, checkingAccount.getCustomer().getId());
+                            statement.setString(4, checkingAccount.getCustomer().getName());
+                        })
+                .map(id -> new CheckingAccount(id, 0L, checkingAccount.getIban(), checkingAccount.getCurrency(), checkingAccount.getCustomer()));
+    }
+
+}
@@ -0,0 +1,33 @@
+package dev.emmanuel.account.persistence.jdbc;
+
+import dev.emmanuel.account.persistence.repository.IdSequenceRepository;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link IdSequenceRepository} over blocking JDBC on virtual threads, on a pooled connection in auto-commit
+ * even when called inside a transaction.
+ */
+@RequiredArgsConstructor
+public class JdbcIdSequenceRepository implements IdSequenceRepository {
+
+    private final VirtualThreadJdbc jdbc;
+
+    @Override
+    public Mono<Long> reserve(String sequence, int size) {
+        var reserve = IdSequenceRepository.reserveStatement(sequence, size);
+
+        return jdbc.executeWithoutTransaction(reserve, connection -> {
+            try (var statement = connection.createStatement()) {
+                if (statement.executeUpdate(reserve) == 0) {
+                    throw new IllegalStateException("Unknown id sequence " + sequence);
+                }
+                try (var resultSet = statement.executeQuery("select last_insert_id()")) {
+                    resultSet.next();
+                    return resultSet.getLong(1) - size;
+                }
+            }
+        });
+    }
+
+}
@@ -0,0 +1,146 @@
+package dev.emmanuel.account.persistence.jdbc;
+
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.SQLErrorCodeSQLExceptionTranslator;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Runs blocking JDBC statements on a virtual thread each and adapts them back to {@link Mono} and {@link Flux}.
+ * Statements use the connection of the reactive transaction bound by {@link VirtualThreadJdbcTransactionManager}
+ * when there is one, otherwise a connection borrowed from the pool for the single statement (auto-commit).
+ * {@link SQLException}s are translated to Spring's {@link org.springframework.dao.DataAccessException}s, like
+ * the R2DBC repositories do.
+ */
+public class VirtualThreadJdbc {
+
+    private final DataSource dataSource;
+    private final Scheduler scheduler;
+    private final SQLExceptionTranslator exceptionTranslator;
+
+    public VirtualThreadJdbc(DataSource dataSource, Scheduler scheduler) {
+        this.dataSource = dataSource;
+        this.scheduler = scheduler;
+        this.exceptionTranslator = new SQLErrorCodeSQLExceptionTranslator(dataSource);
+    }
+
+    public <T> Mono<T> queryForObject(String sql, PreparedStatementSetter setter, RowMapper<T> rowMapper) {
+        return execute(sql, connection -> {
+            try (var statement = connection.prepareStatement(sql)) {
+                setter.setValues(statement);
+                try (var resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? rowMapper.mapRow(resultSet, 0) : null;
+                }
+            }
+        });
+    }
+
+    /**
+     * The rows are read in full on the virtual thread before being emitted, callers page with {@code limit}.
+     */
+    public <T> Flux<T> query(String sql, PreparedStatementSetter setter, RowMapper<T> rowMapper) {
+        return execute(sql, connection -> {
+            try (var statement = connection.prepareStatement(sql)) {
+                setter.setValues(statement);
+                try (var resultSet = statement.executeQuery()) {
+                    return mapRows(resultSet, rowMapper);
+                }
+            }
+        }).flatMapIterable(rows -> rows);
+    }
+
+    public Mono<Integer> update(String sql, PreparedStatementSetter setter) {
+        return execute(sql, connection -> {
+            try (var statement = connection.prepareStatement(sql)) {
+                setter.setValues(statement);
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    public Mono<Long> insert(String sql, PreparedStatementSetter setter) {
+        return execute(sql, connection -> {
+            try (var statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                setter.setValues(statement);
+                statement.executeUpdate();
+                try (var keys = statement.getGeneratedKeys()) {
+                    return keys.next() ? keys.getLong(1) : null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs the callback on a virtual thread, with the transaction's connection if the subscriber context holds one.
+     */
+    <T> Mono<T> execute(String sql, ConnectionCallback<T> callback) {
+        // a callback returning null completes empty, the connection is resolved first so it's never run twice
+        return currentTransactionConnection()
+                .flatMap(connection -> Mono.fromCallable(() -> connection.isPresent()
+                        ? callback.doInConnection(connection.get())
+                        : doInPooledConnection(callback)))
+                .subscribeOn(scheduler)
+                .onErrorMap(SQLException.class, ex -> exceptionTranslator.translate("JDBC statement", sql, ex));
+    }
+
+    /**
+     * Runs the callback on a virtual thread with a connection borrowed from the pool, even inside a transaction.
+     */
+    <T> Mono<T> executeWithoutTransaction(String sql, ConnectionCallback<T> callback) {
+        return Mono.fromCallable(() -> doInPooledConnection(callback))
+                .subscribeOn(scheduler)
+                .onErrorMap(SQLException.class, ex -> exceptionTranslator.translate("JDBC statement", sql, ex));
+    }
+
+    Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    DataSource getDataSource() {
+        return dataSource;
+    }
+
+    private Mono<Optional<Connection>> currentTransactionConnection() {
+        return TransactionSynchronizationManager
+                .forCurrentTransaction()
+                .map(synchronizationManager -> Optional.ofNullable((Connection) synchronizationManager.getResource(dataSource)))
+                .onErrorResume(NoTransactionException.class, ex -> Mono.just(Optional.empty()));
+    }
+
+    private <T> T doInPooledConnection(ConnectionCallback<T> callback) throws SQLException {
+        try (var connection = dataSource.getConnection()) {
+            return callback.doInConnection(connection);
+        }
+    }
+
+    private static <T> List<T> mapRows(ResultSet resultSet, RowMapper<T> rowMapper) throws SQLException {
+        var rows = new ArrayList<T>();
+        while (resultSet.next()) {
+            rows.add(rowMapper.mapRow(resultSet, rows.size()));
+        }
+        return rows;
+    }
+
+    @FunctionalInterface
+    interface ConnectionCallback<T> {
+
+        T doInConnection(Connection connection) throws SQLException;
+
+    }
+
+}
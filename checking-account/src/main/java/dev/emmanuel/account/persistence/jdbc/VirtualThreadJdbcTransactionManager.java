@@ -0,0 +1,151 @@
+package dev.emmanuel.account.persistence.jdbc;
+
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.reactive.AbstractReactiveTransactionManager;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Reactive transaction manager over a JDBC {@link DataSource}, so {@code @Transactional} methods returning a
+ * {@link Mono} keep their semantics in the JDBC persistence mode. The transaction's connection is bound to the
+ * reactive {@link TransactionSynchronizationManager} (i.e. the subscriber context, not a thread), where
+ * {@link VirtualThreadJdbc} picks it up; begin, commit and rollback run on virtual threads as the statements do.
+ * Suspending a transaction (e.g. {@code REQUIRES_NEW}) isn't supported.
+ */
+public class VirtualThreadJdbcTransactionManager extends AbstractReactiveTransactionManager {
+
+    private final VirtualThreadJdbc jdbc;
+
+    public VirtualThreadJdbcTransactionManager(VirtualThreadJdbc jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+        return new JdbcTransaction((Connection) synchronizationManager.getResource(jdbc.getDataSource()));
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((JdbcTransaction) transaction).connection != null;
+    }
+
+    @Override
+    protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager,
+                                 Object transaction,
+                                 TransactionDefinition definition) {
+        var jdbcTransaction = (JdbcTransaction) transaction;
+
+        return Mono
+                .fromCallable(() -> {
+                    var connection = jdbc.getDataSource().getConnection();
+                    try {
+                        prepare(connection, definition);
+                        jdbcTransaction.readOnly = definition.isReadOnly();
+                        return connection;
+                    } catch (SQLException ex) {
+                        connection.close();
+                        throw ex;
+                    }
+                })
+                .subscribeOn(jdbc.getScheduler())
+                .doOnNext(connection -> {
+                    jdbcTransaction.connection = connection;
+                    synchronizationManager.bindResource(jdbc.getDataSource(), connection);
+                })
+                .onErrorMap(SQLException.class, ex -> new CannotCreateTransactionException("Failure to begin JDBC transaction", ex))
+                .then();
+    }
+
+    @Override
+    protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager,
+                                  GenericReactiveTransaction status) throws TransactionException {
+        return onConnection(status, Connection::commit, "commit");
+    }
+
+    @Override
+    protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager,
+                                    GenericReactiveTransaction status) throws TransactionException {
+        return onConnection(status, Connection::rollback, "roll back");
+    }
+
+    @Override
+    protected Mono<Void> doSetRollbackOnly(TransactionSynchronizationManager synchronizationManager,
+                                           GenericReactiveTransaction status) throws TransactionException {
+        return Mono.fromRunnable(() -> ((JdbcTransaction) status.getTransaction()).rollbackOnly = true);
+    }
+
+    @Override
+    protected Mono<Void> doCleanupAfterCompletion(TransactionSynchronizationManager synchronizationManager,
+                                                  Object transaction) {
+        var jdbcTransaction = (JdbcTransaction) transaction;
+        synchronizationManager.unbindResourceIfPossible(jdbc.getDataSource());
+
+        return Mono
+                .fromRunnable(() -> {
+                    try (var connection = jdbcTransaction.connection) {
+                        connection.setAutoCommit(true);
+                        if (jdbcTransaction.readOnly) {
+                            connection.setReadOnly(false);
+                        }
+                    } catch (SQLException ex) {
+                        logger.debug("Failure to release JDBC connection after transaction", ex);
+                    }
+                })
+                .subscribeOn(jdbc.getScheduler())
+                .then();
+    }
+
+    private static void prepare(Connection connection, TransactionDefinition definition) throws SQLException {
+        if (definition.getIsolationLevel() != TransactionDefinition.ISOLATION_DEFAULT) {
+            connection.setTransactionIsolation(definition.getIsolationLevel());
+        }
+        if (definition.isReadOnly()) {
+            connection.setReadOnly(true);
+        }
+        connection.setAutoCommit(false);
+    }
+
+    private Mono<Void> onConnection(GenericReactiveTransaction status, ConnectionAction action, String description) {
+        var connection = ((JdbcTransaction) status.getTransaction()).connection;
+
+        return Mono
+                .fromRunnable(() -> {
+                    try {
+                        action.run(connection);
+                    } catch (SQLException ex) {
+                        throw new TransactionSystemException("Failure to " + description + " JDBC transaction", ex);
+                    }
+                })
+                .subscribeOn(jdbc.getScheduler())
+                .then();
+    }
+
+    @FunctionalInterface
+    private interface ConnectionAction {
+
+        void run(Connection connection) throws SQLException;
+
+    }
+
+    private static class JdbcTransaction {
+
+        private Connection connection;
+        private boolean readOnly;
+        private boolean rollbackOnly;
+
+        JdbcTransaction(Connection connection) {
+            this.connection = connection;
+        }
+
+    }
+
+}
@@ -0,0 +1,14 @@
+package dev.emmanuel.account.persistence.pool;
+
+import io.r2dbc.spi.R2dbcTimeoutException;
+
+/**
+ * No pooled connection could be acquired in time: the pool is exhausted or the database doesn't answer.
+ */
+public class ConnectionAcquireTimeoutException extends R2dbcTimeoutException {
+
+    public ConnectionAcquireTimeoutException(R2dbcTimeoutException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+}
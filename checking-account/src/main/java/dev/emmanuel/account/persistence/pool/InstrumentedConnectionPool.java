@@ -0,0 +1,56 @@
+package dev.emmanuel.account.persistence.pool;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection pool recording how long callers wait to acquire a connection, and failing acquisitions that
+ * exceed the configured {@code maxAcquireTime} with a {@link ConnectionAcquireTimeoutException} so they can
+ * be told apart from query failures and answered with a 503.
+ * <p>
+ * It stays a {@link ConnectionPool}, so the pool gauges ({@code r2dbc.pool.acquired}, {@code idle},
+ * {@code pending}...) are still bound by Spring Boot.
+ */
+public class InstrumentedConnectionPool extends ConnectionPool {
+
+    private static final String ACQUIRE_TIMER = "r2dbc.pool.acquire";
+
+    private final MeterRegistry meterRegistry;
+    private final String name;
+
+    public InstrumentedConnectionPool(ConnectionPoolConfiguration configuration, MeterRegistry meterRegistry, String name) {
+        super(configuration);
+        this.meterRegistry = meterRegistry;
+        this.name = name;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(() -> {
+            var startedAt = System.nanoTime();
+            return super.create()
+                    .onErrorMap(R2dbcTimeoutException.class, ConnectionAcquireTimeoutException::new)
+                    .doOnSuccess(connection -> record("success", startedAt))
+                    .doOnError(ConnectionAcquireTimeoutException.class, ex -> record("timeout", startedAt))
+                    .doOnError(ex -> !(ex instanceof ConnectionAcquireTimeoutException), ex -> record("failure", startedAt));
+        });
+    }
+
+    private void record(String result, long startedAt) {
+        Timer.builder(ACQUIRE_TIMER)
+                .description("Time waited to acquire a connection from the pool")
+                .tag("name", name)
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+}
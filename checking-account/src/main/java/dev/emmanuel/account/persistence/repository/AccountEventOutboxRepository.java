@@ -0,0 +1,32 @@
+package dev.emmanuel.account.persistence.repository;
+
+import dev.emmanuel.account.persistence.entity.AccountEventOutboxEntry;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+@Repository
+public interface AccountEventOutboxRepository extends ReactiveCrudRepository<AccountEventOutboxEntry, Long> {
+
+    /**
+     * Claims up to {@code limit} unclaimed entries (or entries whose claim expired) for the given relay,
+     * so several replicas can drain the outbox without publishing the same entry twice.
+     */
+    @Modifying
+    @Query("update account_event_outbox set claimed_by = :owner, claimed_at = now(6) " +
+            "where claimed_by is null or claimed_at < now(6) - interval :claimTimeoutSeconds second " +
+            "order by id limit :limit")
+    Mono<Integer> claim(String owner, long claimTimeoutSeconds, int limit);
+
+    @Query("select o.* from account_event_outbox o where o.claimed_by = :owner order by o.id limit :limit")
+    Flux<AccountEventOutboxEntry> findClaimedBy(String owner, int limit);
+
+    @Modifying
+    @Query("delete from account_event_outbox where id in (:ids)")
+    Mono<Integer> deleteByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,26 @@
+package dev.emmanuel.account.persistence.repository;
+
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface CheckingAccountInsertRepository {
+
+    /**
+     * Inserts the account with a single statement, relying on the unique indexes on {@code customer_id} and
+     * {@code iban} to detect an existent account. Fails with
+     * {@link dev.emmanuel.account.exception.CheckingAccountAlreadyOpened} when one of them is violated. The
+     * account carries its id, see {@link dev.emmanuel.account.service.HiLoIdAllocator}.
+     */
+    Mono<CheckingAccount> insertIfAbsent(CheckingAccount checkingAccount);
+
+    /**
+     * Inserts the accounts, which carry their ids, with a single multi-row statement and emits them in the given
+     * order. Fails with {@link dev.emmanuel.account.exception.CheckingAccountAlreadyOpened} when any of them
+     * violates a unique index, the statement then inserts none of them.
+     */
+    Flux<CheckingAccount> insertAllIfAbsent(List<CheckingAccount> checkingAccounts);
+
+}
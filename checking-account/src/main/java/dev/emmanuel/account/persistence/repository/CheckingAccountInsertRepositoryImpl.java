@@ -0,0 +1,76 @@
+package dev.emmanuel.account.persistence.repository;
+
+import dev.emmanuel.account.exception.CheckingAccountAlreadyOpened;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import io.r2dbc.spi.R2dbcException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@RequiredArgsConstructor
+class CheckingAccountInsertRepositoryImpl implements CheckingAccountInsertRepository {
+
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final R2dbcEntityTemplate entityTemplate;
+
+    @Override
+    public Mono<CheckingAccount> insertIfAbsent(CheckingAccount checkingAccount) {
+        return entityTemplate
+                .insert(checkingAccount)
+                .onErrorMap(CheckingAccountInsertRepositoryImpl::isDuplicateKey, ex -> new CheckingAccountAlreadyOpened());
+    }
+
+    @Override
+    public Flux<CheckingAccount> insertAllIfAbsent(List<CheckingAccount> checkingAccounts) {
+        var values = IntStream.range(0, checkingAccounts.size())
+                .mapToObj(row -> String.format("(:id%1$d, 0, :iban%1$d, :currency%1$d, :customerId%1$d, :customerName%1$d)", row))
+                .collect(Collectors.joining(", "));
+
+        var insert = entityTemplate.getDatabaseClient()
+                .sql("insert into checking_accounts (id, version, iban, currency, customer_id, customer_name) values " + values);
+        for (int row = 0; row < checkingAccounts.size(); row++) {
+            var account = checkingAccounts.get(row);
+            insert = insert
+                    .bind("id" + row, account.getId())
+                    .bind("iban" + row, account.getIban())
+                    .bind("currency" + row, account.getCurrency())
+                    .bind("customerId" + row, account.getCustomer().getId())
+                    .bind("customerName" + row, account.getCustomer().getName());
+        }
+
+        return insert
+                .fetch()
+                .rowsUpdated()
+                .thenMany(Flux.fromIterable(checkingAccounts))
+                .map(account -> new CheckingAccount(account.getId(), 0L, account.getIban(), account.getCurrency(), account.getCustomer()))
+                .onErrorMap(CheckingAccountInsertRepositoryImpl::isDuplicateKey, ex -> new CheckingAccountAlreadyOpened());
+    }
+
+    /**
+     * Whether the insert violated a unique index: MySQL's duplicate entry (error 1062, SQLState 23000, which it
+     * shares with the other integrity violations such as a null column), or the standard unique violation
+     * SQLState of the other databases. Any other violation is a bug and propagates.
+     */
+    static boolean isDuplicateKey(Throwable ex) {
+        if (ex instanceof DuplicateKeyException) {
+            return true;
+        }
+        for (var cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof R2dbcException) {
+                var r2dbcException = (R2dbcException) cause;
+                return (MYSQL_DUPLICATE_ENTRY == r2dbcException.getErrorCode() && "23000".equals(r2dbcException.getSqlState()))
+                        || UNIQUE_VIOLATION.equals(r2dbcException.getSqlState());
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,20 @@
+package dev.emmanuel.account.persistence.repository;
+
+import dev.emmanuel.account.persistence.entity.InsertedCheckingAccount;
+import dev.emmanuel.account.persistence.entity.InsertionPosition;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface CheckingAccountInsertionOrderRepository {
+
+    /**
+     * Keyset page of accounts in insertion order, starting right after {@code after}.
+     */
+    Flux<InsertedCheckingAccount> findPageInsertedAfter(InsertionPosition after, int limit);
+
+    /**
+     * Position of the account in insertion order, empty when it doesn't exist.
+     */
+    Mono<InsertionPosition> findInsertionPosition(long id);
+
+}
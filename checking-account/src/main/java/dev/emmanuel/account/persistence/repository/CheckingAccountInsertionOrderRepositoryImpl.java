@@ -0,0 +1,44 @@
+package dev.emmanuel.account.persistence.repository;
+
+import dev.emmanuel.account.persistence.converter.CheckingAccountReaderConverter;
+import dev.emmanuel.account.persistence.entity.InsertedCheckingAccount;
+import dev.emmanuel.account.persistence.entity.InsertionPosition;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+class CheckingAccountInsertionOrderRepositoryImpl implements CheckingAccountInsertionOrderRepository {
+
+    private static final CheckingAccountReaderConverter READER = new CheckingAccountReaderConverter();
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<InsertedCheckingAccount> findPageInsertedAfter(InsertionPosition after, int limit) {
+        return databaseClient
+                .sql("select ca.* from checking_accounts ca " +
+                        "where ca.created_at >= :createdAt and (ca.created_at > :createdAt or ca.id > :afterId) " +
+                        "order by ca.created_at, ca.id limit :limit")
+                .bind("createdAt", after.getCreatedAt())
+                .bind("afterId", after.getId())
+                .bind("limit", limit)
+                .map(row -> InsertedCheckingAccount.of(
+                        InsertionPosition.of(row.get("created_at", LocalDateTime.class), row.get("id", Long.class)),
+                        READER.convert(row)))
+                .all();
+    }
+
+    @Override
+    public Mono<InsertionPosition> findInsertionPosition(long id) {
+        return databaseClient
+                .sql("select ca.created_at from checking_accounts ca where ca.id = :id")
+                .bind("id", id)
+                .map(row -> InsertionPosition.of(row.get("created_at", LocalDateTime.class), id))
+                .one();
+    }
+
+}
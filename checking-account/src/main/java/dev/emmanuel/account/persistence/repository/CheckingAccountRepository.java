@@ -6,9 +6,23 @@ import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+
 @Repository
-public interface CheckingAccountRepository extends ReactiveCrudRepository<CheckingAccount, Long> {
+public interface CheckingAccountRepository extends ReactiveCrudRepository<CheckingAccount, Long>, CheckingAccountInsertRepository,
+        CheckingAccountInsertionOrderRepository {
 
     @Query("select ca.* from checking_accounts ca where ca.customer_id = :customerId")
     Mono<CheckingAccount> findByCustomerId(long customerId);
+
+    @Query("select ca.* from checking_accounts ca where ca.iban = :iban")
+    Mono<CheckingAccount> findByIban(String iban);
+
+    /**
+     * Accounts of the customers of the given {@link dev.emmanuel.account.persistence.sharding.ShardMap} slots, which
+     * mustn't be empty.
+     */
+    @Query("select count(*) from checking_accounts ca where ca.shard_slot in (:slots)")
+    Mono<Long> countInSlots(Collection<Integer> slots);
+
 }
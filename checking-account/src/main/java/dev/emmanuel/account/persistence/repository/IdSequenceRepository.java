@@ -0,0 +1,33 @@
+package dev.emmanuel.account.persistence.repository;
+
+import reactor.core.publisher.Mono;
+
+import java.util.regex.Pattern;
+
+/**
+ * Sequences of the {@code id_sequences} table, reserved a block of ids at a time. A block is reserved by a
+ * single update of the sequence row on its own connection, outside of the caller's transaction, so the row lock
+ * is released right away and concurrent reservations (from any replica) get disjoint blocks.
+ */
+public interface IdSequenceRepository {
+
+    Pattern SEQUENCE_NAME = Pattern.compile("[a-z_]{1,64}");
+
+    /**
+     * Reserves the next {@code size} ids of the sequence, emitting the first one. Fails with an
+     * {@link IllegalStateException} when the sequence doesn't exist.
+     */
+    Mono<Long> reserve(String sequence, int size);
+
+    /**
+     * Moves the sequence past the block and leaves its last id in {@code LAST_INSERT_ID()} of the connection.
+     * The arguments are inlined, no driver agrees on the bind markers.
+     */
+    static String reserveStatement(String sequence, int size) {
+        if (!SEQUENCE_NAME.matcher(sequence).matches() || size < 1) {
+            throw new IllegalArgumentException("Invalid id sequence " + sequence + " or block size " + size);
+        }
+        return "update id_sequences set next_value = last_insert_id(next_value + " + size + ") where name = '" + sequence + "'";
+    }
+
+}
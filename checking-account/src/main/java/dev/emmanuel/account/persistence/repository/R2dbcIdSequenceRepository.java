@@ -0,0 +1,37 @@
+package dev.emmanuel.account.persistence.repository;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link IdSequenceRepository} on a connection of its own, taken from the connection factory rather than from
+ * the subscriber's transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class R2dbcIdSequenceRepository implements IdSequenceRepository {
+
+    private final ConnectionFactory connectionFactory;
+
+    @Override
+    public Mono<Long> reserve(String sequence, int size) {
+        var reserve = IdSequenceRepository.reserveStatement(sequence, size);
+
+        return Mono.usingWhen(
+                connectionFactory.create(),
+                connection -> Mono
+                        .from(connection.createStatement(reserve).execute())
+                        .flatMap(result -> Mono.from(result.getRowsUpdated()))
+                        .flatMap(updated -> updated == 0
+                                ? Mono.error(new IllegalStateException("Unknown id sequence " + sequence))
+                                : Mono.from(connection.createStatement("select last_insert_id()").execute()))
+                        .flatMap(result -> Mono.from(result.map((row, metadata) -> row.get(0, Number.class).longValue())))
+                        .map(last -> last - size),
+                Connection::close
+        );
+    }
+
+}
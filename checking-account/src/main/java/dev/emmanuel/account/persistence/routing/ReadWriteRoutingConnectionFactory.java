@@ -0,0 +1,37 @@
+package dev.emmanuel.account.persistence.routing;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Sends every connection request to the primary, unless the subscriber context names one of the replicas
+ * (see {@link #routeTo(String)}). Transactions keep the connection they started with, so the replicas are
+ * only used by reads explicitly routed outside a transaction.
+ */
+public class ReadWriteRoutingConnectionFactory extends AbstractRoutingConnectionFactory {
+
+    private static final String TARGET_KEY = ReadWriteRoutingConnectionFactory.class.getName() + ".target";
+
+    public ReadWriteRoutingConnectionFactory(ConnectionFactory primary, Map<String, ? extends ConnectionFactory> replicas) {
+        setDefaultTargetConnectionFactory(primary);
+        setTargetConnectionFactories(new HashMap<>(replicas));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public static Function<Context, Context> routeTo(String replica) {
+        return context -> context.put(TARGET_KEY, replica);
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(context.getOrEmpty(TARGET_KEY)));
+    }
+
+}
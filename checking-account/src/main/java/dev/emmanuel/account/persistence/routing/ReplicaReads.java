@@ -0,0 +1,144 @@
+package dev.emmanuel.account.persistence.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs read-only queries on the replicas that are within the replication lag limit, round robin, falling back
+ * to the primary when none is or when the replica query fails. Reads that need to see the caller's own writes
+ * (e.g. the duplicate check when opening an account) must not go through here.
+ * <p>
+ * With hedging enabled, a single result read that didn't answer within the recent {@code percentile} latency
+ * of replica reads is sent to a second replica as well, and the first answer wins. Reads aren't hedged while a
+ * single replica is healthy: the hedge would only add load to the replica that is already slow.
+ */
+@Slf4j
+public class ReplicaReads {
+
+    private static final String READ_TIMER = "checking_account.replica.reads";
+    private static final String HEDGED_READS = "checking_account.replica.hedged_reads";
+    private static final Duration HEDGE_DELAY_REFRESH_INTERVAL = Duration.ofSeconds(1);
+
+    private final ReplicationLagMonitor lagMonitor;
+    private final boolean hedgeEnabled;
+    private final double hedgePercentile;
+    private final Duration minHedgeDelay;
+
+    private final Timer readLatency;
+    private final Counter hedgedReads;
+    private final AtomicLong nextReplica = new AtomicLong();
+
+    private volatile Duration hedgeDelay;
+    private volatile long hedgeDelayRefreshedAt;
+
+    public ReplicaReads(ReplicationLagMonitor lagMonitor,
+                        MeterRegistry meterRegistry,
+                        boolean hedgeEnabled,
+                        double hedgePercentile,
+                        Duration minHedgeDelay) {
+        this.lagMonitor = lagMonitor;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.minHedgeDelay = minHedgeDelay;
+        this.hedgeDelay = minHedgeDelay;
+        this.hedgeDelayRefreshedAt = System.nanoTime();
+
+        this.readLatency = Timer.builder(READ_TIMER)
+                .description("Latency of the first replica attempt of a read")
+                .publishPercentiles(hedgePercentile)
+                .register(meterRegistry);
+        this.hedgedReads = Counter.builder(HEDGED_READS)
+                .description("Reads sent to a second replica because the first one was slow")
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> read(Supplier<Mono<T>> query) {
+        return Mono.defer(() -> {
+            var replicas = lagMonitor.healthyReplicas();
+            if (replicas.isEmpty()) {
+                return query.get();
+            }
+
+            var first = (int) (nextReplica.getAndIncrement() % replicas.size());
+            var attempt = timed(query.get().contextWrite(ReadWriteRoutingConnectionFactory.routeTo(replicas.get(first))));
+
+            var read = hedgeEnabled && replicas.size() > 1
+                    ? Mono.firstWithSignal(attempt, hedge(query, replicas, first))
+                    : attempt;
+
+            return read.onErrorResume(ex -> fallBackToPrimary(query, ex));
+        });
+    }
+
+    /**
+     * Multi row reads are streamed from a single replica: hedging would buffer or duplicate rows.
+     */
+    public <T> Flux<T> readMany(Supplier<Flux<T>> query) {
+        return Flux.defer(() -> {
+            var replicas = lagMonitor.healthyReplicas();
+            if (replicas.isEmpty()) {
+                return query.get();
+            }
+
+            var replica = replicas.get((int) (nextReplica.getAndIncrement() % replicas.size()));
+            return query.get().contextWrite(ReadWriteRoutingConnectionFactory.routeTo(replica));
+        });
+    }
+
+    private <T> Mono<T> hedge(Supplier<Mono<T>> query, List<String> replicas, int first) {
+        var second = replicas.get((first + 1) % replicas.size());
+        return Mono
+                .delay(currentHedgeDelay())
+                .then(Mono.defer(() -> {
+                    hedgedReads.increment();
+                    return query.get().contextWrite(ReadWriteRoutingConnectionFactory.routeTo(second));
+                }));
+    }
+
+    private <T> Mono<T> fallBackToPrimary(Supplier<Mono<T>> query, Throwable ex) {
+        log.warn("Failure to read from a replica, reading from the primary", ex);
+        return query.get();
+    }
+
+    /**
+     * Attempts cancelled because the hedge answered first are recorded too, with the time they had been
+     * running, so slow replicas keep weighing on the percentile.
+     */
+    private <T> Mono<T> timed(Mono<T> attempt) {
+        return Mono.defer(() -> {
+            var startedAt = System.nanoTime();
+            return attempt.doFinally(signal -> readLatency.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private Duration currentHedgeDelay() {
+        var now = System.nanoTime();
+        if (now - hedgeDelayRefreshedAt > HEDGE_DELAY_REFRESH_INTERVAL.toNanos()) {
+            hedgeDelayRefreshedAt = now;
+            var latency = percentileLatency();
+            hedgeDelay = latency.compareTo(minHedgeDelay) > 0 ? latency : minHedgeDelay;
+        }
+        return hedgeDelay;
+    }
+
+    private Duration percentileLatency() {
+        for (ValueAtPercentile percentile : readLatency.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == hedgePercentile) {
+                return Duration.ofNanos((long) percentile.value(TimeUnit.NANOSECONDS));
+            }
+        }
+        return Duration.ZERO;
+    }
+
+}
@@ -0,0 +1,141 @@
+package dev.emmanuel.account.persistence.routing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the replication lag of every replica with a heartbeat: the {@code replication_heartbeat} row is
+ * rewritten on the primary every {@code heartbeatInterval} and read back from each replica, the age of the
+ * replicated value being the lag (plus up to one interval). Replicas lagging more than {@code maxLag}, or whose
+ * lag can't be measured, are left out of {@link #healthyReplicas()} until they catch up.
+ */
+@Slf4j
+public class ReplicationLagMonitor {
+
+    private static final String LAG_GAUGE = "checking_account.replica.lag";
+
+    private final DatabaseClient primary;
+    private final Map<String, DatabaseClient> replicas = new LinkedHashMap<>();
+    private final Duration maxLag;
+    private final Duration heartbeatInterval;
+
+    private final Map<String, Duration> lags = new ConcurrentHashMap<>();
+    private volatile List<String> healthyReplicas = List.of();
+
+    private Disposable heartbeat;
+
+    public ReplicationLagMonitor(ConnectionFactory primary,
+                                 Map<String, ? extends ConnectionFactory> replicas,
+                                 MeterRegistry meterRegistry,
+                                 Duration maxLag,
+                                 Duration heartbeatInterval) {
+        this.primary = DatabaseClient.create(primary);
+        this.maxLag = maxLag;
+        this.heartbeatInterval = heartbeatInterval;
+
+        replicas.forEach((name, connectionFactory) -> {
+            this.replicas.put(name, DatabaseClient.create(connectionFactory));
+            Gauge.builder(LAG_GAUGE, lags, lag -> lag.containsKey(name) ? lag.get(name).toNanos() / 1e9 : Double.NaN)
+                    .description("Replication lag measured with the heartbeat, NaN while unknown")
+                    .baseUnit("seconds")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+
+        this.heartbeat = Flux
+                .interval(Duration.ZERO, heartbeatInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh(), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (heartbeat != null) {
+            heartbeat.dispose();
+        }
+    }
+
+    public List<String> healthyReplicas() {
+        return healthyReplicas;
+    }
+
+    /**
+     * Writes a heartbeat on the primary then measures the lag of every replica. A failed heartbeat isn't
+     * retried: the replicated value just gets older and the replicas are eventually considered lagging.
+     */
+    public Mono<Void> refresh() {
+        return beat()
+                .onErrorResume(ex -> {
+                    log.warn("Failure to write the replication heartbeat", ex);
+                    return Mono.empty();
+                })
+                .thenMany(Flux.fromIterable(replicas.entrySet()))
+                .flatMap(replica -> measureLag(replica.getKey(), replica.getValue()))
+                .then(Mono.fromRunnable(this::updateHealthyReplicas));
+    }
+
+    private Mono<Integer> beat() {
+        return primary
+                .sql("update replication_heartbeat set beat_at = :beatAt where id = 1")
+                .bind("beatAt", now())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private Mono<Duration> measureLag(String name, DatabaseClient replica) {
+        return replica
+                .sql("select beat_at from replication_heartbeat where id = 1")
+                .map(row -> row.get("beat_at", LocalDateTime.class))
+                .one()
+                .map(beatAt -> Duration.between(beatAt, now()))
+                .doOnNext(lag -> lags.put(name, lag))
+                .switchIfEmpty(Mono.fromRunnable(() -> lags.remove(name)))
+                .onErrorResume(ex -> {
+                    log.warn("Failure to measure the replication lag of {}", name, ex);
+                    lags.remove(name);
+                    return Mono.empty();
+                });
+    }
+
+    private void updateHealthyReplicas() {
+        var healthy = new ArrayList<String>();
+        replicas.keySet().forEach(name -> {
+            var lag = lags.get(name);
+            if (lag != null && lag.compareTo(maxLag) <= 0) {
+                healthy.add(name);
+            }
+        });
+        this.healthyReplicas = List.copyOf(healthy);
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+
+}
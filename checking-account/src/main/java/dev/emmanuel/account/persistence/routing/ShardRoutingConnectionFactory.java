@@ -0,0 +1,40 @@
+package dev.emmanuel.account.persistence.routing;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Sends every connection request to the shard named in the subscriber context (see {@link #routeTo(String)}),
+ * or to the first shard, which also holds the tables that aren't sharded, when none is. Transactions keep the
+ * connection they started with: the shard has to be named downstream of the transactional operator.
+ */
+public class ShardRoutingConnectionFactory extends AbstractRoutingConnectionFactory {
+
+    private static final String TARGET_KEY = ShardRoutingConnectionFactory.class.getName() + ".target";
+
+    public ShardRoutingConnectionFactory(String firstShard, ConnectionFactory first, Map<String, ? extends ConnectionFactory> others) {
+        var shards = new HashMap<String, ConnectionFactory>(others);
+        shards.put(firstShard, first);
+
+        setDefaultTargetConnectionFactory(first);
+        setTargetConnectionFactories(shards);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public static Function<Context, Context> routeTo(String shard) {
+        return context -> context.put(TARGET_KEY, shard);
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(context.getOrEmpty(TARGET_KEY)));
+    }
+
+}
@@ -0,0 +1,281 @@
+package dev.emmanuel.account.persistence.sharding;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static dev.emmanuel.account.persistence.sharding.ShardMap.SLOTS;
+
+/**
+ * The {@link ShardMap} of the {@code shard_slots} table of the first shard, reloaded every
+ * {@code refreshInterval} so the slots moved by any replica (see {@link ShardRebalancer}) are picked up. The
+ * table is seeded with every slot on the first shard, where the accounts are before sharding is enabled.
+ * <p>
+ * Writes are fenced: they're rejected with a {@link ShardUnavailableException} while their slot is being moved
+ * and when the map is older than {@code maxStaleness}, so a replica that can't refresh its map stops writing
+ * before the rebalancer copies a slot it may not know is moving. Reads keep using the last loaded map.
+ */
+@Slf4j
+public class ShardDirectory {
+
+    public static final String FIRST_SHARD = "shard-0";
+
+    private static final String SLOTS_GAUGE = "checking_account.shard.slots";
+    private static final String MAP_AGE_GAUGE = "checking_account.shard.map.age";
+    private static final Duration STARTUP_LOAD_TIMEOUT = Duration.ofSeconds(10);
+
+    private final DatabaseClient directory;
+    private final List<String> shards;
+    private final Duration refreshInterval;
+    private final Duration maxStaleness;
+
+    private volatile ShardMap map;
+    private volatile long loadedAt;
+
+    private Disposable refresh;
+
+    public ShardDirectory(ConnectionFactory firstShard,
+                          List<String> shards,
+                          MeterRegistry meterRegistry,
+                          Duration refreshInterval,
+                          Duration maxStaleness) {
+        this(DatabaseClient.create(firstShard), shards, null, refreshInterval, maxStaleness);
+
+        shards.forEach(shard -> Gauge.builder(SLOTS_GAUGE, this, directory -> directory.slotCount(shard))
+                .description("Slots of the shard map owned by the shard, NaN until the map is loaded")
+                .tag("shard", shard)
+                .register(meterRegistry));
+        Gauge.builder(MAP_AGE_GAUGE, this, ShardDirectory::mapAgeSeconds)
+                .description("Time since the shard map was loaded, writes are rejected beyond the max staleness")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    private ShardDirectory(DatabaseClient directory, List<String> shards, ShardMap map, Duration refreshInterval, Duration maxStaleness) {
+        this.directory = directory;
+        this.shards = List.copyOf(shards);
+        this.map = map;
+        this.refreshInterval = refreshInterval;
+        this.maxStaleness = maxStaleness;
+    }
+
+    /**
+     * Directory of a map that never changes, e.g. to test a map spread over several shards.
+     */
+    public static ShardDirectory fixed(ShardMap map) {
+        return new ShardDirectory(null, map.shards(), map, Duration.ZERO, Duration.ZERO);
+    }
+
+    /**
+     * Directory of a single database, when sharding is disabled.
+     */
+    public static ShardDirectory unsharded() {
+        return fixed(ShardMap.allOn(FIRST_SHARD));
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        if (directory == null) {
+            return;
+        }
+
+        try {
+            load().block(STARTUP_LOAD_TIMEOUT);
+        } catch (RuntimeException ex) {
+            log.error("Failure to load the shard map, accounts can't be read or written until it is", ex);
+        }
+
+        this.refresh = Flux
+                .interval(refreshInterval, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> load().onErrorResume(this::handleLoadFailure), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refresh != null) {
+            refresh.dispose();
+        }
+    }
+
+    public List<String> shards() {
+        return shards;
+    }
+
+    public ShardMap current() {
+        var current = this.map;
+        if (current == null) {
+            throw new ShardUnavailableException("The shard map isn't loaded yet");
+        }
+        return current;
+    }
+
+    /**
+     * Shard holding the accounts of the customer, to read them.
+     */
+    public String shardOf(long customerId) {
+        return current().ownerOf(ShardMap.slotOf(customerId));
+    }
+
+    /**
+     * Shard to write the accounts of the customer to, failing with a {@link ShardUnavailableException} while
+     * they can't be written.
+     */
+    public String writableShardOf(long customerId) {
+        var current = current();
+        if (directory != null && System.nanoTime() - loadedAt > maxStaleness.toNanos()) {
+            throw new ShardUnavailableException("The shard map wasn't refreshed for more than " + maxStaleness);
+        }
+
+        var slot = ShardMap.slotOf(customerId);
+        if (current.isMoving(slot)) {
+            throw new ShardUnavailableException("Slot " + slot + " is being moved to " + current.targetOf(slot));
+        }
+        return current.ownerOf(slot);
+    }
+
+    /**
+     * Reads the map, seeding the table on the first load. The map is as old as the query, not the answer.
+     */
+    public Mono<ShardMap> load() {
+        if (directory == null) {
+            return Mono.just(map);
+        }
+
+        return Mono.defer(() -> {
+            var startedAt = System.nanoTime();
+            return read()
+                    .switchIfEmpty(Mono.defer(() -> seed().then(read())))
+                    .doOnNext(loaded -> {
+                        this.map = loaded;
+                        this.loadedAt = startedAt;
+                    });
+        });
+    }
+
+    /**
+     * Marks the slot as being moved from its owner {@code source} to {@code target}, then reloads the map.
+     */
+    Mono<ShardMap> beginMove(int slot, String source, String target) {
+        return update("update shard_slots set target_shard = :target where slot = :slot and shard = :source and target_shard is null",
+                slot, source, target, "Slot " + slot + " isn't owned by " + source + " or is already being moved");
+    }
+
+    /**
+     * Makes {@code target} the owner of the slot being moved to it, then reloads the map.
+     */
+    Mono<ShardMap> completeMove(int slot, String source, String target) {
+        return update("update shard_slots set shard = :target, target_shard = null where slot = :slot and shard = :source and target_shard = :target",
+                slot, source, target, "Slot " + slot + " isn't being moved from " + source + " to " + target);
+    }
+
+    /**
+     * Gives the slot being moved to {@code target} back to its owner {@code source}, then reloads the map.
+     */
+    Mono<ShardMap> cancelMove(int slot, String source, String target) {
+        return update("update shard_slots set target_shard = null where slot = :slot and shard = :source and target_shard = :target",
+                slot, source, target, "Slot " + slot + " isn't being moved from " + source + " to " + target);
+    }
+
+    private Mono<ShardMap> update(String sql, int slot, String source, String target, String conflict) {
+        return directory
+                .sql(sql)
+                .bind("slot", slot)
+                .bind("source", source)
+                .bind("target", target)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updated -> updated == 0 ? Mono.error(new IllegalStateException(conflict)) : load());
+    }
+
+    private Mono<ShardMap> read() {
+        return directory
+                .sql("select slot, shard, target_shard from shard_slots")
+                .map(row -> new SlotRow(
+                        row.get("slot", Number.class).intValue(),
+                        row.get("shard", String.class),
+                        row.get("target_shard", String.class)))
+                .all()
+                .collectList()
+                .flatMap(rows -> rows.isEmpty() ? Mono.empty() : Mono.fromCallable(() -> toMap(rows)));
+    }
+
+    private ShardMap toMap(List<SlotRow> rows) {
+        var owners = new String[SLOTS];
+        var targets = new String[SLOTS];
+        for (var row : rows) {
+            if (!shards.contains(row.shard) || (row.targetShard != null && !shards.contains(row.targetShard))) {
+                throw new IllegalStateException("Slot " + row.slot + " is assigned to a shard that isn't configured");
+            }
+            owners[row.slot] = row.shard;
+            targets[row.slot] = row.targetShard;
+        }
+        return new ShardMap(owners, targets);
+    }
+
+    /**
+     * Every slot on the first shard; the replicas starting at the same time all try, the first one wins.
+     */
+    private Mono<Void> seed() {
+        var values = IntStream
+                .range(0, SLOTS)
+                .mapToObj(slot -> "(" + slot + ", '" + FIRST_SHARD + "')")
+                .collect(Collectors.joining(", "));
+
+        return directory
+                .sql("insert into shard_slots (slot, shard) values " + values)
+                .then()
+                .doOnSuccess(ignored -> log.info("Shard map seeded with every slot on {}", FIRST_SHARD))
+                .onErrorResume(DataIntegrityViolationException.class, ex -> Mono.empty());
+    }
+
+    private double slotCount(String shard) {
+        var current = this.map;
+        if (current == null) {
+            return Double.NaN;
+        }
+        return current.slotsByShard(shards).get(shard).size();
+    }
+
+    private double mapAgeSeconds() {
+        if (map == null) {
+            return Double.NaN;
+        }
+        return directory == null ? 0 : (System.nanoTime() - loadedAt) / 1e9;
+    }
+
+    private Mono<ShardMap> handleLoadFailure(Throwable ex) {
+        log.error("Failure to refresh the shard map", ex);
+        return Mono.empty();
+    }
+
+    private static class SlotRow {
+
+        private final int slot;
+        private final String shard;
+        private final String targetShard;
+
+        private SlotRow(int slot, String shard, String targetShard) {
+            this.slot = slot;
+            this.shard = shard;
+            this.targetShard = targetShard;
+        }
+
+    }
+
+}
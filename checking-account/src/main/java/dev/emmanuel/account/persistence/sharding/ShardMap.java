@@ -0,0 +1,98 @@
+package dev.emmanuel.account.persistence.sharding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owner shard of every slot of the customer ids, the accounts of a customer living on the shard owning the slot
+ * {@code customer_id % SLOTS}. Slots are the unit moved between shards; a slot being moved has a target shard and
+ * its accounts can't be written until the move completes, the owner keeps serving the reads meanwhile.
+ * <p>
+ * The number of slots is part of the schema (see the {@code shard_slot} column of {@code checking_accounts}).
+ */
+public class ShardMap {
+
+    public static final int SLOTS = 1024;
+
+    private final String[] owners;
+    private final String[] targets;
+
+    /**
+     * {@code targets} holds the target shard of the slots being moved, {@code null} for the others.
+     */
+    public ShardMap(String[] owners, String[] targets) {
+        if (owners.length != SLOTS || targets.length != SLOTS) {
+            throw new IllegalArgumentException("A shard map has " + SLOTS + " slots");
+        }
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (owners[slot] == null) {
+                throw new IllegalArgumentException("Slot " + slot + " has no owner");
+            }
+        }
+
+        this.owners = owners.clone();
+        this.targets = targets.clone();
+    }
+
+    public static ShardMap allOn(String shard) {
+        var owners = new String[SLOTS];
+        Arrays.fill(owners, shard);
+        return new ShardMap(owners, new String[SLOTS]);
+    }
+
+    public static int slotOf(long customerId) {
+        return (int) Math.floorMod(customerId, (long) SLOTS);
+    }
+
+    public String ownerOf(int slot) {
+        return owners[slot];
+    }
+
+    /**
+     * The shard the slot is being moved to, {@code null} when it isn't.
+     */
+    public String targetOf(int slot) {
+        return targets[slot];
+    }
+
+    public boolean isMoving(int slot) {
+        return targets[slot] != null;
+    }
+
+    /**
+     * Every shard of the map, owner or target of a slot.
+     */
+    public List<String> shards() {
+        var shards = new ArrayList<String>();
+        for (int slot = 0; slot < SLOTS; slot++) {
+            addIfAbsent(shards, owners[slot]);
+            if (targets[slot] != null) {
+                addIfAbsent(shards, targets[slot]);
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Slots owned by each of the given shards, in slot order, including the shards owning none.
+     */
+    public Map<String, List<Integer>> slotsByShard(Collection<String> shards) {
+        var slots = new LinkedHashMap<String, List<Integer>>();
+        shards.forEach(shard -> slots.put(shard, new ArrayList<>()));
+        for (int slot = 0; slot < SLOTS; slot++) {
+            slots.computeIfAbsent(owners[slot], shard -> new ArrayList<>()).add(slot);
+        }
+        return slots;
+    }
+
+    private static void addIfAbsent(List<String> shards, String shard) {
+        if (!shards.contains(shard)) {
+            shards.add(shard);
+        }
+    }
+
+}
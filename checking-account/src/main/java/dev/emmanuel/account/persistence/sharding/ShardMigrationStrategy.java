@@ -0,0 +1,58 @@
+package dev.emmanuel.account.persistence.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Applies the migrations of {@code spring.flyway.url}, the first shard, then the same migrations to every other
+ * shard of {@code checking-account.sharding.flyway-urls} when sharding is enabled, with the same user. The urls
+ * are in the order of {@code checking-account.sharding.r2dbc-urls}.
+ */
+@Slf4j
+@Component
+public class ShardMigrationStrategy implements FlywayMigrationStrategy {
+
+    @Value("${checking-account.sharding.enabled:false}")
+    private boolean shardingEnabled;
+
+    @Value("${checking-account.sharding.r2dbc-urls:}")
+    private String shardR2dbcUrls;
+
+    @Value("${checking-account.sharding.flyway-urls:}")
+    private String shardFlywayUrls;
+
+    @Value("${spring.flyway.user:}")
+    private String user;
+
+    @Value("${spring.flyway.password:}")
+    private String password;
+
+    @Override
+    public void migrate(Flyway flyway) {
+        flyway.migrate();
+
+        if (!shardingEnabled) {
+            return;
+        }
+
+        String[] urls = StringUtils.commaDelimitedListToStringArray(shardFlywayUrls);
+        if (urls.length != StringUtils.commaDelimitedListToStringArray(shardR2dbcUrls).length) {
+            throw new IllegalStateException("Every shard of checking-account.sharding.r2dbc-urls needs its checking-account.sharding.flyway-urls");
+        }
+
+        for (int i = 0; i < urls.length; i++) {
+            var result = Flyway
+                    .configure(flyway.getConfiguration().getClassLoader())
+                    .configuration(flyway.getConfiguration())
+                    .dataSource(urls[i].trim(), user, password)
+                    .load()
+                    .migrate();
+            log.info("{} migrations applied to shard-{}", result.migrationsExecuted, i + 1);
+        }
+    }
+
+}
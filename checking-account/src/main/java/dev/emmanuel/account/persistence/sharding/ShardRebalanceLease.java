@@ -0,0 +1,94 @@
+package dev.emmanuel.account.persistence.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static dev.emmanuel.account.persistence.routing.ShardRoutingConnectionFactory.routeTo;
+
+/**
+ * Lease of the {@code shard_rebalance_lease} row of the first shard, held by the instance moving slots so the other
+ * replicas don't move them meanwhile. The holder renews it every third of {@code leaseTime}; one that stops (crashed,
+ * or cut from the first shard) loses it once it expires, and finds out on its next {@link #renew()}. Expiry times are
+ * the database's, the replicas' clocks don't matter.
+ */
+@Slf4j
+class ShardRebalanceLease {
+
+    private final DatabaseClient databaseClient;
+    private final Duration leaseTime;
+    private final String holder = UUID.randomUUID().toString();
+
+    /**
+     * {@code databaseClient} runs on the {@link dev.emmanuel.account.persistence.routing.ShardRoutingConnectionFactory}.
+     */
+    ShardRebalanceLease(DatabaseClient databaseClient, Duration leaseTime) {
+        this.databaseClient = databaseClient;
+        this.leaseTime = leaseTime;
+    }
+
+    /**
+     * Takes the lease when it is free or expired, failing with an {@link IllegalStateException} while another
+     * instance holds it. The lease is renewed until the returned renewal is disposed by {@link #release(Disposable)}.
+     */
+    Mono<Disposable> acquire() {
+        return update("update shard_rebalance_lease set holder = :holder, expires_at = timestampadd(microsecond, :leaseTime, now(6)) " +
+                "where id = 1 and (holder is null or holder = :holder or expires_at < now(6))")
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new IllegalStateException("Slots are already being moved by another instance"))
+                        : Mono.fromCallable(this::keepRenewed));
+    }
+
+    /**
+     * Extends the lease, failing with an {@link IllegalStateException} when another instance took it over.
+     */
+    Mono<Void> renew() {
+        return update("update shard_rebalance_lease set expires_at = timestampadd(microsecond, :leaseTime, now(6)) " +
+                "where id = 1 and holder = :holder")
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new IllegalStateException("The lease of the slot moves was taken over by another instance"))
+                        : Mono.empty());
+    }
+
+    Mono<Void> release(Disposable renewal) {
+        return Mono
+                .fromRunnable(renewal::dispose)
+                .then(databaseClient
+                        .sql("update shard_rebalance_lease set holder = null, expires_at = null where id = 1 and holder = :holder")
+                        .bind("holder", holder)
+                        .then()
+                        .contextWrite(routeTo(ShardDirectory.FIRST_SHARD)))
+                .onErrorResume(ex -> {
+                    log.warn("Failure to release the lease of the slot moves, it expires in {}", leaseTime, ex);
+                    return Mono.empty();
+                });
+    }
+
+    private Disposable keepRenewed() {
+        var interval = leaseTime.dividedBy(3);
+        return Flux
+                .interval(interval, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> renew().onErrorResume(ex -> {
+                    log.error("Failure to renew the lease of the slot moves", ex);
+                    return Mono.empty();
+                }), 1)
+                .subscribe();
+    }
+
+    private Mono<Integer> update(String sql) {
+        return databaseClient
+                .sql(sql)
+                .bind("holder", holder)
+                .bind("leaseTime", leaseTime.toNanos() / 1000)
+                .fetch()
+                .rowsUpdated()
+                .contextWrite(routeTo(ShardDirectory.FIRST_SHARD));
+    }
+
+}
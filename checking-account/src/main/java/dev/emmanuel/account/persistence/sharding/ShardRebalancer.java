@@ -0,0 +1,318 @@
+package dev.emmanuel.account.persistence.sharding;
+
+import dev.emmanuel.account.persistence.converter.CheckingAccountReaderConverter;
+import dev.emmanuel.account.persistence.entity.InsertedCheckingAccount;
+import dev.emmanuel.account.persistence.entity.InsertionPosition;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static dev.emmanuel.account.persistence.routing.ShardRoutingConnectionFactory.routeTo;
+import static dev.emmanuel.account.persistence.sharding.ShardMap.SLOTS;
+
+/**
+ * Moves slots between shards while the application keeps serving them. A slot is moved in steps, each one
+ * visible to every replica through the {@link ShardDirectory}:
+ * <ol>
+ * <li>the slot is marked as moving, its writes are rejected from then on;</li>
+ * <li>after {@code settleTime}, every replica either saw it or stopped writing with a stale map, and the write
+ * transactions started before are over: {@code settleTime} must exceed the max staleness of the map plus the
+ * longest write transaction;</li>
+ * <li>the accounts of the slot are copied to the target, after deleting the ones an interrupted copy left there;</li>
+ * <li>the target becomes the owner of the slot, its writes go there;</li>
+ * <li>after {@code settleTime} again, nobody reads the source copy anymore and it is deleted.</li>
+ * </ol>
+ * A move interrupted before it completes leaves the slot moving, and its writes rejected, until it is run again.
+ * The outbox entries stay on their shard, whose relay publishes them.
+ * <p>
+ * The unique index on iban only holds per shard (see {@link ShardedCheckingAccountRepository}): a slot having an
+ * IBAN of an account of the target isn't moved, the move fails with the IBANs before the slot is marked as moving.
+ * When such an account is opened on the target during the move, the copy fails on the index and the move is canceled,
+ * the slot is writable on its source again.
+ * <p>
+ * Moves run one at a time across the replicas, under the {@link ShardRebalanceLease}. Before deleting the accounts
+ * of a shard, the lease is renewed and the map reloaded to check that the shard doesn't own the slot (nor receives
+ * it, once the slot is moved), so an instance that lost the lease never deletes the only copy.
+ */
+@Slf4j
+public class ShardRebalancer {
+
+    private static final CheckingAccountReaderConverter READER = new CheckingAccountReaderConverter();
+    private static final int MAX_REPORTED_CONFLICTS = 10;
+
+    private final DatabaseClient databaseClient;
+    private final ShardDirectory directory;
+    private final Duration settleTime;
+    private final int batchSize;
+    private final ShardRebalanceLease lease;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * {@code databaseClient} runs on the {@link dev.emmanuel.account.persistence.routing.ShardRoutingConnectionFactory}.
+     */
+    public ShardRebalancer(DatabaseClient databaseClient, ShardDirectory directory, Duration settleTime, Duration leaseTime, int batchSize) {
+        this.databaseClient = databaseClient;
+        this.directory = directory;
+        this.settleTime = settleTime;
+        this.batchSize = batchSize;
+        this.lease = new ShardRebalanceLease(databaseClient, leaseTime);
+    }
+
+    /**
+     * Number of slots owned by every shard, from a fresh load of the map.
+     */
+    public Mono<Map<String, Integer>> slotCounts() {
+        return directory
+                .load()
+                .map(map -> map
+                        .slotsByShard(directory.shards())
+                        .entrySet()
+                        .stream()
+                        .collect(Collectors.toMap(Map.Entry::getKey, shard -> shard.getValue().size(), (a, b) -> a, LinkedHashMap::new)));
+    }
+
+    public Mono<SlotMove> move(int slot, String target) {
+        return Mono
+                .fromRunnable(() -> checkMove(slot, target))
+                .thenMany(exclusively(Mono.defer(() -> moveSlot(slot, target)).flux()))
+                .single();
+    }
+
+    /**
+     * Completes the interrupted moves, then moves slots one at a time until every shard owns as many as the
+     * others, give or take one.
+     */
+    public Flux<SlotMove> rebalance() {
+        return exclusively(directory
+                .load()
+                .flatMapMany(map -> Flux.fromIterable(plan(map, directory.shards()).entrySet()))
+                .concatMap(move -> moveSlot(move.getKey(), move.getValue())));
+    }
+
+    /**
+     * Target shard of the slots to move so the shards own {@code SLOTS / shards} slots each, the first ones one
+     * more to make up for the remainder. The slots being moved come first, to their current target.
+     */
+    static Map<Integer, String> plan(ShardMap map, List<String> shards) {
+        var moves = new LinkedHashMap<Integer, String>();
+        var owned = new LinkedHashMap<String, List<Integer>>();
+        var incoming = new HashMap<String, Integer>();
+        shards.forEach(shard -> owned.put(shard, new ArrayList<>()));
+
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (map.isMoving(slot)) {
+                moves.put(slot, map.targetOf(slot));
+                incoming.merge(map.targetOf(slot), 1, Integer::sum);
+            } else {
+                owned.get(map.ownerOf(slot)).add(slot);
+            }
+        }
+
+        var surplus = new ArrayList<Integer>();
+        var missing = new LinkedHashMap<String, Integer>();
+        for (int i = 0; i < shards.size(); i++) {
+            var shard = shards.get(i);
+            var slots = owned.get(shard);
+            var quota = SLOTS / shards.size() + (i < SLOTS % shards.size() ? 1 : 0);
+            var excess = slots.size() + incoming.getOrDefault(shard, 0) - quota;
+            for (; excess > 0 && !slots.isEmpty(); excess--) {
+                surplus.add(slots.remove(slots.size() - 1));
+            }
+            missing.put(shard, -excess);
+        }
+
+        var next = surplus.iterator();
+        missing.forEach((shard, count) -> {
+            for (int i = 0; i < count && next.hasNext(); i++) {
+                moves.put(next.next(), shard);
+            }
+        });
+        return moves;
+    }
+
+    private void checkMove(int slot, String target) {
+        if (slot < 0 || slot >= SLOTS) {
+            throw new IllegalArgumentException("Slot " + slot + " doesn't exist, slots go from 0 to " + (SLOTS - 1));
+        }
+        if (!directory.shards().contains(target)) {
+            throw new IllegalArgumentException("Shard " + target + " isn't configured");
+        }
+    }
+
+    private Mono<SlotMove> moveSlot(int slot, String target) {
+        return directory.load().flatMap(map -> {
+            var source = map.ownerOf(slot);
+            if (map.isMoving(slot) && !target.equals(map.targetOf(slot))) {
+                return Mono.error(new IllegalStateException("Slot " + slot + " is being moved to " + map.targetOf(slot)));
+            }
+            if (source.equals(target)) {
+                return Mono.just(new SlotMove(slot, source, target, 0));
+            }
+
+            var begin = map.isMoving(slot) ? Mono.<ShardMap>empty() : checkIbansAbsent(slot, source, target).then(directory.beginMove(slot, source, target));
+            return begin
+                    .then(settle())
+                    .then(copy(slot, source, target).onErrorResume(DataIntegrityViolationException.class, ex -> cancel(slot, source, target, ex)))
+                    .flatMap(copied -> directory
+                            .completeMove(slot, source, target)
+                            .then(settle())
+                            .then(ensure(slot, moved -> !source.equals(moved.ownerOf(slot)) && !source.equals(moved.targetOf(slot)),
+                                    "Slot " + slot + " was moved back to " + source + " meanwhile"))
+                            .then(delete(slot, source))
+                            .thenReturn(new SlotMove(slot, source, target, copied)))
+                    .doOnNext(move -> log.info("Slot {} moved from {} to {} with {} accounts", slot, source, target, move.getAccounts()));
+        });
+    }
+
+    private Mono<Void> settle() {
+        return Mono.delay(settleTime).then();
+    }
+
+    /**
+     * Fails with the IBANs of the accounts of the slot that accounts of the target already have.
+     */
+    private Mono<Void> checkIbansAbsent(int slot, String source, String target) {
+        return ibanPage(slot, source, 0)
+                .expand(page -> page.size() == batchSize ? ibanPage(slot, source, page.get(page.size() - 1).getT1()) : Mono.empty())
+                .filter(page -> !page.isEmpty())
+                .concatMap(page -> databaseClient
+                        .sql("select ca.iban from checking_accounts ca where ca.iban in (:ibans)")
+                        .bind("ibans", page.stream().map(Tuple2::getT2).collect(Collectors.toList()))
+                        .map(row -> row.get("iban", String.class))
+                        .all()
+                        .contextWrite(routeTo(target)))
+                .take(MAX_REPORTED_CONFLICTS)
+                .collectList()
+                .flatMap(conflicts -> conflicts.isEmpty() ? Mono.<Void>empty() : Mono.error(new IllegalStateException(
+                        "Slot " + slot + " can't be moved to " + target + ", accounts of both have the IBANs " + conflicts)));
+    }
+
+    private Mono<List<Tuple2<Long, String>>> ibanPage(int slot, String shard, long afterId) {
+        return databaseClient
+                .sql("select ca.id, ca.iban from checking_accounts ca where ca.shard_slot = :slot and ca.id > :afterId order by ca.id limit :limit")
+                .bind("slot", slot)
+                .bind("afterId", afterId)
+                .bind("limit", batchSize)
+                .map(row -> Tuples.of(row.get("id", Long.class), row.get("iban", String.class)))
+                .all()
+                .collectList()
+                .contextWrite(routeTo(shard));
+    }
+
+    /**
+     * Gives the slot back to its source after the copy failed on a unique index of the target, deleting the
+     * accounts copied so far.
+     */
+    private Mono<Long> cancel(int slot, String source, String target, DataIntegrityViolationException ex) {
+        log.warn("Move of slot {} from {} to {} canceled, the copy failed on a unique index", slot, source, target, ex);
+        return ensure(slot, map -> source.equals(map.ownerOf(slot)) && target.equals(map.targetOf(slot)),
+                "Slot " + slot + " is no longer being moved from " + source + " to " + target)
+                .then(delete(slot, target))
+                .then(directory.cancelMove(slot, source, target))
+                .then(Mono.error(new IllegalStateException("Slot " + slot + " can't be moved to " + target
+                        + ", accounts of both have the same IBAN: the move is canceled", ex)));
+    }
+
+    private Mono<Long> copy(int slot, String source, String target) {
+        return ensure(slot, map -> source.equals(map.ownerOf(slot)) && target.equals(map.targetOf(slot)),
+                "Slot " + slot + " is no longer being moved from " + source + " to " + target)
+                .then(delete(slot, target))
+                .then(copyPage(slot, source, target, 0)
+                .expand(page -> page.size() == batchSize ? copyPage(slot, source, target, page.get(page.size() - 1).getPosition().getId()) : Mono.empty())
+                .reduce(0L, (copied, page) -> copied + page.size()));
+    }
+
+    private Mono<List<InsertedCheckingAccount>> copyPage(int slot, String source, String target, long afterId) {
+        return databaseClient
+                .sql("select ca.* from checking_accounts ca where ca.shard_slot = :slot and ca.id > :afterId order by ca.id limit :limit")
+                .bind("slot", slot)
+                .bind("afterId", afterId)
+                .bind("limit", batchSize)
+                .map(row -> InsertedCheckingAccount.of(
+                        InsertionPosition.of(row.get("created_at", LocalDateTime.class), row.get("id", Long.class)),
+                        READER.convert(row)))
+                .all()
+                .collectList()
+                .contextWrite(routeTo(source))
+                .flatMap(page -> page.isEmpty() ? Mono.just(page) : insert(page).contextWrite(routeTo(target)).thenReturn(page));
+    }
+
+    /**
+     * Inserts the accounts as they are, version and insertion time included.
+     */
+    private Mono<Integer> insert(List<InsertedCheckingAccount> accounts) {
+        var values = IntStream.range(0, accounts.size())
+                .mapToObj(row -> String.format("(:id%1$d, :version%1$d, :iban%1$d, :currency%1$d, :customerId%1$d, :customerName%1$d, :createdAt%1$d)", row))
+                .collect(Collectors.joining(", "));
+
+        var insert = databaseClient
+                .sql("insert into checking_accounts (id, version, iban, currency, customer_id, customer_name, created_at) values " + values);
+        for (int row = 0; row < accounts.size(); row++) {
+            var account = accounts.get(row).getCheckingAccount();
+            insert = insert
+                    .bind("id" + row, account.getId())
+                    .bind("version" + row, account.getVersion())
+                    .bind("iban" + row, account.getIban())
+                    .bind("currency" + row, account.getCurrency())
+                    .bind("customerId" + row, account.getCustomer().getId())
+                    .bind("customerName" + row, account.getCustomer().getName())
+                    .bind("createdAt" + row, accounts.get(row).getPosition().getCreatedAt());
+        }
+        return insert.fetch().rowsUpdated();
+    }
+
+    private Mono<Long> delete(int slot, String shard) {
+        return deleteBatch(slot, shard)
+                .expand(deleted -> deleted == batchSize ? deleteBatch(slot, shard) : Mono.empty())
+                .reduce(0L, (total, deleted) -> total + deleted);
+    }
+
+    private Mono<Integer> deleteBatch(int slot, String shard) {
+        return databaseClient
+                .sql("delete from checking_accounts where shard_slot = :slot limit :limit")
+                .bind("slot", slot)
+                .bind("limit", batchSize)
+                .fetch()
+                .rowsUpdated()
+                .contextWrite(routeTo(shard));
+    }
+
+    /**
+     * Checks on a fresh map, while the lease is still held, that the slot is as expected before a destructive step.
+     */
+    private Mono<Void> ensure(int slot, Predicate<ShardMap> expected, String conflict) {
+        return lease
+                .renew()
+                .then(directory.load())
+                .flatMap(map -> expected.test(map) ? Mono.<Void>empty() : Mono.error(new IllegalStateException(conflict)));
+    }
+
+    private <T> Flux<T> exclusively(Flux<T> work) {
+        return Flux.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                return Flux.error(new IllegalStateException("Slots are already being moved by this instance"));
+            }
+            return Flux
+                    .usingWhen(lease.acquire(), renewal -> work, lease::release)
+                    .doFinally(signal -> running.set(false));
+        });
+    }
+
+}
@@ -0,0 +1,13 @@
+package dev.emmanuel.account.persistence.sharding;
+
+/**
+ * The shard of a customer can't be written right now: its slot is being moved to another shard, or the shard
+ * map of this instance is missing or too old to be trusted. Retrying shortly succeeds.
+ */
+public class ShardUnavailableException extends RuntimeException {
+
+    public ShardUnavailableException(String message) {
+        super(message);
+    }
+
+}
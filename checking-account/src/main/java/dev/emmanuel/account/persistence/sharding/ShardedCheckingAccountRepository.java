@@ -0,0 +1,264 @@
+package dev.emmanuel.account.persistence.sharding;
+
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.InsertedCheckingAccount;
+import dev.emmanuel.account.persistence.entity.InsertionPosition;
+import dev.emmanuel.account.persistence.repository.CheckingAccountRepository;
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static dev.emmanuel.account.persistence.routing.ShardRoutingConnectionFactory.routeTo;
+
+/**
+ * {@link CheckingAccountRepository} over the shards of the {@link ShardDirectory}, the delegate running on the
+ * {@link dev.emmanuel.account.persistence.routing.ShardRoutingConnectionFactory}. Statements by customer and
+ * writes go to the shard of the customer, writes failing with a {@link ShardUnavailableException} while it can't
+ * be written. Lookups by id or iban and the listings query every shard and merge the answers.
+ * <p>
+ * While a slot is moved its accounts are on two shards for a while; the copy of the shard owning the slot in the
+ * map is the one read, and counted.
+ * <p>
+ * The unique indexes of {@code checking_accounts} only hold per shard. A customer is on a single shard so it still
+ * has one account, but an IBAN is only rejected as already opened when the account having it is on the same
+ * shard: customers of different shards can open accounts with the same IBAN, {@link #findByIban} then answers the
+ * one of the lowest id. Such IBANs are reported by the {@link ShardRebalancer}, which doesn't move a slot to a shard
+ * having one of its IBANs.
+ */
+@RequiredArgsConstructor
+public class ShardedCheckingAccountRepository implements CheckingAccountRepository {
+
+    private static final Comparator<Tuple2<String, InsertedCheckingAccount>> BY_POSITION = Comparator.comparing(copy -> copy.getT2().getPosition());
+
+    private final CheckingAccountRepository delegate;
+    private final ShardDirectory directory;
+
+    @Override
+    public Mono<CheckingAccount> insertIfAbsent(CheckingAccount checkingAccount) {
+        return onWritableShard(checkingAccount, () -> delegate.insertIfAbsent(checkingAccount));
+    }
+
+    /**
+     * The accounts must all be on the same shard, a multi-row insert can't span several.
+     */
+    @Override
+    public Flux<CheckingAccount> insertAllIfAbsent(List<CheckingAccount> checkingAccounts) {
+        return Mono
+                .fromCallable(() -> singleWritableShard(checkingAccounts))
+                .flatMapMany(shard -> delegate.insertAllIfAbsent(checkingAccounts).contextWrite(routeTo(shard)));
+    }
+
+    @Override
+    public Mono<CheckingAccount> findByCustomerId(long customerId) {
+        return Mono
+                .fromCallable(() -> directory.shardOf(customerId))
+                .flatMap(shard -> delegate.findByCustomerId(customerId).contextWrite(routeTo(shard)));
+    }
+
+    @Override
+    public Mono<CheckingAccount> findByIban(String iban) {
+        return findOnAnyShard(() -> delegate.findByIban(iban));
+    }
+
+    /**
+     * Merges the pages of every shard in insertion order, the copies of an account on two shards keeping its
+     * position. A shard answering a full page gives at least {@code limit} distinct accounts, so the merged page is
+     * only short when every shard is exhausted. The shards stamp {@code created_at} with their own clocks.
+     */
+    @Override
+    public Flux<InsertedCheckingAccount> findPageInsertedAfter(InsertionPosition after, int limit) {
+        return Flux
+                .defer(() -> Flux.mergeComparing(BY_POSITION, pagesInsertedAfter(after, limit)))
+                .bufferUntilChanged(copy -> copy.getT2().getPosition())
+                .map(copies -> read(copies, inserted -> inserted.getCheckingAccount().getCustomer().getId()))
+                .take(limit);
+    }
+
+    @Override
+    public Mono<InsertionPosition> findInsertionPosition(long id) {
+        return Flux
+                .defer(() -> Flux.fromIterable(directory.shards()))
+                .flatMap(shard -> delegate.findInsertionPosition(id).contextWrite(routeTo(shard)))
+                .next();
+    }
+
+    @Override
+    public <S extends CheckingAccount> Mono<S> save(S entity) {
+        return onWritableShard(entity, () -> delegate.save(entity));
+    }
+
+    @Override
+    public <S extends CheckingAccount> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends CheckingAccount> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream).concatMap(this::save);
+    }
+
+    @Override
+    public Mono<CheckingAccount> findById(Long id) {
+        return findOnAnyShard(() -> delegate.findById(id));
+    }
+
+    @Override
+    public Mono<CheckingAccount> findById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Long id) {
+        return findById(id).hasElement();
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<CheckingAccount> findAll() {
+        return Flux
+                .defer(() -> Flux.fromIterable(directory.shards()))
+                .flatMap(shard -> delegate
+                        .findAll()
+                        .filter(account -> shard.equals(directory.shardOf(account.getCustomer().getId())))
+                        .contextWrite(routeTo(shard)));
+    }
+
+    @Override
+    public Flux<CheckingAccount> findAllById(Iterable<Long> ids) {
+        return Flux.fromIterable(ids).concatMap(this::findById);
+    }
+
+    @Override
+    public Flux<CheckingAccount> findAllById(Publisher<Long> idStream) {
+        return Flux.from(idStream).concatMap(this::findById);
+    }
+
+    /**
+     * Counts the accounts of every slot on the shard owning it, leaving out the copies of a slot being moved.
+     */
+    @Override
+    public Mono<Long> countInSlots(Collection<Integer> slots) {
+        return Flux
+                .defer(() -> Flux.fromIterable(slotsByOwner(slots).entrySet()))
+                .flatMap(owned -> delegate.countInSlots(owned.getValue()).contextWrite(routeTo(owned.getKey())))
+                .reduce(0L, Long::sum);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return countInSlots(IntStream.range(0, ShardMap.SLOTS).boxed().collect(Collectors.toList()));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return findById(id).flatMap(this::delete);
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(CheckingAccount entity) {
+        return onWritableShard(entity, () -> delegate.delete(entity));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends CheckingAccount> entities) {
+        return Flux.fromIterable(entities).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends CheckingAccount> entityStream) {
+        return Flux.from(entityStream).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Flux
+                .defer(() -> Flux.fromIterable(directory.shards()))
+                .flatMap(shard -> delegate.deleteAll().contextWrite(routeTo(shard)))
+                .then();
+    }
+
+    private <T> Mono<T> onWritableShard(CheckingAccount checkingAccount, Supplier<Mono<T>> write) {
+        return Mono
+                .fromCallable(() -> directory.writableShardOf(checkingAccount.getCustomer().getId()))
+                .flatMap(shard -> Mono.defer(write).contextWrite(routeTo(shard)));
+    }
+
+    private String singleWritableShard(List<CheckingAccount> checkingAccounts) {
+        var shards = checkingAccounts
+                .stream()
+                .map(account -> directory.writableShardOf(account.getCustomer().getId()))
+                .distinct()
+                .collect(Collectors.toList());
+        if (shards.size() != 1) {
+            throw new IllegalArgumentException("The accounts to insert together must be on the same shard");
+        }
+        return shards.get(0);
+    }
+
+    private Map<String, List<Integer>> slotsByOwner(Collection<Integer> slots) {
+        var map = directory.current();
+        return slots.stream().collect(Collectors.groupingBy(map::ownerOf, LinkedHashMap::new, Collectors.toList()));
+    }
+
+    /**
+     * The account of the lowest id found, several when the shards answer accounts sharing an IBAN.
+     */
+    private Mono<CheckingAccount> findOnAnyShard(Supplier<Mono<CheckingAccount>> query) {
+        return Flux
+                .defer(() -> Flux.fromIterable(directory.shards()))
+                .flatMap(shard -> tagged(shard, query.get()))
+                .collect(Collectors.groupingBy(copy -> copy.getT2().getId(), TreeMap::new, Collectors.toList()))
+                .filter(copiesById -> !copiesById.isEmpty())
+                .map(copiesById -> read(copiesById.firstEntry().getValue(), account -> account.getCustomer().getId()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Publisher<Tuple2<String, InsertedCheckingAccount>>[] pagesInsertedAfter(InsertionPosition after, int limit) {
+        return directory
+                .shards()
+                .stream()
+                .map(shard -> tagged(shard, delegate.findPageInsertedAfter(after, limit)))
+                .toArray(Publisher[]::new);
+    }
+
+    private <T> Flux<Tuple2<String, T>> tagged(String shard, Publisher<T> query) {
+        return Flux.from(query).map(account -> Tuples.of(shard, account)).contextWrite(routeTo(shard));
+    }
+
+    /**
+     * The copy of the shard owning the account, any copy when none of them is (a slot moved meanwhile).
+     */
+    private <T> T read(List<Tuple2<String, T>> copies, Function<T, Long> customerId) {
+        var owner = directory.shardOf(customerId.apply(copies.get(0).getT2()));
+        return copies
+                .stream()
+                .filter(copy -> copy.getT1().equals(owner))
+                .findFirst()
+                .orElse(copies.get(0))
+                .getT2();
+    }
+
+}
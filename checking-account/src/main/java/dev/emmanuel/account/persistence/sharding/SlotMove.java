@@ -0,0 +1,16 @@
+package dev.emmanuel.account.persistence.sharding;
+
+import lombok.Value;
+
+/**
+ * A slot moved by the {@link ShardRebalancer}, with the number of accounts copied.
+ */
+@Value
+public class SlotMove {
+
+    int slot;
+    String source;
+    String target;
+    long accounts;
+
+}
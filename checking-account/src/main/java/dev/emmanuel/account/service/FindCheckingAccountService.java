@@ -0,0 +1,31 @@
+package dev.emmanuel.account.service;
+
+import dev.emmanuel.account.persistence.cache.CheckingAccountCache;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.repository.CheckingAccountRepository;
+import dev.emmanuel.account.persistence.routing.ReplicaReads;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+public class FindCheckingAccountService {
+
+    private final CheckingAccountRepository checkingAccountRepository;
+    private final CheckingAccountCache checkingAccountCache;
+    private final ReplicaReads replicaReads;
+
+    public Mono<CheckingAccount> findById(long id) {
+        return checkingAccountCache.getById(id, key -> replicaReads.read(() -> checkingAccountRepository.findById(key)));
+    }
+
+    public Mono<CheckingAccount> findByCustomerId(long customerId) {
+        return checkingAccountCache.getByCustomerId(customerId, key -> replicaReads.read(() -> checkingAccountRepository.findByCustomerId(key)));
+    }
+
+    public Mono<CheckingAccount> findByIban(String iban) {
+        return checkingAccountCache.getByIban(iban, key -> replicaReads.read(() -> checkingAccountRepository.findByIban(key)));
+    }
+
+}
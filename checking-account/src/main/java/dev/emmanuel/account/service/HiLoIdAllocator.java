@@ -0,0 +1,114 @@
+package dev.emmanuel.account.service;
+
+import dev.emmanuel.account.persistence.repository.IdSequenceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out the ids of a sequence before the rows are inserted (hi/lo): blocks of {@code blockSize} ids are
+ * reserved from the {@link IdSequenceRepository} with one round trip each, and the ids of the current block are
+ * taken lock-free. The callers running out of a block share the reservation of the next one.
+ * <p>
+ * Blocks are disjoint across replicas, so ids are unique but only increasing per replica, and the ids left in
+ * the current block are skipped when the application stops.
+ */
+public class HiLoIdAllocator {
+
+    private final IdSequenceRepository sequenceRepository;
+    private final String sequence;
+    private final int blockSize;
+    private final Timer reservations;
+
+    private final AtomicReference<Block> current = new AtomicReference<>(new Block(0, 0));
+    private final SingleFlight<Block, Block> refills = new SingleFlight<>(() -> {
+    });
+
+    public HiLoIdAllocator(IdSequenceRepository sequenceRepository, String sequence, int blockSize, MeterRegistry meterRegistry) {
+        this.sequenceRepository = sequenceRepository;
+        this.sequence = sequence;
+        this.blockSize = blockSize;
+        this.reservations = Timer
+                .builder("checking_account.id.block.reservations")
+                .description("Reservations of a block of ids, the allocations waiting for one wait this long")
+                .tag("sequence", sequence)
+                .register(meterRegistry);
+    }
+
+    public Mono<Long> next() {
+        return next(1).map(ids -> ids[0]);
+    }
+
+    /**
+     * {@code count} increasing ids, consecutive unless they span two blocks.
+     */
+    public Mono<long[]> next(int count) {
+        return Mono.defer(() -> take(new long[count], 0));
+    }
+
+    private Mono<long[]> take(long[] ids, int taken) {
+        var block = current.get();
+        var filled = block.take(ids, taken);
+        if (filled == ids.length) {
+            return Mono.just(ids);
+        }
+        return refill(block).flatMap(ignored -> take(ids, filled));
+    }
+
+    /**
+     * Replaces the exhausted block, unless that was already done by a caller that ran out of it before.
+     */
+    private Mono<Block> refill(Block exhausted) {
+        return refills.execute(exhausted, exhausted, () -> {
+            var latest = current.get();
+            if (latest != exhausted) {
+                return Mono.just(latest);
+            }
+
+            var startedAt = System.nanoTime();
+            return sequenceRepository
+                    .reserve(sequence, blockSize)
+                    .map(first -> new Block(first, first + blockSize))
+                    .doOnNext(current::set)
+                    .doOnNext(block -> reservations.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * Ids from {@code next} until {@code end} (excluded), claimed by moving {@code next} past them.
+     */
+    private static class Block {
+
+        private final long end;
+        private final AtomicLong next;
+
+        private Block(long first, long end) {
+            this.end = end;
+            this.next = new AtomicLong(first);
+        }
+
+        /**
+         * Fills {@code ids} from index {@code from} with as many ids as the block has left, returning the index
+         * after the last filled one.
+         */
+        private int take(long[] ids, int from) {
+            var wanted = ids.length - from;
+            var first = next.getAndAdd(wanted);
+            if (first >= end) {
+                return from;
+            }
+
+            var available = (int) Math.min(wanted, end - first);
+            for (int i = 0; i < available; i++) {
+                ids[from + i] = first + i;
+            }
+            return from + available;
+        }
+
+    }
+
+}
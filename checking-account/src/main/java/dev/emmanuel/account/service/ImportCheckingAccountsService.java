@@ -0,0 +1,186 @@
+package dev.emmanuel.account.service;
+
+import dev.emmanuel.account.exception.CheckingAccountAlreadyOpened;
+import dev.emmanuel.account.persistence.cache.CheckingAccountCache;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.filter.CustomerIdFilter;
+import dev.emmanuel.account.persistence.sharding.ShardDirectory;
+import dev.emmanuel.account.persistence.sharding.ShardUnavailableException;
+import dev.emmanuel.account.validator.CheckingAccountInputValidator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Opens the accounts of a bulk import, e.g. a migration from a legacy system. Records are validated one by one
+ * and the valid ones are inserted {@code chunk-size} at a time, each chunk with its "opened" events in a single
+ * transaction. Chunks are written one after the other and records are only requested from upstream as chunks
+ * complete, so memory stays bounded whatever the size of the import. Results are emitted in record order: every
+ * record before the last result emitted has been handled, and the import can be resumed from there. The valid
+ * records of a chunk are written in one transaction per shard of their customers (see {@link ShardDirectory}).
+ * A record that can't be written, its shard being unavailable or the write failing, gets a {@code FAILED} result
+ * and the import goes on.
+ */
+@Slf4j
+@Service
+public class ImportCheckingAccountsService {
+
+    private static final String RECORDS_COUNTER = "checking_account.import.records";
+    private static final String WRITE_FAILED = "The account couldn't be written, the line can be imported again";
+
+    private final OpenCheckingAccountWriter writer;
+    private final CheckingAccountInputValidator inputValidator;
+    private final CustomerIdFilter customerIdFilter;
+    private final CheckingAccountCache checkingAccountCache;
+    private final ShardDirectory shardDirectory;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+
+    public ImportCheckingAccountsService(OpenCheckingAccountWriter writer,
+                                         CheckingAccountInputValidator inputValidator,
+                                         CustomerIdFilter customerIdFilter,
+                                         CheckingAccountCache checkingAccountCache,
+                                         ShardDirectory shardDirectory,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${checking-account.import.chunk-size:500}") int chunkSize) {
+        this.writer = writer;
+        this.inputValidator = inputValidator;
+        this.customerIdFilter = customerIdFilter;
+        this.checkingAccountCache = checkingAccountCache;
+        this.shardDirectory = shardDirectory;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+    }
+
+    public Flux<ImportResult> importAccounts(Flux<ImportRecord> records) {
+        return records
+                .buffer(chunkSize)
+                .concatMap(this::importChunk, 1)
+                .doOnNext(this::count);
+    }
+
+    private Flux<ImportResult> importChunk(List<ImportRecord> chunk) {
+        var results = new ArrayList<ImportResult>(chunk.size());
+        var valid = new ArrayList<ImportRecord>(chunk.size());
+
+        for (var record : chunk) {
+            if (record.getMalformedReason() != null) {
+                results.add(ImportResult.malformed(record.getLine(), record.getMalformedReason()));
+                continue;
+            }
+
+            var violations = inputValidator.violations(record.getCheckingAccount());
+            if (violations.isEmpty()) {
+                valid.add(record);
+            } else {
+                results.add(ImportResult.invalid(record.getLine(), CheckingAccountInputValidator.INVALID_INPUT, violations));
+            }
+        }
+
+        return writeByShard(valid)
+                .map(written -> {
+                    results.addAll(written);
+                    results.sort(Comparator.comparingLong(ImportResult::getLine));
+                    return results;
+                })
+                .flatMapIterable(sorted -> sorted);
+    }
+
+    private Mono<List<ImportResult>> writeByShard(List<ImportRecord> records) {
+        var unavailable = new ArrayList<ImportResult>();
+        var byShard = new LinkedHashMap<String, List<ImportRecord>>();
+        for (var record : records) {
+            try {
+                var shard = shardDirectory.writableShardOf(record.getCheckingAccount().getCustomer().getId());
+                byShard.computeIfAbsent(shard, ignored -> new ArrayList<>()).add(record);
+            } catch (ShardUnavailableException ex) {
+                unavailable.add(ImportResult.failed(record.getLine(), ex.getMessage()));
+            }
+        }
+
+        return Flux
+                .fromIterable(byShard.values())
+                .concatMap(this::write)
+                .collectList()
+                .map(written -> Stream
+                        .concat(unavailable.stream(), written.stream().flatMap(List::stream))
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Writes the records, all on the same shard, at once; when they hold an already opened account, record by
+     * record so only that one is rejected. When the write fails otherwise, every record fails.
+     */
+    private Mono<List<ImportResult>> write(List<ImportRecord> records) {
+        if (records.isEmpty()) {
+            return Mono.just(List.of());
+        }
+
+        var accounts = records.stream().map(ImportRecord::getCheckingAccount).collect(Collectors.toList());
+
+        return writer
+                .writeAll(accounts)
+                .map(opened -> {
+                    List<ImportResult> results = new ArrayList<>(opened.size());
+                    for (int i = 0; i < opened.size(); i++) {
+                        results.add(opened(records.get(i).getLine(), opened.get(i)));
+                    }
+                    return results;
+                })
+                .onErrorResume(ex -> ex instanceof CheckingAccountAlreadyOpened
+                        ? writeOneByOne(records)
+                        : Mono.just(failed(records, ex)));
+    }
+
+    private Mono<List<ImportResult>> writeOneByOne(List<ImportRecord> records) {
+        return Flux
+                .fromIterable(records)
+                .concatMap(record -> writer
+                        .write(record.getCheckingAccount())
+                        .map(opened -> opened(record.getLine(), opened))
+                        .onErrorResume(ex -> Mono.just(ex instanceof CheckingAccountAlreadyOpened
+                                ? ImportResult.alreadyOpened(record.getLine(), ex.getMessage())
+                                : failed(List.of(record), ex).get(0))))
+                .collectList();
+    }
+
+    private List<ImportResult> failed(List<ImportRecord> records, Throwable ex) {
+        String message;
+        if (ex instanceof ShardUnavailableException) {
+            message = ex.getMessage();
+        } else {
+            log.error("Failure to import the accounts of lines {} to {}", records.get(0).getLine(), records.get(records.size() - 1).getLine(), ex);
+            message = WRITE_FAILED;
+        }
+        return records
+                .stream()
+                .map(record -> ImportResult.failed(record.getLine(), message))
+                .collect(Collectors.toList());
+    }
+
+    private ImportResult opened(long line, CheckingAccount opened) {
+        customerIdFilter.recordOpened(opened.getCustomer().getId());
+        checkingAccountCache.evict(opened);
+        return ImportResult.opened(line, opened.getId());
+    }
+
+    private void count(ImportResult result) {
+        Counter.builder(RECORDS_COUNTER)
+                .description("Records of bulk imports, by outcome")
+                .tag("status", result.getStatus().name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+    }
+
+}
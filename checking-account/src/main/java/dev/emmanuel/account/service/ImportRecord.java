@@ -0,0 +1,24 @@
+package dev.emmanuel.account.service;
+
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import lombok.Value;
+
+/**
+ * Account read from a line of an import, or the reason the line couldn't be read.
+ */
+@Value
+public class ImportRecord {
+
+    private final long line;
+    private final CheckingAccount checkingAccount;
+    private final String malformedReason;
+
+    public static ImportRecord of(long line, CheckingAccount checkingAccount) {
+        return new ImportRecord(line, checkingAccount, null);
+    }
+
+    public static ImportRecord malformed(long line, String reason) {
+        return new ImportRecord(line, null, reason);
+    }
+
+}
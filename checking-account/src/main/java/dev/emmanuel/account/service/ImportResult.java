@@ -0,0 +1,47 @@
+package dev.emmanuel.account.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import dev.emmanuel.account.exception.violation.Violation;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Outcome of an imported line: the id of the opened account, or why it wasn't opened. A {@code FAILED} line
+ * couldn't be written (e.g. its shard was unavailable) and can be imported again.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class ImportResult {
+
+    public enum Status {
+        OPENED, ALREADY_OPENED, INVALID, MALFORMED, FAILED
+    }
+
+    private final long line;
+    private final Status status;
+    private final Long id;
+    private final String message;
+    private final List<Violation> violations;
+
+    public static ImportResult opened(long line, long id) {
+        return new ImportResult(line, Status.OPENED, id, null, null);
+    }
+
+    public static ImportResult alreadyOpened(long line, String message) {
+        return new ImportResult(line, Status.ALREADY_OPENED, null, message, null);
+    }
+
+    public static ImportResult invalid(long line, String message, List<Violation> violations) {
+        return new ImportResult(line, Status.INVALID, null, message, violations);
+    }
+
+    public static ImportResult malformed(long line, String message) {
+        return new ImportResult(line, Status.MALFORMED, null, message, null);
+    }
+
+    public static ImportResult failed(long line, String message) {
+        return new ImportResult(line, Status.FAILED, null, message, null);
+    }
+
+}
@@ -0,0 +1,67 @@
+package dev.emmanuel.account.service;
+
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.InsertedCheckingAccount;
+import dev.emmanuel.account.persistence.entity.InsertionPosition;
+import dev.emmanuel.account.persistence.repository.CheckingAccountRepository;
+import dev.emmanuel.account.persistence.routing.ReplicaReads;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+public class ListCheckingAccountsService {
+
+    private final CheckingAccountRepository checkingAccountRepository;
+    private final ReplicaReads replicaReads;
+    private final int pageSize;
+
+    public ListCheckingAccountsService(CheckingAccountRepository checkingAccountRepository,
+                                       ReplicaReads replicaReads,
+                                       @Value("${checking-account.listing.page-size:500}") int pageSize) {
+        this.checkingAccountRepository = checkingAccountRepository;
+        this.replicaReads = replicaReads;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Streams every account inserted after the account {@code afterId}, in insertion order (0 streams them all).
+     * Rows flow straight from the keyset page queries to the subscriber, the next page is only queried once the
+     * previous one has been consumed, so memory doesn't grow with the table. An account that isn't found (not
+     * replicated yet) streams them all too, so that none is skipped.
+     */
+    public Flux<CheckingAccount> findAllAfter(long afterId) {
+        return Flux.defer(() -> {
+            var cursor = new AtomicReference<InsertionPosition>();
+            var pageRows = new AtomicInteger();
+
+            return positionOf(afterId)
+                    .doOnNext(cursor::set)
+                    .thenMany(Flux
+                            .defer(() -> {
+                                pageRows.set(0);
+                                return replicaReads.readMany(() -> checkingAccountRepository.findPageInsertedAfter(cursor.get(), pageSize));
+                            })
+                            .doOnNext(inserted -> {
+                                cursor.set(inserted.getPosition());
+                                pageRows.incrementAndGet();
+                            })
+                            .repeat(() -> pageRows.get() == pageSize))
+                    .map(InsertedCheckingAccount::getCheckingAccount);
+        });
+    }
+
+    private Mono<InsertionPosition> positionOf(long afterId) {
+        if (afterId == 0) {
+            return Mono.just(InsertionPosition.START);
+        }
+        return replicaReads
+                .read(() -> checkingAccountRepository.findInsertionPosition(afterId))
+                .defaultIfEmpty(InsertionPosition.START);
+    }
+
+}
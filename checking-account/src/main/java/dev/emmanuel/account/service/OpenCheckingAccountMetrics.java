@@ -0,0 +1,104 @@
+package dev.emmanuel.account.service;
+
+import dev.emmanuel.account.tracing.Span;
+import dev.emmanuel.account.tracing.Tracer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the open account requests and of each stage they go through (validation, existent account
+ * lookup, insert, outbox record), with percentile histograms so the stage owning the tail latency can be
+ * told apart. Timers are tagged with the result and the exception, if any, like {@code http.server.requests}.
+ * Stages of a sampled request are also exported as spans of its trace, see {@link Tracer}.
+ */
+@Component
+public class OpenCheckingAccountMetrics {
+
+    private static final String REQUEST_TIMER = "checking_account.open.requests";
+    private static final String STAGE_TIMER = "checking_account.open.stage";
+    private static final String COALESCED_COUNTER = "checking_account.open.coalesced";
+    private static final String BATCH_SIZE_SUMMARY = "checking_account.open.batch.size";
+    private static final String BATCH_QUEUE_WAIT_TIMER = "checking_account.open.batch.queue_wait";
+
+    private final MeterRegistry meterRegistry;
+
+    public OpenCheckingAccountMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> Mono<T> timeRequest(Mono<T> request) {
+        return time(REQUEST_TIMER, "Latency to open a checking account", Tags.empty(), null, request);
+    }
+
+    public <T> Mono<T> timeStage(String stage, Mono<T> stageExecution) {
+        return time(STAGE_TIMER, "Latency of each stage of opening a checking account", Tags.of("stage", stage), stage, stageExecution);
+    }
+
+    /**
+     * Counts the requests that shared the execution of a concurrent request for the same customer.
+     */
+    public void countCoalesced() {
+        Counter.builder(COALESCED_COUNTER)
+                .description("Open account requests served by a concurrent identical request")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Accounts written by one group commit transaction.
+     */
+    public void recordBatchSize(int size) {
+        DistributionSummary.builder(BATCH_SIZE_SUMMARY)
+                .description("Accounts inserted per group commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(size);
+    }
+
+    /**
+     * Time an account waited in the group commit queue before its batch was flushed.
+     */
+    public void recordQueueWait(long waitNanos) {
+        Timer.builder(BATCH_QUEUE_WAIT_TIMER)
+                .description("Time waited for the group commit of an opened account")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * With a {@code spanName}, the execution is also a span of the trace of the request, when it's sampled.
+     */
+    private <T> Mono<T> time(String name, String description, Tags tags, String spanName, Mono<T> execution) {
+        return Mono.deferContextual(context -> {
+            var startedAt = System.nanoTime();
+            var span = spanName == null ? Span.NOOP : Tracer.childSpan(context, spanName);
+            return execution
+                    .doOnSuccess(value -> {
+                        record(name, description, tags.and("result", "success", "exception", "None"), startedAt);
+                        span.end("success");
+                    })
+                    .doOnError(ex -> {
+                        record(name, description, tags.and("result", "failure", "exception", ex.getClass().getSimpleName()), startedAt);
+                        span.end(ex.getClass().getSimpleName());
+                    });
+        });
+    }
+
+    private void record(String name, String description, Tags tags, long startedAt) {
+        Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+}
@@ -1,16 +1,15 @@
 package dev.emmanuel.account.service;
 
-import dev.emmanuel.account.event.AccountEvent;
 import dev.emmanuel.account.exception.CheckingAccountAlreadyOpened;
 import dev.emmanuel.account.exception.violation.ViolationException;
+import dev.emmanuel.account.persistence.cache.CheckingAccountCache;
 import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.filter.CustomerIdFilter;
 import dev.emmanuel.account.persistence.repository.CheckingAccountRepository;
 import dev.emmanuel.account.validator.CheckingAccountInputValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Mono;
 
 @Slf4j
@@ -18,25 +17,38 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class OpenCheckingAccountService {
 
-    private final KafkaTemplate<Long, AccountEvent> kafkaTemplate;
+    private final OpenCheckingAccountWriter writer;
     private final CheckingAccountRepository checkingAccountRepository;
     private final CheckingAccountInputValidator inputValidator;
+    private final CustomerIdFilter customerIdFilter;
+    private final CheckingAccountCache checkingAccountCache;
+    private final OpenCheckingAccountMetrics metrics;
 
-    @Transactional
     public Mono<CheckingAccount> open(CheckingAccount checkingAccount) {
-        return inputValidator
-                .validate(checkingAccount)
-                .flatMap(input -> checkingAccountRepository.findByCustomerId(input.getCustomer().getId()))
+        return metrics
+                .timeStage("validation", inputValidator.validate(checkingAccount))
+                .flatMap(input -> findExistentAccount(input.getCustomer().getId()))
                 .flatMap(existent -> Mono.<CheckingAccount>error(CheckingAccountAlreadyOpened::new))
-                .switchIfEmpty(Mono.defer(() -> checkingAccountRepository.save(checkingAccount)))
-                .doOnSuccess(this::publishOpenedCheckingAccountEvent)
+                .switchIfEmpty(Mono.defer(() -> writer.write(checkingAccount)))
+                .doOnNext(opened -> customerIdFilter.recordOpened(opened.getCustomer().getId()))
+                .doOnNext(checkingAccountCache::evict)
                 .doOnError(CheckingAccountAlreadyOpened.class, this::handleAccountAlreadyOpened)
                 .doOnError(ViolationException.class, this::handleInputViolation);
     }
 
-    private void publishOpenedCheckingAccountEvent(CheckingAccount openedCheckingAccount) {
-        var event = AccountEvent.of("opened", openedCheckingAccount);
-        kafkaTemplate.send("checking_account_event", openedCheckingAccount.getId(), event);
+    /**
+     * Skips the lookup when the customer filter knows the customer has no account yet. The unique indexes
+     * make the insert safe either way; the lookup only turns likely duplicates (e.g. client retries) into an
+     * index read instead of a failed insert that takes locks and burns an id.
+     */
+    private Mono<CheckingAccount> findExistentAccount(long customerId) {
+        if (!customerIdFilter.mightHaveAccount(customerId)) {
+            return Mono.empty();
+        }
+
+        return metrics
+                .timeStage("find_by_customer_id", checkingAccountRepository.findByCustomerId(customerId))
+                .switchIfEmpty(Mono.fromRunnable(customerIdFilter::recordFalsePositive));
     }
 
     private void handleAccountAlreadyOpened(CheckingAccountAlreadyOpened ex) {
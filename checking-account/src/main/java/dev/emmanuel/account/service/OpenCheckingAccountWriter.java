@@ -0,0 +1,266 @@
+package dev.emmanuel.account.service;
+
+import dev.emmanuel.account.event.AccountEvent;
+import dev.emmanuel.account.event.AccountEventOutbox;
+import dev.emmanuel.account.exception.CheckingAccountAlreadyOpened;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.repository.CheckingAccountRepository;
+import dev.emmanuel.account.persistence.sharding.ShardDirectory;
+import dev.emmanuel.account.persistence.sharding.ShardUnavailableException;
+import dev.emmanuel.account.tracing.TraceContext;
+import dev.emmanuel.account.tracing.Tracer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static dev.emmanuel.account.persistence.routing.ShardRoutingConnectionFactory.routeTo;
+
+/**
+ * Inserts opened accounts together with their "opened" event in the outbox, in one transaction. The event is
+ * published by the outbox relay, so the request never waits on Kafka and the event can't be lost once the
+ * account is committed. Accounts get their id from the {@link HiLoIdAllocator} before the insert, so the event
+ * is built without waiting for the database to generate it.
+ * <p>
+ * With {@code checking-account.open.batch.enabled}, concurrent writes are queued and flushed every
+ * {@code max-size} accounts or {@code max-wait}, whichever comes first, as one multi-row insert in a single
+ * transaction, so a burst of openings pays for one commit (and one fsync) per batch instead of one per account.
+ * Every caller still gets its own account with its id. A batch failing on a unique index is retried
+ * one account per transaction, so only the duplicate callers get {@link CheckingAccountAlreadyOpened}. Writes
+ * beyond {@code queue-capacity} accounts waiting for a flush aren't batched.
+ * <p>
+ * The transaction runs on the shard of the customer (see {@link ShardDirectory}), so a batch is flushed as one
+ * transaction per shard. The ids are allocated outside of it, on the first shard.
+ */
+@Slf4j
+@Component
+public class OpenCheckingAccountWriter {
+
+    private final CheckingAccountRepository checkingAccountRepository;
+    private final AccountEventOutbox accountEventOutbox;
+    private final TransactionalOperator transactionalOperator;
+    private final OpenCheckingAccountMetrics metrics;
+    private final HiLoIdAllocator idAllocator;
+    private final ShardDirectory shardDirectory;
+
+    private final boolean batchEnabled;
+    private final int queueCapacity;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private FluxSink<PendingWrite> queue;
+    private Disposable flushes;
+
+    public OpenCheckingAccountWriter(CheckingAccountRepository checkingAccountRepository,
+                                     AccountEventOutbox accountEventOutbox,
+                                     TransactionalOperator transactionalOperator,
+                                     OpenCheckingAccountMetrics metrics,
+                                     HiLoIdAllocator idAllocator,
+                                     ShardDirectory shardDirectory,
+                                     @Value("${checking-account.open.batch.enabled:false}") boolean batchEnabled,
+                                     @Value("${checking-account.open.batch.max-size:64}") int batchMaxSize,
+                                     @Value("${checking-account.open.batch.max-wait:500us}") Duration batchMaxWait,
+                                     @Value("${checking-account.open.batch.queue-capacity:4096}") int queueCapacity,
+                                     @Value("${checking-account.open.batch.max-concurrent-flushes:4}") int maxConcurrentFlushes) {
+        this.checkingAccountRepository = checkingAccountRepository;
+        this.accountEventOutbox = accountEventOutbox;
+        this.transactionalOperator = transactionalOperator;
+        this.metrics = metrics;
+        this.idAllocator = idAllocator;
+        this.shardDirectory = shardDirectory;
+        this.batchEnabled = batchEnabled;
+        this.queueCapacity = queueCapacity;
+
+        if (batchEnabled) {
+            // bufferTimeout fails when a batch is due and downstream has no demand, so batches wait for a free
+            // flush in an unbounded buffer, bounded in practice by the queue capacity
+            this.flushes = Flux
+                    .<PendingWrite>create(sink -> this.queue = sink)
+                    .bufferTimeout(batchMaxSize, batchMaxWait)
+                    .onBackpressureBuffer()
+                    .flatMap(this::flush, maxConcurrentFlushes)
+                    .subscribe();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flushes != null) {
+            flushes.dispose();
+        }
+    }
+
+    public Mono<CheckingAccount> write(CheckingAccount checkingAccount) {
+        if (!batchEnabled) {
+            return writeOne(checkingAccount);
+        }
+
+        return Mono.defer(() -> {
+            if (queued.incrementAndGet() > queueCapacity) {
+                queued.decrementAndGet();
+                return writeOne(checkingAccount);
+            }
+
+            return metrics.timeStage("group_commit", Mono.<CheckingAccount>create(sink ->
+                    queue.next(new PendingWrite(checkingAccount, sink, System.nanoTime()))));
+        });
+    }
+
+    private Mono<CheckingAccount> writeOne(CheckingAccount checkingAccount) {
+        return Mono
+                .fromCallable(() -> shardDirectory.writableShardOf(checkingAccount.getCustomer().getId()))
+                .flatMap(shard -> metrics
+                        .timeStage("id_allocation", idAllocator.next())
+                        .flatMap(id -> metrics
+                                .timeStage("insert", checkingAccountRepository.insertIfAbsent(toOpen(checkingAccount, id)))
+                                .flatMap(opened -> metrics
+                                        .timeStage("outbox_record", accountEventOutbox.record(AccountEvent.of("opened", opened)))
+                                        .flatMap(OpenedAccountJson::fill)
+                                        .thenReturn(opened))
+                                .as(transactionalOperator::transactional)
+                                .contextWrite(routeTo(shard))));
+    }
+
+    /**
+     * Inserts the accounts and their events in a single transaction, emitting the opened accounts in the given
+     * order. Fails with {@link CheckingAccountAlreadyOpened}, writing none of them, when any is a duplicate. The
+     * accounts must all be on the same shard.
+     */
+    public Mono<List<CheckingAccount>> writeAll(List<CheckingAccount> checkingAccounts) {
+        return writeAllSerialized(checkingAccounts, Collections.nCopies(checkingAccounts.size(), null)).map(Written::getAccounts);
+    }
+
+    /**
+     * Every account's event is recorded with the trace at the same index. The ids are allocated and the events
+     * serialized before the transaction starts, which then only runs the two inserts.
+     */
+    private Mono<Written> writeAllSerialized(List<CheckingAccount> checkingAccounts, List<TraceContext> traces) {
+        return Mono
+                .fromCallable(() -> singleWritableShard(checkingAccounts))
+                .flatMap(shard -> idAllocator
+                        .next(checkingAccounts.size())
+                        .map(ids -> IntStream
+                                .range(0, ids.length)
+                                .mapToObj(i -> toOpen(checkingAccounts.get(i), ids[i]))
+                                .collect(Collectors.toList()))
+                        .flatMap(accounts -> Mono
+                                .fromCallable(() -> accountEventOutbox.serializeAll(
+                                        accounts.stream().map(account -> AccountEvent.of("opened", account)).collect(Collectors.toList()),
+                                        traces))
+                                .flatMap(serialized -> checkingAccountRepository
+                                        .insertAllIfAbsent(accounts)
+                                        .then(accountEventOutbox.save(serialized))
+                                        .as(transactionalOperator::transactional)
+                                        .contextWrite(routeTo(shard)))
+                                .map(accountsJson -> new Written(accounts, accountsJson))));
+    }
+
+    private String singleWritableShard(List<CheckingAccount> checkingAccounts) {
+        var shards = checkingAccounts
+                .stream()
+                .map(account -> shardDirectory.writableShardOf(account.getCustomer().getId()))
+                .distinct()
+                .collect(Collectors.toList());
+        if (shards.size() != 1) {
+            throw new IllegalArgumentException("The accounts written together must be on the same shard");
+        }
+        return shards.get(0);
+    }
+
+    /**
+     * The account as inserted, with its allocated id and the initial version.
+     */
+    private static CheckingAccount toOpen(CheckingAccount checkingAccount, long id) {
+        return new CheckingAccount(id, 0L, checkingAccount.getIban(), checkingAccount.getCurrency(), checkingAccount.getCustomer());
+    }
+
+    private Mono<Void> flush(List<PendingWrite> batch) {
+        queued.addAndGet(-batch.size());
+
+        var flushedAt = System.nanoTime();
+        batch.forEach(write -> metrics.recordQueueWait(flushedAt - write.enqueuedAt));
+
+        var byShard = new LinkedHashMap<String, List<PendingWrite>>();
+        for (var write : batch) {
+            try {
+                var shard = shardDirectory.writableShardOf(write.checkingAccount.getCustomer().getId());
+                byShard.computeIfAbsent(shard, ignored -> new ArrayList<>()).add(write);
+            } catch (ShardUnavailableException ex) {
+                write.sink.error(ex);
+            }
+        }
+
+        return Flux.fromIterable(byShard.values()).flatMap(this::flushShard).then();
+    }
+
+    private Mono<Void> flushShard(List<PendingWrite> batch) {
+        metrics.recordBatchSize(batch.size());
+
+        var accounts = batch.stream().map(write -> write.checkingAccount).collect(Collectors.toList());
+        var traces = batch.stream().map(write -> Tracer.current(write.sink.contextView()).orElse(null)).collect(Collectors.toList());
+
+        return writeAllSerialized(accounts, traces)
+                .doOnNext(written -> {
+                    for (int i = 0; i < batch.size(); i++) {
+                        var sink = batch.get(i).sink;
+                        OpenedAccountJson.fill(sink.contextView(), written.accountsJson.get(i));
+                        sink.success(written.accounts.get(i));
+                    }
+                })
+                .then()
+                .onErrorResume(CheckingAccountAlreadyOpened.class, ex -> writeOneByOne(batch))
+                .onErrorResume(ex -> {
+                    log.error("Failure to write a batch of {} opened accounts", batch.size(), ex);
+                    batch.forEach(write -> write.sink.error(ex));
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Every write runs with the context of its caller, for its event to carry the caller's trace and its account
+     * JSON to reach the caller's response, as in the batch.
+     */
+    private Mono<Void> writeOneByOne(List<PendingWrite> batch) {
+        return Flux
+                .fromIterable(batch)
+                .flatMap(write -> writeOne(write.checkingAccount)
+                        .contextWrite(write.sink.contextView())
+                        .doOnNext(write.sink::success)
+                        .doOnError(write.sink::error)
+                        .onErrorResume(ex -> Mono.empty()))
+                .then();
+    }
+
+    @lombok.Value
+    private static class Written {
+
+        List<CheckingAccount> accounts;
+        List<byte[]> accountsJson;
+
+    }
+
+    @RequiredArgsConstructor
+    private static class PendingWrite {
+
+        private final CheckingAccount checkingAccount;
+        private final MonoSink<CheckingAccount> sink;
+        private final long enqueuedAt;
+
+    }
+
+}
@@ -0,0 +1,39 @@
+package dev.emmanuel.account.service;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Receives the JSON of the account opened by {@link OpenCheckingAccountWriter}. A caller answering with the
+ * opened account puts one in its subscriber context and the writer fills it with the JSON it serialized for the
+ * "opened" event, so the account is serialized once per request. Stays empty when the account was written
+ * under another subscriber's context, e.g. for a coalesced request.
+ */
+public final class OpenedAccountJson {
+
+    private volatile byte[] json;
+
+    public Context addTo(Context context) {
+        return context.put(OpenedAccountJson.class, this);
+    }
+
+    /**
+     * The JSON of the opened account, or {@code null} when it wasn't serialized for this caller.
+     */
+    public byte[] get() {
+        return json;
+    }
+
+    public static void fill(ContextView context, byte[] json) {
+        context.<OpenedAccountJson>getOrEmpty(OpenedAccountJson.class).ifPresent(slot -> slot.json = json);
+    }
+
+    public static Mono<Void> fill(byte[] json) {
+        return Mono.deferContextual(context -> {
+            fill(context, json);
+            return Mono.empty();
+        });
+    }
+
+}
@@ -0,0 +1,68 @@
+package dev.emmanuel.account.service;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Shares a single execution between concurrent callers with the same key and an equal input: the first caller
+ * runs it, the others wait for its result. A caller with the same key but a different input runs on its own.
+ * The execution isn't tied to the first caller's subscription, so it isn't cancelled when that caller goes away,
+ * but it runs with that caller's subscriber context.
+ */
+@RequiredArgsConstructor
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Runnable onJoin;
+
+    public Mono<V> execute(K key, Object input, Supplier<Mono<V>> execution) {
+        return Mono.deferContextual(context -> {
+            var flight = new Flight<V>(input);
+            var current = inFlight.putIfAbsent(key, flight);
+
+            if (current == null) {
+                Mono.defer(execution)
+                        .contextWrite(context)
+                        .toFuture()
+                        .whenComplete((value, ex) -> land(key, flight, value, ex));
+                return Mono.fromFuture(flight.result::copy);
+            }
+
+            if (!current.input.equals(input)) {
+                return Mono.defer(execution);
+            }
+
+            onJoin.run();
+            return Mono.fromFuture(current.result::copy);
+        });
+    }
+
+    private void land(K key, Flight<V> flight, V value, Throwable ex) {
+        inFlight.remove(key, flight);
+
+        if (ex != null) {
+            flight.result.completeExceptionally(ex);
+        } else {
+            flight.result.complete(value);
+        }
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    @RequiredArgsConstructor
+    private static class Flight<V> {
+
+        private final Object input;
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+
+    }
+
+}
@@ -0,0 +1,134 @@
+package dev.emmanuel.account.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.event.ApplicationStartingEvent;
+import org.springframework.boot.context.event.SpringApplicationEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.StartupStep;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Logs how long the application took to be ready, split in the JVM startup (until {@code main}), the context
+ * refresh and the startup listeners (e.g. the connection pool warm up), followed by the
+ * {@code checking-account.startup.report-steps} startup steps that took the longest on their own (a bean
+ * instantiation without the instantiation of its dependencies) when the application records them with a
+ * {@link BufferingApplicationStartup}. The time to ready is also published as the {@code application.ready.time}
+ * gauge.
+ * <p>
+ * With {@code checking-account.startup.exit-on-ready}, the application exits once ready, which is how the class
+ * data sharing archive is recorded by the {@code cds} Maven profile.
+ */
+@Slf4j
+public class StartupTimingReport implements ApplicationListener<SpringApplicationEvent> {
+
+    private static final String REPORT_STEPS = "checking-account.startup.report-steps";
+    private static final String EXIT_ON_READY = "checking-account.startup.exit-on-ready";
+
+    private final BufferingApplicationStartup applicationStartup;
+
+    private long startingAt;
+    private long startedAt;
+    private volatile Duration timeToReady;
+
+    public StartupTimingReport(BufferingApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup;
+    }
+
+    @Override
+    public void onApplicationEvent(SpringApplicationEvent event) {
+        if (event instanceof ApplicationStartingEvent) {
+            startingAt = event.getTimestamp();
+        } else if (event instanceof ApplicationStartedEvent) {
+            startedAt = event.getTimestamp();
+        } else if (event instanceof ApplicationReadyEvent) {
+            ready((ApplicationReadyEvent) event);
+        }
+    }
+
+    private void ready(ApplicationReadyEvent event) {
+        var context = event.getApplicationContext();
+        var jvmStartedAt = ManagementFactory.getRuntimeMXBean().getStartTime();
+        timeToReady = Duration.ofMillis(event.getTimestamp() - jvmStartedAt);
+
+        log.info("Ready in {} ms: jvm {} ms, context {} ms, startup listeners {} ms",
+                timeToReady.toMillis(), startingAt - jvmStartedAt, startedAt - startingAt, event.getTimestamp() - startedAt);
+
+        var reportSteps = context.getEnvironment().getProperty(REPORT_STEPS, Integer.class, 10);
+        if (reportSteps > 0) {
+            slowestSteps(applicationStartup.drainBufferedTimeline(), reportSteps)
+                    .forEach(step -> log.info("  {}", step));
+        }
+
+        // gauges only hold a weak reference, the listener lives as long as the application
+        context.getBeanProvider(MeterRegistry.class).ifAvailable(meterRegistry -> TimeGauge
+                .builder("application.ready.time", this, TimeUnit.MILLISECONDS, report -> report.timeToReady.toMillis())
+                .description("Time from the JVM start until the application was ready to serve requests")
+                .register(meterRegistry));
+
+        if (context.getEnvironment().getProperty(EXIT_ON_READY, Boolean.class, false)) {
+            log.info("Exiting once ready ({})", EXIT_ON_READY);
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    /**
+     * The {@code limit} steps with the longest self time (their duration minus the duration of their child
+     * steps), longest first, as {@code <self time> ms <name> <tags>}.
+     */
+    static List<String> slowestSteps(StartupTimeline timeline, int limit) {
+        Map<Long, Duration> childrenDurations = new HashMap<>();
+        for (var event : timeline.getEvents()) {
+            var parentId = event.getStartupStep().getParentId();
+            if (parentId != null) {
+                childrenDurations.merge(parentId, event.getDuration(), Duration::plus);
+            }
+        }
+
+        var steps = new ArrayList<TimedStep>(timeline.getEvents().size());
+        for (var event : timeline.getEvents()) {
+            var step = event.getStartupStep();
+            var selfTime = event.getDuration().minus(childrenDurations.getOrDefault(step.getId(), Duration.ZERO));
+            steps.add(new TimedStep(step, selfTime));
+        }
+
+        return steps.stream()
+                .sorted(Comparator.comparing((TimedStep timed) -> timed.selfTime).reversed())
+                .limit(limit)
+                .map(TimedStep::describe)
+                .collect(Collectors.toList());
+    }
+
+    @RequiredArgsConstructor
+    private static class TimedStep {
+
+        private final StartupStep step;
+        private final Duration selfTime;
+
+        private String describe() {
+            var description = new StringBuilder()
+                    .append(selfTime.toMillis()).append(" ms ")
+                    .append(step.getName());
+            step.getTags().forEach(tag -> description.append(' ').append(tag.getKey()).append('=').append(tag.getValue()));
+            return description.toString();
+        }
+
+    }
+
+}
@@ -0,0 +1,23 @@
+package dev.emmanuel.account.tracing;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Epoch microseconds read from {@link System#nanoTime()} anchored on the wall clock once, so timestamps taken in
+ * this process never go backwards (e.g. on an NTP step) and their differences are as precise as
+ * {@code nanoTime}. Timestamps of different processes are only as comparable as their wall clocks at startup.
+ */
+public final class MonotonicClock {
+
+    private static final long ANCHOR_EPOCH_MICROS = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+    private static final long ANCHOR_NANOS = System.nanoTime();
+
+    private MonotonicClock() {
+    }
+
+    public static long epochMicros() {
+        return ANCHOR_EPOCH_MICROS + (System.nanoTime() - ANCHOR_NANOS) / 1_000;
+    }
+
+}
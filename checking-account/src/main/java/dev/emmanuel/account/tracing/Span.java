@@ -0,0 +1,57 @@
+package dev.emmanuel.account.tracing;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Timed operation of a sampled trace, exported when it ends. Times are {@link MonotonicClock} epoch
+ * microseconds. The spans of traces that aren't sampled are {@link #NOOP}.
+ */
+@Getter
+public class Span {
+
+    public static final Span NOOP = new Span(null, null, null, null, null, 0);
+
+    @JsonIgnore
+    private final SpanExporter exporter;
+
+    private final String traceId;
+    private final String spanId;
+    private final String parentSpanId;
+    private final String name;
+    private final long startedAt;
+    private long duration;
+    private String outcome;
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+    Span(SpanExporter exporter, String traceId, String spanId, String parentSpanId, String name, long startedAt) {
+        this.exporter = exporter;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.startedAt = startedAt;
+    }
+
+    public Span attribute(String key, Object value) {
+        if (exporter != null) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    public void end(String outcome) {
+        if (exporter != null) {
+            this.duration = MonotonicClock.epochMicros() - startedAt;
+            this.outcome = outcome;
+            exporter.export(this);
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package dev.emmanuel.account.tracing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local exporter writing every ended span as one JSON line on this logger, which can be routed to its own file.
+ * The spans of a trace are found by their {@code traceId}, the ledger logs its span of the trace the same way.
+ */
+@Slf4j
+@Component
+public class SpanExporter {
+
+    private final ObjectWriter spanWriter;
+
+    public SpanExporter(ObjectMapper objectMapper) {
+        this.spanWriter = objectMapper.writerFor(Span.class);
+    }
+
+    public void export(Span span) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+
+        try {
+            log.info(spanWriter.writeValueAsString(span));
+        } catch (JsonProcessingException ex) {
+            log.warn("Failure to export span {} of trace {}", span.getName(), span.getTraceId(), ex);
+        }
+    }
+
+}
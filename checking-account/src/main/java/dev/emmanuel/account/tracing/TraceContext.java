@@ -0,0 +1,95 @@
+package dev.emmanuel.account.tracing;
+
+import lombok.Value;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Trace of an open account request: the W3C trace context of its span ({@code traceparent}, the caller's one
+ * when it sent one) and when the request started, in {@link MonotonicClock} epoch microseconds. Stored with the
+ * account's outbox entry and stamped on its Kafka record (see {@link dev.emmanuel.account.event.publisher.AccountEventHeaders}), so the ledger can tell the
+ * end-to-end latency of the account.
+ */
+@Value
+public class TraceContext {
+
+    private static final String VERSION = "00";
+    private static final int TRACEPARENT_LENGTH = 55;
+
+    String traceId;
+    String spanId;
+    String parentSpanId;
+    boolean sampled;
+    long startedAt;
+
+    /**
+     * New span of the trace of {@code traceparent}, or of a new trace sampled with {@code sampled} when it's
+     * missing or invalid.
+     */
+    public static TraceContext start(String traceparent, boolean sampled, long startedAt) {
+        var parent = parse(traceparent, startedAt);
+        if (parent == null) {
+            return new TraceContext(randomId(2), randomId(1), null, sampled, startedAt);
+        }
+        return new TraceContext(parent.traceId, randomId(1), parent.spanId, parent.sampled, startedAt);
+    }
+
+    /**
+     * The trace context of {@code traceparent}, {@code null} when it's missing or invalid.
+     */
+    public static TraceContext parse(String traceparent, long startedAt) {
+        if (traceparent == null
+                || traceparent.length() != TRACEPARENT_LENGTH
+                || !traceparent.startsWith(VERSION + "-")
+                || traceparent.charAt(35) != '-'
+                || traceparent.charAt(52) != '-') {
+            return null;
+        }
+
+        var traceId = traceparent.substring(3, 35);
+        var spanId = traceparent.substring(36, 52);
+        var flags = traceparent.substring(53);
+        if (!isValidId(traceId) || !isValidId(spanId) || !isHex(flags)) {
+            return null;
+        }
+        return new TraceContext(traceId, spanId, null, (Integer.parseInt(flags, 16) & 1) == 1, startedAt);
+    }
+
+    public String toTraceparent() {
+        return VERSION + "-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+    }
+
+    /**
+     * New span id, for the child spans of this one.
+     */
+    static String newSpanId() {
+        return randomId(1);
+    }
+
+    private static String randomId(int longs) {
+        var random = ThreadLocalRandom.current();
+        var id = new StringBuilder(longs * 16);
+        for (int i = 0; i < longs; i++) {
+            long value;
+            do {
+                value = random.nextLong();
+            } while (value == 0);
+
+            var hex = Long.toHexString(value);
+            for (int padding = hex.length(); padding < 16; padding++) {
+                id.append('0');
+            }
+            id.append(hex);
+        }
+        return id.toString();
+    }
+
+    private static boolean isValidId(String id) {
+        return isHex(id) && id.chars().anyMatch(c -> c != '0');
+    }
+
+    private static boolean isHex(String value) {
+        return value.chars().allMatch(c -> (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'));
+    }
+
+}
@@ -0,0 +1,73 @@
+package dev.emmanuel.account.tracing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Starts the trace of a request and the spans of its stages. The trace travels in the Reactor {@link Context}
+ * of the request, with this tracer, so the stages find it wherever they run, and its spans are exported when the
+ * request was sampled: when the caller's {@code traceparent} says so or, without one, for a
+ * {@code sample-rate} fraction of the requests.
+ */
+@Component
+public class Tracer {
+
+    private final SpanExporter exporter;
+    private final double sampleRate;
+
+    public Tracer(SpanExporter exporter, @Value("${checking-account.tracing.sample-rate:0.01}") double sampleRate) {
+        this.exporter = exporter;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Trace of a request starting now, continuing the trace of the caller's {@code traceparent} if valid.
+     */
+    public TraceContext start(String traceparent) {
+        var sampled = sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        return TraceContext.start(traceparent, sampled, MonotonicClock.epochMicros());
+    }
+
+    public Context addTo(Context context, TraceContext trace) {
+        return context.put(TraceContext.class, trace).put(Tracer.class, this);
+    }
+
+    /**
+     * The span of the request itself, started with its trace.
+     */
+    public Span requestSpan(TraceContext trace, String name) {
+        if (!trace.isSampled()) {
+            return Span.NOOP;
+        }
+        return new Span(exporter, trace.getTraceId(), trace.getSpanId(), trace.getParentSpanId(), name, trace.getStartedAt());
+    }
+
+    /**
+     * A span starting now, child of the request span of the trace.
+     */
+    public Span childSpan(TraceContext trace, String name) {
+        if (trace == null || !trace.isSampled()) {
+            return Span.NOOP;
+        }
+        return new Span(exporter, trace.getTraceId(), TraceContext.newSpanId(), trace.getSpanId(), name, MonotonicClock.epochMicros());
+    }
+
+    /**
+     * A span starting now, child of the request span of the trace in the context, if any.
+     */
+    public static Span childSpan(ContextView context, String name) {
+        return context.<Tracer>getOrEmpty(Tracer.class)
+                .map(tracer -> tracer.childSpan(context.<TraceContext>getOrDefault(TraceContext.class, null), name))
+                .orElse(Span.NOOP);
+    }
+
+    public static Optional<TraceContext> current(ContextView context) {
+        return context.getOrEmpty(TraceContext.class);
+    }
+
+}
@@ -3,16 +3,22 @@ package dev.emmanuel.account.validator;
 import am.ik.yavi.builder.ValidatorBuilder;
 import am.ik.yavi.core.ConstraintViolations;
 import am.ik.yavi.core.Validator;
+import am.ik.yavi.core.ViolationMessage;
 import dev.emmanuel.account.exception.violation.Violation;
 import dev.emmanuel.account.exception.violation.ViolationException;
 import dev.emmanuel.account.persistence.entity.CheckingAccount;
 import dev.emmanuel.account.persistence.entity.Customer;
+import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.stream.Collectors;
 
+@Component
 public class CheckingAccountInputValidator {
 
+    public static final String INVALID_INPUT = "Invalid input";
+
     private final Validator<CheckingAccount> validator;
 
     public CheckingAccountInputValidator() {
@@ -26,8 +32,12 @@ public class CheckingAccountInputValidator {
                 .build();
 
         Validator<CheckingAccount> checkingAccountValidator = ValidatorBuilder.<CheckingAccount>of()
-                .constraint(CheckingAccount::getIban, "iban", c -> c.notBlank().message("IBAN is required"))
-                ._object(CheckingAccount::getCurrency, "currency", c -> c.notNull().message("currency is required"))
+                .constraint(CheckingAccount::getIban, "iban", c -> c
+                        .notBlank().message("IBAN is required")
+                        .predicate(iban -> iban.isBlank() || IbanValidator.isValid(iban), ViolationMessage.of("iban.invalid", "IBAN is invalid")))
+                .constraint(CheckingAccount::getCurrency, "currency", c -> c
+                        .notNull().message("currency is required")
+                        .predicate(CurrencyCodes::isIsoCode, ViolationMessage.of("currency.invalid", "currency must be an ISO 4217 code")))
                 ._object(CheckingAccount::getCustomer, "customer", c -> c.notNull().message("customer must not be null"))
                 .nest(CheckingAccount::getCustomer, "customer", customerValidator)
                 .build();
@@ -36,19 +46,26 @@ public class CheckingAccountInputValidator {
     }
 
     public Mono<CheckingAccount> validate(CheckingAccount checkingAccount) {
-        ConstraintViolations accountViolations = validator.validate(checkingAccount);
+        var violations = violations(checkingAccount);
 
-        if (!accountViolations.isValid()) {
-            var violations = accountViolations
-                    .violations()
-                    .stream()
-                    .map(v -> new Violation(v.name(), v.message()))
-                    .collect(Collectors.toList());
-
-            return Mono.error(new ViolationException("Invalid input", violations));
+        if (!violations.isEmpty()) {
+            return Mono.error(new ViolationException(INVALID_INPUT, violations));
         }
 
         return Mono.just(checkingAccount);
     }
 
+    /**
+     * Violations of the account, empty when valid, for callers validating many accounts in a row.
+     */
+    public List<Violation> violations(CheckingAccount checkingAccount) {
+        ConstraintViolations accountViolations = validator.validate(checkingAccount);
+
+        return accountViolations
+                .violations()
+                .stream()
+                .map(v -> new Violation(v.name(), v.message()))
+                .collect(Collectors.toList());
+    }
+
 }
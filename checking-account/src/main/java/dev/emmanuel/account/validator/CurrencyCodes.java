@@ -0,0 +1,43 @@
+package dev.emmanuel.account.validator;
+
+import java.util.Currency;
+
+/**
+ * ISO 4217 alphabetic currency codes known to the JDK, looked up in a table indexed by the three letters
+ * instead of {@link Currency#getInstance(String)}, which throws (and fills a stack trace) for unknown codes.
+ */
+public final class CurrencyCodes {
+
+    private static final boolean[] CODES = new boolean[26 * 26 * 26];
+
+    static {
+        for (Currency currency : Currency.getAvailableCurrencies()) {
+            String code = currency.getCurrencyCode();
+            if (code.length() == 3 && isUpperCaseLetters(code)) {
+                CODES[index(code)] = true;
+            }
+        }
+    }
+
+    private CurrencyCodes() {
+    }
+
+    public static boolean isIsoCode(CharSequence code) {
+        return code != null && code.length() == 3 && isUpperCaseLetters(code) && CODES[index(code)];
+    }
+
+    private static int index(CharSequence code) {
+        return ((code.charAt(0) - 'A') * 26 + (code.charAt(1) - 'A')) * 26 + (code.charAt(2) - 'A');
+    }
+
+    private static boolean isUpperCaseLetters(CharSequence code) {
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,83 @@
+package dev.emmanuel.account.validator;
+
+/**
+ * IBAN check in electronic format (upper case, no spaces): known country code, the registered length for that
+ * country, alphanumeric BBAN and a mod-97 checksum equal to 1 (ISO 13616). The checksum is folded char by char
+ * over the rearranged IBAN, so a validation allocates nothing (no substring, StringBuilder nor BigInteger).
+ */
+public final class IbanValidator {
+
+    /**
+     * Country code and IBAN length, from the SWIFT IBAN registry.
+     */
+    private static final String REGISTRY =
+            "AD24 AE23 AL28 AT20 AZ28 BA20 BE16 BG22 BH22 BI27 BR29 BY28 CH21 CR22 CY28 CZ24 DE22 DJ27 DK18 DO28 " +
+            "EE20 EG29 ES24 FI18 FK18 FO18 FR27 GB22 GE22 GI23 GL18 GR27 GT28 HR21 HU28 IE22 IL23 IQ23 IS26 IT27 " +
+            "JO30 KW30 KZ20 LB28 LC32 LI21 LT20 LU20 LV21 LY25 MC27 MD24 ME22 MK19 MN20 MR27 MT31 MU30 NI28 NL18 " +
+            "NO15 OM23 PK24 PL28 PS29 PT25 QA29 RO24 RS22 RU33 SA24 SC31 SD18 SE24 SI19 SK24 SM27 SO23 ST25 SV28 " +
+            "TL23 TN24 TR26 UA29 VA22 VG24 XK20";
+
+    /**
+     * IBAN length indexed by the two letters of the country code, 0 for the countries not using IBANs.
+     */
+    private static final byte[] LENGTHS = new byte[26 * 26];
+
+    private static final int MIN_LENGTH = 15;
+    private static final int MAX_LENGTH = 34;
+
+    static {
+        for (String entry : REGISTRY.split(" ")) {
+            LENGTHS[countryIndex(entry.charAt(0), entry.charAt(1))] = Byte.parseByte(entry.substring(2));
+        }
+    }
+
+    private IbanValidator() {
+    }
+
+    public static boolean isValid(CharSequence iban) {
+        if (iban == null) {
+            return false;
+        }
+
+        int length = iban.length();
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            return false;
+        }
+
+        char country0 = iban.charAt(0);
+        char country1 = iban.charAt(1);
+        if (!isUpperCaseLetter(country0) || !isUpperCaseLetter(country1)
+                || LENGTHS[countryIndex(country0, country1)] != length
+                || !isDigit(iban.charAt(2)) || !isDigit(iban.charAt(3))) {
+            return false;
+        }
+
+        // the country code and check digits are moved after the BBAN
+        int remainder = 0;
+        for (int i = 4; i < length + 4; i++) {
+            char c = iban.charAt(i < length ? i : i - length);
+            if (isDigit(c)) {
+                remainder = (remainder * 10 + (c - '0')) % 97;
+            } else if (isUpperCaseLetter(c)) {
+                remainder = (remainder * 100 + (c - 'A' + 10)) % 97;
+            } else {
+                return false;
+            }
+        }
+
+        return remainder == 1;
+    }
+
+    private static int countryIndex(char first, char second) {
+        return (first - 'A') * 26 + (second - 'A');
+    }
+
+    private static boolean isUpperCaseLetter(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+}
@@ -0,0 +1,19 @@
+CREATE TABLE IF NOT EXISTS checking_accounts(
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    version INT NOT NULL,
+    iban VARCHAR(34) NOT NULL,
+    currency CHAR(3) NOT NULL,
+    customer_id INT NOT NULL,
+    customer_name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS account_event_outbox(
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    aggregate_id INT NOT NULL,
+    event_type VARCHAR(32) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    claimed_by CHAR(36) NULL,
+    claimed_at DATETIME(6) NULL,
+    INDEX idx_account_event_outbox_claimed_by (claimed_by)
+);
@@ -0,0 +1,4 @@
+-- one checking account per customer and per IBAN, enforced by the database so concurrent openings can't race
+ALTER TABLE checking_accounts
+    ADD UNIQUE INDEX uk_checking_accounts_customer_id (customer_id),
+    ADD UNIQUE INDEX uk_checking_accounts_iban (iban);
@@ -0,0 +1,7 @@
+-- single row rewritten by the application on the primary, its age on a replica is the replication lag
+CREATE TABLE replication_heartbeat (
+    id      TINYINT     NOT NULL PRIMARY KEY,
+    beat_at DATETIME(6) NOT NULL
+);
+
+INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, UTC_TIMESTAMP(6));
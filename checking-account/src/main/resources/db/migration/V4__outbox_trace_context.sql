@@ -0,0 +1,4 @@
+-- trace of the request that recorded the event, stamped on its Kafka record by the relay for end-to-end tracing
+ALTER TABLE account_event_outbox
+    ADD COLUMN traceparent CHAR(55) NULL,
+    ADD COLUMN request_started_at BIGINT NULL;
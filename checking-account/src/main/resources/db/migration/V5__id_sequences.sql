@@ -0,0 +1,11 @@
+-- blocks of ids reserved by the application (hi/lo), one row per sequence starting after the existing rows
+CREATE TABLE id_sequences (
+    name       VARCHAR(64) NOT NULL PRIMARY KEY,
+    next_value BIGINT      NOT NULL
+);
+
+INSERT INTO id_sequences (name, next_value)
+SELECT 'checking_accounts', COALESCE(MAX(id), 0) + 1 FROM checking_accounts;
+
+-- every id now comes from the sequence: an auto-increment insert would take an id of a reserved block
+ALTER TABLE checking_accounts MODIFY id INT NOT NULL;
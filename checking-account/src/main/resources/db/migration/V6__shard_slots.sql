@@ -0,0 +1,19 @@
+-- slot of the account's customer in the shard map (customer_id % ShardMap.SLOTS), indexed so a slot is copied to
+-- another shard without scanning the table. Set by a trigger rather than a generated column, which MySQL 5.6
+-- doesn't have, so every writer fills it; customer ids never change
+ALTER TABLE checking_accounts
+    ADD COLUMN shard_slot SMALLINT NOT NULL DEFAULT 0,
+    ADD INDEX idx_checking_accounts_shard_slot (shard_slot, id);
+
+UPDATE checking_accounts SET shard_slot = customer_id % 1024;
+
+CREATE TRIGGER checking_accounts_shard_slot BEFORE INSERT ON checking_accounts
+    FOR EACH ROW SET NEW.shard_slot = NEW.customer_id % 1024;
+
+-- shard owning every slot, only used on the first shard (spring.r2dbc.url) and seeded by the application when
+-- sharding is enabled; target_shard is set while the slot is moved to another shard
+CREATE TABLE shard_slots (
+    slot         SMALLINT    NOT NULL PRIMARY KEY,
+    shard        VARCHAR(64) NOT NULL,
+    target_shard VARCHAR(64) NULL
+);
@@ -0,0 +1,7 @@
+-- insertion time of the account: the order of the listing, of the snapshot backfill and of the customer filter
+-- refresh, ids coming from the blocks reserved by every replica (see V5) don't follow it. Set by the database so
+-- every writer fills it, ties are broken by id. The accounts opened so far get the time of the migration from the
+-- default and keep their id order
+ALTER TABLE checking_accounts
+    ADD COLUMN created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    ADD INDEX idx_checking_accounts_created_at (created_at, id);
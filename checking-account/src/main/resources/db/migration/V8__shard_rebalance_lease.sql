@@ -0,0 +1,9 @@
+-- lease of the instance moving slots between shards (see ShardRebalancer), only used on the first shard: a single
+-- instance moves slots at a time, and the lease of one that stopped renewing it expires
+CREATE TABLE shard_rebalance_lease (
+    id         TINYINT     NOT NULL PRIMARY KEY,
+    holder     CHAR(36)    NULL,
+    expires_at DATETIME(6) NULL
+);
+
+INSERT INTO shard_rebalance_lease (id) VALUES (1);
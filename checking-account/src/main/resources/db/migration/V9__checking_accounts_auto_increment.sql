@@ -0,0 +1,5 @@
+-- the replicas still on a release before V5 keep inserting with AUTO_INCREMENT during the rolling deploy, which V5
+-- dropped: it is back with a counter far above the blocks of the sequence so their inserts can't take a reserved id
+-- (explicit ids below the counter don't move it). AUTO_INCREMENT is dropped again by a later release, once every
+-- replica reserves blocks
+ALTER TABLE checking_accounts MODIFY id INT NOT NULL AUTO_INCREMENT, AUTO_INCREMENT = 1000000000;
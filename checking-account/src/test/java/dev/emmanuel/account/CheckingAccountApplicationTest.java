@@ -0,0 +1,43 @@
+package dev.emmanuel.account;
+
+import dev.emmanuel.account.event.publisher.AccountEventPublisher;
+import dev.emmanuel.account.event.publisher.ReactiveKafkaAccountEventPublisher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Loads the application context of the default profile, with an in-memory database instead of MySQL (the MySQL
+ * migrations are therefore not applied) and a Kafka broker that isn't running: the startup listeners log their
+ * failures to reach them and carry on.
+ */
+@SpringBootTest(properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///checking-account-context",
+        "spring.flyway.enabled=false",
+        "spring.flyway.user=sa",
+        "spring.flyway.password=",
+        "checking-account.r2dbc.pool.initial-size=1",
+        "spring.kafka.bootstrap-servers=localhost:9",
+        "spring.kafka.admin.properties.request.timeout.ms=500",
+        "spring.kafka.admin.properties.default.api.timeout.ms=1000",
+})
+class CheckingAccountApplicationTest {
+
+    @Autowired
+    private AccountEventPublisher accountEventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldStartWithTheReactiveProducerAndItsMetrics() {
+        assertEquals(ReactiveKafkaAccountEventPublisher.class, accountEventPublisher.getClass());
+        assertTrue(meterRegistry.getMeters().stream().anyMatch(meter -> meter.getId().getName().startsWith("kafka.producer.")),
+                "the producer of the sender should be bound to the registry");
+    }
+
+}
@@ -0,0 +1,61 @@
+package dev.emmanuel.account.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Records a JMH JSON result as the baseline of {@link BenchmarkRegressionCheck}, keeping what the check compares
+ * (scores, score errors and the run settings) and dropping the JVM path and arguments, the JDK and VM versions and
+ * the raw iteration data of the machine that ran it:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec
+ * mvn -Pbenchmark exec:exec@record-baseline
+ * </pre>
+ */
+public class BenchmarkBaseline {
+
+    private static final List<String> KEPT_FIELDS = List.of("jmhVersion", "benchmark", "mode", "threads", "forks",
+            "warmupIterations", "warmupTime", "measurementIterations", "measurementTime", "params");
+    private static final List<String> KEPT_METRIC_FIELDS = List.of("score", "scoreError", "scoreUnit");
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkBaseline <result.json> <baseline.json>");
+            System.exit(2);
+        }
+
+        var objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        var baseline = objectMapper.createArrayNode();
+        for (var benchmark : objectMapper.readTree(Path.of(args[0]).toFile())) {
+            if (benchmark.get("forks").asInt() < 2) {
+                System.out.printf("SINGLE FORK %s: its score error misses the run-to-run variance%n", benchmark.get("benchmark").asText());
+            }
+            var entry = baseline.addObject();
+            KEPT_FIELDS.stream()
+                    .filter(benchmark::has)
+                    .forEach(field -> entry.set(field, benchmark.get(field)));
+            entry.set("primaryMetric", metric(benchmark.get("primaryMetric"), objectMapper));
+            var secondaryMetrics = entry.putObject("secondaryMetrics");
+            benchmark.path("secondaryMetrics").fields()
+                    .forEachRemaining(metric -> secondaryMetrics.set(metric.getKey(), metric(metric.getValue(), objectMapper)));
+        }
+
+        objectMapper.writeValue(Path.of(args[1]).toFile(), baseline);
+        System.out.printf("Recorded %d benchmark(s) in %s%n", baseline.size(), args[1]);
+    }
+
+    private static ObjectNode metric(JsonNode metric, ObjectMapper objectMapper) {
+        var kept = objectMapper.createObjectNode();
+        KEPT_METRIC_FIELDS.stream()
+                .filter(metric::has)
+                .forEach(field -> kept.set(field, metric.get(field)));
+        return kept;
+    }
+
+}
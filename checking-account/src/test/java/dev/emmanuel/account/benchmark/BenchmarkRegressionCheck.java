@@ -0,0 +1,136 @@
+package dev.emmanuel.account.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result with the stored baseline and exits with status 1 when a benchmark got slower,
+ * or allocates more per operation, than the baseline plus {@code tolerance} (0.10 by default):
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec
+ * mvn -Pbenchmark exec:exec@regression-check [-Dbenchmark.tolerance=0.15]
+ * </pre>
+ * Scores are compared by their error bounds: a benchmark regresses when even the best score its error allows is
+ * worse than the worst score the baseline error allows, by more than {@code tolerance}. Benchmarks that are only
+ * present in one of the files are reported and skipped.
+ * <p>
+ * {@code benchmarks/baseline.json} was recorded by {@link BenchmarkBaseline} on JDK 21 with the benchmark profile's
+ * forks and iterations. Absolute scores depend on the hardware, so a machine other than the one recording it
+ * checks against its own baseline: record one there and point {@code -Dbenchmark.baseline} at it.
+ */
+public class BenchmarkRegressionCheck {
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkRegressionCheck <baseline.json> <result.json> [tolerance]");
+            System.exit(2);
+        }
+
+        var objectMapper = new ObjectMapper();
+        var baseline = index(objectMapper.readTree(Path.of(args[0]).toFile()));
+        var result = index(objectMapper.readTree(Path.of(args[1]).toFile()));
+        var tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+
+        var regressions = 0;
+        for (var entry : result.entrySet()) {
+            var expected = baseline.get(entry.getKey());
+            if (expected == null) {
+                System.out.printf("NEW        %s%n", entry.getKey());
+                continue;
+            }
+            regressions += compareScore(entry.getKey(), expected, entry.getValue(), tolerance);
+            regressions += compareAllocation(entry.getKey(), expected, entry.getValue(), tolerance);
+        }
+        baseline.keySet().stream()
+                .filter(key -> !result.containsKey(key))
+                .forEach(key -> System.out.printf("NOT RUN    %s%n", key));
+
+        if (regressions > 0) {
+            System.out.printf("%d regression(s) above %.0f%% of the baseline%n", regressions, tolerance * 100);
+            System.exit(1);
+        }
+    }
+
+    private static int compareScore(String key, JsonNode expected, JsonNode actual, double tolerance) {
+        var expectedMetric = expected.get("primaryMetric");
+        var actualMetric = actual.get("primaryMetric");
+        var expectedScore = expectedMetric.get("score").asDouble();
+        var actualScore = actualMetric.get("score").asDouble();
+        var expectedError = scoreError(expectedMetric);
+        var actualError = scoreError(actualMetric);
+        var unit = actualMetric.get("scoreUnit").asText();
+
+        // throughput modes report ops per time unit, so a lower score is the worse one
+        var higherIsBetter = "thrpt".equals(actual.get("mode").asText());
+        var change = higherIsBetter
+                ? ((expectedScore - expectedError) - (actualScore + actualError)) / expectedScore
+                : ((actualScore - actualError) - (expectedScore + expectedError)) / expectedScore;
+
+        return report(key, "score", expectedScore, expectedError, actualScore, actualError, unit, change, tolerance);
+    }
+
+    private static int compareAllocation(String key, JsonNode expected, JsonNode actual, double tolerance) {
+        var expectedAllocation = secondaryMetric(expected, ALLOCATION_METRIC);
+        var actualAllocation = secondaryMetric(actual, ALLOCATION_METRIC);
+        if (expectedAllocation == null || actualAllocation == null) {
+            return 0;
+        }
+
+        var expectedBytes = expectedAllocation.get("score").asDouble();
+        var actualBytes = actualAllocation.get("score").asDouble();
+        var expectedError = scoreError(expectedAllocation);
+        var actualError = scoreError(actualAllocation);
+        // a few bytes either way are measurement noise on allocation-free benchmarks
+        var change = ((actualBytes - actualError) - (expectedBytes + expectedError)) / Math.max(expectedBytes, 64);
+
+        return report(key, "alloc", expectedBytes, expectedError, actualBytes, actualError, "B/op", change, tolerance);
+    }
+
+    private static int report(String key, String metric, double expected, double expectedError, double actual,
+                              double actualError, String unit, double change, double tolerance) {
+        var regressed = change > tolerance;
+        System.out.printf("%-10s %s %s: %.3f +/- %.3f -> %.3f +/- %.3f %s (%s)%n",
+                regressed ? "REGRESSION" : "OK", key, metric, expected, expectedError, actual, actualError, unit,
+                change > 0 ? String.format("%+.1f%% past the error bounds", change * 100) : "within the error bounds");
+        return regressed ? 1 : 0;
+    }
+
+    /**
+     * The half-width of the 99.9% confidence interval, NaN when the benchmark ran a single iteration.
+     */
+    private static double scoreError(JsonNode metric) {
+        var error = metric.path("scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static JsonNode secondaryMetric(JsonNode benchmark, String name) {
+        var fields = benchmark.path("secondaryMetrics").fields();
+        while (fields.hasNext()) {
+            var field = fields.next();
+            if (field.getKey().endsWith(name)) {
+                return field.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, JsonNode> index(JsonNode results) {
+        var byKey = new LinkedHashMap<String, JsonNode>();
+        for (var benchmark : results) {
+            var key = new StringBuilder(benchmark.get("benchmark").asText())
+                    .append(" [").append(benchmark.get("mode").asText()).append(']');
+            benchmark.path("params").fields()
+                    .forEachRemaining(param -> key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            byKey.put(key.toString(), benchmark);
+        }
+        return byKey;
+    }
+
+}
@@ -0,0 +1,55 @@
+package dev.emmanuel.account.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.emmanuel.account.controller.codec.CheckingAccountJsonReader;
+import dev.emmanuel.account.event.AccountEvent;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON cost on the open account path with the application {@link ObjectMapper}: decoding the request body
+ * straight into the account, and encoding the account event stored in the outbox.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonCodecBenchmark {
+
+    private ObjectMapper objectMapper;
+    private CheckingAccountJsonReader checkingAccountJsonReader;
+
+    private AccountEvent event;
+    private byte[] openAccountRequest;
+
+    @Setup
+    public void setUp() {
+        this.objectMapper = new JacksonConfiguration().objectMapper(Jackson2ObjectMapperBuilder.json());
+        this.checkingAccountJsonReader = new CheckingAccountJsonReader(objectMapper);
+
+        var account = new CheckingAccount(7654321L, 0L, "DE89370400440532013000", "EUR", Customer.of(1234567L, "Mock Customer"));
+        this.event = new AccountEvent("opened", LocalDateTime.of(2021, 5, 1, 10, 0, 0), account);
+        this.openAccountRequest = ("{\"iban\":\"DE89370400440532013000\",\"currencyCode\":\"EUR\"," +
+                "\"customer\":{\"id\":1234567,\"name\":\"Mock Customer\"}}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String encodeAccountEvent() throws Exception {
+        return objectMapper.writeValueAsString(event);
+    }
+
+    @Benchmark
+    public CheckingAccount decodeCheckingAccount() throws Exception {
+        return checkingAccountJsonReader.read(new ByteArrayInputStream(openAccountRequest));
+    }
+
+}
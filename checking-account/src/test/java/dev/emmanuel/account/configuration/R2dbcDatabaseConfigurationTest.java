@@ -0,0 +1,77 @@
+package dev.emmanuel.account.configuration;
+
+import dev.emmanuel.account.persistence.pool.InstrumentedConnectionPool;
+import dev.emmanuel.account.persistence.routing.ReadWriteRoutingConnectionFactory;
+import dev.emmanuel.account.persistence.routing.ShardRoutingConnectionFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class R2dbcDatabaseConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(
+                    R2dbcAutoConfiguration.class,
+                    R2dbcDataAutoConfiguration.class,
+                    R2dbcTransactionManagerAutoConfiguration.class))
+            .withUserConfiguration(R2dbcDatabaseConfiguration.class)
+            // the durations of the @Value fields are converted like SpringApplication does
+            .withInitializer(context -> context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withPropertyValues(
+                    "spring.r2dbc.url=r2dbc:h2:mem:///primary",
+                    "checking-account.r2dbc.pool.initial-size=1");
+
+    @Test
+    void shouldRunOnTheConfiguredPoolRatherThanBootsOwn() {
+        contextRunner.run(context -> {
+            assertEquals(InstrumentedConnectionPool.class, context.getBean(ConnectionFactory.class).getClass());
+            assertUsedEverywhere(context);
+        });
+    }
+
+    @Test
+    void shouldRouteBetweenThePrimaryAndTheReplicas() {
+        contextRunner
+                .withPropertyValues("checking-account.r2dbc.replica.urls=r2dbc:h2:mem:///replica")
+                .run(context -> {
+                    assertEquals(ReadWriteRoutingConnectionFactory.class, context.getBean(ConnectionFactory.class).getClass());
+                    assertUsedEverywhere(context);
+                });
+    }
+
+    @Test
+    void shouldRouteBetweenTheShards() {
+        contextRunner
+                .withPropertyValues(
+                        "checking-account.sharding.enabled=true",
+                        "checking-account.sharding.r2dbc-urls=r2dbc:h2:mem:///shard-1")
+                .run(context -> {
+                    assertEquals(ShardRoutingConnectionFactory.class, context.getBean(ConnectionFactory.class).getClass());
+                    assertUsedEverywhere(context);
+                });
+    }
+
+    /**
+     * The only connection factory of the context, behind the database client and the transaction manager.
+     */
+    private static void assertUsedEverywhere(ApplicationContext context) {
+        var connectionFactory = context.getBean(ConnectionFactory.class);
+        assertSame(connectionFactory, context.getBean(DatabaseClient.class).getConnectionFactory());
+        assertSame(connectionFactory, context.getBean(R2dbcTransactionManager.class).getConnectionFactory());
+    }
+
+}
@@ -0,0 +1,114 @@
+package dev.emmanuel.account.controller;
+
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import dev.emmanuel.account.service.FindCheckingAccountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.Mockito.when;
+
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = FindCheckingAccountRoute.class)
+@WebFluxTest
+class FindCheckingAccountRouteTest {
+
+    @MockBean
+    private FindCheckingAccountService findCheckingAccountService;
+
+    @Autowired
+    private FindCheckingAccountRoute route;
+
+    private WebTestClient webTestClient;
+
+    private final CheckingAccount account = new CheckingAccount(50L, 3L, "DE89370400440532013000", "EUR", Customer.of(1L, "Mock User"));
+
+    @BeforeEach
+    void setUp() {
+        this.webTestClient = WebTestClient
+                .bindToRouterFunction(route.findAccount())
+                .build();
+    }
+
+    @Test
+    void shouldFindAccountById() {
+        when(findCheckingAccountService.findById(50L)).thenReturn(Mono.just(account));
+
+        webTestClient
+                .get()
+                .uri("/checking-accounts/50")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"50.3\"")
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(50L)
+                .jsonPath("$.iban").isEqualTo("DE89370400440532013000");
+    }
+
+    @Test
+    void shouldFindAccountByCustomerId() {
+        when(findCheckingAccountService.findByCustomerId(1L)).thenReturn(Mono.just(account));
+
+        webTestClient
+                .get()
+                .uri("/customers/1/checking-account")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.customer.id").isEqualTo(1L);
+    }
+
+    @Test
+    void shouldFindAccountByIban() {
+        when(findCheckingAccountService.findByIban("DE89370400440532013000")).thenReturn(Mono.just(account));
+
+        webTestClient
+                .get()
+                .uri("/checking-accounts/iban/DE89370400440532013000")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(50L);
+    }
+
+    @Test
+    void shouldReturnNotModifiedWhenVersionMatches() {
+        when(findCheckingAccountService.findById(50L)).thenReturn(Mono.just(account));
+
+        webTestClient
+                .get()
+                .uri("/checking-accounts/50")
+                .ifNoneMatch("\"50.3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownAccount() {
+        when(findCheckingAccountService.findById(404L)).thenReturn(Mono.empty());
+
+        webTestClient
+                .get()
+                .uri("/checking-accounts/404")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldReturnBadRequestForInvalidId() {
+        webTestClient
+                .get()
+                .uri("/checking-accounts/abc")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
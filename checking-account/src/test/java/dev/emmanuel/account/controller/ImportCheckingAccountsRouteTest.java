@@ -0,0 +1,124 @@
+package dev.emmanuel.account.controller;
+
+import dev.emmanuel.account.controller.codec.CheckingAccountJsonReader;
+import dev.emmanuel.account.service.ImportCheckingAccountsService;
+import dev.emmanuel.account.service.ImportRecord;
+import dev.emmanuel.account.service.ImportResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = {ImportCheckingAccountsRoute.class, CheckingAccountJsonReader.class})
+@WebFluxTest
+class ImportCheckingAccountsRouteTest {
+
+    private static final String ACCOUNT = "{\"iban\":\"DE89370400440532013000\",\"currencyCode\":\"EUR\",\"customer\":{\"id\":%d,\"name\":\"Mock\"}}";
+
+    @MockBean
+    private ImportCheckingAccountsService importCheckingAccountsService;
+
+    @Autowired
+    private ImportCheckingAccountsRoute route;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        this.webTestClient = WebTestClient
+                .bindToRouterFunction(route.importAccounts())
+                .build();
+
+        // opens every record with its customer id as account id
+        when(importCheckingAccountsService.importAccounts(any())).thenAnswer(invocation -> invocation
+                .<Flux<ImportRecord>>getArgument(0)
+                .map(record -> record.getMalformedReason() == null
+                        ? ImportResult.opened(record.getLine(), record.getCheckingAccount().getCustomer().getId())
+                        : ImportResult.malformed(record.getLine(), record.getMalformedReason())));
+    }
+
+    @Test
+    void shouldStreamResultsOfNewlineDelimitedJsonLines() {
+        var body = String.format(ACCOUNT, 10) + "\n\n{\"iban\":\n" + String.format(ACCOUNT, 40) + "\n";
+
+        var results = importResults(MediaType.APPLICATION_NDJSON, "/checking-accounts/import", body);
+
+        StepVerifier.create(results)
+                .expectNext(ImportResult.opened(1, 10))
+                .expectNextMatches(result -> result.getLine() == 3 && result.getStatus() == ImportResult.Status.MALFORMED)
+                .expectNext(ImportResult.opened(4, 40))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldResumeAfterTheLastAcknowledgedLine() {
+        var body = String.format(ACCOUNT, 10) + "\n" + String.format(ACCOUNT, 20) + "\n" + String.format(ACCOUNT, 30);
+
+        var results = importResults(MediaType.APPLICATION_NDJSON, "/checking-accounts/import?after=2", body);
+
+        StepVerifier.create(results)
+                .expectNext(ImportResult.opened(3, 30))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReadTheCsvHeaderWhenResuming() {
+        var body = "iban,currencyCode,customerId,customerName\r\n" +
+                "DE89370400440532013000,EUR,10,Mock\r\n" +
+                "GB82WEST12345698765432,GBP,20,Mock\r\n";
+
+        var results = importResults(MediaType.parseMediaType("text/csv"), "/checking-accounts/import?after=2", body);
+
+        StepVerifier.create(results)
+                .expectNext(ImportResult.opened(3, 20))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldRejectCsvWithoutHeader() {
+        webTestClient
+                .post()
+                .uri("/checking-accounts/import")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .bodyValue("DE89370400440532013000,EUR,10,Mock\n")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldRejectInvalidResumeLine() {
+        webTestClient
+                .post()
+                .uri("/checking-accounts/import?after=last")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(String.format(ACCOUNT, 10))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private Flux<ImportResult> importResults(MediaType contentType, String uri, String body) {
+        return webTestClient
+                .post()
+                .uri(uri)
+                .contentType(contentType)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(ImportResult.class)
+                .getResponseBody();
+    }
+
+}
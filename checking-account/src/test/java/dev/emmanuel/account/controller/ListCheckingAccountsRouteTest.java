@@ -0,0 +1,135 @@
+package dev.emmanuel.account.controller;
+
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import dev.emmanuel.account.service.ListCheckingAccountsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = ListCheckingAccountsRoute.class)
+@WebFluxTest
+class ListCheckingAccountsRouteTest {
+
+    @MockBean
+    private ListCheckingAccountsService listCheckingAccountsService;
+
+    @Autowired
+    private ListCheckingAccountsRoute route;
+
+    private WebTestClient webTestClient;
+
+    private final CheckingAccount first = new CheckingAccount(7L, 0L, "DE89370400440532013000", "EUR", Customer.of(1L, "Mock User"));
+    private final CheckingAccount second = new CheckingAccount(9L, 0L, "GB82WEST12345698765432", "GBP", Customer.of(2L, "Other User"));
+
+    @BeforeEach
+    void setUp() {
+        this.webTestClient = WebTestClient
+                .bindToRouterFunction(route.listAccounts())
+                .build();
+    }
+
+    @Test
+    void shouldStreamAccountsAsNewlineDelimitedJson() {
+        when(listCheckingAccountsService.findAllAfter(0L)).thenReturn(Flux.just(first, second));
+
+        var accounts = webTestClient
+                .get()
+                .uri("/checking-accounts")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(CheckingAccount.class)
+                .getResponseBody();
+
+        StepVerifier.create(accounts)
+                .expectNext(first, second)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldResumeFromAfterCursor() {
+        when(listCheckingAccountsService.findAllAfter(7L)).thenReturn(Flux.just(second));
+
+        var accounts = webTestClient
+                .get()
+                .uri("/checking-accounts?after=7")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(CheckingAccount.class)
+                .getResponseBody();
+
+        StepVerifier.create(accounts)
+                .expectNext(second)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldStreamServerSentEventsIdentifiedByAccountId() {
+        when(listCheckingAccountsService.findAllAfter(0L)).thenReturn(Flux.just(first, second));
+
+        var events = webTestClient
+                .get()
+                .uri("/checking-accounts")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<CheckingAccount>>() {})
+                .getResponseBody();
+
+        StepVerifier.create(events)
+                .assertNext(event -> {
+                    assertEquals("7", event.id());
+                    assertEquals(first, event.data());
+                })
+                .assertNext(event -> assertEquals("9", event.id()))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldResumeServerSentEventsFromLastEventId() {
+        when(listCheckingAccountsService.findAllAfter(7L)).thenReturn(Flux.just(second));
+
+        var events = webTestClient
+                .get()
+                .uri("/checking-accounts")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", "7")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<CheckingAccount>>() {})
+                .getResponseBody();
+
+        StepVerifier.create(events)
+                .assertNext(event -> assertEquals("9", event.id()))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReturnBadRequestForNonNumericCursor() {
+        webTestClient
+                .get()
+                .uri("/checking-accounts?after=abc")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+}
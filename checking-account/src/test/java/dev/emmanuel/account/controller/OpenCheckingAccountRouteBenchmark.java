@@ -0,0 +1,148 @@
+package dev.emmanuel.account.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.emmanuel.account.configuration.JacksonConfiguration;
+import dev.emmanuel.account.event.AccountEventOutbox;
+import dev.emmanuel.account.persistence.cache.CheckingAccountCache;
+import dev.emmanuel.account.persistence.filter.CustomerIdFilter;
+import dev.emmanuel.account.persistence.repository.InMemoryAccountEventOutboxRepository;
+import dev.emmanuel.account.persistence.repository.InMemoryCheckingAccountRepository;
+import dev.emmanuel.account.persistence.repository.InMemoryIdSequenceRepository;
+import dev.emmanuel.account.controller.codec.CheckingAccountJsonReader;
+import dev.emmanuel.account.controller.idempotency.IdempotencyKeyStore;
+import dev.emmanuel.account.controller.limit.ConcurrencyLimitFilter;
+import dev.emmanuel.account.persistence.sharding.ShardDirectory;
+import dev.emmanuel.account.service.HiLoIdAllocator;
+import dev.emmanuel.account.service.OpenCheckingAccountMetrics;
+import dev.emmanuel.account.service.OpenCheckingAccountService;
+import dev.emmanuel.account.service.OpenCheckingAccountWriter;
+import dev.emmanuel.account.service.PassThroughTransactionalOperator;
+import dev.emmanuel.account.tracing.SpanExporter;
+import dev.emmanuel.account.tracing.Tracer;
+import dev.emmanuel.account.validator.CheckingAccountInputValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Whole {@code POST /checking-accounts} handler (JSON decoding, validation, customer filter, insert, outbox
+ * record and response encoding) against in-memory repositories, so the numbers exclude any I/O.
+ * The stores are rebuilt on every iteration to keep their size, and the heap, bounded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenCheckingAccountRouteBenchmark {
+
+    private static final long EXISTENT_CUSTOMER_ID = 1L;
+
+    private final AtomicLong nextCustomerId = new AtomicLong(EXISTENT_CUSTOMER_ID);
+
+    private WebTestClient webTestClient;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ObjectMapper objectMapper = new JacksonConfiguration().objectMapper(Jackson2ObjectMapperBuilder.json());
+        var meterRegistry = new SimpleMeterRegistry();
+        var checkingAccountRepository = new InMemoryCheckingAccountRepository();
+        var customerIdFilter = new CustomerIdFilter(checkingAccountRepository, meterRegistry, 1_000_000, 0.01, 5000, Duration.ofSeconds(5), Duration.ofSeconds(2));
+        customerIdFilter.load().block();
+
+        var metrics = new OpenCheckingAccountMetrics(meterRegistry);
+        var idempotencyKeyStore = new IdempotencyKeyStore(meterRegistry, 100_000, Duration.ofHours(24));
+        var concurrencyLimitFilter = new ConcurrencyLimitFilter(meterRegistry, true, 20, 4, 200, 0.2, 1.5, 600);
+        var writer = new OpenCheckingAccountWriter(
+                checkingAccountRepository,
+                new AccountEventOutbox(new InMemoryAccountEventOutboxRepository(), objectMapper),
+                new PassThroughTransactionalOperator(),
+                metrics,
+                new HiLoIdAllocator(new InMemoryIdSequenceRepository(), "checking_accounts", 500, meterRegistry),
+                ShardDirectory.unsharded(),
+                false,
+                64,
+                Duration.ofNanos(500_000),
+                4096,
+                4
+        );
+        var openCheckingAccountService = new OpenCheckingAccountService(
+                writer,
+                checkingAccountRepository,
+                new CheckingAccountInputValidator(),
+                customerIdFilter,
+                new CheckingAccountCache(meterRegistry, 100_000, Duration.ofMinutes(5)),
+                metrics
+        );
+
+        var handlerStrategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                })
+                .build();
+
+        this.webTestClient = WebTestClient
+                .bindToRouterFunction(new OpenCheckingAccountRoute(openCheckingAccountService, metrics, idempotencyKeyStore, concurrencyLimitFilter,
+                        new CheckingAccountJsonReader(objectMapper), new Tracer(new SpanExporter(objectMapper), 0), DataSize.ofKilobytes(256)).openAccount())
+                .handlerStrategies(handlerStrategies)
+                .build();
+
+        this.nextCustomerId.set(EXISTENT_CUSTOMER_ID);
+        openAccount();
+    }
+
+    @Benchmark
+    public byte[] openAccount() {
+        return post(nextCustomerId.getAndIncrement())
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseBody();
+    }
+
+    @Benchmark
+    public byte[] openAlreadyOpenedAccount() {
+        return post(EXISTENT_CUSTOMER_ID)
+                .expectStatus().isBadRequest()
+                .expectBody().returnResult().getResponseBody();
+    }
+
+    private WebTestClient.ResponseSpec post(long customerId) {
+        var body = String.format("{\"iban\":\"%s\",\"currencyCode\":\"EUR\",\"customer\":{\"id\":%d,\"name\":\"Mock Customer\"}}",
+                iban(customerId), customerId);
+
+        return webTestClient
+                .post()
+                .uri("/checking-accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body.getBytes(StandardCharsets.UTF_8))
+                .exchange();
+    }
+
+    /**
+     * German IBAN unique to the customer, with the check digits the validator expects.
+     */
+    private static String iban(long customerId) {
+        var bban = String.format("%018d", customerId);
+
+        // mod 97 of the BBAN followed by "DE00", with D = 13 and E = 14
+        int remainder = 0;
+        for (char c : (bban + "131400").toCharArray()) {
+            remainder = (remainder * 10 + (c - '0')) % 97;
+        }
+
+        return String.format("DE%02d%s", 98 - remainder, bban);
+    }
+
+}
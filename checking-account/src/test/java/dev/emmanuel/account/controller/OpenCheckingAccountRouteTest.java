@@ -1,12 +1,21 @@
 package dev.emmanuel.account.controller;
 
+import dev.emmanuel.account.controller.codec.CheckingAccountJsonReader;
 import dev.emmanuel.account.controller.dto.CheckingAccountDto;
 import dev.emmanuel.account.controller.dto.CustomerDto;
+import dev.emmanuel.account.controller.idempotency.IdempotencyKeyStore;
+import dev.emmanuel.account.controller.limit.ConcurrencyLimitFilter;
 import dev.emmanuel.account.exception.CheckingAccountAlreadyOpened;
 import dev.emmanuel.account.exception.violation.Violation;
 import dev.emmanuel.account.exception.violation.ViolationException;
 import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.service.OpenCheckingAccountMetrics;
 import dev.emmanuel.account.service.OpenCheckingAccountService;
+import dev.emmanuel.account.service.OpenedAccountJson;
+import dev.emmanuel.account.tracing.SpanExporter;
+import dev.emmanuel.account.tracing.TraceContext;
+import dev.emmanuel.account.tracing.Tracer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
@@ -19,13 +28,19 @@ import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(SpringRunner.class)
-@ContextConfiguration(classes = OpenCheckingAccountRoute.class)
+@ContextConfiguration(classes = {OpenCheckingAccountRoute.class, CheckingAccountJsonReader.class, OpenCheckingAccountMetrics.class, IdempotencyKeyStore.class, ConcurrencyLimitFilter.class, SimpleMeterRegistry.class, Tracer.class, SpanExporter.class})
 @WebFluxTest
 class OpenCheckingAccountRouteTest {
 
@@ -37,10 +52,14 @@ class OpenCheckingAccountRouteTest {
     @Autowired
     private OpenCheckingAccountRoute route;
 
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
     private WebTestClient webTestClient;
 
     @BeforeEach
     void setUp() {
+        this.meterRegistry.clear();
         this.webTestClient = WebTestClient
                 .bindToRouterFunction(route.openAccount())
                 .build();
@@ -67,6 +86,67 @@ class OpenCheckingAccountRouteTest {
                 .jsonPath("$.currency").isEqualTo("EUR")
                 .jsonPath("$.customer.id").isEqualTo(1L)
                 .jsonPath("$.customer.name").isEqualTo("Mock User");
+
+        assertEquals(1, meterRegistry.get("checking_account.open.requests").tag("result", "success").timer().count());
+    }
+
+    @Test
+    void shouldAnswerWithTheAccountJsonSerializedForTheOpenedEvent() {
+        var accountDto = new CheckingAccountDto("IBAN", "EUR", new CustomerDto(6L, "Mock User"));
+        var serializedAccount = "{\"id\":53,\"iban\":\"IBAN\"}";
+
+        when(openCheckingAccountService.open(any(CheckingAccount.class))).thenAnswer(invocation -> OpenedAccountJson
+                .fill(serializedAccount.getBytes(StandardCharsets.UTF_8))
+                .thenReturn(invocation.<CheckingAccount>getArgument(0).withId(53L)));
+
+        webTestClient
+                .post()
+                .uri(CHECKING_ACCOUNT_ENDPOINT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(accountDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody(String.class).isEqualTo(serializedAccount);
+    }
+
+    @Test
+    void shouldContinueTheTraceOfTheCaller() {
+        var accountDto = new CheckingAccountDto("IBAN", "EUR", new CustomerDto(7L, "Mock User"));
+        var traces = new ArrayList<TraceContext>();
+
+        when(openCheckingAccountService.open(any(CheckingAccount.class))).thenAnswer(invocation -> Mono
+                .deferContextual(context -> {
+                    Tracer.current(context).ifPresent(traces::add);
+                    return Mono.just(invocation.<CheckingAccount>getArgument(0).withId(54L));
+                }));
+
+        webTestClient
+                .post()
+                .uri(CHECKING_ACCOUNT_ENDPOINT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01")
+                .bodyValue(accountDto)
+                .exchange()
+                .expectStatus().isOk();
+
+        assertEquals(1, traces.size());
+        assertEquals("0af7651916cd43dd8448eb211c80319c", traces.get(0).getTraceId());
+        assertEquals("b7ad6b7169203331", traces.get(0).getParentSpanId());
+        assertTrue(traces.get(0).isSampled());
+    }
+
+    @Test
+    void shouldReturnBadRequestWhenBodyIsMalformed() {
+        webTestClient
+                .post()
+                .uri(CHECKING_ACCOUNT_ENDPOINT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"iban\":")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(openCheckingAccountService, times(0)).open(any(CheckingAccount.class));
     }
 
     @Test
@@ -86,6 +166,12 @@ class OpenCheckingAccountRouteTest {
                 .expectStatus().isBadRequest()
                 .expectBody()
                 .jsonPath("$.message").isEqualTo("Account already opened");
+
+        assertEquals(1, meterRegistry
+                .get("checking_account.open.requests")
+                .tag("exception", "CheckingAccountAlreadyOpened")
+                .timer()
+                .count());
     }
 
     @Test
@@ -114,4 +200,74 @@ class OpenCheckingAccountRouteTest {
                 .jsonPath("$.violations[0].property").isEqualTo("myProperty")
                 .jsonPath("$.violations[0].message").isEqualTo("The property is invalid");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReplayStoredResponseForSameIdempotencyKey() {
+        var accountDto = new CheckingAccountDto("IBAN", "EUR", new CustomerDto(2L, "Mock User"));
+
+        var account = CheckingAccount.from(accountDto);
+        when(openCheckingAccountService.open(account)).thenReturn(Mono.just(account.withId(51L)));
+
+        openAccount("replayed-key", accountDto)
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist("Idempotent-Replayed")
+                .expectBody().jsonPath("$.id").isEqualTo(51L);
+
+        openAccount("replayed-key", accountDto)
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("Idempotent-Replayed", "true")
+                .expectBody().jsonPath("$.id").isEqualTo(51L);
+
+        verify(openCheckingAccountService, times(1)).open(account);
+    }
+
+    @Test
+    void shouldReplayStoredBadRequest() {
+        var accountDto = new CheckingAccountDto("IBAN", "EUR", new CustomerDto(3L, "Mock User"));
+
+        when(openCheckingAccountService.open(any(CheckingAccount.class)))
+                .thenReturn(Mono.error(CheckingAccountAlreadyOpened::new));
+
+        for (int i = 0; i < 2; i++) {
+            openAccount("rejected-key", accountDto)
+                    .expectStatus().isBadRequest()
+                    .expectBody().jsonPath("$.message").isEqualTo("Account already opened");
+        }
+
+        verify(openCheckingAccountService, times(1)).open(any(CheckingAccount.class));
+    }
+
+    @Test
+    void shouldRejectIdempotencyKeyReusedForAnotherRequest() {
+        var accountDto = new CheckingAccountDto("IBAN", "EUR", new CustomerDto(4L, "Mock User"));
+        var otherAccountDto = new CheckingAccountDto("OTHER-IBAN", "EUR", new CustomerDto(4L, "Mock User"));
+
+        when(openCheckingAccountService.open(any(CheckingAccount.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.<CheckingAccount>getArgument(0).withId(52L)));
+
+        openAccount("reused-key", accountDto).expectStatus().isOk();
+
+        openAccount("reused-key", otherAccountDto)
+                .expectStatus().isEqualTo(422)
+                .expectBody().jsonPath("$.message").isEqualTo("Idempotency-Key already used by a different request");
+    }
+
+    @Test
+    void shouldRejectBlankIdempotencyKey() {
+        var accountDto = new CheckingAccountDto("IBAN", "EUR", new CustomerDto(5L, "Mock User"));
+
+        openAccount(" ", accountDto).expectStatus().isBadRequest();
+
+        verify(openCheckingAccountService, times(0)).open(any(CheckingAccount.class));
+    }
+
+    private WebTestClient.ResponseSpec openAccount(String idempotencyKey, CheckingAccountDto accountDto) {
+        return webTestClient
+                .post()
+                .uri(CHECKING_ACCOUNT_ENDPOINT)
+                .header(IdempotencyKeyStore.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(accountDto), CheckingAccount.class)
+                .exchange();
+    }
+}
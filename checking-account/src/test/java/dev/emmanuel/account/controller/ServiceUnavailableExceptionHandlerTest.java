@@ -0,0 +1,63 @@
+package dev.emmanuel.account.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.emmanuel.account.persistence.pool.ConnectionAcquireTimeoutException;
+import dev.emmanuel.account.persistence.sharding.ShardUnavailableException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+class ServiceUnavailableExceptionHandlerTest {
+
+    private final ServiceUnavailableExceptionHandler exceptionHandler = new ServiceUnavailableExceptionHandler(new ObjectMapper());
+
+    @Test
+    void shouldAnswerServiceUnavailableWhenNoConnectionCouldBeAcquired() {
+        var acquireTimeout = new ConnectionAcquireTimeoutException(new R2dbcTimeoutException("Connection Acquisition timed out after 2000ms"));
+
+        webTestClientFailingWith(new DataAccessResourceFailureException("Failed to obtain R2DBC Connection", acquireTimeout))
+                .get()
+                .uri("/checking-accounts/1")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals("Retry-After", "1")
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Connection Acquisition timed out after 2000ms");
+    }
+
+    @Test
+    void shouldAnswerServiceUnavailableWhileTheShardCantBeWritten() {
+        webTestClientFailingWith(new ShardUnavailableException("Slot 42 is being moved to shard-1"))
+                .get()
+                .uri("/checking-accounts/1")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals("Retry-After", "1")
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Slot 42 is being moved to shard-1");
+    }
+
+    @Test
+    void shouldLeaveOtherFailuresToTheDefaultHandler() {
+        webTestClientFailingWith(new IllegalStateException("unexpected"))
+                .get()
+                .uri("/checking-accounts/1")
+                .exchange()
+                .expectStatus().is5xxServerError()
+                .expectHeader().doesNotExist("Retry-After");
+    }
+
+    private WebTestClient webTestClientFailingWith(RuntimeException failure) {
+        return WebTestClient
+                .bindToRouterFunction(route(GET("/checking-accounts/{id}"), request -> Mono.error(failure)))
+                .handlerStrategies(HandlerStrategies.builder().exceptionHandler(exceptionHandler).build())
+                .build();
+    }
+
+}
@@ -0,0 +1,68 @@
+package dev.emmanuel.account.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+
+/**
+ * The shard operations with sharding enabled over an in-memory database (without the shard map, which doesn't
+ * matter to the moves rejected here), answered on the management port only.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///checking-account-shards-endpoint",
+        "spring.flyway.enabled=false",
+        "spring.flyway.user=sa",
+        "spring.flyway.password=",
+        "checking-account.r2dbc.pool.initial-size=1",
+        "checking-account.outbox.relay.enabled=false",
+        "spring.kafka.bootstrap-servers=localhost:9",
+        "spring.kafka.admin.properties.request.timeout.ms=500",
+        "spring.kafka.admin.properties.default.api.timeout.ms=1000",
+        "checking-account.sharding.enabled=true",
+        "management.server.port=0",
+})
+class ShardsEndpointPortTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${local.management.port}")
+    private int managementPort;
+
+    private WebTestClient application;
+    private WebTestClient management;
+
+    @BeforeEach
+    void setUp() {
+        this.application = WebTestClient.bindToServer().baseUrl("http://localhost:" + port).build();
+        this.management = WebTestClient.bindToServer().baseUrl("http://localhost:" + managementPort).build();
+    }
+
+    @Test
+    void shouldNotServeTheShardOperationsOnTheApplicationPort() {
+        application
+                .post()
+                .uri("/actuator/shards/42")
+                .bodyValue(Map.of("to", "shard-1"))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldServeTheShardOperationsOnTheManagementPort() {
+        management
+                .post()
+                .uri("/actuator/shards/42")
+                .bodyValue(Map.of("to", "shard-7"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Shard shard-7 isn't configured");
+    }
+
+}
@@ -0,0 +1,104 @@
+package dev.emmanuel.account.controller;
+
+import dev.emmanuel.account.controller.dto.ErrorResponse;
+import dev.emmanuel.account.persistence.sharding.ShardRebalancer;
+import dev.emmanuel.account.persistence.sharding.SlotMove;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ShardsEndpointTest {
+
+    private ShardRebalancer shardRebalancer;
+    private ShardsEndpoint shardsEndpoint;
+
+    @BeforeEach
+    void setUp() {
+        this.shardRebalancer = mock(ShardRebalancer.class);
+        this.shardsEndpoint = new ShardsEndpoint(shardRebalancer);
+    }
+
+    @Test
+    void shouldAnswerTheSlotsOwnedByEveryShard() {
+        var counts = new LinkedHashMap<String, Integer>(Map.of("shard-0", 512));
+        counts.put("shard-1", 512);
+        when(shardRebalancer.slotCounts()).thenReturn(Mono.just(counts));
+
+        StepVerifier.create(shardsEndpoint.slotCounts())
+                .expectNext(Map.of("shard-0", 512, "shard-1", 512))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldMoveASlotToTheRequestedShard() {
+        when(shardRebalancer.move(42, "shard-1")).thenReturn(Mono.just(new SlotMove(42, "shard-0", "shard-1", 3)));
+
+        StepVerifier.create(shardsEndpoint.move(42, "shard-1"))
+                .assertNext(response -> {
+                    assertEquals(200, response.getStatus());
+                    assertEquals(new SlotMove(42, "shard-0", "shard-1", 3), response.getBody());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldRejectAMoveWithoutTargetShard() {
+        StepVerifier.create(shardsEndpoint.move(42, null))
+                .assertNext(response -> {
+                    assertEquals(400, response.getStatus());
+                    assertEquals("The target shard is missing, e.g. {\"to\": \"shard-1\"}", ((ErrorResponse) response.getBody()).getMessage());
+                })
+                .verifyComplete();
+
+        verifyNoInteractions(shardRebalancer);
+    }
+
+    @Test
+    void shouldRejectAMoveOfAnUnknownSlot() {
+        when(shardRebalancer.move(4096, "shard-1")).thenReturn(Mono.error(new IllegalArgumentException("Slot 4096 doesn't exist, slots go from 0 to 1023")));
+
+        StepVerifier.create(shardsEndpoint.move(4096, "shard-1"))
+                .assertNext(response -> {
+                    assertEquals(400, response.getStatus());
+                    assertEquals("Slot 4096 doesn't exist, slots go from 0 to 1023", ((ErrorResponse) response.getBody()).getMessage());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldAnswerConflictWhileSlotsAreAlreadyBeingMoved() {
+        when(shardRebalancer.move(42, "shard-1")).thenReturn(Mono.error(new IllegalStateException("Slots are already being moved by another instance")));
+
+        StepVerifier.create(shardsEndpoint.move(42, "shard-1"))
+                .assertNext(response -> {
+                    assertEquals(409, response.getStatus());
+                    assertEquals("Slots are already being moved by another instance", ((ErrorResponse) response.getBody()).getMessage());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldAnswerTheMovesOfARebalance() {
+        when(shardRebalancer.rebalance()).thenReturn(Flux.just(
+                new SlotMove(1022, "shard-0", "shard-1", 2),
+                new SlotMove(1023, "shard-0", "shard-1", 0)));
+
+        StepVerifier.create(shardsEndpoint.rebalance())
+                .assertNext(response -> assertEquals(List.of(
+                        new SlotMove(1022, "shard-0", "shard-1", 2),
+                        new SlotMove(1023, "shard-0", "shard-1", 0)), response.getBody()))
+                .verifyComplete();
+    }
+
+}
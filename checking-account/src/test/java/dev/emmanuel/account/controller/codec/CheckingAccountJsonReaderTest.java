@@ -0,0 +1,58 @@
+package dev.emmanuel.account.controller.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.emmanuel.account.controller.dto.CheckingAccountDto;
+import dev.emmanuel.account.controller.dto.CustomerDto;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CheckingAccountJsonReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CheckingAccountJsonReader reader = new CheckingAccountJsonReader(objectMapper);
+
+    @Test
+    void shouldReadTheSameAccountAsTheBoundDto() throws Exception {
+        var json = objectMapper.writeValueAsBytes(new CheckingAccountDto("DE89370400440532013000", "EUR", new CustomerDto(7L, "Mock \"User\"")));
+
+        var account = reader.read(new ByteArrayInputStream(json));
+
+        assertEquals(CheckingAccount.from(objectMapper.readValue(json, CheckingAccountDto.class)), account);
+        assertEquals(CheckingAccount.of("DE89370400440532013000", "EUR", Customer.of(7L, "Mock \"User\"")), account);
+    }
+
+    @Test
+    void shouldSkipUnknownFieldsAndLeaveMissingOnesEmpty() throws Exception {
+        var account = reader.read("{\"extra\":{\"nested\":[1,2]},\"currencyCode\":\"EUR\",\"customer\":{\"id\":\"8\",\"tags\":[]}}");
+
+        assertEquals(CheckingAccount.of(null, "EUR", Customer.of(8L, null)), account);
+        assertEquals(CheckingAccount.of(null, null, null), reader.read("{\"customer\":null}"));
+    }
+
+    @Test
+    void shouldRejectMalformedJson() {
+        assertThrows(JsonProcessingException.class, () -> reader.read("{\"iban\":"));
+        assertThrows(JsonProcessingException.class, () -> reader.read("[]"));
+        assertThrows(JsonProcessingException.class, () -> reader.read("{\"customer\":\"Mock\"}"));
+        assertThrows(JsonProcessingException.class, () -> reader.read("{\"customer\":{\"id\":\"Mock\"}}"));
+        assertThrows(JsonProcessingException.class, () -> reader.read("{\"iban\":{}}"));
+    }
+
+    @Test
+    void shouldReadBodyBytesAsUtf8() throws Exception {
+        var json = "{\"iban\":\"DE89370400440532013000\",\"currencyCode\":\"EUR\",\"customer\":{\"id\":9,\"name\":\"Zoë\"}}";
+
+        var account = reader.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("Zoë", account.getCustomer().getName());
+    }
+
+}
@@ -0,0 +1,62 @@
+package dev.emmanuel.account.controller.idempotency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyKeyStoreTest {
+
+    private final IdempotencyKeyStore store = new IdempotencyKeyStore(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+
+    @Test
+    void shouldRunTheExecutionWithTheContextOfTheRequest() {
+        var response = store
+                .replayOrExecute("key", "request", () -> Mono.deferContextual(context ->
+                        Mono.just(StoredResponse.of(HttpStatus.CREATED, context.getOrDefault("trace", "none")))))
+                .contextWrite(context -> context.put("trace", "0af7651916cd43dd8448eb211c80319c"));
+
+        StepVerifier.create(response)
+                .assertNext(created -> assertEquals("0af7651916cd43dd8448eb211c80319c", created.getBody()))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReplayTheStoredResponseWithoutRunningAgain() {
+        var executions = new AtomicInteger();
+        Supplier<Mono<StoredResponse>> execution = () -> Mono.fromCallable(() ->
+                StoredResponse.of(HttpStatus.CREATED, executions.incrementAndGet()));
+
+        StepVerifier.create(store.replayOrExecute("key", "request", execution))
+                .assertNext(first -> assertFalse(first.isReplayed()))
+                .verifyComplete();
+        StepVerifier.create(store.replayOrExecute("key", "request", execution))
+                .assertNext(replay -> {
+                    assertTrue(replay.isReplayed());
+                    assertEquals(1, replay.getBody());
+                })
+                .verifyComplete();
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void shouldRejectTheKeyReusedWithAnotherRequest() {
+        StepVerifier.create(store.replayOrExecute("key", "request", () -> Mono.just(StoredResponse.of(HttpStatus.CREATED, 1))))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        StepVerifier.create(store.replayOrExecute("key", "other request", () -> Mono.just(StoredResponse.of(HttpStatus.CREATED, 2))))
+                .expectError(IdempotencyKeyReusedException.class)
+                .verify();
+    }
+
+}
@@ -0,0 +1,62 @@
+package dev.emmanuel.account.controller.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.emmanuel.account.controller.codec.CheckingAccountJsonReader;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportLineParserTest {
+
+    private final CheckingAccount account = CheckingAccount.of("DE89370400440532013000", "EUR", Customer.of(1L, "Mock, \"Jr\""));
+
+    @Test
+    void shouldReadNewlineDelimitedJson() {
+        var parser = ImportLineParser.ndjson(new CheckingAccountJsonReader(new ObjectMapper()));
+
+        var record = parser.parse(3, "{\"iban\":\"DE89370400440532013000\",\"currencyCode\":\"EUR\",\"customer\":{\"id\":1,\"name\":\"Mock, \\\"Jr\\\"\"}}");
+
+        assertEquals(3, record.getLine());
+        assertEquals(account, record.getCheckingAccount());
+        assertFalse(parser.awaitsHeader());
+    }
+
+    @Test
+    void shouldReportMalformedLines() {
+        var parser = ImportLineParser.ndjson(new CheckingAccountJsonReader(new ObjectMapper()));
+
+        assertNotNull(parser.parse(1, "{\"iban\":").getMalformedReason());
+        assertEquals("customer is required", parser.parse(2, "{\"iban\":\"DE89370400440532013000\"}").getMalformedReason());
+        assertNull(parser.parse(3, "  "));
+    }
+
+    @Test
+    void shouldReadCsvColumnsInHeaderOrder() {
+        var parser = ImportLineParser.csv();
+        assertTrue(parser.awaitsHeader());
+
+        assertNull(parser.parse(1, "customerId,customerName,iban,currencyCode"));
+        assertFalse(parser.awaitsHeader());
+
+        var record = parser.parse(2, "1,\"Mock, \"\"Jr\"\"\",DE89370400440532013000,EUR");
+        assertEquals(account, record.getCheckingAccount());
+        assertEquals("expected 4 fields, found 3", parser.parse(3, "1,Mock,DE89370400440532013000").getMalformedReason());
+        assertEquals("unterminated quoted field", parser.parse(4, "1,\"Mock,DE89370400440532013000,EUR").getMalformedReason());
+    }
+
+    @Test
+    void shouldRejectCsvWithoutHeader() {
+        var parser = ImportLineParser.csv();
+
+        assertThrows(ResponseStatusException.class, () -> parser.parse(1, "1,Mock,DE89370400440532013000,EUR"));
+    }
+
+}
@@ -0,0 +1,81 @@
+package dev.emmanuel.account.controller.limit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    void shouldGrowWhileLatencyIsSteady() {
+        var limit = new AdaptiveConcurrencyLimit(20, 4, 200, 0.2, 1.5, 100);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(10 * MILLIS, limit.getLimit(), false);
+        }
+
+        assertTrue(limit.getLimit() > 40, "limit was " + limit.getLimit());
+    }
+
+    @Test
+    void shouldShrinkWhenLatencyRises() {
+        var limit = new AdaptiveConcurrencyLimit(100, 4, 200, 0.2, 1.5, 100);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(10 * MILLIS, 100, false);
+        }
+        var steadyLimit = limit.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(80 * MILLIS, limit.getLimit(), false);
+        }
+
+        assertTrue(limit.getLimit() < steadyLimit / 2, "limit went from " + steadyLimit + " to " + limit.getLimit());
+    }
+
+    @Test
+    void shouldIgnoreSamplesTakenUnderLightLoad() {
+        var limit = new AdaptiveConcurrencyLimit(20, 4, 200, 0.2, 1.5, 100);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(10 * MILLIS, 1, false);
+        }
+
+        assertEquals(20, limit.getLimit());
+    }
+
+    @Test
+    void shouldBackOffOnDroppedRequestsDownToMinimum() {
+        var limit = new AdaptiveConcurrencyLimit(20, 4, 200, 0.2, 1.5, 100);
+
+        limit.onSample(10 * MILLIS, 20, true);
+        assertEquals(18, limit.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(10 * MILLIS, 20, true);
+        }
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    void shouldRejectAcquireOverLimit() {
+        var limit = new AdaptiveConcurrencyLimit(2, 1, 2, 0.2, 1.5, 100);
+
+        assertEquals(1, limit.tryAcquire());
+        assertEquals(2, limit.tryAcquire());
+        assertEquals(0, limit.tryAcquire());
+
+        limit.release();
+        assertEquals(2, limit.tryAcquire());
+    }
+
+    @Test
+    void shouldRejectInconsistentLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(2, 4, 200, 0.2, 1.5, 100));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(300, 4, 200, 0.2, 1.5, 100));
+    }
+
+}
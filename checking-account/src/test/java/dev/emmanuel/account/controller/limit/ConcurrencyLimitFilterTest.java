@@ -0,0 +1,75 @@
+package dev.emmanuel.account.controller.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.reactive.function.server.MockServerRequest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Sinks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+import static org.springframework.web.reactive.function.server.ServerResponse.ok;
+
+class ConcurrencyLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimitFilter filter;
+    private Sinks.Empty<Void> slowRequestsRelease;
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.filter = new ConcurrencyLimitFilter(meterRegistry, true, 1, 1, 10, 0.2, 1.5, 100);
+        this.slowRequestsRelease = Sinks.empty();
+
+        this.webTestClient = WebTestClient
+                .bindToRouterFunction(route(GET("/fast"), request -> ok().bodyValue("fast")).filter(filter))
+                .build();
+    }
+
+    @Test
+    void shouldRejectRequestsOverLimit() {
+        var slowRequest = filter
+                .filter(MockServerRequest.builder().build(), request -> slowRequestsRelease.asMono().then(ok().bodyValue("slow")))
+                .toFuture();
+        assertEquals(1, filter.getLimit().getInFlight());
+
+        webTestClient.get().uri("/fast").exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals("Retry-After", "1")
+                .expectBody().jsonPath("$.message").isEqualTo("Too many requests in flight, retry later");
+
+        slowRequestsRelease.tryEmitEmpty();
+        assertEquals(HttpStatus.OK, slowRequest.join().statusCode());
+
+        assertEquals(1.0, meterRegistry.get("checking_account.open.concurrency.rejected").counter().count());
+        assertEquals(0.0, meterRegistry.get("checking_account.open.concurrency.in_flight").gauge().value());
+    }
+
+    @Test
+    void shouldReleaseLimitAfterEachRequest() {
+        for (int i = 0; i < 3; i++) {
+            webTestClient.get().uri("/fast").exchange().expectStatus().isOk();
+        }
+
+        assertEquals(0.0, meterRegistry.get("checking_account.open.concurrency.rejected").counter().count());
+        assertEquals(0, filter.getLimit().getInFlight());
+    }
+
+    @Test
+    void shouldPassThroughWhenDisabled() {
+        var disabled = new ConcurrencyLimitFilter(meterRegistry, false, 1, 1, 10, 0.2, 1.5, 100);
+        var client = WebTestClient
+                .bindToRouterFunction(route(GET("/fast"), request -> ok().bodyValue("fast")).filter(disabled))
+                .build();
+
+        for (int i = 0; i < 3; i++) {
+            client.get().uri("/fast").exchange().expectStatus().isOk();
+        }
+    }
+
+}
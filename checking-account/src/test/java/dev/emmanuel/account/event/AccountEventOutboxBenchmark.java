@@ -0,0 +1,57 @@
+package dev.emmanuel.account.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import dev.emmanuel.account.configuration.JacksonConfiguration;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import dev.emmanuel.account.persistence.repository.InMemoryAccountEventOutboxRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON written per opened account for its outbox event and the response: the event and the account serialized
+ * separately, or the account serialized once and embedded in the event payload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountEventOutboxBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter accountWriter;
+    private AccountEventOutbox outbox;
+
+    private AccountEvent event;
+
+    @Setup
+    public void setUp() {
+        this.objectMapper = new JacksonConfiguration().objectMapper(Jackson2ObjectMapperBuilder.json());
+        this.accountWriter = objectMapper.writerFor(CheckingAccount.class);
+        this.outbox = new AccountEventOutbox(new InMemoryAccountEventOutboxRepository(), objectMapper);
+
+        var account = new CheckingAccount(7654321L, 0L, "DE89370400440532013000", "EUR", Customer.of(1234567L, "Mock Customer"));
+        this.event = new AccountEvent("opened", LocalDateTime.of(2021, 5, 1, 10, 0, 0), account);
+    }
+
+    @Benchmark
+    public void serializeEventAndAccount(Blackhole blackhole) throws Exception {
+        blackhole.consume(objectMapper.writeValueAsString(event));
+        blackhole.consume(objectMapper.writeValueAsBytes(event.getCheckingAccount()));
+    }
+
+    @Benchmark
+    public void serializeAccountOnce(Blackhole blackhole) throws Exception {
+        var accountJson = accountWriter.writeValueAsBytes(event.getCheckingAccount());
+        blackhole.consume(outbox.payload(event, accountJson));
+        blackhole.consume(accountJson);
+    }
+
+}
@@ -0,0 +1,259 @@
+package dev.emmanuel.account.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import dev.emmanuel.account.event.publisher.AccountEventHeaders;
+import dev.emmanuel.account.event.publisher.AccountEventSendMetrics;
+import dev.emmanuel.account.event.publisher.KafkaTemplateAccountEventPublisher;
+import dev.emmanuel.account.persistence.entity.AccountEventOutboxEntry;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import dev.emmanuel.account.persistence.repository.AccountEventOutboxRepository;
+import dev.emmanuel.account.persistence.routing.ShardRoutingConnectionFactory;
+import dev.emmanuel.account.persistence.sharding.ShardDirectory;
+import dev.emmanuel.account.persistence.sharding.ShardMap;
+import dev.emmanuel.account.tracing.SpanExporter;
+import dev.emmanuel.account.tracing.TraceContext;
+import dev.emmanuel.account.tracing.Tracer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.ContextView;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AccountEventOutboxRelayTest {
+
+    private AccountEventOutboxRepository outboxRepository;
+    private KafkaTemplate<Long, AccountEvent> kafkaTemplate;
+    private AccountEventOutbox outbox;
+    private SimpleMeterRegistry meterRegistry;
+    private ObjectMapper objectMapper;
+    private AccountEventOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        this.objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        this.outboxRepository = mock(AccountEventOutboxRepository.class);
+        this.kafkaTemplate = mock(KafkaTemplate.class);
+        this.outbox = new AccountEventOutbox(outboxRepository, objectMapper);
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.relay = relay(ShardDirectory.unsharded());
+
+        when(outboxRepository.claim(anyString(), anyLong(), anyInt())).thenReturn(Mono.just(0));
+        when(outboxRepository.deleteByIdIn(anyCollection())).thenAnswer(invocation -> Mono.just(invocation.<List<Long>>getArgument(0).size()));
+        when(kafkaTemplate.send(record("checking_account_snapshot", null))).thenAnswer(invocation -> acknowledged());
+    }
+
+    @Test
+    void shouldPublishAndDeleteClaimedEntries() {
+        when(outboxRepository.findClaimedBy(anyString(), eq(2)))
+                .thenReturn(Flux.just(entry(1L, 10L)))
+                .thenReturn(Flux.empty());
+        when(kafkaTemplate.send(record("checking_account_event", 10L))).thenReturn(acknowledged());
+
+        StepVerifier
+                .create(relay.drain())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(outboxRepository).deleteByIdIn(List.of(1L));
+        verify(kafkaTemplate).send(argThat((ProducerRecord<Long, AccountEvent> record) ->
+                record.topic().equals("checking_account_snapshot")
+                        && record.value().getType().equals("snapshot")
+                        && record.value().getCheckingAccount().getId() == 10L));
+    }
+
+    @Test
+    void shouldKeepEntriesWhoseSnapshotFailedToBeSent() {
+        when(outboxRepository.findClaimedBy(anyString(), eq(2)))
+                .thenReturn(Flux.just(entry(1L, 10L), entry(2L, 20L)))
+                .thenReturn(Flux.empty());
+        when(kafkaTemplate.send(record("checking_account_event", null))).thenAnswer(invocation -> acknowledged());
+        when(kafkaTemplate.send(record("checking_account_snapshot", 20L))).thenReturn(failed());
+
+        StepVerifier
+                .create(relay.relayBatch())
+                .expectNext(1)
+                .verifyComplete();
+
+        verify(outboxRepository).deleteByIdIn(List.of(1L));
+    }
+
+    @Test
+    void shouldKeepDrainingWhileBatchesAreFull() {
+        when(outboxRepository.findClaimedBy(anyString(), eq(2)))
+                .thenReturn(Flux.just(entry(1L, 10L), entry(2L, 20L)))
+                .thenReturn(Flux.just(entry(3L, 30L)));
+        when(kafkaTemplate.send(record("checking_account_event", null))).thenAnswer(invocation -> acknowledged());
+
+        StepVerifier
+                .create(relay.drain())
+                .expectNext(3L)
+                .verifyComplete();
+
+        verify(outboxRepository, times(2)).deleteByIdIn(anyCollection());
+    }
+
+    @Test
+    void shouldKeepEntriesThatFailedToBeSent() {
+        when(outboxRepository.findClaimedBy(anyString(), eq(2)))
+                .thenReturn(Flux.just(entry(1L, 10L), entry(2L, 20L)))
+                .thenReturn(Flux.empty());
+        when(kafkaTemplate.send(record("checking_account_event", 10L))).thenReturn(acknowledged());
+        when(kafkaTemplate.send(record("checking_account_event", 20L))).thenReturn(failed());
+
+        StepVerifier
+                .create(relay.relayBatch())
+                .expectNext(1)
+                .verifyComplete();
+
+        verify(outboxRepository).deleteByIdIn(List.of(1L));
+        assertEquals(3, meterRegistry.get("checking_account.event.sent").tag("partition", "0").counter().count());
+    }
+
+    @Test
+    void shouldStampTheTraceOfTheRecordingRequestOnTheEvent() {
+        var trace = TraceContext.parse("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01", 1_600_000_000_000_000L);
+        var traced = entry(1L, 10L);
+        var entry = new AccountEventOutboxEntry(traced.getId(), traced.getAggregateId(), traced.getEventType(), traced.getPayload(),
+                null, null, null, trace.toTraceparent(), trace.getStartedAt());
+        when(outboxRepository.findClaimedBy(anyString(), eq(2)))
+                .thenReturn(Flux.just(entry))
+                .thenReturn(Flux.empty());
+        when(kafkaTemplate.send(record("checking_account_event", 10L))).thenReturn(acknowledged());
+
+        StepVerifier
+                .create(relay.drain())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(kafkaTemplate).send(argThat((ProducerRecord<Long, AccountEvent> record) ->
+                record.topic().equals("checking_account_event")
+                        && header(record, AccountEventHeaders.TRACEPARENT).equals(trace.toTraceparent())
+                        && header(record, AccountEventHeaders.REQUEST_STARTED_AT).equals("1600000000000000")
+                        && Long.parseLong(header(record, AccountEventHeaders.PRODUCED_AT)) >= trace.getStartedAt()));
+        verify(kafkaTemplate).send(argThat((ProducerRecord<Long, AccountEvent> record) ->
+                record.topic().equals("checking_account_snapshot")
+                        && record.headers().lastHeader(AccountEventHeaders.TRACEPARENT) == null
+                        && record.headers().lastHeader(AccountEventHeaders.PRODUCED_AT) != null));
+    }
+
+    @Test
+    void shouldDrainTheOutboxOfEveryShardEvenWhenOneFails() {
+        var owners = new String[ShardMap.SLOTS];
+        Arrays.fill(owners, "shard-0");
+        owners[1] = "shard-1";
+        owners[2] = "shard-2";
+        var relay = relay(ShardDirectory.fixed(new ShardMap(owners, new String[ShardMap.SLOTS])));
+
+        var claimedOn = new ArrayList<String>();
+        when(outboxRepository.claim(anyString(), anyLong(), anyInt())).thenReturn(Mono.deferContextual(context -> {
+            var shard = shardOf(context);
+            claimedOn.add(shard);
+            return shard.equals("shard-1") ? Mono.error(new IllegalStateException("shard-1 is down")) : Mono.just(1);
+        }));
+        when(outboxRepository.findClaimedBy(anyString(), eq(2)))
+                .thenReturn(Flux.just(entry(1L, 10L)))
+                .thenReturn(Flux.just(entry(3L, 30L)));
+        when(kafkaTemplate.send(record("checking_account_event", null))).thenAnswer(invocation -> acknowledged());
+
+        StepVerifier
+                .create(relay.drain())
+                .expectNext(2L)
+                .verifyComplete();
+
+        assertEquals(List.of("shard-0", "shard-1", "shard-2"), claimedOn);
+        verify(outboxRepository).deleteByIdIn(List.of(1L));
+        verify(outboxRepository).deleteByIdIn(List.of(3L));
+    }
+
+    private AccountEventOutboxRelay relay(ShardDirectory shardDirectory) {
+        return new AccountEventOutboxRelay(
+                outboxRepository,
+                outbox,
+                new KafkaTemplateAccountEventPublisher(kafkaTemplate, new AccountEventSendMetrics(meterRegistry),
+                        new Tracer(new SpanExporter(objectMapper), 0), 10),
+                shardDirectory,
+                2,
+                Duration.ofMillis(100),
+                Duration.ofSeconds(30)
+        );
+    }
+
+    /**
+     * Shard the statements subscribed with the context are routed to.
+     */
+    private static String shardOf(ContextView context) {
+        return context
+                .stream()
+                .filter(entry -> entry.getKey().toString().startsWith(ShardRoutingConnectionFactory.class.getName()))
+                .map(entry -> entry.getValue().toString())
+                .findFirst()
+                .orElse("none");
+    }
+
+    /**
+     * A record sent to the topic, with the key unless {@code null}.
+     */
+    private static ProducerRecord<Long, AccountEvent> record(String topic, Long key) {
+        return argThat(record -> record != null && record.topic().equals(topic) && (key == null || key.equals(record.key())));
+    }
+
+    private static String header(ProducerRecord<Long, AccountEvent> record, String key) {
+        var header = record.headers().lastHeader(key);
+        return header == null ? "" : new String(header.value(), StandardCharsets.US_ASCII);
+    }
+
+    private AccountEventOutboxEntry entry(long id, long accountId) {
+        var account = CheckingAccount.of("IBAN", "EUR", Customer.of(1, "Mock")).withId(accountId);
+        var payload = String.format(
+                "{\"type\":\"opened\",\"timestamp\":\"2021-05-01T10:00:00\",\"checkingAccount\":" +
+                        "{\"id\":%d,\"version\":null,\"iban\":\"IBAN\",\"currency\":\"EUR\",\"customer\":{\"id\":1,\"name\":\"Mock\"}}}",
+                accountId
+        );
+
+        var entry = new AccountEventOutboxEntry(id, accountId, "opened", payload, null, null, null, null, null);
+        assertEquals(account, readEvent(entry).getCheckingAccount());
+        return entry;
+    }
+
+    private AccountEvent readEvent(AccountEventOutboxEntry entry) {
+        try {
+            return outbox.read(entry);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private SettableListenableFuture<SendResult<Long, AccountEvent>> acknowledged() {
+        var future = new SettableListenableFuture<SendResult<Long, AccountEvent>>();
+        var metadata = new RecordMetadata(new TopicPartition("checking_account_event", 0), 0, 0, 0, 0L, 0, 0);
+        future.set(new SendResult<>(new ProducerRecord<>("checking_account_event", null), metadata));
+        return future;
+    }
+
+    private SettableListenableFuture<SendResult<Long, AccountEvent>> failed() {
+        var future = new SettableListenableFuture<SendResult<Long, AccountEvent>>();
+        future.setException(new KafkaException("broker unavailable"));
+        return future;
+    }
+}
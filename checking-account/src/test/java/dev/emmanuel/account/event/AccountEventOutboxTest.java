@@ -0,0 +1,125 @@
+package dev.emmanuel.account.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.emmanuel.account.configuration.JacksonConfiguration;
+import dev.emmanuel.account.persistence.entity.AccountEventOutboxEntry;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import dev.emmanuel.account.persistence.repository.InMemoryAccountEventOutboxRepository;
+import dev.emmanuel.account.tracing.SpanExporter;
+import dev.emmanuel.account.tracing.TraceContext;
+import dev.emmanuel.account.tracing.Tracer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AccountEventOutboxTest {
+
+    private ObjectMapper objectMapper;
+    private InMemoryAccountEventOutboxRepository outboxRepository;
+    private AccountEventOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        this.objectMapper = new JacksonConfiguration().objectMapper(Jackson2ObjectMapperBuilder.json());
+        this.outboxRepository = new InMemoryAccountEventOutboxRepository();
+        this.outbox = new AccountEventOutbox(outboxRepository, objectMapper);
+    }
+
+    @Test
+    void shouldStoreTheEventAsTheObjectMapperWritesIt() throws Exception {
+        var event = new AccountEvent("opened", LocalDateTime.of(2021, 5, 1, 10, 0, 0), account(1L, "Mock \"User\""));
+
+        var expectedAccountJson = objectMapper.writeValueAsString(event.getCheckingAccount());
+        StepVerifier.create(outbox.record(event))
+                .assertNext(accountJson -> assertEquals(expectedAccountJson, new String(accountJson, StandardCharsets.UTF_8)))
+                .verifyComplete();
+
+        var entry = storedEntries().get(0);
+        assertEquals(objectMapper.writeValueAsString(event), entry.getPayload());
+        assertEquals(1L, entry.getAggregateId());
+        assertEquals(event, outbox.read(entry));
+    }
+
+    @Test
+    void shouldEscapeTheTypeAndDecodeNonAsciiAccounts() throws Exception {
+        var event = new AccountEvent("\"quoted\"\n", null, account(2L, "Zoë \u2603"));
+
+        StepVerifier.create(outbox.record(event)).expectNextCount(1).verifyComplete();
+
+        var entry = storedEntries().get(0);
+        assertEquals(objectMapper.writeValueAsString(event), entry.getPayload());
+        assertEquals(event, outbox.read(entry));
+    }
+
+    @Test
+    void shouldEmitTheAccountsJsonInEventOrder() throws Exception {
+        var events = List.of(AccountEvent.of("opened", account(1L, "First")), AccountEvent.of("opened", account(2L, "Second")));
+
+        StepVerifier.create(outbox.recordAll(events))
+                .assertNext(accountsJson -> {
+                    assertEquals(2, accountsJson.size());
+                    assertEquals("Second", readAccount(accountsJson.get(1)).getCustomer().getName());
+                })
+                .verifyComplete();
+
+        var entries = storedEntries();
+        assertEquals(objectMapper.writeValueAsString(events.get(0)), entries.get(0).getPayload());
+        assertEquals(objectMapper.writeValueAsString(events.get(1)), entries.get(1).getPayload());
+    }
+
+    @Test
+    void shouldStoreTheTraceOfTheSubscriberContext() {
+        var event = AccountEvent.of("opened", account(3L, "Traced"));
+        var trace = TraceContext.start(null, true, 1_600_000_000_000_000L);
+        var tracer = new Tracer(new SpanExporter(objectMapper), 0);
+
+        StepVerifier.create(outbox.record(event).contextWrite(context -> tracer.addTo(context, trace)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        var entry = storedEntries().get(0);
+        assertEquals(trace.toTraceparent(), entry.getTraceparent());
+        assertEquals(1_600_000_000_000_000L, entry.getRequestStartedAt());
+        assertEquals(trace.getTraceId(), entry.traceContext().getTraceId());
+        assertEquals(trace.getSpanId(), entry.traceContext().getSpanId());
+    }
+
+    @Test
+    void shouldStoreEventsWithoutTraceOutsideOfRequests() {
+        StepVerifier.create(outbox.record(AccountEvent.of("opened", account(4L, "Untraced")))).expectNextCount(1).verifyComplete();
+
+        var entry = storedEntries().get(0);
+        assertNull(entry.getTraceparent());
+        assertNull(entry.traceContext());
+    }
+
+    private List<AccountEventOutboxEntry> storedEntries() {
+        return outboxRepository
+                .claim("test", 30, 10)
+                .thenMany(outboxRepository.findClaimedBy("test", 10))
+                .collectList()
+                .block();
+    }
+
+    private CheckingAccount readAccount(byte[] json) {
+        try {
+            return objectMapper.readValue(json, CheckingAccount.class);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static CheckingAccount account(long id, String customerName) {
+        return new CheckingAccount(id, 0L, "DE89370400440532013000", "EUR", Customer.of(id, customerName));
+    }
+
+}
@@ -0,0 +1,104 @@
+package dev.emmanuel.account.event;
+
+import dev.emmanuel.account.event.publisher.AccountEventPublisher;
+import dev.emmanuel.account.event.publisher.AccountEventRecord;
+import dev.emmanuel.account.event.publisher.AccountEventSendResult;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import dev.emmanuel.account.service.ListCheckingAccountsService;
+import org.apache.kafka.common.KafkaException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AccountSnapshotBackfillTest {
+
+    private ListCheckingAccountsService listCheckingAccountsService;
+    private List<AccountEventRecord<?>> sent;
+
+    @BeforeEach
+    void setUp() {
+        listCheckingAccountsService = mock(ListCheckingAccountsService.class);
+        sent = new CopyOnWriteArrayList<>();
+    }
+
+    @Test
+    void shouldSendTheSnapshotOfEveryAccountKeyedById() {
+        when(listCheckingAccountsService.findAllAfter(0L)).thenReturn(Flux.just(account(5L), account(1L), account(2L)));
+
+        StepVerifier.create(backfill(0L, Set.of()).backfill())
+                .assertNext(progress -> {
+                    assertEquals(3, progress.getSent());
+                    assertEquals(0, progress.getFailed());
+                    assertEquals(2L, progress.getResumeAfterId());
+                })
+                .verifyComplete();
+
+        assertEquals(List.of(5L, 1L, 2L), sent.stream().map(AccountEventRecord::getKey).collect(Collectors.toList()));
+        sent.forEach(record -> {
+            assertEquals("checking_account_snapshot", record.getTopic());
+            assertEquals("snapshot", record.getEvent().getType());
+            assertEquals(record.getKey(), record.getEvent().getCheckingAccount().getId());
+        });
+    }
+
+    @Test
+    void shouldResumeAfterTheAccountStreamedBeforeTheFirstFailedOne() {
+        when(listCheckingAccountsService.findAllAfter(10L)).thenReturn(Flux.just(account(11L), account(17L), account(3L), account(15L)));
+
+        StepVerifier.create(backfill(10L, Set.of(3L, 15L)).backfill())
+                .assertNext(progress -> {
+                    assertEquals(2, progress.getSent());
+                    assertEquals(2, progress.getFailed());
+                    assertEquals(17L, progress.getResumeAfterId());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldResumeAfterTheStartWhenTheFirstAccountFailed() {
+        when(listCheckingAccountsService.findAllAfter(10L)).thenReturn(Flux.just(account(3L), account(11L)));
+
+        StepVerifier.create(backfill(10L, Set.of(3L)).backfill())
+                .assertNext(progress -> assertEquals(10L, progress.getResumeAfterId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldKeepTheResumePointWhenThereIsNothingToBackfill() {
+        when(listCheckingAccountsService.findAllAfter(10L)).thenReturn(Flux.empty());
+
+        StepVerifier.create(backfill(10L, Set.of()).backfill())
+                .assertNext(progress -> assertEquals(10L, progress.getResumeAfterId()))
+                .verifyComplete();
+    }
+
+    private AccountSnapshotBackfill backfill(long afterId, Set<Long> failing) {
+        AccountEventPublisher publisher = new AccountEventPublisher() {
+            @Override
+            public <T> Flux<AccountEventSendResult<T>> send(Flux<AccountEventRecord<T>> records) {
+                return records
+                        .doOnNext(sent::add)
+                        .map(record -> failing.contains(record.getKey())
+                                ? AccountEventSendResult.failure(record.getCorrelation(), new KafkaException("broker unavailable"))
+                                : AccountEventSendResult.success(record.getCorrelation(), null));
+            }
+        };
+        return new AccountSnapshotBackfill(listCheckingAccountsService, publisher, afterId);
+    }
+
+    private CheckingAccount account(long id) {
+        return new CheckingAccount(id, 0L, "DE89370400440532013000", "EUR", Customer.of(id, "Mock User"));
+    }
+
+}
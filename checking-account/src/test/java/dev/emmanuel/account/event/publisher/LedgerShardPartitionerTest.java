@@ -0,0 +1,80 @@
+package dev.emmanuel.account.event.publisher;
+
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LedgerShardPartitionerTest {
+
+    private static final String TOPIC = "checking_account_event";
+
+    private LedgerShardPartitioner partitioner;
+
+    @BeforeEach
+    void setUp() {
+        this.partitioner = new LedgerShardPartitioner();
+        this.partitioner.configure(Map.of(LedgerShardPartitioner.NUMBER_OF_SHARDS_CONFIG, "100"));
+    }
+
+    @Test
+    void shouldAllocateAccountsToTheLedgerShards() {
+        // "1".hashCode() == 49, "123456".hashCode() == 1450575459
+        assertEquals(49, LedgerShardPartitioner.shardOf("1", 100));
+        assertEquals(59, LedgerShardPartitioner.shardOf("123456", 100));
+    }
+
+    @Test
+    void shouldProduceEveryShardToASinglePartition() {
+        var cluster = cluster(20);
+        Map<Integer, Set<Integer>> partitionsByShard = new HashMap<>();
+
+        for (long accountId = 1; accountId <= 10_000; accountId++) {
+            var partition = partitioner.partition(TOPIC, accountId, null, null, null, cluster);
+            partitionsByShard
+                    .computeIfAbsent(LedgerShardPartitioner.shardOf(String.valueOf(accountId), 100), shard -> new HashSet<>())
+                    .add(partition);
+        }
+
+        assertEquals(100, partitionsByShard.size());
+        partitionsByShard.forEach((shard, partitions) -> assertEquals(Set.of(shard % 20), partitions));
+    }
+
+    @Test
+    void shouldSpreadShardsEvenlyWhenPartitionsDivideThem() {
+        var shardsPerPartition = IntStream.range(0, 100)
+                .boxed()
+                .collect(Collectors.groupingBy(shard -> LedgerShardPartitioner.partitionOf(shard, 25), Collectors.counting()));
+
+        assertEquals(25, shardsPerPartition.size());
+        assertTrue(shardsPerPartition.values().stream().allMatch(shards -> shards == 4));
+    }
+
+    @Test
+    void shouldPartitionUnkeyedRecordsWithinTheTopic() {
+        var partition = partitioner.partition(TOPIC, null, null, "value", new byte[]{1}, cluster(8));
+
+        assertTrue(partition >= 0 && partition < 8);
+    }
+
+    private static Cluster cluster(int partitions) {
+        var node = new Node(0, "localhost", 9092);
+        List<PartitionInfo> partitionInfos = IntStream.range(0, partitions)
+                .mapToObj(partition -> new PartitionInfo(TOPIC, partition, node, new Node[]{node}, new Node[]{node}))
+                .collect(Collectors.toList());
+        return new Cluster("cluster", List.of(node), partitionInfos, Set.of(), Set.of());
+    }
+
+}
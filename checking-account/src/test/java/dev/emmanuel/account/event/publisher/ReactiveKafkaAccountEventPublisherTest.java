@@ -0,0 +1,202 @@
+package dev.emmanuel.account.event.publisher;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.emmanuel.account.event.AccountEvent;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import dev.emmanuel.account.tracing.SpanExporter;
+import dev.emmanuel.account.tracing.TraceContext;
+import dev.emmanuel.account.tracing.Tracer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+import reactor.kafka.sender.internals.ProducerFactory;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class ReactiveKafkaAccountEventPublisherTest {
+
+    private static final String TRACEPARENT = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+
+    private SimpleMeterRegistry meterRegistry;
+    private KafkaSender<Long, AccountEvent> kafkaSender;
+
+    @BeforeEach
+    void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        kafkaSender.close();
+    }
+
+    @Test
+    void shouldSendTheRecordsAndHandBackTheirCorrelation() {
+        var producer = new MockProducer<Long, AccountEvent>(true, new LongSerializer(), (topic, event) -> new byte[0]);
+        var publisher = publisher(producer, 2);
+        var trace = TraceContext.parse(TRACEPARENT, 1_000L);
+
+        var results = publisher.send(Flux.just(
+                AccountEventRecord.of("checking_account_event", 10L, event(10L), "first", trace),
+                AccountEventRecord.of("checking_account_event", 20L, event(20L), "second")));
+
+        StepVerifier.create(results)
+                .assertNext(result -> {
+                    assertTrue(result.isSuccess());
+                    assertEquals("first", result.getCorrelation());
+                    assertEquals("checking_account_event", result.getRecordMetadata().topic());
+                })
+                .assertNext(result -> {
+                    assertTrue(result.isSuccess());
+                    assertEquals("second", result.getCorrelation());
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        var sent = producer.history();
+        assertEquals(2, sent.size());
+        assertEquals(10L, sent.get(0).key());
+        assertEquals(TRACEPARENT, header(sent.get(0), AccountEventHeaders.TRACEPARENT));
+        assertEquals("1000", header(sent.get(0), AccountEventHeaders.REQUEST_STARTED_AT));
+        assertFalse(header(sent.get(1), AccountEventHeaders.PRODUCED_AT).isEmpty());
+        assertEquals("", header(sent.get(1), AccountEventHeaders.TRACEPARENT));
+
+        assertEquals(2, meterRegistry.get("checking_account.event.send").tag("result", "success").timer().count());
+        assertEquals(2, meterRegistry.get("checking_account.event.sent").tag("partition", "0").counter().count());
+    }
+
+    @Test
+    void shouldHandBackTheFailureOfARecordAndGoOn() {
+        var producer = new MockProducer<Long, AccountEvent>(false, new LongSerializer(), (topic, event) -> new byte[0]);
+        var publisher = publisher(producer, 2);
+
+        var results = publisher.send(Flux.just(
+                AccountEventRecord.of("checking_account_event", 10L, event(10L), "first"),
+                AccountEventRecord.of("checking_account_event", 20L, event(20L), "second")));
+
+        StepVerifier.create(results)
+                .then(() -> {
+                    awaitSent(producer, 2);
+                    producer.errorNext(new KafkaException("broker unavailable"));
+                    producer.completeNext();
+                })
+                .assertNext(result -> {
+                    assertFalse(result.isSuccess());
+                    assertEquals("first", result.getCorrelation());
+                    assertEquals("broker unavailable", result.getException().getMessage());
+                })
+                .assertNext(result -> {
+                    assertTrue(result.isSuccess());
+                    assertEquals("second", result.getCorrelation());
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(1, meterRegistry.get("checking_account.event.send").tag("result", "failure").timer().count());
+        assertEquals(1, meterRegistry.get("checking_account.event.send").tag("result", "success").timer().count());
+    }
+
+    @Test
+    void shouldOnlyHaveMaxInFlightRecordsUnacknowledged() {
+        var producer = new MockProducer<Long, AccountEvent>(false, new LongSerializer(), (topic, event) -> new byte[0]);
+        var publisher = publisher(producer, 2);
+
+        var results = publisher.send(Flux
+                .range(1, 5)
+                .map(id -> AccountEventRecord.of("checking_account_event", (long) id, event(id), (long) id)));
+
+        StepVerifier.create(results.map(AccountEventSendResult::getCorrelation))
+                .then(() -> {
+                    assertInFlight(producer, 2);
+                    producer.completeNext();
+                    producer.completeNext();
+                })
+                .expectNext(1L, 2L)
+                .then(() -> {
+                    assertInFlight(producer, 4);
+                    producer.completeNext();
+                    producer.completeNext();
+                })
+                .expectNext(3L, 4L)
+                .then(() -> {
+                    awaitSent(producer, 5);
+                    producer.completeNext();
+                })
+                .expectNext(5L)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private ReactiveKafkaAccountEventPublisher publisher(MockProducer<Long, AccountEvent> producer, int maxInFlight) {
+        var producerFactory = new ProducerFactory() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Producer<K, V> createProducer(SenderOptions<K, V> senderOptions) {
+                return (Producer<K, V>) producer;
+            }
+        };
+        this.kafkaSender = KafkaSender.create(producerFactory, SenderOptions.<Long, AccountEvent>create()
+                .maxInFlight(maxInFlight)
+                .stopOnError(false));
+
+        return new ReactiveKafkaAccountEventPublisher(kafkaSender, new AccountEventSendMetrics(meterRegistry),
+                new Tracer(new SpanExporter(new ObjectMapper()), 0));
+    }
+
+    private static AccountEvent event(long accountId) {
+        return AccountEvent.of("opened", CheckingAccount.of("IBAN" + accountId, "EUR", Customer.of(accountId, "Mock")).withId(accountId));
+    }
+
+    private static String header(ProducerRecord<Long, AccountEvent> record, String key) {
+        var header = record.headers().lastHeader(key);
+        return header == null ? "" : new String(header.value(), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Asserts that the sender sent the records up to {@code sent}, and no more until some are acknowledged.
+     */
+    private static void assertInFlight(MockProducer<Long, AccountEvent> producer, int sent) {
+        awaitSent(producer, sent);
+        sleep();
+        assertEquals(sent, producer.history().size(), "no more than maxInFlight records should be unacknowledged");
+    }
+
+    /**
+     * Waits for the sender, which sends from its own scheduler, to have handed the records to the producer.
+     */
+    private static void awaitSent(MockProducer<Long, AccountEvent> producer, int records) {
+        var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (producer.history().size() < records) {
+            if (System.nanoTime() > deadline) {
+                fail("Only " + producer.history().size() + " records were sent out of " + records);
+            }
+            sleep();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+package dev.emmanuel.account.event.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import dev.emmanuel.account.event.AccountEvent;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of one account event per wire format. The encoded size of each format is printed
+ * during setup, so a run reports both bytes per event and ns per event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountEventCodecBenchmark {
+
+    private static final String TOPIC = "checking_account_event";
+
+    @Param({"JSON", "BINARY"})
+    private AccountEventFormat format;
+
+    private AccountEventSerializer serializer;
+    private AccountEventDeserializer deserializer;
+
+    private AccountEvent event;
+    private byte[] encodedEvent;
+
+    @Setup
+    public void setUp() {
+        var objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        this.serializer = new AccountEventSerializer(objectMapper, Map.of(TOPIC, format));
+        this.deserializer = new AccountEventDeserializer(objectMapper);
+
+        var customer = Customer.of(1234567L, "Mock Customer");
+        var account = new CheckingAccount(7654321L, 0L, "DE89370400440532013000", "EUR", customer);
+        this.event = new AccountEvent("opened", LocalDateTime.of(2021, 5, 1, 10, 0, 0), account);
+        this.encodedEvent = serializer.serialize(TOPIC, event);
+
+        System.out.printf("%n%s account event size: %d bytes%n", format, encodedEvent.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public AccountEvent decode() {
+        return deserializer.deserialize(TOPIC, encodedEvent);
+    }
+
+}
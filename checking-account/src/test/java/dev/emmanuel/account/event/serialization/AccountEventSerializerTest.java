@@ -0,0 +1,105 @@
+package dev.emmanuel.account.event.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import dev.emmanuel.account.event.AccountEvent;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountEventSerializerTest {
+
+    private static final String BINARY_TOPIC = "binary_topic";
+    private static final String JSON_TOPIC = "json_topic";
+
+    private AccountEventSerializer serializer;
+    private AccountEventDeserializer deserializer;
+
+    @BeforeEach
+    void setUp() {
+        var objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        this.serializer = new AccountEventSerializer(objectMapper, Map.of(
+                BINARY_TOPIC, AccountEventFormat.BINARY,
+                JSON_TOPIC, AccountEventFormat.JSON
+        ));
+        this.deserializer = new AccountEventDeserializer(objectMapper);
+    }
+
+    @Test
+    void shouldRoundTripBinaryEvent() {
+        var event = openedEvent();
+
+        var data = serializer.serialize(BINARY_TOPIC, event);
+
+        assertTrue(AccountEventBinaryCodec.isBinary(data));
+        assertEquals(event, deserializer.deserialize(BINARY_TOPIC, data));
+    }
+
+    @Test
+    void shouldKeepReadingJsonEvents() {
+        var event = openedEvent();
+
+        var data = serializer.serialize(JSON_TOPIC, event);
+
+        assertEquals('{', data[0]);
+        assertEquals(event.getCheckingAccount(), deserializer.deserialize(JSON_TOPIC, data).getCheckingAccount());
+    }
+
+    @Test
+    void shouldUseJsonForTopicsWithoutFormat() {
+        assertEquals(AccountEventFormat.JSON, serializer.formatOf("unknown_topic"));
+    }
+
+    @Test
+    void shouldRoundTripMissingFields() {
+        var event = new AccountEvent("opened", null, new CheckingAccount(null, null, null, "EUR", null));
+
+        var data = serializer.serialize(BINARY_TOPIC, event);
+
+        assertEquals(event, deserializer.deserialize(BINARY_TOPIC, data));
+    }
+
+    @Test
+    void shouldBeSmallerThanJson() {
+        var event = openedEvent();
+
+        var binary = serializer.serialize(BINARY_TOPIC, event);
+        var json = serializer.serialize(JSON_TOPIC, event);
+
+        assertTrue(binary.length * 2 < json.length, () -> "binary " + binary.length + " bytes, json " + json.length + " bytes");
+    }
+
+    @Test
+    void shouldRejectUnknownVersion() {
+        var data = serializer.serialize(BINARY_TOPIC, openedEvent());
+        data[1] = 99;
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(BINARY_TOPIC, data));
+    }
+
+    @Test
+    void shouldRejectTruncatedEvent() {
+        var data = serializer.serialize(BINARY_TOPIC, openedEvent());
+        var truncated = Arrays.copyOf(data, data.length - 4);
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(BINARY_TOPIC, truncated));
+    }
+
+    private AccountEvent openedEvent() {
+        var customer = Customer.of(1234L, "Mock Customer");
+        var account = new CheckingAccount(5678L, 0L, "DE89370400440532013000", "EUR", customer);
+        return new AccountEvent("opened", LocalDateTime.of(2021, 5, 1, 10, 0, 0), account);
+    }
+}
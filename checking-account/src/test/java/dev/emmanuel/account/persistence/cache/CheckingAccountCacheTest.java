@@ -0,0 +1,80 @@
+package dev.emmanuel.account.persistence.cache;
+
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CheckingAccountCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CheckingAccountCache cache;
+
+    @BeforeEach
+    void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.cache = new CheckingAccountCache(meterRegistry, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void shouldLoadAccountOnlyOnce() {
+        var account = account(10L);
+        var loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier
+                    .create(cache.getById(10L, id -> Mono.fromSupplier(() -> {
+                        loads.incrementAndGet();
+                        return account;
+                    })))
+                    .expectNext(account)
+                    .verifyComplete();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "checking_accounts_by_id").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void shouldNotCacheAbsentAccount() {
+        var loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier
+                    .create(cache.getByCustomerId(1L, id -> Mono.fromRunnable(loads::incrementAndGet)))
+                    .verifyComplete();
+        }
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldLoadAgainAfterEviction() {
+        var account = account(10L);
+        var loads = new AtomicInteger();
+
+        cache.getByIban("IBAN", iban -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return account;
+        })).block();
+        cache.evict(account);
+        cache.getByIban("IBAN", iban -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return account;
+        })).block();
+
+        assertEquals(2, loads.get());
+    }
+
+    private CheckingAccount account(long id) {
+        return new CheckingAccount(id, 0L, "IBAN", "EUR", Customer.of(1L, "Mock"));
+    }
+}
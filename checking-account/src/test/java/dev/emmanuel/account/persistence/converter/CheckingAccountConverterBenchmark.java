@@ -0,0 +1,71 @@
+package dev.emmanuel.account.persistence.converter;
+
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import io.r2dbc.spi.Row;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row mapping cost of a checking account in both directions, without any database round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckingAccountConverterBenchmark {
+
+    private final CheckingAccountReaderConverter readerConverter = new CheckingAccountReaderConverter();
+    private final CheckingAccountWriterConverter writerConverter = new CheckingAccountWriterConverter();
+
+    private CheckingAccount account;
+    private Row row;
+
+    @Setup
+    public void setUp() {
+        this.account = new CheckingAccount(7654321L, 3L, "DE89370400440532013000", "EUR", Customer.of(1234567L, "Mock Customer"));
+        this.row = new MapRow(Map.of(
+                "id", 7654321L,
+                "version", 3L,
+                "iban", "DE89370400440532013000",
+                "currency", "EUR",
+                "customer_id", 1234567L,
+                "customer_name", "Mock Customer"
+        ));
+    }
+
+    @Benchmark
+    public CheckingAccount read() {
+        return readerConverter.convert(row);
+    }
+
+    @Benchmark
+    public OutboundRow write() {
+        return writerConverter.convert(account);
+    }
+
+    private static class MapRow implements Row {
+
+        private final Map<String, Object> columns;
+
+        private MapRow(Map<String, Object> columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            throw new UnsupportedOperationException("columns are read by name");
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            return type.cast(columns.get(name));
+        }
+    }
+
+}
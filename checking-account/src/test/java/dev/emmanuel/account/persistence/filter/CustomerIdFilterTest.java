@@ -0,0 +1,126 @@
+package dev.emmanuel.account.persistence.filter;
+
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import dev.emmanuel.account.persistence.entity.InsertedCheckingAccount;
+import dev.emmanuel.account.persistence.entity.InsertionPosition;
+import dev.emmanuel.account.persistence.repository.CheckingAccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomerIdFilterTest {
+
+    private static final LocalDateTime INSERTED_AT = LocalDateTime.of(2021, 5, 1, 10, 0);
+
+    /**
+     * The rows of {@code checking_accounts} in insertion order, a row inserted with an earlier position standing
+     * for one committed after later rows were read.
+     */
+    private ConcurrentSkipListMap<InsertionPosition, InsertedCheckingAccount> rows;
+    private CheckingAccountRepository checkingAccountRepository;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        this.rows = new ConcurrentSkipListMap<>();
+        this.checkingAccountRepository = mock(CheckingAccountRepository.class);
+        this.meterRegistry = new SimpleMeterRegistry();
+
+        when(checkingAccountRepository.findPageInsertedAfter(any(InsertionPosition.class), anyInt())).thenAnswer(invocation -> Flux
+                .fromIterable(rows.tailMap(invocation.<InsertionPosition>getArgument(0), false).values())
+                .take(invocation.<Integer>getArgument(1)));
+    }
+
+    @Test
+    void shouldReportEveryCustomerAsPossiblyKnownUntilLoaded() {
+        var filter = filter(1000, 0.01);
+
+        assertTrue(filter.mightHaveAccount(1));
+        assertEquals(1, meterRegistry.get("checking_account.customer_filter.lookups").tag("result", "positive").counter().count());
+    }
+
+    @Test
+    void shouldLoadEveryAccountPageByPage() {
+        LongStream.rangeClosed(1, 5).forEach(customerId -> insert(customerId, INSERTED_AT.plusSeconds(customerId)));
+        var filter = filter(1000, 0.01);
+
+        StepVerifier.create(filter.load()).expectNext(5L).verifyComplete();
+
+        assertTrue(LongStream.rangeClosed(1, 5).allMatch(filter::mightHaveAccount));
+        assertFalse(filter.mightHaveAccount(6));
+        assertEquals(1, meterRegistry.get("checking_account.customer_filter.lookups").tag("result", "negative").counter().count());
+        verify(checkingAccountRepository, times(3)).findPageInsertedAfter(any(InsertionPosition.class), anyInt());
+    }
+
+    @Test
+    void shouldRefreshWithTheAccountsInsertedSinceTheLastLoadAndWithinTheOverlap() {
+        insert(1, INSERTED_AT);
+        insert(2, INSERTED_AT.plusSeconds(10));
+        var filter = filter(1000, 0.01);
+        filter.load().block();
+
+        insert(3, INSERTED_AT.plusSeconds(11));
+        insert(4, INSERTED_AT.plusSeconds(9));
+        insert(5, INSERTED_AT.plusSeconds(5));
+
+        StepVerifier.create(filter.load()).expectNext(3L).verifyComplete();
+
+        assertTrue(filter.mightHaveAccount(3), "inserted after the last load");
+        assertTrue(filter.mightHaveAccount(4), "committed late, within the overlap");
+        assertFalse(filter.mightHaveAccount(5), "committed later than the overlap allows for");
+        verify(checkingAccountRepository).findPageInsertedAfter(InsertionPosition.of(INSERTED_AT.plusSeconds(8), 0), 2);
+    }
+
+    @Test
+    void shouldAnswerPositiveForUnknownCustomersOfAFullFilter() {
+        LongStream.rangeClosed(1, 50).forEach(customerId -> insert(customerId, INSERTED_AT.plusSeconds(customerId)));
+        var filter = filter(1, 0.5);
+        filter.load().block();
+
+        assertTrue(filter.mightHaveAccount(1_000), "every bit of the filter is set");
+        filter.recordFalsePositive();
+
+        assertEquals(1, meterRegistry.get("checking_account.customer_filter.false_positives").counter().count());
+        assertEquals(1.0, meterRegistry.get("checking_account.customer_filter.fill_ratio").gauge().value());
+    }
+
+    @Test
+    void shouldKnowTheCustomersOpenedByThisInstance() {
+        var filter = filter(1000, 0.01);
+        filter.load().block();
+
+        filter.recordOpened(7);
+
+        assertTrue(filter.mightHaveAccount(7));
+    }
+
+    private CustomerIdFilter filter(long expectedCustomers, double falsePositiveProbability) {
+        return new CustomerIdFilter(checkingAccountRepository, meterRegistry, expectedCustomers, falsePositiveProbability, 2,
+                Duration.ofSeconds(5), Duration.ofSeconds(2));
+    }
+
+    private void insert(long customerId, LocalDateTime createdAt) {
+        var position = InsertionPosition.of(createdAt, customerId * 10);
+        var account = new CheckingAccount(customerId * 10, 0L, "DE00" + customerId, "EUR", Customer.of(customerId, "Mock"));
+        rows.put(position, InsertedCheckingAccount.of(position, account));
+    }
+
+}
@@ -0,0 +1,37 @@
+package dev.emmanuel.account.persistence.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongBloomFilterTest {
+
+    @Test
+    void shouldContainEveryInsertedValue() {
+        var filter = new LongBloomFilter(10_000, 0.01);
+
+        LongStream.rangeClosed(1, 10_000).forEach(filter::put);
+
+        assertTrue(LongStream.rangeClosed(1, 10_000).allMatch(filter::mightContain));
+    }
+
+    @Test
+    void shouldNotContainValuesOfAnEmptyFilter() {
+        var filter = new LongBloomFilter(10_000, 0.01);
+
+        assertFalse(LongStream.rangeClosed(1, 10_000).anyMatch(filter::mightContain));
+    }
+
+    @Test
+    void shouldKeepFalsePositivesCloseToTheConfiguredProbability() {
+        var filter = new LongBloomFilter(10_000, 0.01);
+        LongStream.rangeClosed(1, 10_000).forEach(filter::put);
+
+        long falsePositives = LongStream.rangeClosed(1_000_001, 1_100_000).filter(filter::mightContain).count();
+
+        assertTrue(falsePositives < 2_000, () -> falsePositives + " false positives in 100000 lookups");
+    }
+}
@@ -0,0 +1,251 @@
+package dev.emmanuel.account.persistence.jdbc;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import dev.emmanuel.account.exception.CheckingAccountAlreadyOpened;
+import dev.emmanuel.account.persistence.entity.AccountEventOutboxEntry;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import dev.emmanuel.account.persistence.entity.InsertionPosition;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JdbcCheckingAccountRepositoryTest {
+
+    private Scheduler scheduler;
+    private JdbcCheckingAccountRepository checkingAccountRepository;
+    private JdbcAccountEventOutboxRepository outboxRepository;
+    private TransactionalOperator transactionalOperator;
+    private JdbcDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+
+        try (var connection = dataSource.getConnection(); var statement = connection.createStatement()) {
+            statement.execute("create table checking_accounts (id int auto_increment primary key, version int not null, " +
+                    "iban varchar(34) not null, currency char(3) not null, customer_id int not null, customer_name varchar(255) not null, " +
+                    "created_at timestamp(6) not null default current_timestamp(6), unique (customer_id), unique (iban))");
+            statement.execute("create table account_event_outbox (id bigint auto_increment primary key, aggregate_id int not null, " +
+                    "event_type varchar(32) not null, payload text not null, created_at timestamp(6) not null, " +
+                    "claimed_by char(36) null, claimed_at timestamp(6) null, traceparent char(55) null, request_started_at bigint null)");
+        }
+
+        this.scheduler = Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "jdbc");
+        var jdbc = new VirtualThreadJdbc(dataSource, scheduler);
+        this.checkingAccountRepository = new JdbcCheckingAccountRepository(jdbc);
+        this.outboxRepository = new JdbcAccountEventOutboxRepository(jdbc);
+        this.transactionalOperator = TransactionalOperator.create(new VirtualThreadJdbcTransactionManager(jdbc));
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.dispose();
+    }
+
+    @Test
+    void shouldInsertAndFindAccount() {
+        var account = CheckingAccount.of("DE89370400440532013000", "EUR", Customer.of(1, "Mock"));
+
+        StepVerifier.create(checkingAccountRepository.insertIfAbsent(account))
+                .assertNext(inserted -> {
+                    assertEquals(1L, inserted.getId());
+                    assertEquals(0L, inserted.getVersion());
+                })
+                .verifyComplete();
+
+        StepVerifier.create(checkingAccountRepository.findByCustomerId(1))
+                .expectNext(new CheckingAccount(1L, 0L, "DE89370400440532013000", "EUR", Customer.of(1, "Mock")))
+                .verifyComplete();
+        StepVerifier.create(checkingAccountRepository.findByIban("DE89370400440532013000").map(CheckingAccount::getId))
+                .expectNext(1L)
+                .verifyComplete();
+        StepVerifier.create(checkingAccountRepository.findById(2L)).verifyComplete();
+    }
+
+    @Test
+    void shouldRejectDuplicateCustomer() {
+        var account = CheckingAccount.of("DE89370400440532013000", "EUR", Customer.of(1, "Mock"));
+        var duplicate = CheckingAccount.of("GB29NWBK60161331926819", "EUR", Customer.of(1, "Mock"));
+
+        StepVerifier.create(checkingAccountRepository.insertIfAbsent(account).then(checkingAccountRepository.insertIfAbsent(duplicate)))
+                .expectError(CheckingAccountAlreadyOpened.class)
+                .verify();
+    }
+
+    @Test
+    void shouldInsertAccountWithItsAllocatedId() {
+        var account = new CheckingAccount(42L, 0L, "DE89370400440532013000", "EUR", Customer.of(1, "Mock"));
+
+        StepVerifier.create(checkingAccountRepository.insertIfAbsent(account).map(CheckingAccount::getId))
+                .expectNext(42L)
+                .verifyComplete();
+        StepVerifier.create(checkingAccountRepository.findById(42L).map(CheckingAccount::getIban))
+                .expectNext("DE89370400440532013000")
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldInsertAllWithTheirAllocatedIds() {
+        var accounts = List.of(
+                new CheckingAccount(8L, 0L, "GB29NWBK60161331926819", "GBP", Customer.of(2, "Mock")),
+                new CheckingAccount(7L, 0L, "DE89370400440532013000", "EUR", Customer.of(1, "Mock"))
+        );
+
+        StepVerifier.create(checkingAccountRepository.insertAllIfAbsent(accounts))
+                .expectNext(new CheckingAccount(8L, 0L, "GB29NWBK60161331926819", "GBP", Customer.of(2, "Mock")))
+                .expectNext(new CheckingAccount(7L, 0L, "DE89370400440532013000", "EUR", Customer.of(1, "Mock")))
+                .verifyComplete();
+
+        StepVerifier.create(checkingAccountRepository.findByCustomerId(1).map(CheckingAccount::getId))
+                .expectNext(7L)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldInsertNoneOfABatchWithADuplicate() {
+        var accounts = List.of(
+                new CheckingAccount(1L, 0L, "GB29NWBK60161331926819", "GBP", Customer.of(2, "Mock")),
+                new CheckingAccount(2L, 0L, "DE89370400440532013000", "EUR", Customer.of(2, "Mock"))
+        );
+
+        StepVerifier.create(checkingAccountRepository.insertAllIfAbsent(accounts))
+                .expectError(CheckingAccountAlreadyOpened.class)
+                .verify();
+
+        StepVerifier.create(checkingAccountRepository.count()).expectNext(0L).verifyComplete();
+    }
+
+    @Test
+    void shouldPropagateIntegrityViolationsOtherThanDuplicates() {
+        var account = CheckingAccount.of("DE89370400440532013000", "EUR", Customer.of(1, null));
+
+        StepVerifier.create(checkingAccountRepository.insertIfAbsent(account))
+                .expectErrorMatches(ex -> ex instanceof DataIntegrityViolationException && !(ex instanceof DuplicateKeyException))
+                .verify();
+    }
+
+    @Test
+    void shouldPageInInsertionOrder() throws Exception {
+        var insertedAt = LocalDateTime.of(2021, 5, 1, 10, 0);
+        insert(5, insertedAt);
+        insert(2, insertedAt.plusNanos(1000));
+        insert(9, insertedAt.plusNanos(1000));
+
+        StepVerifier.create(checkingAccountRepository.findPageInsertedAfter(InsertionPosition.START, 2))
+                .assertNext(inserted -> {
+                    assertEquals(InsertionPosition.of(insertedAt, 5), inserted.getPosition());
+                    assertEquals(5L, inserted.getCheckingAccount().getId());
+                })
+                .assertNext(inserted -> assertEquals(InsertionPosition.of(insertedAt.plusNanos(1000), 2), inserted.getPosition()))
+                .verifyComplete();
+        StepVerifier.create(checkingAccountRepository.findInsertionPosition(2).flatMapMany(after -> checkingAccountRepository.findPageInsertedAfter(after, 2)))
+                .assertNext(inserted -> assertEquals(9L, inserted.getCheckingAccount().getId()))
+                .verifyComplete();
+        StepVerifier.create(checkingAccountRepository.findInsertionPosition(4)).verifyComplete();
+    }
+
+    @Test
+    void shouldCommitAccountAndOutboxEntryTogether() {
+        var account = CheckingAccount.of("DE89370400440532013000", "EUR", Customer.of(1, "Mock"));
+
+        StepVerifier.create(transactionalOperator.transactional(openAccount(account)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        StepVerifier.create(checkingAccountRepository.count()).expectNext(1L).verifyComplete();
+        StepVerifier.create(outboxRepository.count()).expectNext(1L).verifyComplete();
+    }
+
+    @Test
+    void shouldRollBackAccountWhenOutboxRecordFails() {
+        var account = CheckingAccount.of("DE89370400440532013000", "EUR", Customer.of(1, "Mock"));
+        var failingOpen = openAccount(account).then(Mono.error(new IllegalStateException("outbox unavailable")));
+
+        StepVerifier.create(transactionalOperator.transactional(failingOpen))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        StepVerifier.create(checkingAccountRepository.count()).expectNext(0L).verifyComplete();
+        StepVerifier.create(outboxRepository.count()).expectNext(0L).verifyComplete();
+    }
+
+    @Test
+    void shouldLookUpMissingAccountOnTheTransactionConnection() {
+        var pool = new HikariConfig();
+        pool.setDataSource(this.dataSource);
+        pool.setMaximumPoolSize(1);
+        pool.setConnectionTimeout(250);
+
+        try (var singleConnectionPool = new HikariDataSource(pool)) {
+            var jdbc = new VirtualThreadJdbc(singleConnectionPool, scheduler);
+            var repository = new JdbcCheckingAccountRepository(jdbc);
+            var account = CheckingAccount.of("DE89370400440532013000", "EUR", Customer.of(1, "Mock"));
+
+            var open = repository
+                    .findByCustomerId(1)
+                    .switchIfEmpty(Mono.defer(() -> repository.insertIfAbsent(account)));
+
+            StepVerifier.create(TransactionalOperator.create(new VirtualThreadJdbcTransactionManager(jdbc)).transactional(open))
+                    .expectNextCount(1)
+                    .verifyComplete();
+        }
+    }
+
+    @Test
+    void shouldFindAndDeleteClaimedOutboxEntries() {
+        var claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        var entries = List.of(
+                new AccountEventOutboxEntry(null, 1L, "opened", "{}", claimedAt, "relay", claimedAt, null, null),
+                AccountEventOutboxEntry.of(2, "opened", "{}")
+        );
+
+        var claimed = outboxRepository.saveAll(entries).thenMany(outboxRepository.findClaimedBy("relay", 10)).collectList().block();
+        assertEquals(1, claimed.size());
+        assertEquals(1L, claimed.get(0).getAggregateId());
+        assertEquals(claimedAt, claimed.get(0).getClaimedAt());
+
+        StepVerifier.create(outboxRepository.deleteByIdIn(List.of(claimed.get(0).getId())))
+                .expectNext(1)
+                .verifyComplete();
+        StepVerifier.create(outboxRepository.count()).expectNext(1L).verifyComplete();
+    }
+
+    private void insert(long id, LocalDateTime createdAt) throws Exception {
+        try (var connection = dataSource.getConnection();
+             var statement = connection.prepareStatement("insert into checking_accounts (id, version, iban, currency, customer_id, customer_name, created_at) " +
+                     "values (?, 0, ?, 'EUR', ?, 'Mock', ?)")) {
+            statement.setLong(1, id);
+            statement.setString(2, "DE00" + id);
+            statement.setLong(3, id);
+            statement.setTimestamp(4, Timestamp.valueOf(createdAt));
+            statement.executeUpdate();
+        }
+    }
+
+    private Mono<AccountEventOutboxEntry> openAccount(CheckingAccount account) {
+        return checkingAccountRepository
+                .insertIfAbsent(account)
+                .flatMap(opened -> outboxRepository.save(AccountEventOutboxEntry.of(opened.getId(), "opened", "{}")));
+    }
+
+}
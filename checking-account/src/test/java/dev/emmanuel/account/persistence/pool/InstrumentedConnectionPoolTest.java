@@ -0,0 +1,77 @@
+package dev.emmanuel.account.persistence.pool;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ValidationDepth;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InstrumentedConnectionPoolTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConnectionFactory connectionFactory;
+    private InstrumentedConnectionPool connectionPool;
+
+    @BeforeEach
+    void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.connectionFactory = mock(ConnectionFactory.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionPool.dispose();
+    }
+
+    @Test
+    void shouldRecordAcquireTime() {
+        var connection = mock(Connection.class);
+        when(connection.validate(any(ValidationDepth.class))).thenReturn(Mono.just(true));
+        when(connection.close()).thenReturn(Mono.empty());
+        createPoolReturning(Mono.just(connection));
+
+        StepVerifier.create(connectionPool.create())
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(1, meterRegistry.get("r2dbc.pool.acquire").tag("name", "test").tag("result", "success").timer().count());
+    }
+
+    @Test
+    void shouldFailWithAcquireTimeoutWhenNoConnectionIsAvailableInTime() {
+        createPoolReturning(Mono.never());
+
+        StepVerifier.create(connectionPool.create())
+                .expectError(ConnectionAcquireTimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(1, meterRegistry.get("r2dbc.pool.acquire").tag("result", "timeout").timer().count());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void createPoolReturning(Mono<Connection> connection) {
+        when(connectionFactory.create()).thenReturn((Mono) connection);
+
+        var configuration = ConnectionPoolConfiguration.builder(connectionFactory)
+                .initialSize(0)
+                .maxSize(1)
+                .maxAcquireTime(Duration.ofMillis(100))
+                .validationDepth(ValidationDepth.LOCAL)
+                .build();
+
+        this.connectionPool = new InstrumentedConnectionPool(configuration, meterRegistry, "test");
+    }
+
+}
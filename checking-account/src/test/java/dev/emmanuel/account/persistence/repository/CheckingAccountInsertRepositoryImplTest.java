@@ -0,0 +1,141 @@
+package dev.emmanuel.account.persistence.repository;
+
+import dev.emmanuel.account.exception.CheckingAccountAlreadyOpened;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CheckingAccountInsertRepositoryImplTest {
+
+    private R2dbcEntityTemplate entityTemplate;
+    private CheckingAccountInsertRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        this.entityTemplate = mock(R2dbcEntityTemplate.class);
+        this.repository = new CheckingAccountInsertRepositoryImpl(entityTemplate);
+    }
+
+    @Test
+    void shouldInsertAccount() {
+        var account = CheckingAccount.of("IBAN", "EUR", Customer.of(1, "Mock"));
+        when(entityTemplate.insert(account)).thenReturn(Mono.just(account.withId(10L)));
+
+        StepVerifier
+                .create(repository.insertIfAbsent(account))
+                .expectNext(account.withId(10L))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldMapDuplicateKeyToAlreadyOpened() {
+        var account = CheckingAccount.of("IBAN", "EUR", Customer.of(1, "Mock"));
+        when(entityTemplate.insert(account)).thenReturn(Mono.error(new DuplicateKeyException("Duplicate entry '1'")));
+
+        StepVerifier
+                .create(repository.insertIfAbsent(account))
+                .expectError(CheckingAccountAlreadyOpened.class)
+                .verify();
+    }
+
+    @Test
+    void shouldMapMySqlDuplicateEntryToAlreadyOpened() {
+        var account = CheckingAccount.of("IBAN", "EUR", Customer.of(1, "Mock"));
+        when(entityTemplate.insert(account)).thenReturn(Mono.error(new DataIntegrityViolationException("insert failed",
+                new R2dbcDataIntegrityViolationException("Duplicate entry 'IBAN' for key 'iban'", "23000", 1062))));
+
+        StepVerifier
+                .create(repository.insertIfAbsent(account))
+                .expectError(CheckingAccountAlreadyOpened.class)
+                .verify();
+    }
+
+    @Test
+    void shouldPropagateOtherIntegrityViolations() {
+        var account = CheckingAccount.of(null, "EUR", Customer.of(1, "Mock"));
+        when(entityTemplate.insert(account)).thenReturn(Mono.error(new DataIntegrityViolationException("insert failed",
+                new R2dbcDataIntegrityViolationException("Column 'iban' cannot be null", "23000", 1048))));
+
+        StepVerifier
+                .create(repository.insertIfAbsent(account))
+                .expectError(DataIntegrityViolationException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldInsertAllWithTheirAllocatedIds() {
+        var entityTemplate = h2EntityTemplate();
+        var repository = new CheckingAccountInsertRepositoryImpl(entityTemplate);
+        var accounts = List.of(
+                new CheckingAccount(42L, 0L, "GB29NWBK60161331926819", "GBP", Customer.of(2, "Mock")),
+                new CheckingAccount(41L, 0L, "DE89370400440532013000", "EUR", Customer.of(1, "Mock"))
+        );
+
+        StepVerifier
+                .create(repository.insertAllIfAbsent(accounts))
+                .expectNext(new CheckingAccount(42L, 0L, "GB29NWBK60161331926819", "GBP", Customer.of(2, "Mock")))
+                .expectNext(new CheckingAccount(41L, 0L, "DE89370400440532013000", "EUR", Customer.of(1, "Mock")))
+                .verifyComplete();
+
+        StepVerifier
+                .create(entityTemplate.getDatabaseClient()
+                        .sql("select iban from checking_accounts where id = 42")
+                        .map(row -> row.get("iban", String.class))
+                        .one())
+                .expectNext("GB29NWBK60161331926819")
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldMapDuplicateKeyInBatchToAlreadyOpened() {
+        var repository = new CheckingAccountInsertRepositoryImpl(h2EntityTemplate());
+        var accounts = List.of(
+                new CheckingAccount(1L, 0L, "GB29NWBK60161331926819", "GBP", Customer.of(2, "Mock")),
+                new CheckingAccount(2L, 0L, "GB29NWBK60161331926819", "GBP", Customer.of(3, "Mock"))
+        );
+
+        StepVerifier
+                .create(repository.insertAllIfAbsent(accounts))
+                .expectError(CheckingAccountAlreadyOpened.class)
+                .verify();
+    }
+
+    @Test
+    void shouldPropagateOtherFailures() {
+        var account = CheckingAccount.of("IBAN", "EUR", Customer.of(1, "Mock"));
+        when(entityTemplate.insert(account)).thenReturn(Mono.error(new DataAccessResourceFailureException("connection lost")));
+
+        StepVerifier
+                .create(repository.insertIfAbsent(account))
+                .expectError(DataAccessResourceFailureException.class)
+                .verify();
+    }
+
+    private static R2dbcEntityTemplate h2EntityTemplate() {
+        var connectionFactory = ConnectionFactories.get("r2dbc:h2:mem:///" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1;MODE=MySQL");
+        var entityTemplate = new R2dbcEntityTemplate(connectionFactory);
+        entityTemplate.getDatabaseClient()
+                .sql("create table checking_accounts (id int not null primary key, version int not null, " +
+                        "iban varchar(34) not null, currency char(3) not null, customer_id int not null, customer_name varchar(255) not null, " +
+                        "created_at timestamp(6) not null default current_timestamp(6), unique (customer_id), unique (iban))")
+                .then()
+                .block();
+        return entityTemplate;
+    }
+
+}
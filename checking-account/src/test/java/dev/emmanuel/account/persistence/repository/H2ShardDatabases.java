@@ -0,0 +1,54 @@
+package dev.emmanuel.account.persistence.repository;
+
+import dev.emmanuel.account.persistence.converter.CheckingAccountReaderConverter;
+import dev.emmanuel.account.persistence.converter.CheckingAccountWriterConverter;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.UUID;
+
+/**
+ * In-memory H2 databases standing in for the MySQL shards, with the {@code checking_accounts}, {@code shard_slots}
+ * and {@code shard_rebalance_lease} tables of the migrations ({@code shard_slot} is a computed column where MySQL has
+ * a trigger), and the Spring Data repository the application builds over them.
+ */
+public class H2ShardDatabases {
+
+    public static ConnectionFactory create() {
+        var connectionFactory = ConnectionFactories.get("r2dbc:h2:mem:///" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1;MODE=MySQL");
+        var client = DatabaseClient.create(connectionFactory);
+
+        client.sql("create table checking_accounts (id bigint not null primary key, version bigint not null, " +
+                        "iban varchar(34) not null, currency char(3) not null, customer_id bigint not null, customer_name varchar(255) not null, " +
+                        "shard_slot smallint as (mod(customer_id, 1024)), created_at timestamp(6) not null default current_timestamp(6), " +
+                        "unique (customer_id), unique (iban))")
+                .then()
+                .then(client.sql("create table shard_slots (slot smallint not null primary key, shard varchar(64) not null, target_shard varchar(64))").then())
+                .then(client.sql("create table shard_rebalance_lease (id tinyint not null primary key, holder char(36), expires_at datetime(6))").then())
+                .then(client.sql("insert into shard_rebalance_lease (id) values (1)").then())
+                .block();
+
+        return connectionFactory;
+    }
+
+    public static CheckingAccountRepository checkingAccountRepository(ConnectionFactory connectionFactory) {
+        var dialect = DialectResolver.getDialect(connectionFactory);
+        var conversions = R2dbcCustomConversions.of(dialect, new CheckingAccountReaderConverter(), new CheckingAccountWriterConverter());
+        var mappingContext = new R2dbcMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        var entityTemplate = new R2dbcEntityTemplate(DatabaseClient.create(connectionFactory), dialect, new MappingR2dbcConverter(mappingContext, conversions));
+
+        return new R2dbcRepositoryFactory(entityTemplate).getRepository(CheckingAccountRepository.class,
+                RepositoryFragments.just(new CheckingAccountInsertRepositoryImpl(entityTemplate),
+                        new CheckingAccountInsertionOrderRepositoryImpl(entityTemplate.getDatabaseClient())));
+    }
+
+}
@@ -0,0 +1,148 @@
+package dev.emmanuel.account.persistence.repository;
+
+import dev.emmanuel.account.persistence.entity.AccountEventOutboxEntry;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Map backed stand-in of {@link AccountEventOutboxRepository} for benchmarks and load tests.
+ */
+public class InMemoryAccountEventOutboxRepository implements AccountEventOutboxRepository {
+
+    private final ConcurrentSkipListMap<Long, AccountEventOutboxEntry> entries = new ConcurrentSkipListMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    @Override
+    public Mono<Integer> claim(String owner, long claimTimeoutSeconds, int limit) {
+        return Mono.fromCallable(() -> claimNow(owner, claimTimeoutSeconds, limit));
+    }
+
+    private synchronized int claimNow(String owner, long claimTimeoutSeconds, int limit) {
+        var expiredBefore = LocalDateTime.now().minusSeconds(claimTimeoutSeconds);
+        var claimed = 0;
+        for (var entry : entries.values()) {
+            if (claimed == limit) {
+                break;
+            }
+            if (entry.getClaimedBy() == null || entry.getClaimedAt().isBefore(expiredBefore)) {
+                entries.put(entry.getId(), new AccountEventOutboxEntry(entry.getId(), entry.getAggregateId(),
+                        entry.getEventType(), entry.getPayload(), entry.getCreatedAt(), owner, LocalDateTime.now(),
+                        entry.getTraceparent(), entry.getRequestStartedAt()));
+                claimed++;
+            }
+        }
+        return claimed;
+    }
+
+    @Override
+    public Flux<AccountEventOutboxEntry> findClaimedBy(String owner, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(entries.values()))
+                .filter(entry -> owner.equals(entry.getClaimedBy()))
+                .take(limit);
+    }
+
+    @Override
+    public Mono<Integer> deleteByIdIn(Collection<Long> ids) {
+        return Mono.fromCallable(() -> (int) ids.stream().filter(id -> entries.remove(id) != null).count());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends AccountEventOutboxEntry> Mono<S> save(S entity) {
+        return Mono.fromCallable(() -> {
+            var id = entity.getId() != null ? entity.getId() : nextId.getAndIncrement();
+            var saved = new AccountEventOutboxEntry(id, entity.getAggregateId(), entity.getEventType(),
+                    entity.getPayload(), entity.getCreatedAt(), entity.getClaimedBy(), entity.getClaimedAt(),
+                    entity.getTraceparent(), entity.getRequestStartedAt());
+            entries.put(id, saved);
+            return (S) saved;
+        });
+    }
+
+    @Override
+    public <S extends AccountEventOutboxEntry> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends AccountEventOutboxEntry> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream).concatMap(this::save);
+    }
+
+    @Override
+    public Mono<AccountEventOutboxEntry> findById(Long id) {
+        return Mono.justOrEmpty(entries.get(id));
+    }
+
+    @Override
+    public Mono<AccountEventOutboxEntry> findById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Long id) {
+        return Mono.fromCallable(() -> entries.containsKey(id));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<AccountEventOutboxEntry> findAll() {
+        return Flux.defer(() -> Flux.fromIterable(entries.values()));
+    }
+
+    @Override
+    public Flux<AccountEventOutboxEntry> findAllById(Iterable<Long> ids) {
+        return Flux.fromIterable(ids).flatMap(this::findById);
+    }
+
+    @Override
+    public Flux<AccountEventOutboxEntry> findAllById(Publisher<Long> idStream) {
+        return Flux.from(idStream).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.fromCallable(() -> (long) entries.size());
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return Mono.fromRunnable(() -> entries.remove(id));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(AccountEventOutboxEntry entity) {
+        return deleteById(entity.getId());
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends AccountEventOutboxEntry> entities) {
+        return Flux.fromIterable(entities).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends AccountEventOutboxEntry> entityStream) {
+        return Flux.from(entityStream).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Mono.fromRunnable(entries::clear);
+    }
+
+}
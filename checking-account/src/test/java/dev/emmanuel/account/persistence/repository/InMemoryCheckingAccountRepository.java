@@ -0,0 +1,205 @@
+package dev.emmanuel.account.persistence.repository;
+
+import dev.emmanuel.account.exception.CheckingAccountAlreadyOpened;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.InsertedCheckingAccount;
+import dev.emmanuel.account.persistence.entity.InsertionPosition;
+import dev.emmanuel.account.persistence.sharding.ShardMap;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Map backed stand-in of {@link CheckingAccountRepository} for benchmarks and load tests, enforcing the same
+ * uniqueness of customer id and IBAN as the database indexes.
+ */
+public class InMemoryCheckingAccountRepository implements CheckingAccountRepository {
+
+    private final ConcurrentSkipListMap<Long, CheckingAccount> byId = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<InsertionPosition, CheckingAccount> byPosition = new ConcurrentSkipListMap<>();
+    private final Map<Long, InsertionPosition> positions = new ConcurrentHashMap<>();
+    private final Map<Long, CheckingAccount> byCustomerId = new ConcurrentHashMap<>();
+    private final Map<String, CheckingAccount> byIban = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    @Override
+    public Mono<CheckingAccount> insertIfAbsent(CheckingAccount checkingAccount) {
+        return Mono.fromCallable(() -> insert(checkingAccount));
+    }
+
+    @Override
+    public Flux<CheckingAccount> insertAllIfAbsent(List<CheckingAccount> checkingAccounts) {
+        return Mono.fromCallable(() -> {
+            var inserted = new ArrayList<CheckingAccount>(checkingAccounts.size());
+            try {
+                for (var checkingAccount : checkingAccounts) {
+                    inserted.add(insert(checkingAccount));
+                }
+            } catch (CheckingAccountAlreadyOpened ex) {
+                inserted.forEach(account -> remove(account.getId()));
+                throw ex;
+            }
+            return inserted;
+        }).flatMapIterable(inserted -> inserted);
+    }
+
+    private CheckingAccount insert(CheckingAccount checkingAccount) {
+        var id = checkingAccount.getId() != null ? checkingAccount.getId() : nextId.getAndIncrement();
+        var inserted = new CheckingAccount(id, 0L, checkingAccount.getIban(),
+                checkingAccount.getCurrency(), checkingAccount.getCustomer());
+
+        if (byCustomerId.putIfAbsent(inserted.getCustomer().getId(), inserted) != null) {
+            throw new CheckingAccountAlreadyOpened();
+        }
+        if (byIban.putIfAbsent(inserted.getIban(), inserted) != null) {
+            byCustomerId.remove(inserted.getCustomer().getId());
+            throw new CheckingAccountAlreadyOpened();
+        }
+
+        var position = InsertionPosition.of(LocalDateTime.now(), inserted.getId());
+        positions.put(inserted.getId(), position);
+        byPosition.put(position, inserted);
+        byId.put(inserted.getId(), inserted);
+        return inserted;
+    }
+
+    @Override
+    public Mono<CheckingAccount> findByCustomerId(long customerId) {
+        return Mono.justOrEmpty(byCustomerId.get(customerId));
+    }
+
+    @Override
+    public Mono<CheckingAccount> findByIban(String iban) {
+        return Mono.justOrEmpty(byIban.get(iban));
+    }
+
+    @Override
+    public Flux<InsertedCheckingAccount> findPageInsertedAfter(InsertionPosition after, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(byPosition.tailMap(after, false).entrySet()).take(limit))
+                .map(entry -> InsertedCheckingAccount.of(entry.getKey(), entry.getValue()));
+    }
+
+    @Override
+    public Mono<InsertionPosition> findInsertionPosition(long id) {
+        return Mono.justOrEmpty(positions.get(id));
+    }
+
+    @Override
+    public <S extends CheckingAccount> Mono<S> save(S entity) {
+        return Mono.error(new UnsupportedOperationException("accounts are opened with insertIfAbsent"));
+    }
+
+    @Override
+    public <S extends CheckingAccount> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities).flatMap(this::save);
+    }
+
+    @Override
+    public <S extends CheckingAccount> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream).flatMap(this::save);
+    }
+
+    @Override
+    public Mono<CheckingAccount> findById(Long id) {
+        return Mono.justOrEmpty(byId.get(id));
+    }
+
+    @Override
+    public Mono<CheckingAccount> findById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Long id) {
+        return Mono.fromCallable(() -> byId.containsKey(id));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<CheckingAccount> findAll() {
+        return Flux.defer(() -> Flux.fromIterable(byId.values()));
+    }
+
+    @Override
+    public Flux<CheckingAccount> findAllById(Iterable<Long> ids) {
+        return Flux.fromIterable(ids).flatMap(this::findById);
+    }
+
+    @Override
+    public Flux<CheckingAccount> findAllById(Publisher<Long> idStream) {
+        return Flux.from(idStream).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.fromCallable(() -> (long) byId.size());
+    }
+
+    @Override
+    public Mono<Long> countInSlots(Collection<Integer> slots) {
+        return Mono.fromCallable(() -> byId
+                .values()
+                .stream()
+                .filter(account -> slots.contains(ShardMap.slotOf(account.getCustomer().getId())))
+                .count());
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return Mono.fromRunnable(() -> remove(id));
+    }
+
+    private void remove(long id) {
+        var removed = byId.remove(id);
+        if (removed != null) {
+            byPosition.remove(positions.remove(id));
+            byCustomerId.remove(removed.getCustomer().getId());
+            byIban.remove(removed.getIban());
+        }
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(CheckingAccount entity) {
+        return deleteById(entity.getId());
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends CheckingAccount> entities) {
+        return Flux.fromIterable(entities).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends CheckingAccount> entityStream) {
+        return Flux.from(entityStream).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Mono.fromRunnable(() -> {
+            byId.clear();
+            byPosition.clear();
+            positions.clear();
+            byCustomerId.clear();
+            byIban.clear();
+        });
+    }
+
+}
@@ -0,0 +1,28 @@
+package dev.emmanuel.account.persistence.repository;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counter backed stand-in of {@link IdSequenceRepository} for benchmarks and tests, every sequence starting at 1.
+ */
+public class InMemoryIdSequenceRepository implements IdSequenceRepository {
+
+    private final AtomicLong nextValue = new AtomicLong(1);
+    private final AtomicInteger reservations = new AtomicInteger();
+
+    @Override
+    public Mono<Long> reserve(String sequence, int size) {
+        return Mono.fromCallable(() -> {
+            reservations.incrementAndGet();
+            return nextValue.getAndAdd(size);
+        });
+    }
+
+    public int reservations() {
+        return reservations.get();
+    }
+
+}
@@ -0,0 +1,63 @@
+package dev.emmanuel.account.persistence.repository;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.HashSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class R2dbcIdSequenceRepositoryTest {
+
+    private ConnectionFactory connectionFactory;
+    private R2dbcIdSequenceRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        this.connectionFactory = ConnectionFactories.get("r2dbc:h2:mem:///" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1;MODE=MySQL");
+        var databaseClient = DatabaseClient.create(connectionFactory);
+        databaseClient.sql("create table id_sequences (name varchar(64) primary key, next_value bigint not null)").then().block();
+        databaseClient.sql("insert into id_sequences values ('checking_accounts', 1)").then().block();
+        this.repository = new R2dbcIdSequenceRepository(connectionFactory);
+    }
+
+    @Test
+    void shouldReserveConsecutiveBlocks() {
+        StepVerifier.create(repository.reserve("checking_accounts", 100)).expectNext(1L).verifyComplete();
+        StepVerifier.create(repository.reserve("checking_accounts", 100)).expectNext(101L).verifyComplete();
+        StepVerifier.create(repository.reserve("checking_accounts", 5)).expectNext(201L).verifyComplete();
+    }
+
+    @Test
+    void shouldReserveDisjointBlocksConcurrently() {
+        var firstIds = Flux
+                .range(0, 20)
+                .flatMap(ignored -> repository.reserve("checking_accounts", 10))
+                .collectList()
+                .block();
+
+        assertEquals(20, new HashSet<>(firstIds).size());
+        firstIds.forEach(first -> assertEquals(1, first % 10));
+    }
+
+    @Test
+    void shouldFailForUnknownSequence() {
+        StepVerifier.create(repository.reserve("transfers", 100))
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldRejectInvalidSequenceOrSize() {
+        assertThrows(IllegalArgumentException.class, () -> repository.reserve("x'; drop table id_sequences; --", 100));
+        assertThrows(IllegalArgumentException.class, () -> repository.reserve("checking_accounts", 0));
+    }
+
+}
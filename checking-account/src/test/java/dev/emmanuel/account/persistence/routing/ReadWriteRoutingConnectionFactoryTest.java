@@ -0,0 +1,65 @@
+package dev.emmanuel.account.persistence.routing;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+import java.util.UUID;
+
+class ReadWriteRoutingConnectionFactoryTest {
+
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        var primary = database("primary");
+        var replica = database("replica");
+
+        this.databaseClient = DatabaseClient.create(new ReadWriteRoutingConnectionFactory(primary, Map.of("replica-0", replica)));
+    }
+
+    @Test
+    void shouldUsePrimaryByDefault() {
+        StepVerifier.create(serverName())
+                .expectNext("primary")
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldUseReplicaNamedInContext() {
+        StepVerifier.create(serverName().contextWrite(ReadWriteRoutingConnectionFactory.routeTo("replica-0")))
+                .expectNext("replica")
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldFailForUnknownReplica() {
+        StepVerifier.create(serverName().contextWrite(ReadWriteRoutingConnectionFactory.routeTo("replica-9")))
+                .expectErrorMatches(ex -> ex.getCause() instanceof IllegalStateException)
+                .verify();
+    }
+
+    private Mono<String> serverName() {
+        return databaseClient
+                .sql("select name from server")
+                .map(row -> row.get("name", String.class))
+                .one();
+    }
+
+    private static ConnectionFactory database(String name) {
+        var connectionFactory = ConnectionFactories.get("r2dbc:h2:mem:///" + name + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1");
+        var client = DatabaseClient.create(connectionFactory);
+
+        client.sql("create table server (name varchar(32))").then()
+                .then(client.sql("insert into server (name) values (:name)").bind("name", name).then())
+                .block();
+
+        return connectionFactory;
+    }
+
+}
@@ -0,0 +1,131 @@
+package dev.emmanuel.account.persistence.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaReadsTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replica0Connection = mock(Connection.class);
+    private final Connection replica1Connection = mock(Connection.class);
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicationLagMonitor lagMonitor;
+    private ConnectionFactory replica0;
+    private ReadWriteRoutingConnectionFactory routingConnectionFactory;
+
+    @BeforeEach
+    void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.lagMonitor = mock(ReplicationLagMonitor.class);
+        this.replica0 = connectionFactory(Mono.just(replica0Connection));
+        this.routingConnectionFactory = new ReadWriteRoutingConnectionFactory(
+                connectionFactory(Mono.just(primaryConnection)),
+                Map.of("replica-0", replica0, "replica-1", connectionFactory(Mono.just(replica1Connection)))
+        );
+    }
+
+    @Test
+    void shouldReadFromHealthyReplicasInTurn() {
+        when(lagMonitor.healthyReplicas()).thenReturn(List.of("replica-0", "replica-1"));
+        var replicaReads = new ReplicaReads(lagMonitor, meterRegistry, false, 0.95, Duration.ofMillis(5));
+
+        StepVerifier.create(replicaReads.read(this::connectedServer).repeat(2))
+                .expectNext("replica-0", "replica-1", "replica-0")
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReadFromPrimaryWhenNoReplicaIsHealthy() {
+        when(lagMonitor.healthyReplicas()).thenReturn(List.of());
+        var replicaReads = new ReplicaReads(lagMonitor, meterRegistry, false, 0.95, Duration.ofMillis(5));
+
+        StepVerifier.create(replicaReads.read(this::connectedServer))
+                .expectNext("primary")
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenReplicaFails() {
+        when(lagMonitor.healthyReplicas()).thenReturn(List.of("replica-0"));
+        doReturn(replica0, Mono.error(new IllegalStateException("replica down")));
+        var replicaReads = new ReplicaReads(lagMonitor, meterRegistry, false, 0.95, Duration.ofMillis(5));
+
+        StepVerifier.create(replicaReads.read(this::connectedServer))
+                .expectNext("primary")
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldHedgeSlowReadOnAnotherReplica() {
+        when(lagMonitor.healthyReplicas()).thenReturn(List.of("replica-0", "replica-1"));
+        doReturn(replica0, Mono.delay(Duration.ofSeconds(2)).thenReturn(replica0Connection));
+        var replicaReads = new ReplicaReads(lagMonitor, meterRegistry, true, 0.95, Duration.ofMillis(20));
+
+        StepVerifier.create(replicaReads.read(this::connectedServer))
+                .expectNext("replica-1")
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+
+        assertEquals(1, meterRegistry.get("checking_account.replica.hedged_reads").counter().count());
+    }
+
+    @Test
+    void shouldNotHedgeOnTheOnlyHealthyReplica() {
+        when(lagMonitor.healthyReplicas()).thenReturn(List.of("replica-0"));
+        doReturn(replica0, Mono.delay(Duration.ofMillis(200)).thenReturn(replica0Connection));
+        var replicaReads = new ReplicaReads(lagMonitor, meterRegistry, true, 0.95, Duration.ofMillis(20));
+
+        StepVerifier.create(replicaReads.read(this::connectedServer))
+                .expectNext("replica-0")
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+
+        assertEquals(0, meterRegistry.get("checking_account.replica.hedged_reads").counter().count());
+    }
+
+    @Test
+    void shouldStreamFromOneReplica() {
+        when(lagMonitor.healthyReplicas()).thenReturn(List.of("replica-1"));
+        var replicaReads = new ReplicaReads(lagMonitor, meterRegistry, true, 0.95, Duration.ofMillis(5));
+
+        StepVerifier.create(replicaReads.readMany(() -> Flux.concat(connectedServer(), connectedServer())))
+                .expectNext("replica-1", "replica-1")
+                .verifyComplete();
+    }
+
+    private Mono<String> connectedServer() {
+        return Mono.from(routingConnectionFactory.create()).map(connection -> {
+            if (connection == replica0Connection) {
+                return "replica-0";
+            }
+            return connection == replica1Connection ? "replica-1" : "primary";
+        });
+    }
+
+    private static ConnectionFactory connectionFactory(Mono<Connection> connection) {
+        var connectionFactory = mock(ConnectionFactory.class);
+        doReturn(connectionFactory, connection);
+        return connectionFactory;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void doReturn(ConnectionFactory connectionFactory, Mono<Connection> connection) {
+        when(connectionFactory.create()).thenReturn((Mono) connection);
+    }
+
+}
@@ -0,0 +1,92 @@
+package dev.emmanuel.account.persistence.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplicationLagMonitorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConnectionFactory primary;
+    private ConnectionFactory upToDateReplica;
+    private ConnectionFactory laggingReplica;
+    private ConnectionFactory brokenReplica;
+
+    @BeforeEach
+    void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.primary = databaseWithHeartbeat(now().minusHours(1));
+        this.upToDateReplica = databaseWithHeartbeat(now());
+        this.laggingReplica = databaseWithHeartbeat(now().minusSeconds(30));
+        this.brokenReplica = ConnectionFactories.get("r2dbc:h2:mem:///broken" + UUID.randomUUID());
+    }
+
+    @Test
+    void shouldOnlyReportReplicasWithinMaxLag() {
+        var replicas = new LinkedHashMap<String, ConnectionFactory>();
+        replicas.put("replica-0", upToDateReplica);
+        replicas.put("replica-1", laggingReplica);
+        replicas.put("replica-2", brokenReplica);
+
+        var monitor = new ReplicationLagMonitor(primary, replicas, meterRegistry, Duration.ofSeconds(5), Duration.ofMillis(250));
+        StepVerifier.create(monitor.refresh()).verifyComplete();
+
+        assertEquals(List.of("replica-0"), monitor.healthyReplicas());
+        assertTrue(meterRegistry.get("checking_account.replica.lag").tag("replica", "replica-1").gauge().value() >= 30);
+        assertTrue(Double.isNaN(meterRegistry.get("checking_account.replica.lag").tag("replica", "replica-2").gauge().value()));
+    }
+
+    @Test
+    void shouldWriteHeartbeatOnPrimary() {
+        var monitor = new ReplicationLagMonitor(primary, new LinkedHashMap<>(), meterRegistry, Duration.ofSeconds(5), Duration.ofMillis(250));
+        StepVerifier.create(monitor.refresh()).verifyComplete();
+
+        var beatAt = DatabaseClient.create(primary)
+                .sql("select beat_at from replication_heartbeat where id = 1")
+                .map(row -> row.get("beat_at", LocalDateTime.class))
+                .one()
+                .block();
+
+        assertTrue(Duration.between(beatAt, now()).compareTo(Duration.ofSeconds(5)) < 0);
+    }
+
+    @Test
+    void shouldHaveNoHealthyReplicaBeforeFirstRefresh() {
+        var replicas = new LinkedHashMap<String, ConnectionFactory>();
+        replicas.put("replica-0", upToDateReplica);
+
+        var monitor = new ReplicationLagMonitor(primary, replicas, meterRegistry, Duration.ofSeconds(5), Duration.ofMillis(250));
+
+        assertTrue(monitor.healthyReplicas().isEmpty());
+    }
+
+    private static ConnectionFactory databaseWithHeartbeat(LocalDateTime beatAt) {
+        var connectionFactory = ConnectionFactories.get("r2dbc:h2:mem:///heartbeat" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1");
+        var client = DatabaseClient.create(connectionFactory);
+
+        client.sql("create table replication_heartbeat (id tinyint primary key, beat_at timestamp(6) not null)").then()
+                .then(client.sql("insert into replication_heartbeat (id, beat_at) values (1, :beatAt)").bind("beatAt", beatAt).then())
+                .block();
+
+        return connectionFactory;
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+
+}
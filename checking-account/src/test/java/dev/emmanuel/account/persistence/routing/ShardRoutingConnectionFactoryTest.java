@@ -0,0 +1,81 @@
+package dev.emmanuel.account.persistence.routing;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+import java.util.UUID;
+
+class ShardRoutingConnectionFactoryTest {
+
+    private ShardRoutingConnectionFactory connectionFactory;
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        this.connectionFactory = new ShardRoutingConnectionFactory("shard-0", database("shard-0"),
+                Map.of("shard-1", database("shard-1")));
+        this.databaseClient = DatabaseClient.create(connectionFactory);
+    }
+
+    @Test
+    void shouldUseFirstShardByDefault() {
+        StepVerifier.create(serverName())
+                .expectNext("shard-0")
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldUseShardNamedInContext() {
+        StepVerifier.create(serverName().contextWrite(ShardRoutingConnectionFactory.routeTo("shard-1")))
+                .expectNext("shard-1")
+                .verifyComplete();
+        StepVerifier.create(serverName().contextWrite(ShardRoutingConnectionFactory.routeTo("shard-0")))
+                .expectNext("shard-0")
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldRunTransactionOnShardNamedDownstream() {
+        var transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+
+        StepVerifier.create(serverName()
+                        .as(transactionalOperator::transactional)
+                        .contextWrite(ShardRoutingConnectionFactory.routeTo("shard-1")))
+                .expectNext("shard-1")
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldFailForUnknownShard() {
+        StepVerifier.create(serverName().contextWrite(ShardRoutingConnectionFactory.routeTo("shard-9")))
+                .expectErrorMatches(ex -> ex.getCause() instanceof IllegalStateException)
+                .verify();
+    }
+
+    private Mono<String> serverName() {
+        return databaseClient
+                .sql("select name from server")
+                .map(row -> row.get("name", String.class))
+                .one();
+    }
+
+    private static ConnectionFactory database(String name) {
+        var connectionFactory = ConnectionFactories.get("r2dbc:h2:mem:///" + name + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1");
+        var client = DatabaseClient.create(connectionFactory);
+
+        client.sql("create table server (name varchar(32))").then()
+                .then(client.sql("insert into server (name) values (:name)").bind("name", name).then())
+                .block();
+
+        return connectionFactory;
+    }
+
+}
@@ -0,0 +1,107 @@
+package dev.emmanuel.account.persistence.sharding;
+
+import dev.emmanuel.account.persistence.repository.H2ShardDatabases;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static dev.emmanuel.account.persistence.sharding.ShardMap.SLOTS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ShardDirectoryTest {
+
+    private ConnectionFactory firstShard;
+    private SimpleMeterRegistry meterRegistry;
+    private ShardDirectory directory;
+
+    @BeforeEach
+    void setUp() {
+        this.firstShard = H2ShardDatabases.create();
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.directory = new ShardDirectory(firstShard, List.of("shard-0", "shard-1"), meterRegistry,
+                Duration.ofSeconds(1), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void shouldSeedEverySlotOnFirstShard() {
+        directory.load().block();
+        directory.load().block();
+
+        assertEquals(SLOTS, slotRows());
+        assertEquals("shard-0", directory.shardOf(42));
+        assertEquals("shard-0", directory.writableShardOf(42));
+        assertEquals(SLOTS, meterRegistry.get("checking_account.shard.slots").tag("shard", "shard-0").gauge().value());
+        assertEquals(0, meterRegistry.get("checking_account.shard.slots").tag("shard", "shard-1").gauge().value());
+    }
+
+    @Test
+    void shouldRejectAccountsUntilLoaded() {
+        assertThrows(ShardUnavailableException.class, () -> directory.shardOf(42));
+        assertThrows(ShardUnavailableException.class, () -> directory.writableShardOf(42));
+    }
+
+    @Test
+    void shouldRejectWritesWhileSlotIsMoved() {
+        directory.load().block();
+
+        directory.beginMove(42, "shard-0", "shard-1").block();
+        assertEquals("shard-0", directory.shardOf(42));
+        assertThrows(ShardUnavailableException.class, () -> directory.writableShardOf(42));
+        assertEquals("shard-0", directory.writableShardOf(43));
+
+        directory.completeMove(42, "shard-0", "shard-1").block();
+        assertEquals("shard-1", directory.shardOf(42));
+        assertEquals("shard-1", directory.writableShardOf(SLOTS + 42));
+    }
+
+    @Test
+    void shouldRejectConflictingMoves() {
+        directory.load().block();
+        directory.beginMove(42, "shard-0", "shard-1").block();
+
+        StepVerifier.create(directory.beginMove(42, "shard-0", "shard-1"))
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(directory.completeMove(43, "shard-0", "shard-1"))
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldRejectWritesWithStaleMap() throws InterruptedException {
+        var directory = new ShardDirectory(firstShard, List.of("shard-0"), meterRegistry, Duration.ofSeconds(1), Duration.ofMillis(1));
+        directory.load().block();
+
+        Thread.sleep(10);
+
+        assertEquals("shard-0", directory.shardOf(42));
+        assertThrows(ShardUnavailableException.class, () -> directory.writableShardOf(42));
+    }
+
+    @Test
+    void shouldKeepMapWhenTheLoadedOneHasUnknownShard() {
+        directory.load().block();
+        DatabaseClient.create(firstShard).sql("update shard_slots set shard = 'shard-7' where slot = 42").then().block();
+
+        StepVerifier.create(directory.load())
+                .expectError(IllegalStateException.class)
+                .verify();
+        assertEquals("shard-0", directory.shardOf(42));
+    }
+
+    private long slotRows() {
+        return DatabaseClient.create(firstShard)
+                .sql("select count(*) from shard_slots")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block();
+    }
+
+}
@@ -0,0 +1,58 @@
+package dev.emmanuel.account.persistence.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static dev.emmanuel.account.persistence.sharding.ShardMap.SLOTS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardMapTest {
+
+    @Test
+    void shouldMapCustomersToSlots() {
+        assertEquals(0, ShardMap.slotOf(0));
+        assertEquals(5, ShardMap.slotOf(5));
+        assertEquals(5, ShardMap.slotOf(SLOTS + 5));
+        assertEquals(SLOTS - 1, ShardMap.slotOf(-1));
+    }
+
+    @Test
+    void shouldTellOwnerAndTargetOfSlots() {
+        var owners = new String[SLOTS];
+        var targets = new String[SLOTS];
+        for (int slot = 0; slot < SLOTS; slot++) {
+            owners[slot] = slot < SLOTS / 2 ? "shard-0" : "shard-1";
+        }
+        targets[3] = "shard-2";
+
+        var map = new ShardMap(owners, targets);
+
+        assertEquals("shard-0", map.ownerOf(3));
+        assertEquals("shard-1", map.ownerOf(SLOTS - 1));
+        assertTrue(map.isMoving(3));
+        assertEquals("shard-2", map.targetOf(3));
+        assertFalse(map.isMoving(4));
+        assertNull(map.targetOf(4));
+        assertEquals(List.of("shard-0", "shard-2", "shard-1"), map.shards());
+    }
+
+    @Test
+    void shouldGroupSlotsByShard() {
+        var slots = ShardMap.allOn("shard-0").slotsByShard(List.of("shard-0", "shard-1"));
+
+        assertEquals(SLOTS, slots.get("shard-0").size());
+        assertEquals(List.of(), slots.get("shard-1"));
+    }
+
+    @Test
+    void shouldRejectIncompleteMap() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardMap(new String[SLOTS - 1], new String[SLOTS - 1]));
+        assertThrows(IllegalArgumentException.class, () -> new ShardMap(new String[SLOTS], new String[SLOTS]));
+    }
+
+}
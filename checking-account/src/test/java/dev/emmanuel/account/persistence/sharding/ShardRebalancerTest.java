@@ -0,0 +1,292 @@
+package dev.emmanuel.account.persistence.sharding;
+
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import dev.emmanuel.account.persistence.repository.H2ShardDatabases;
+import dev.emmanuel.account.persistence.routing.ShardRoutingConnectionFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static dev.emmanuel.account.persistence.sharding.ShardMap.SLOTS;
+import static dev.emmanuel.account.persistence.sharding.ShardedCheckingAccountRepositoryTest.idsOn;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class ShardRebalancerTest {
+
+    private ConnectionFactory shard0;
+    private ConnectionFactory shard1;
+    private DatabaseClient databaseClient;
+    private ShardDirectory directory;
+    private ShardRebalancer rebalancer;
+
+    @BeforeEach
+    void setUp() {
+        this.shard0 = H2ShardDatabases.create();
+        this.shard1 = H2ShardDatabases.create();
+        this.databaseClient = DatabaseClient.create(new ShardRoutingConnectionFactory("shard-0", shard0, Map.of("shard-1", shard1)));
+        this.directory = new ShardDirectory(shard0, List.of("shard-0", "shard-1"), new SimpleMeterRegistry(),
+                Duration.ofSeconds(1), Duration.ofMinutes(1));
+        this.rebalancer = new ShardRebalancer(databaseClient, directory, Duration.ZERO, Duration.ofMinutes(1), 2);
+    }
+
+    @Test
+    void shouldMoveSlotWithItsAccounts() {
+        insert(shard0, account(1, 5, 3));
+        insert(shard0, account(2, SLOTS + 5, 0));
+        insert(shard0, account(3, 2 * SLOTS + 5, 0));
+        insert(shard0, account(4, 6, 0));
+        var createdAt = createdAt(shard0, 2);
+
+        StepVerifier.create(rebalancer.move(5, "shard-1"))
+                .expectNext(new SlotMove(5, "shard-0", "shard-1", 3))
+                .verifyComplete();
+
+        assertEquals(List.of(4L), idsOn(shard0));
+        assertEquals(List.of(1L, 2L, 3L), idsOn(shard1));
+        assertEquals(3L, version(shard1, 1));
+        assertEquals(createdAt, createdAt(shard1, 2));
+        assertEquals("shard-1", directory.writableShardOf(5));
+    }
+
+    @Test
+    void shouldResumeInterruptedMove() {
+        insert(shard0, account(1, 5, 1));
+        directory.load().then(directory.beginMove(5, "shard-0", "shard-1")).block();
+        insert(shard1, account(1, 5, 0));
+
+        StepVerifier.create(rebalancer.move(5, "shard-1"))
+                .expectNext(new SlotMove(5, "shard-0", "shard-1", 1))
+                .verifyComplete();
+
+        assertEquals(List.of(), idsOn(shard0));
+        assertEquals(1L, version(shard1, 1));
+    }
+
+    @Test
+    void shouldNotMoveASlotHavingAnIbanOfTheTarget() {
+        insert(shard0, account(1, 5, 0));
+        insert(shard0, account(2, SLOTS + 5, 0));
+        insert(shard1, new CheckingAccount(3L, 0L, "DE002", "EUR", Customer.of(6, "Customer 6")));
+
+        StepVerifier.create(rebalancer.move(5, "shard-1"))
+                .expectErrorMatches(ex -> ex instanceof IllegalStateException && ex.getMessage().contains("[DE002]"))
+                .verify();
+
+        assertNull(targetOf(5));
+        assertEquals("shard-0", directory.writableShardOf(5));
+        assertEquals(List.of(1L, 2L), idsOn(shard0));
+        assertEquals(List.of(3L), idsOn(shard1));
+    }
+
+    @Test
+    void shouldCancelAMoveWhoseCopyHitsAnIbanOfTheTarget() {
+        insert(shard0, account(1, 5, 0));
+        insert(shard0, account(2, SLOTS + 5, 0));
+        directory.load().then(directory.beginMove(5, "shard-0", "shard-1")).block();
+        insert(shard1, new CheckingAccount(3L, 0L, "DE002", "EUR", Customer.of(6, "Customer 6")));
+
+        StepVerifier.create(rebalancer.move(5, "shard-1"))
+                .expectErrorMatches(ex -> ex instanceof IllegalStateException && ex.getMessage().contains("canceled"))
+                .verify();
+
+        assertNull(targetOf(5));
+        assertEquals("shard-0", directory.writableShardOf(5));
+        assertEquals(List.of(1L, 2L), idsOn(shard0));
+        assertEquals(List.of(3L), idsOn(shard1));
+    }
+
+    @Test
+    void shouldSpreadSlotsEvenly() {
+        // slots 0 to 513 on shard-0, the others on shard-1
+        var values = IntStream
+                .range(0, SLOTS)
+                .mapToObj(slot -> "(" + slot + ", '" + (slot < SLOTS / 2 + 2 ? "shard-0" : "shard-1") + "')")
+                .collect(Collectors.joining(", "));
+        DatabaseClient.create(shard0).sql("insert into shard_slots (slot, shard) values " + values).then().block();
+        insert(shard0, account(1, 1, 0));
+        insert(shard0, account(2, SLOTS / 2 + 1, 0));
+
+        StepVerifier.create(rebalancer.rebalance())
+                .expectNext(new SlotMove(SLOTS / 2 + 1, "shard-0", "shard-1", 1))
+                .expectNext(new SlotMove(SLOTS / 2, "shard-0", "shard-1", 0))
+                .verifyComplete();
+
+        StepVerifier.create(rebalancer.slotCounts())
+                .expectNext(Map.of("shard-0", SLOTS / 2, "shard-1", SLOTS / 2))
+                .verifyComplete();
+        assertEquals(List.of(1L), idsOn(shard0));
+        assertEquals(List.of(2L), idsOn(shard1));
+        StepVerifier.create(rebalancer.rebalance()).verifyComplete();
+    }
+
+    @Test
+    void shouldPlanMovesToTheLeastLoadedShards() {
+        var owners = new String[SLOTS];
+        var targets = new String[SLOTS];
+        Arrays.fill(owners, "shard-0");
+        targets[0] = "shard-2";
+
+        var plan = ShardRebalancer.plan(new ShardMap(owners, targets), List.of("shard-0", "shard-1", "shard-2"));
+
+        assertEquals("shard-2", plan.get(0));
+        assertEquals(List.of(0), plan.keySet().stream().limit(1).collect(Collectors.toList()));
+        assertEquals(341, plan.values().stream().filter("shard-1"::equals).count());
+        assertEquals(341, plan.values().stream().filter("shard-2"::equals).count());
+    }
+
+    @Test
+    void shouldRejectInvalidMoves() {
+        StepVerifier.create(rebalancer.move(SLOTS, "shard-1")).expectError(IllegalArgumentException.class).verify();
+        StepVerifier.create(rebalancer.move(5, "shard-7")).expectError(IllegalArgumentException.class).verify();
+
+        directory.load().then(directory.beginMove(5, "shard-0", "shard-1")).block();
+        StepVerifier.create(rebalancer.move(5, "shard-0")).expectError(IllegalStateException.class).verify();
+    }
+
+    @Test
+    void shouldRejectMovesWhileAnotherOneRuns() {
+        var rebalancer = new ShardRebalancer(databaseClient, directory, Duration.ofSeconds(1), Duration.ofMinutes(1), 2);
+        var running = rebalancer.move(5, "shard-1").subscribe();
+
+        StepVerifier.create(rebalancer.move(6, "shard-1"))
+                .expectErrorMatches(ex -> ex instanceof IllegalStateException && ex.getMessage().contains("already"))
+                .verify();
+
+        running.dispose();
+        assertTrue(running.isDisposed());
+    }
+
+    @Test
+    void shouldRejectMovesWhileAnotherInstanceHoldsTheLease() {
+        var otherInstance = new ShardRebalancer(databaseClient, directory, Duration.ofSeconds(1), Duration.ofMinutes(1), 2);
+        var running = otherInstance.move(5, "shard-1").subscribe();
+        await(() -> leaseHolder() != null);
+
+        StepVerifier.create(rebalancer.move(6, "shard-1"))
+                .expectErrorMatches(ex -> ex instanceof IllegalStateException && ex.getMessage().contains("another instance"))
+                .verify();
+
+        running.dispose();
+        await(() -> leaseHolder() == null);
+        StepVerifier.create(rebalancer.move(6, "shard-1")).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void shouldTakeOverTheExpiredLeaseOfAnotherInstance() {
+        DatabaseClient.create(shard0)
+                .sql("update shard_rebalance_lease set holder = 'crashed', expires_at = timestampadd(second, -1, now(6)) where id = 1")
+                .then()
+                .block();
+        insert(shard0, account(1, 5, 0));
+
+        StepVerifier.create(rebalancer.move(5, "shard-1"))
+                .expectNext(new SlotMove(5, "shard-0", "shard-1", 1))
+                .verifyComplete();
+
+        assertNull(leaseHolder());
+    }
+
+    @Test
+    void shouldNotDeleteTheCopyOfTheOwnerWhenTheSlotChangedMeanwhile() {
+        var rebalancer = new ShardRebalancer(databaseClient, directory, Duration.ofMillis(500), Duration.ofMinutes(1), 2);
+        insert(shard0, account(1, 5, 0));
+
+        StepVerifier.create(rebalancer.move(5, "shard-1"))
+                .then(() -> {
+                    // another instance completes the move while this one waits for the map to settle
+                    await(() -> "shard-1".equals(targetOf(5)));
+                    insert(shard1, account(1, 5, 1));
+                    DatabaseClient.create(shard0)
+                            .sql("update shard_slots set shard = 'shard-1', target_shard = null where slot = 5")
+                            .then()
+                            .block();
+                })
+                .expectErrorMatches(ex -> ex instanceof IllegalStateException && ex.getMessage().contains("no longer being moved"))
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(1L, version(shard1, 1));
+    }
+
+    private static CheckingAccount account(long id, long customerId, long version) {
+        return new CheckingAccount(id, version, "DE00" + id, "EUR", Customer.of(customerId, "Customer " + customerId));
+    }
+
+    private static void insert(ConnectionFactory shard, CheckingAccount account) {
+        DatabaseClient.create(shard)
+                .sql("insert into checking_accounts (id, version, iban, currency, customer_id, customer_name) values (:id, :version, :iban, 'EUR', :customerId, :name)")
+                .bind("id", account.getId())
+                .bind("version", account.getVersion())
+                .bind("iban", account.getIban())
+                .bind("customerId", account.getCustomer().getId())
+                .bind("name", account.getCustomer().getName())
+                .then()
+                .block();
+    }
+
+    private static long version(ConnectionFactory shard, long id) {
+        return DatabaseClient.create(shard)
+                .sql("select version from checking_accounts where id = :id")
+                .bind("id", id)
+                .map(row -> row.get("version", Long.class))
+                .one()
+                .block();
+    }
+
+    private String leaseHolder() {
+        return DatabaseClient.create(shard0)
+                .sql("select holder from shard_rebalance_lease where id = 1")
+                .map(row -> Optional.ofNullable(row.get("holder", String.class)))
+                .one()
+                .block()
+                .orElse(null);
+    }
+
+    private String targetOf(int slot) {
+        return DatabaseClient.create(shard0)
+                .sql("select target_shard from shard_slots where slot = :slot")
+                .bind("slot", slot)
+                .map(row -> Optional.ofNullable(row.get("target_shard", String.class)))
+                .one()
+                .defaultIfEmpty(Optional.empty())
+                .block()
+                .orElse(null);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within 5 seconds");
+            }
+            LockSupport.parkNanos(Duration.ofMillis(10).toNanos());
+        }
+    }
+
+    private static LocalDateTime createdAt(ConnectionFactory shard, long id) {
+        return DatabaseClient.create(shard)
+                .sql("select created_at from checking_accounts where id = :id")
+                .bind("id", id)
+                .map(row -> row.get("created_at", LocalDateTime.class))
+                .one()
+                .block();
+    }
+
+}
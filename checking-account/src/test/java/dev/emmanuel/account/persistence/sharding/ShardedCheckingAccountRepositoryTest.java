@@ -0,0 +1,185 @@
+package dev.emmanuel.account.persistence.sharding;
+
+import dev.emmanuel.account.exception.CheckingAccountAlreadyOpened;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import dev.emmanuel.account.persistence.entity.InsertedCheckingAccount;
+import dev.emmanuel.account.persistence.entity.InsertionPosition;
+import dev.emmanuel.account.persistence.repository.H2ShardDatabases;
+import dev.emmanuel.account.persistence.routing.ShardRoutingConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static dev.emmanuel.account.persistence.sharding.ShardMap.SLOTS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ShardedCheckingAccountRepositoryTest {
+
+    private static final long MOVING_CUSTOMER = 5;
+    private static final LocalDateTime INSERTED_AT = LocalDateTime.of(2021, 5, 1, 10, 0);
+
+    private ConnectionFactory shard0;
+    private ConnectionFactory shard1;
+    private ShardedCheckingAccountRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        this.shard0 = H2ShardDatabases.create();
+        this.shard1 = H2ShardDatabases.create();
+        var routing = new ShardRoutingConnectionFactory("shard-0", shard0, Map.of("shard-1", shard1));
+
+        // even slots on shard-0, odd slots on shard-1, the slot of customer 5 moving to shard-0
+        var owners = new String[SLOTS];
+        var targets = new String[SLOTS];
+        for (int slot = 0; slot < SLOTS; slot++) {
+            owners[slot] = slot % 2 == 0 ? "shard-0" : "shard-1";
+        }
+        targets[ShardMap.slotOf(MOVING_CUSTOMER)] = "shard-0";
+
+        this.repository = new ShardedCheckingAccountRepository(H2ShardDatabases.checkingAccountRepository(routing),
+                ShardDirectory.fixed(new ShardMap(owners, targets)));
+    }
+
+    @Test
+    void shouldInsertOnShardOfCustomer() {
+        StepVerifier.create(repository.insertIfAbsent(account(1, 2, "Even"))).expectNextCount(1).verifyComplete();
+        StepVerifier.create(repository.insertIfAbsent(account(2, 3, "Odd"))).expectNextCount(1).verifyComplete();
+        StepVerifier.create(repository.insertAllIfAbsent(List.of(account(3, 7, "Odd"), account(4, 9, "Odd")))).expectNextCount(2).verifyComplete();
+
+        assertEquals(List.of(1L), idsOn(shard0));
+        assertEquals(List.of(2L, 3L, 4L), idsOn(shard1));
+    }
+
+    @Test
+    void shouldFindAccountsOnAnyShard() {
+        repository.insertIfAbsent(account(1, 2, "Even")).block();
+        repository.insertIfAbsent(account(2, 3, "Odd")).block();
+
+        StepVerifier.create(repository.findById(2L)).expectNext(account(2, 3, "Odd")).verifyComplete();
+        StepVerifier.create(repository.findByIban(iban(2))).expectNext(account(2, 3, "Odd")).verifyComplete();
+        StepVerifier.create(repository.findByCustomerId(2)).expectNext(account(1, 2, "Even")).verifyComplete();
+        StepVerifier.create(repository.findById(9L)).verifyComplete();
+        StepVerifier.create(repository.count()).expectNext(2L).verifyComplete();
+    }
+
+    @Test
+    void shouldMergePagesOfEveryShardInInsertionOrder() {
+        insert(shard0, account(6, 12, "Even"), INSERTED_AT);
+        insert(shard1, account(3, 7, "Odd"), INSERTED_AT.plusSeconds(1));
+        insert(shard0, account(1, 2, "Even"), INSERTED_AT.plusSeconds(2));
+        insert(shard1, account(2, 3, "Odd"), INSERTED_AT.plusSeconds(3));
+
+        StepVerifier.create(repository.findPageInsertedAfter(InsertionPosition.START, 2).map(inserted -> inserted.getCheckingAccount().getId()))
+                .expectNext(6L, 3L)
+                .verifyComplete();
+        StepVerifier.create(repository.findInsertionPosition(3).flatMapMany(after -> repository.findPageInsertedAfter(after, 2)))
+                .assertNext(inserted -> assertEquals(InsertionPosition.of(INSERTED_AT.plusSeconds(2), 1), inserted.getPosition()))
+                .assertNext(inserted -> assertEquals(InsertionPosition.of(INSERTED_AT.plusSeconds(3), 2), inserted.getPosition()))
+                .verifyComplete();
+        StepVerifier.create(repository.findPageInsertedAfter(InsertionPosition.of(INSERTED_AT.plusSeconds(3), 2), 2)).verifyComplete();
+    }
+
+    @Test
+    void shouldReadCopyOfShardOwningTheAccount() {
+        insert(shard0, account(7, 3, "Copied"), INSERTED_AT);
+        insert(shard1, account(7, 3, "Owner"), INSERTED_AT);
+
+        StepVerifier.create(repository.findById(7L)).expectNext(account(7, 3, "Owner")).verifyComplete();
+        StepVerifier.create(repository.findPageInsertedAfter(InsertionPosition.START, 10).map(InsertedCheckingAccount::getCheckingAccount))
+                .expectNext(account(7, 3, "Owner"))
+                .verifyComplete();
+        StepVerifier.create(repository.findAll()).expectNext(account(7, 3, "Owner")).verifyComplete();
+    }
+
+    @Test
+    void shouldCountCopyOfShardOwningTheAccountOnce() {
+        insert(shard0, account(7, 3, "Copied"), INSERTED_AT);
+        insert(shard1, account(7, 3, "Owner"), INSERTED_AT);
+        insert(shard0, account(8, MOVING_CUSTOMER, "Moving"), INSERTED_AT);
+        insert(shard1, account(8, MOVING_CUSTOMER, "Moving"), INSERTED_AT);
+        insert(shard0, account(1, 2, "Even"), INSERTED_AT);
+
+        StepVerifier.create(repository.count()).expectNext(3L).verifyComplete();
+    }
+
+    @Test
+    void shouldOnlyRejectAnIbanAlreadyOpenedOnTheSameShard() {
+        repository.insertIfAbsent(new CheckingAccount(1L, 0L, "DE001", "EUR", Customer.of(2, "Even"))).block();
+
+        StepVerifier.create(repository.insertIfAbsent(new CheckingAccount(2L, 0L, "DE001", "EUR", Customer.of(4, "Even"))))
+                .expectError(CheckingAccountAlreadyOpened.class)
+                .verify();
+        StepVerifier.create(repository.insertIfAbsent(new CheckingAccount(3L, 0L, "DE001", "EUR", Customer.of(3, "Odd"))))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        StepVerifier.create(repository.findByIban("DE001").map(CheckingAccount::getId)).expectNext(1L).verifyComplete();
+    }
+
+    @Test
+    void shouldRejectWritesWhileSlotIsMoving() {
+        StepVerifier.create(repository.insertIfAbsent(account(1, MOVING_CUSTOMER, "Moving")))
+                .expectError(ShardUnavailableException.class)
+                .verify();
+
+        assertEquals(List.of(), idsOn(shard0));
+        assertEquals(List.of(), idsOn(shard1));
+    }
+
+    @Test
+    void shouldRejectInsertOfAccountsOnSeveralShards() {
+        StepVerifier.create(repository.insertAllIfAbsent(List.of(account(1, 2, "Even"), account(2, 3, "Odd"))))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldDeleteOnEveryShard() {
+        repository.insertIfAbsent(account(1, 2, "Even")).block();
+        repository.insertIfAbsent(account(2, 3, "Odd")).block();
+
+        StepVerifier.create(repository.deleteById(2L)).verifyComplete();
+        assertEquals(List.of(), idsOn(shard1));
+
+        StepVerifier.create(repository.deleteAll()).verifyComplete();
+        assertEquals(List.of(), idsOn(shard0));
+    }
+
+    private static CheckingAccount account(long id, long customerId, String name) {
+        return new CheckingAccount(id, 0L, iban(id), "EUR", Customer.of(customerId, name));
+    }
+
+    private static String iban(long id) {
+        return "DE00" + id;
+    }
+
+    private static void insert(ConnectionFactory shard, CheckingAccount account, LocalDateTime createdAt) {
+        DatabaseClient.create(shard)
+                .sql("insert into checking_accounts (id, version, iban, currency, customer_id, customer_name, created_at) " +
+                        "values (:id, 0, :iban, 'EUR', :customerId, :name, :createdAt)")
+                .bind("id", account.getId())
+                .bind("iban", account.getIban())
+                .bind("customerId", account.getCustomer().getId())
+                .bind("name", account.getCustomer().getName())
+                .bind("createdAt", createdAt)
+                .then()
+                .block();
+    }
+
+    static List<Long> idsOn(ConnectionFactory shard) {
+        return DatabaseClient.create(shard)
+                .sql("select id from checking_accounts order by id")
+                .map(row -> row.get("id", Long.class))
+                .all()
+                .collectList()
+                .block();
+    }
+
+}
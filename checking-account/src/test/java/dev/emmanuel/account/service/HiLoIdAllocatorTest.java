@@ -0,0 +1,97 @@
+package dev.emmanuel.account.service;
+
+import dev.emmanuel.account.persistence.repository.IdSequenceRepository;
+import dev.emmanuel.account.persistence.repository.InMemoryIdSequenceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HiLoIdAllocatorTest {
+
+    private final InMemoryIdSequenceRepository sequenceRepository = new InMemoryIdSequenceRepository();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldHandOutTheIdsOfABlockWithOneReservation() {
+        var allocator = new HiLoIdAllocator(sequenceRepository, "checking_accounts", 10, meterRegistry);
+
+        StepVerifier.create(Flux.range(0, 10).concatMap(ignored -> allocator.next()))
+                .expectNext(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L)
+                .verifyComplete();
+
+        assertEquals(1, sequenceRepository.reservations());
+        assertEquals(1, meterRegistry.get("checking_account.id.block.reservations").tag("sequence", "checking_accounts").timer().count());
+    }
+
+    @Test
+    void shouldSpanTwoBlocks() {
+        var allocator = new HiLoIdAllocator(sequenceRepository, "checking_accounts", 10, meterRegistry);
+
+        StepVerifier.create(allocator.next(8).then(allocator.next(4)))
+                .assertNext(ids -> assertArrayEquals(new long[]{9, 10, 11, 12}, ids))
+                .verifyComplete();
+
+        assertEquals(2, sequenceRepository.reservations());
+    }
+
+    @Test
+    void shouldShareTheReservationOfTheNextBlock() {
+        var slowRepository = new IdSequenceRepository() {
+            @Override
+            public Mono<Long> reserve(String sequence, int size) {
+                return sequenceRepository.reserve(sequence, size).delayElement(Duration.ofMillis(50));
+            }
+        };
+        var allocator = new HiLoIdAllocator(slowRepository, "checking_accounts", 1000, meterRegistry);
+
+        var ids = Flux
+                .range(0, 200)
+                .flatMap(ignored -> allocator.next().subscribeOn(Schedulers.parallel()))
+                .collectList()
+                .block();
+
+        assertEquals(200, new HashSet<>(ids).size());
+        assertEquals(1, sequenceRepository.reservations());
+    }
+
+    @Test
+    void shouldHandOutUniqueIdsConcurrently() {
+        var allocator = new HiLoIdAllocator(sequenceRepository, "checking_accounts", 7, meterRegistry);
+
+        var ids = Flux
+                .range(0, 1000)
+                .flatMap(ignored -> allocator.next(3).subscribeOn(Schedulers.parallel()))
+                .flatMapIterable(block -> LongStream.of(block).boxed().collect(Collectors.toList()))
+                .collectList()
+                .block();
+
+        assertEquals(3000, new HashSet<>(ids).size());
+    }
+
+    @Test
+    void shouldPropagateReservationFailures() {
+        var failingRepository = new IdSequenceRepository() {
+            @Override
+            public Mono<Long> reserve(String sequence, int size) {
+                return Mono.error(new IllegalStateException("Unknown id sequence " + sequence));
+            }
+        };
+        var allocator = new HiLoIdAllocator(failingRepository, "checking_accounts", 10, meterRegistry);
+
+        StepVerifier.create(allocator.next())
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+}
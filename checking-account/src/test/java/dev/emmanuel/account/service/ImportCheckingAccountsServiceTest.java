@@ -0,0 +1,171 @@
+package dev.emmanuel.account.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import dev.emmanuel.account.event.AccountEventOutbox;
+import dev.emmanuel.account.persistence.cache.CheckingAccountCache;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import dev.emmanuel.account.persistence.filter.CustomerIdFilter;
+import dev.emmanuel.account.persistence.repository.CheckingAccountRepository;
+import dev.emmanuel.account.persistence.repository.InMemoryAccountEventOutboxRepository;
+import dev.emmanuel.account.persistence.repository.InMemoryCheckingAccountRepository;
+import dev.emmanuel.account.persistence.repository.InMemoryIdSequenceRepository;
+import dev.emmanuel.account.persistence.sharding.ShardDirectory;
+import dev.emmanuel.account.persistence.sharding.ShardMap;
+import dev.emmanuel.account.validator.CheckingAccountInputValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static dev.emmanuel.account.persistence.sharding.ShardMap.SLOTS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ImportCheckingAccountsServiceTest {
+
+    private static final long MOVING_CUSTOMER = 5;
+
+    private InMemoryCheckingAccountRepository checkingAccountRepository;
+    private InMemoryAccountEventOutboxRepository outboxRepository;
+    private CustomerIdFilter customerIdFilter;
+    private SimpleMeterRegistry meterRegistry;
+    private ImportCheckingAccountsService importCheckingAccountsService;
+
+    @BeforeEach
+    void setUp() {
+        this.checkingAccountRepository = new InMemoryCheckingAccountRepository();
+        this.outboxRepository = new InMemoryAccountEventOutboxRepository();
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.importCheckingAccountsService = importService(checkingAccountRepository, ShardDirectory.unsharded());
+    }
+
+    @Test
+    void shouldReportEveryRecordInLineOrder() {
+        var records = Flux.just(
+                ImportRecord.of(1, account(1, "DE89370400440532013000")),
+                ImportRecord.malformed(2, "Unexpected end-of-input"),
+                ImportRecord.of(3, account(3, "not an iban")),
+                ImportRecord.of(4, account(4, "GB82WEST12345698765432")),
+                ImportRecord.of(5, account(5, "DE89370400440532013000"))
+        );
+
+        StepVerifier.create(importCheckingAccountsService.importAccounts(records))
+                .expectNext(ImportResult.opened(1, 1))
+                .expectNext(ImportResult.malformed(2, "Unexpected end-of-input"))
+                .expectNextMatches(result -> result.getLine() == 3 && result.getStatus() == ImportResult.Status.INVALID
+                        && result.getViolations().get(0).getProperty().equals("iban"))
+                .expectNext(ImportResult.opened(4, 2))
+                .expectNext(ImportResult.alreadyOpened(5, "Account already opened"))
+                .verifyComplete();
+
+        StepVerifier.create(outboxRepository.count()).expectNext(2L).verifyComplete();
+        assertTrue(customerIdFilter.mightHaveAccount(4));
+        assertEquals(2, meterRegistry.get("checking_account.import.records").tag("status", "opened").counter().count());
+    }
+
+    @Test
+    void shouldOnlyReadRecordsAsChunksAreWritten() {
+        var emitted = new AtomicLong();
+        var records = Flux
+                .range(1, 1000)
+                .doOnNext(line -> emitted.incrementAndGet())
+                .map(line -> ImportRecord.of(line, account(line, "DE89370400440532013000")));
+
+        StepVerifier.create(importCheckingAccountsService.importAccounts(records), 1)
+                .expectNextMatches(result -> result.getLine() == 1)
+                .thenCancel()
+                .verify();
+
+        assertTrue(emitted.get() < 1000, "read " + emitted.get() + " records");
+    }
+
+    @Test
+    void shouldFailTheRecordsOfAnUnavailableShardAndGoOn() {
+        var owners = new String[SLOTS];
+        var targets = new String[SLOTS];
+        Arrays.fill(owners, "shard-0");
+        targets[ShardMap.slotOf(MOVING_CUSTOMER)] = "shard-1";
+        var importService = importService(checkingAccountRepository, ShardDirectory.fixed(new ShardMap(owners, targets)));
+
+        var records = Flux.just(
+                ImportRecord.of(1, account(MOVING_CUSTOMER, "DE89370400440532013000")),
+                ImportRecord.of(2, account(4, "GB82WEST12345698765432"))
+        );
+
+        StepVerifier.create(importService.importAccounts(records))
+                .expectNext(ImportResult.failed(1, "Slot " + ShardMap.slotOf(MOVING_CUSTOMER) + " is being moved to shard-1"))
+                .expectNext(ImportResult.opened(2, 1))
+                .verifyComplete();
+
+        assertEquals(1, meterRegistry.get("checking_account.import.records").tag("status", "failed").counter().count());
+    }
+
+    @Test
+    void shouldFailTheRecordsOfAFailedWriteAndGoOn() {
+        var failingRepository = new InMemoryCheckingAccountRepository() {
+            @Override
+            public Flux<CheckingAccount> insertAllIfAbsent(List<CheckingAccount> checkingAccounts) {
+                if (checkingAccounts.stream().anyMatch(account -> account.getCustomer().getId() == 1)) {
+                    return Flux.error(new DataAccessResourceFailureException("Connection reset"));
+                }
+                return super.insertAllIfAbsent(checkingAccounts);
+            }
+        };
+        var importService = importService(failingRepository, ShardDirectory.unsharded());
+
+        var records = Flux.just(
+                ImportRecord.of(1, account(1, "DE89370400440532013000")),
+                ImportRecord.of(2, account(2, "GB82WEST12345698765432")),
+                ImportRecord.of(3, account(3, "NO9386011117947"))
+        );
+
+        StepVerifier.create(importService.importAccounts(records))
+                .expectNext(ImportResult.failed(1, "The account couldn't be written, the line can be imported again"))
+                .expectNext(ImportResult.failed(2, "The account couldn't be written, the line can be imported again"))
+                .expectNextMatches(result -> result.getLine() == 3 && result.getStatus() == ImportResult.Status.OPENED)
+                .verifyComplete();
+    }
+
+    private ImportCheckingAccountsService importService(CheckingAccountRepository repository, ShardDirectory shardDirectory) {
+        this.customerIdFilter = new CustomerIdFilter(repository, meterRegistry, 1000, 0.01, 100, Duration.ofSeconds(5), Duration.ofSeconds(2));
+
+        var writer = new OpenCheckingAccountWriter(
+                repository,
+                new AccountEventOutbox(outboxRepository, new ObjectMapper().registerModule(new JavaTimeModule())),
+                new PassThroughTransactionalOperator(),
+                new OpenCheckingAccountMetrics(meterRegistry),
+                new HiLoIdAllocator(new InMemoryIdSequenceRepository(), "checking_accounts", 500, meterRegistry),
+                shardDirectory,
+                false,
+                64,
+                Duration.ofNanos(500_000),
+                4096,
+                4
+        );
+
+        return new ImportCheckingAccountsService(
+                writer,
+                new CheckingAccountInputValidator(),
+                customerIdFilter,
+                mock(CheckingAccountCache.class),
+                shardDirectory,
+                meterRegistry,
+                2
+        );
+    }
+
+    private static CheckingAccount account(long customerId, String iban) {
+        return CheckingAccount.of(iban, "EUR", Customer.of(customerId, "Mock"));
+    }
+
+}
@@ -0,0 +1,106 @@
+package dev.emmanuel.account.service;
+
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import dev.emmanuel.account.persistence.entity.InsertedCheckingAccount;
+import dev.emmanuel.account.persistence.entity.InsertionPosition;
+import dev.emmanuel.account.persistence.repository.CheckingAccountRepository;
+import dev.emmanuel.account.persistence.routing.ReplicaReads;
+import dev.emmanuel.account.persistence.routing.ReplicationLagMonitor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ListCheckingAccountsServiceTest {
+
+    private static final LocalDateTime INSERTED_AT = LocalDateTime.of(2021, 5, 1, 10, 0);
+
+    private CheckingAccountRepository checkingAccountRepository;
+    private ListCheckingAccountsService listCheckingAccountsService;
+
+    @BeforeEach
+    void setUp() {
+        checkingAccountRepository = mock(CheckingAccountRepository.class);
+        var primaryOnly = new ReplicaReads(mock(ReplicationLagMonitor.class), new SimpleMeterRegistry(), false, 0.95, Duration.ofMillis(5));
+        listCheckingAccountsService = new ListCheckingAccountsService(checkingAccountRepository, primaryOnly, 2);
+    }
+
+    @Test
+    void shouldFollowKeysetInInsertionOrderUntilPageIsNotFull() {
+        when(checkingAccountRepository.findPageInsertedAfter(InsertionPosition.START, 2)).thenReturn(Flux.just(inserted(0, 7L), inserted(1, 2L)));
+        when(checkingAccountRepository.findPageInsertedAfter(position(1, 2L), 2)).thenReturn(Flux.just(inserted(2, 9L), inserted(3, 4L)));
+        when(checkingAccountRepository.findPageInsertedAfter(position(3, 4L), 2)).thenReturn(Flux.just(inserted(4, 5L)));
+
+        StepVerifier.create(listCheckingAccountsService.findAllAfter(0L).map(CheckingAccount::getId))
+                .expectNext(7L, 2L, 9L, 4L, 5L)
+                .verifyComplete();
+
+        verify(checkingAccountRepository, never()).findPageInsertedAfter(position(4, 5L), 2);
+    }
+
+    @Test
+    void shouldResumeAfterThePositionOfTheAccount() {
+        when(checkingAccountRepository.findInsertionPosition(9L)).thenReturn(Mono.just(position(2, 9L)));
+        when(checkingAccountRepository.findPageInsertedAfter(position(2, 9L), 2)).thenReturn(Flux.just(inserted(3, 4L)));
+
+        StepVerifier.create(listCheckingAccountsService.findAllAfter(9L).map(CheckingAccount::getId))
+                .expectNext(4L)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldStartOverAfterAnUnknownAccount() {
+        when(checkingAccountRepository.findInsertionPosition(9L)).thenReturn(Mono.empty());
+        when(checkingAccountRepository.findPageInsertedAfter(InsertionPosition.START, 2)).thenReturn(Flux.just(inserted(0, 7L)));
+
+        StepVerifier.create(listCheckingAccountsService.findAllAfter(9L).map(CheckingAccount::getId))
+                .expectNext(7L)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldStopOnEmptyPage() {
+        when(checkingAccountRepository.findPageInsertedAfter(InsertionPosition.START, 2)).thenReturn(Flux.just(inserted(0, 1L), inserted(1, 2L)));
+        when(checkingAccountRepository.findPageInsertedAfter(position(1, 2L), 2)).thenReturn(Flux.empty());
+
+        StepVerifier.create(listCheckingAccountsService.findAllAfter(0L).map(CheckingAccount::getId))
+                .expectNext(1L, 2L)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldNotQueryNextPageBeforeDemand() {
+        when(checkingAccountRepository.findPageInsertedAfter(InsertionPosition.START, 2)).thenReturn(Flux.just(inserted(0, 1L), inserted(1, 2L)));
+
+        StepVerifier.create(listCheckingAccountsService.findAllAfter(0L), 2)
+                .expectNextCount(2)
+                .thenCancel()
+                .verify();
+
+        verify(checkingAccountRepository, never()).findPageInsertedAfter(position(1, 2L), 2);
+    }
+
+    private InsertedCheckingAccount inserted(int second, long id) {
+        return InsertedCheckingAccount.of(position(second, id), account(id));
+    }
+
+    private InsertionPosition position(int second, long id) {
+        return InsertionPosition.of(INSERTED_AT.plusSeconds(second), id);
+    }
+
+    private CheckingAccount account(long id) {
+        return new CheckingAccount(id, 0L, "DE89370400440532013000", "EUR", Customer.of(id, "Mock User"));
+    }
+
+}
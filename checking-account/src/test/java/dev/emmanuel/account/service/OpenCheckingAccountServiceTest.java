@@ -1,63 +1,131 @@
 package dev.emmanuel.account.service;
 
 import dev.emmanuel.account.event.AccountEvent;
+import dev.emmanuel.account.event.AccountEventOutbox;
 import dev.emmanuel.account.exception.CheckingAccountAlreadyOpened;
 import dev.emmanuel.account.exception.violation.ViolationException;
+import dev.emmanuel.account.persistence.cache.CheckingAccountCache;
 import dev.emmanuel.account.persistence.entity.CheckingAccount;
 import dev.emmanuel.account.persistence.entity.Customer;
+import dev.emmanuel.account.persistence.entity.InsertionPosition;
+import dev.emmanuel.account.persistence.filter.CustomerIdFilter;
 import dev.emmanuel.account.persistence.repository.CheckingAccountRepository;
+import dev.emmanuel.account.persistence.repository.InMemoryIdSequenceRepository;
+import dev.emmanuel.account.persistence.sharding.ShardDirectory;
 import dev.emmanuel.account.validator.CheckingAccountInputValidator;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
-import org.springframework.kafka.core.KafkaTemplate;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class OpenCheckingAccountServiceTest {
 
-    private KafkaTemplate<Long, AccountEvent> kafkaTemplate;
+    private AccountEventOutbox accountEventOutbox;
     private CheckingAccountRepository checkingAccountRepository;
+    private CustomerIdFilter customerIdFilter;
+    private SimpleMeterRegistry meterRegistry;
     private OpenCheckingAccountService openCheckingAccountService;
 
     @BeforeEach
     void setUp() {
-        this.kafkaTemplate = mock(KafkaTemplate.class);
+        this.accountEventOutbox = mock(AccountEventOutbox.class);
         this.checkingAccountRepository = mock(CheckingAccountRepository.class);
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.customerIdFilter = new CustomerIdFilter(
+                this.checkingAccountRepository,
+                this.meterRegistry,
+                1000,
+                0.01,
+                100,
+                Duration.ofSeconds(5),
+                Duration.ofSeconds(2)
+        );
+
+        var metrics = new OpenCheckingAccountMetrics(this.meterRegistry);
+        var writer = new OpenCheckingAccountWriter(
+                this.checkingAccountRepository,
+                this.accountEventOutbox,
+                new PassThroughTransactionalOperator(),
+                metrics,
+                new HiLoIdAllocator(new InMemoryIdSequenceRepository(), "checking_accounts", 500, this.meterRegistry),
+                ShardDirectory.unsharded(),
+                false,
+                64,
+                Duration.ofNanos(500_000),
+                4096,
+                4
+        );
 
         this.openCheckingAccountService = new OpenCheckingAccountService(
-          this.kafkaTemplate,
+          writer,
           this.checkingAccountRepository,
-          new CheckingAccountInputValidator()
+          new CheckingAccountInputValidator(),
+          this.customerIdFilter,
+          mock(CheckingAccountCache.class),
+          metrics
         );
     }
 
     @Test
     void shouldOpenNewAccount() {
         Customer customer = Customer.of(1, "Mock");
-        CheckingAccount checkingAccount = CheckingAccount.of("IBAN", "EUR", customer);
+        CheckingAccount checkingAccount = CheckingAccount.of("DE89370400440532013000", "EUR", customer);
 
         var savedAccount = checkingAccount.withId(1L);
         when(checkingAccountRepository.findByCustomerId(eq(customer.getId()))).thenReturn(Mono.empty());
-        when(checkingAccountRepository.save(checkingAccount)).thenReturn(Mono.just(savedAccount));
+        when(checkingAccountRepository.insertIfAbsent(any(CheckingAccount.class))).thenReturn(Mono.just(savedAccount));
+        when(accountEventOutbox.record(any(AccountEvent.class))).thenReturn(Mono.just(new byte[0]));
 
         StepVerifier
             .create(openCheckingAccountService.open(checkingAccount))
             .consumeNextWith(openedAccount -> {
                 assertEquals(savedAccount, openedAccount);
-                assertThatAccountEventWasSent("opened", openedAccount);
+                assertThatAccountEventWasRecorded("opened", openedAccount);
             })
             .verifyComplete();
+
+        verify(checkingAccountRepository).insertIfAbsent(new CheckingAccount(1L, 0L, "DE89370400440532013000", "EUR", customer));
+        // the filter isn't loaded, so the customer was possibly known and the lookup found no account
+        assertEquals(1, meterRegistry.get("checking_account.customer_filter.false_positives").counter().count());
+    }
+
+    @Test
+    void shouldSkipExistentAccountLookupForUnknownCustomer() {
+        Customer customer = Customer.of(1, "Mock");
+        CheckingAccount checkingAccount = CheckingAccount.of("DE89370400440532013000", "EUR", customer);
+
+        when(checkingAccountRepository.findPageInsertedAfter(any(InsertionPosition.class), anyInt())).thenReturn(Flux.empty());
+        StepVerifier.create(customerIdFilter.load()).expectNext(0L).verifyComplete();
+
+        var savedAccount = checkingAccount.withId(1L);
+        when(checkingAccountRepository.insertIfAbsent(any(CheckingAccount.class))).thenReturn(Mono.just(savedAccount));
+        when(accountEventOutbox.record(any(AccountEvent.class))).thenReturn(Mono.just(new byte[0]));
+
+        StepVerifier
+                .create(openCheckingAccountService.open(checkingAccount))
+                .expectNext(savedAccount)
+                .verifyComplete();
+
+        verify(checkingAccountRepository, never()).findByCustomerId(anyLong());
+        assertTrue(customerIdFilter.mightHaveAccount(customer.getId()));
     }
 
     @Test
     void shouldRejectAlreadyOpenedAccount() {
         Customer customer = Customer.of(1, "Emmanuel");
-        CheckingAccount checkingAccount = CheckingAccount.of("IBAN", "EUR", customer);
+        CheckingAccount checkingAccount = CheckingAccount.of("DE89370400440532013000", "EUR", customer);
 
         var existentAccount = checkingAccount.withId(50L);
         when(checkingAccountRepository.findByCustomerId(eq(customer.getId()))).thenReturn(Mono.just(existentAccount));
@@ -67,7 +135,43 @@ class OpenCheckingAccountServiceTest {
                 .expectError(CheckingAccountAlreadyOpened.class)
                 .verify();
 
-        verify(kafkaTemplate, never()).send(eq("checking_account_event"), any(AccountEvent.class));
+        verify(accountEventOutbox, never()).record(any(AccountEvent.class));
+    }
+
+    @Test
+    void shouldRejectAccountOpenedConcurrently() {
+        Customer customer = Customer.of(1, "Emmanuel");
+        CheckingAccount checkingAccount = CheckingAccount.of("DE89370400440532013000", "EUR", customer);
+
+        when(checkingAccountRepository.findByCustomerId(eq(customer.getId()))).thenReturn(Mono.empty());
+        when(checkingAccountRepository.insertIfAbsent(any(CheckingAccount.class))).thenReturn(Mono.error(CheckingAccountAlreadyOpened::new));
+
+        StepVerifier
+                .create(openCheckingAccountService.open(checkingAccount))
+                .expectError(CheckingAccountAlreadyOpened.class)
+                .verify();
+
+        verify(accountEventOutbox, never()).record(any(AccountEvent.class));
+    }
+
+    @Test
+    void shouldTimeEachStage() {
+        Customer customer = Customer.of(1, "Emmanuel");
+        CheckingAccount checkingAccount = CheckingAccount.of("DE89370400440532013000", "EUR", customer);
+
+        when(checkingAccountRepository.findByCustomerId(eq(customer.getId()))).thenReturn(Mono.empty());
+        when(checkingAccountRepository.insertIfAbsent(any(CheckingAccount.class))).thenReturn(Mono.error(CheckingAccountAlreadyOpened::new));
+
+        StepVerifier
+                .create(openCheckingAccountService.open(checkingAccount))
+                .expectError(CheckingAccountAlreadyOpened.class)
+                .verify();
+
+        assertEquals(1, stageTimer("validation", "success").count());
+        assertEquals(1, stageTimer("find_by_customer_id", "success").count());
+        assertEquals(1, stageTimer("insert", "failure").count());
+        assertEquals("CheckingAccountAlreadyOpened", stageTimer("insert", "failure").getId().getTag("exception"));
+        assertNull(meterRegistry.find("checking_account.open.stage").tag("stage", "outbox_record").timer());
     }
 
     @Test
@@ -80,17 +184,21 @@ class OpenCheckingAccountServiceTest {
           .expectError(ViolationException.class)
           .verify();
 
-        verify(kafkaTemplate, never()).send(eq("checking_account_event"), any(AccountEvent.class));
+        verify(accountEventOutbox, never()).record(any(AccountEvent.class));
     }
 
-    private void assertThatAccountEventWasSent(String expectedEventType, CheckingAccount openedCheckingAccount) {
+    private Timer stageTimer(String stage, String result) {
+        return meterRegistry
+                .get("checking_account.open.stage")
+                .tag("stage", stage)
+                .tag("result", result)
+                .timer();
+    }
+
+    private void assertThatAccountEventWasRecorded(String expectedEventType, CheckingAccount openedCheckingAccount) {
         var accountEventCaptor = ArgumentCaptor.forClass(AccountEvent.class);
 
-        verify(kafkaTemplate).send(
-                eq("checking_account_event"),
-                eq(openedCheckingAccount.getId()),
-                accountEventCaptor.capture()
-        );
+        verify(accountEventOutbox).record(accountEventCaptor.capture());
 
         var sentEvent = accountEventCaptor.getValue();
         assertEquals(expectedEventType, sentEvent.getType());
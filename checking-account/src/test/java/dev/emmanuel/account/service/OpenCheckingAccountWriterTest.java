@@ -0,0 +1,213 @@
+package dev.emmanuel.account.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import dev.emmanuel.account.event.AccountEventOutbox;
+import dev.emmanuel.account.exception.CheckingAccountAlreadyOpened;
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import dev.emmanuel.account.persistence.repository.CheckingAccountRepository;
+import dev.emmanuel.account.persistence.repository.InMemoryAccountEventOutboxRepository;
+import dev.emmanuel.account.persistence.repository.InMemoryCheckingAccountRepository;
+import dev.emmanuel.account.persistence.repository.InMemoryIdSequenceRepository;
+import dev.emmanuel.account.persistence.sharding.ShardDirectory;
+import dev.emmanuel.account.persistence.sharding.ShardMap;
+import dev.emmanuel.account.persistence.sharding.ShardUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OpenCheckingAccountWriterTest {
+
+    private InMemoryCheckingAccountRepository checkingAccountRepository;
+    private InMemoryAccountEventOutboxRepository outboxRepository;
+    private AccountEventOutbox accountEventOutbox;
+    private SimpleMeterRegistry meterRegistry;
+    private OpenCheckingAccountWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        this.checkingAccountRepository = new InMemoryCheckingAccountRepository();
+        this.outboxRepository = new InMemoryAccountEventOutboxRepository();
+        this.accountEventOutbox = new AccountEventOutbox(outboxRepository, new ObjectMapper().registerModule(new JavaTimeModule()));
+        this.meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.stop();
+    }
+
+    @Test
+    void shouldFlushConcurrentWritesAsOneBatch() {
+        this.writer = batchWriter(checkingAccountRepository, 3, Duration.ofSeconds(5));
+
+        var opened = Flux
+                .range(1, 3)
+                .flatMap(customerId -> writer.write(account(customerId, "IBAN" + customerId)))
+                .collectMap(account -> account.getCustomer().getId(), CheckingAccount::getId);
+
+        StepVerifier.create(opened)
+                .assertNext(ids -> assertEquals(3, ids.values().stream().distinct().count()))
+                .verifyComplete();
+
+        var batchSize = meterRegistry.get("checking_account.open.batch.size").summary();
+        assertEquals(1, batchSize.count());
+        assertEquals(3, batchSize.totalAmount());
+        assertEquals(3, meterRegistry.get("checking_account.open.batch.queue_wait").timer().count());
+        StepVerifier.create(outboxRepository.count()).expectNext(3L).verifyComplete();
+    }
+
+    @Test
+    void shouldFlushAPartialBatchAfterTheMaxWait() {
+        this.writer = batchWriter(checkingAccountRepository, 64, Duration.ofMillis(10));
+
+        StepVerifier.create(writer.write(account(1, "IBAN1")))
+                .assertNext(opened -> assertEquals(1L, opened.getId()))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldOnlyFailTheDuplicateWritesOfABatch() {
+        this.writer = batchWriter(checkingAccountRepository, 3, Duration.ofSeconds(5));
+
+        var results = Flux
+                .just(account(1, "IBAN1"), account(2, "IBAN2"), account(3, "IBAN1"))
+                .flatMap(account -> writer
+                        .write(account)
+                        .map(opened -> "opened " + opened.getCustomer().getId())
+                        .onErrorResume(CheckingAccountAlreadyOpened.class, ex -> Mono.just("rejected " + account.getCustomer().getId())))
+                .collect(Collectors.toSet());
+
+        StepVerifier.create(results)
+                .assertNext(outcomes -> assertEquals(2, outcomes.stream().filter(outcome -> outcome.startsWith("opened")).count()))
+                .verifyComplete();
+
+        StepVerifier.create(checkingAccountRepository.count()).expectNext(2L).verifyComplete();
+        StepVerifier.create(outboxRepository.count()).expectNext(2L).verifyComplete();
+    }
+
+    @Test
+    void shouldHandTheCallerTheAccountJsonOfTheEvent() {
+        this.writer = batchWriter(checkingAccountRepository, 2, Duration.ofSeconds(5));
+
+        var slots = List.of(new OpenedAccountJson(), new OpenedAccountJson());
+        var opened = Flux
+                .range(0, 2)
+                .flatMap(i -> writer.write(account(i + 1, "IBAN" + i)).contextWrite(slots.get(i)::addTo))
+                .collectList();
+
+        StepVerifier.create(opened).expectNextCount(1).verifyComplete();
+
+        for (int i = 0; i < 2; i++) {
+            var json = new String(slots.get(i).get(), StandardCharsets.UTF_8);
+            assertTrue(json.contains("\"iban\":\"IBAN" + i + "\""), json);
+        }
+    }
+
+    @Test
+    void shouldHandTheCallerTheAccountJsonWhenABatchIsWrittenOneByOne() {
+        this.writer = batchWriter(checkingAccountRepository, 3, Duration.ofSeconds(5));
+
+        var slots = List.of(new OpenedAccountJson(), new OpenedAccountJson(), new OpenedAccountJson());
+        var ibans = List.of("IBAN0", "IBAN1", "IBAN0");
+        var opened = Flux
+                .range(0, 3)
+                .flatMap(i -> writer
+                        .write(account(i + 1, ibans.get(i)))
+                        .contextWrite(slots.get(i)::addTo)
+                        .onErrorResume(CheckingAccountAlreadyOpened.class, ex -> Mono.empty()))
+                .collectList();
+
+        StepVerifier.create(opened).assertNext(accounts -> assertEquals(2, accounts.size())).verifyComplete();
+
+        var filled = slots.stream().filter(slot -> slot.get() != null).collect(Collectors.toList());
+        assertEquals(2, filled.size());
+        assertTrue(new String(slots.get(1).get(), StandardCharsets.UTF_8).contains("\"iban\":\"IBAN1\""));
+    }
+
+    @Test
+    void shouldFailEveryWriteOfAFailedBatch() {
+        var failingRepository = mock(CheckingAccountRepository.class);
+        when(failingRepository.insertAllIfAbsent(anyList())).thenReturn(Flux.error(new DataAccessResourceFailureException("connection lost")));
+        this.writer = batchWriter(failingRepository, 2, Duration.ofSeconds(5));
+
+        var failures = Flux
+                .just(account(1, "IBAN1"), account(2, "IBAN2"))
+                .flatMap(account -> writer.write(account).then(Mono.<Throwable>empty()).onErrorResume(Mono::just))
+                .collectList();
+
+        StepVerifier.create(failures)
+                .assertNext(errors -> assertEquals(List.of(DataAccessResourceFailureException.class, DataAccessResourceFailureException.class),
+                        errors.stream().map(Object::getClass).collect(Collectors.toList())))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldOnlyFailTheWritesOfASlotBeingMoved() {
+        var owners = new String[ShardMap.SLOTS];
+        var targets = new String[ShardMap.SLOTS];
+        Arrays.fill(owners, "shard-0");
+        targets[2] = "shard-1";
+        this.writer = batchWriter(checkingAccountRepository, ShardDirectory.fixed(new ShardMap(owners, targets)), 2, Duration.ofSeconds(5));
+
+        var outcomes = Flux
+                .just(account(1, "IBAN1"), account(2, "IBAN2"))
+                .flatMap(account -> writer.write(account).map(Object.class::cast).onErrorResume(Mono::just))
+                .collectList();
+
+        StepVerifier.create(outcomes)
+                .assertNext(results -> {
+                    assertEquals(2, results.size());
+                    assertTrue(results.stream().anyMatch(ShardUnavailableException.class::isInstance));
+                    assertTrue(results.stream().anyMatch(result -> result instanceof CheckingAccount
+                            && ((CheckingAccount) result).getCustomer().getId() == 1L));
+                })
+                .verifyComplete();
+
+        assertEquals(1, checkingAccountRepository.count().block());
+    }
+
+    private OpenCheckingAccountWriter batchWriter(CheckingAccountRepository repository, int maxSize, Duration maxWait) {
+        return batchWriter(repository, ShardDirectory.unsharded(), maxSize, maxWait);
+    }
+
+    private OpenCheckingAccountWriter batchWriter(CheckingAccountRepository repository, ShardDirectory shardDirectory, int maxSize, Duration maxWait) {
+        return new OpenCheckingAccountWriter(
+                repository,
+                accountEventOutbox,
+                new PassThroughTransactionalOperator(),
+                new OpenCheckingAccountMetrics(meterRegistry),
+                new HiLoIdAllocator(new InMemoryIdSequenceRepository(), "checking_accounts", 500, meterRegistry),
+                shardDirectory,
+                true,
+                maxSize,
+                maxWait,
+                4096,
+                4
+        );
+    }
+
+    private static CheckingAccount account(long customerId, String iban) {
+        return CheckingAccount.of(iban, "EUR", Customer.of(customerId, "Mock"));
+    }
+
+}
@@ -0,0 +1,29 @@
+package dev.emmanuel.account.service;
+
+import org.springframework.transaction.reactive.TransactionCallback;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link TransactionalOperator} running the callbacks without a transaction, for tests and benchmarks over the
+ * in-memory repositories.
+ */
+public class PassThroughTransactionalOperator implements TransactionalOperator {
+
+    @Override
+    public <T> Flux<T> transactional(Flux<T> flux) {
+        return flux;
+    }
+
+    @Override
+    public <T> Mono<T> transactional(Mono<T> mono) {
+        return mono;
+    }
+
+    @Override
+    public <T> Flux<T> execute(TransactionCallback<T> action) {
+        return Flux.defer(() -> action.doInTransaction(null));
+    }
+
+}
@@ -0,0 +1,117 @@
+package dev.emmanuel.account.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SingleFlightTest {
+
+    private AtomicInteger joins;
+    private AtomicInteger executions;
+    private SingleFlight<Long, String> singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        this.joins = new AtomicInteger();
+        this.executions = new AtomicInteger();
+        this.singleFlight = new SingleFlight<>(joins::incrementAndGet);
+    }
+
+    @Test
+    void shouldShareExecutionBetweenConcurrentEqualInputs() {
+        var result = Sinks.<String>one();
+
+        var first = singleFlight.execute(1L, "input", () -> execution(result.asMono()));
+        var second = singleFlight.execute(1L, "input", () -> execution(result.asMono()));
+
+        StepVerifier.create(first.zipWith(second))
+                .then(() -> result.tryEmitValue("opened"))
+                .assertNext(results -> {
+                    assertEquals("opened", results.getT1());
+                    assertEquals("opened", results.getT2());
+                })
+                .verifyComplete();
+
+        assertEquals(1, executions.get());
+        assertEquals(1, joins.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void shouldRunTheExecutionWithTheFirstCallerContext() {
+        var execution = singleFlight
+                .execute(1L, "input", () -> Mono.deferContextual(context -> Mono.just(context.get("caller"))))
+                .contextWrite(context -> context.put("caller", "first"));
+
+        StepVerifier.create(execution)
+                .expectNext("first")
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldRunDifferentInputOnItsOwn() {
+        var result = Sinks.<String>one();
+
+        var first = singleFlight.execute(1L, "input", () -> execution(result.asMono()));
+        var second = singleFlight.execute(1L, "other input", () -> execution(Mono.just("other")));
+
+        StepVerifier.create(first.zipWith(second))
+                .then(() -> result.tryEmitValue("opened"))
+                .assertNext(results -> assertEquals("other", results.getT2()))
+                .verifyComplete();
+
+        assertEquals(2, executions.get());
+        assertEquals(0, joins.get());
+    }
+
+    @Test
+    void shouldShareFailureAndRunAgainAfterwards() {
+        var result = Sinks.<String>one();
+
+        var first = singleFlight.execute(1L, "input", () -> execution(result.asMono()));
+        var second = singleFlight.execute(1L, "input", () -> execution(result.asMono()));
+
+        StepVerifier.create(first.onErrorReturn("failed").zipWith(second.onErrorReturn("failed")))
+                .then(() -> result.tryEmitError(new IllegalStateException()))
+                .assertNext(results -> {
+                    assertEquals("failed", results.getT1());
+                    assertEquals("failed", results.getT2());
+                })
+                .verifyComplete();
+
+        StepVerifier.create(singleFlight.execute(1L, "input", () -> execution(Mono.just("opened"))))
+                .expectNext("opened")
+                .verifyComplete();
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void shouldKeepExecutingWhenFirstCallerCancels() {
+        var result = Sinks.<String>one();
+
+        StepVerifier.create(singleFlight.execute(1L, "input", () -> execution(result.asMono())))
+                .thenCancel()
+                .verify();
+
+        var joined = singleFlight.execute(1L, "input", () -> execution(Mono.just("again")));
+        StepVerifier.create(joined)
+                .then(() -> result.tryEmitValue("opened"))
+                .expectNext("opened")
+                .verifyComplete();
+
+        assertEquals(1, executions.get());
+    }
+
+    private Mono<String> execution(Mono<String> result) {
+        executions.incrementAndGet();
+        return result;
+    }
+
+}
@@ -0,0 +1,48 @@
+package dev.emmanuel.account.startup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StartupTimingReportTest {
+
+    @Test
+    void shouldReportTheStepsWithTheLongestSelfTimeFirst() throws InterruptedException {
+        var applicationStartup = new BufferingApplicationStartup(16);
+
+        var refresh = applicationStartup.start("refresh");
+        var repository = applicationStartup.start("instantiate").tag("beanName", "repository");
+        Thread.sleep(60);
+        repository.end();
+        var route = applicationStartup.start("instantiate").tag("beanName", "route");
+        Thread.sleep(25);
+        route.end();
+        refresh.end();
+
+        var slowest = StartupTimingReport.slowestSteps(applicationStartup.getBufferedTimeline(), 2);
+
+        assertEquals(2, slowest.size());
+        assertTrue(slowest.get(0).endsWith(" ms instantiate beanName=repository"), slowest.get(0));
+        assertTrue(slowest.get(1).endsWith(" ms instantiate beanName=route"), slowest.get(1));
+    }
+
+    @Test
+    void shouldNotCountTheChildStepsInTheSelfTimeOfTheirParent() throws InterruptedException {
+        var applicationStartup = new BufferingApplicationStartup(16);
+
+        var refresh = applicationStartup.start("refresh");
+        var repository = applicationStartup.start("instantiate");
+        Thread.sleep(60);
+        repository.end();
+        refresh.end();
+
+        var slowest = StartupTimingReport.slowestSteps(applicationStartup.getBufferedTimeline(), 10);
+
+        assertEquals(2, slowest.size());
+        assertTrue(slowest.get(1).endsWith(" ms refresh"), slowest.get(1));
+        var refreshSelfTime = Long.parseLong(slowest.get(1).substring(0, slowest.get(1).indexOf(' ')));
+        assertTrue(refreshSelfTime < 30, slowest.get(1));
+    }
+}
@@ -0,0 +1,51 @@
+package dev.emmanuel.account.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceContextTest {
+
+    private static final String TRACEPARENT = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+
+    @Test
+    void shouldParseAndFormatTraceparent() {
+        var trace = TraceContext.parse(TRACEPARENT, 42L);
+
+        assertEquals("0af7651916cd43dd8448eb211c80319c", trace.getTraceId());
+        assertEquals("b7ad6b7169203331", trace.getSpanId());
+        assertTrue(trace.isSampled());
+        assertEquals(42L, trace.getStartedAt());
+        assertEquals(TRACEPARENT, trace.toTraceparent());
+    }
+
+    @Test
+    void shouldRejectInvalidTraceparent() {
+        assertNull(TraceContext.parse(null, 0));
+        assertNull(TraceContext.parse("01-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01", 0));
+        assertNull(TraceContext.parse("00-0AF7651916CD43DD8448EB211C80319C-b7ad6b7169203331-01", 0));
+        assertNull(TraceContext.parse("00-00000000000000000000000000000000-b7ad6b7169203331-01", 0));
+        assertNull(TraceContext.parse("00-0af7651916cd43dd8448eb211c80319c-0000000000000000-01", 0));
+        assertNull(TraceContext.parse("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331", 0));
+    }
+
+    @Test
+    void shouldContinueTheTraceOfTheCaller() {
+        var trace = TraceContext.start("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-00", true, 42L);
+
+        assertEquals("0af7651916cd43dd8448eb211c80319c", trace.getTraceId());
+        assertEquals("b7ad6b7169203331", trace.getParentSpanId());
+        assertNotEquals("b7ad6b7169203331", trace.getSpanId());
+        assertFalse(trace.isSampled());
+    }
+
+    @Test
+    void shouldStartANewTraceWithoutValidTraceparent() {
+        var trace = TraceContext.start("garbage", true, 42L);
+
+        assertNull(trace.getParentSpanId());
+        assertTrue(trace.isSampled());
+        assertEquals(trace, TraceContext.parse(trace.toTraceparent(), 42L));
+    }
+
+}
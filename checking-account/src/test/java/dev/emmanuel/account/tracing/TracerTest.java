@@ -0,0 +1,84 @@
+package dev.emmanuel.account.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracerTest {
+
+    private final CapturingSpanExporter exporter = new CapturingSpanExporter();
+
+    @Test
+    void shouldSampleTheConfiguredShareOfTheRequests() {
+        assertTrue(new Tracer(exporter, 1).start(null).isSampled());
+        assertFalse(new Tracer(exporter, 0).start(null).isSampled());
+    }
+
+    @Test
+    void shouldFollowTheSampledFlagOfTheCaller() {
+        var tracer = new Tracer(exporter, 0);
+
+        assertTrue(tracer.start("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01").isSampled());
+    }
+
+    @Test
+    void shouldExportTheSpansOfTheTraceInTheContext() {
+        var tracer = new Tracer(exporter, 1);
+        var trace = tracer.start(null);
+
+        StepVerifier.create(Mono
+                        .deferContextual(context -> {
+                            Tracer.childSpan(context, "insert").attribute("rows", 1).end("success");
+                            return Mono.just(1);
+                        })
+                        .contextWrite(context -> tracer.addTo(context, trace)))
+                .expectNext(1)
+                .verifyComplete();
+        tracer.requestSpan(trace, "open_checking_account").end("success");
+
+        assertEquals(2, exporter.spans.size());
+        var child = exporter.spans.get(0);
+        var request = exporter.spans.get(1);
+        assertEquals("insert", child.getName());
+        assertEquals(trace.getTraceId(), child.getTraceId());
+        assertEquals(request.getSpanId(), child.getParentSpanId());
+        assertEquals(1, child.getAttributes().get("rows"));
+        assertTrue(child.getStartedAt() >= request.getStartedAt());
+        assertTrue(request.getDuration() >= child.getDuration());
+    }
+
+    @Test
+    void shouldNotExportSpansOfTracesNotSampled() {
+        var tracer = new Tracer(exporter, 0);
+        var trace = tracer.start(null);
+
+        tracer.requestSpan(trace, "open_checking_account").end("success");
+        tracer.childSpan(trace, "insert").end("success");
+        Tracer.childSpan(Context.empty(), "insert").end("success");
+
+        assertTrue(exporter.spans.isEmpty());
+    }
+
+    private static class CapturingSpanExporter extends SpanExporter {
+
+        private final List<Span> spans = new ArrayList<>();
+
+        CapturingSpanExporter() {
+            super(new ObjectMapper());
+        }
+
+        @Override
+        public void export(Span span) {
+            spans.add(span);
+        }
+
+    }
+
+}
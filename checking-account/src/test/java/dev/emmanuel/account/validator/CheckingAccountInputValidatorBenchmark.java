@@ -0,0 +1,44 @@
+package dev.emmanuel.account.validator;
+
+import dev.emmanuel.account.persistence.entity.CheckingAccount;
+import dev.emmanuel.account.persistence.entity.Customer;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of validating the open account input, for an accepted input and for one with violations
+ * (which also pays for building the {@link dev.emmanuel.account.exception.violation.ViolationException}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckingAccountInputValidatorBenchmark {
+
+    private CheckingAccountInputValidator validator;
+
+    private CheckingAccount validInput;
+    private CheckingAccount invalidInput;
+
+    @Setup
+    public void setUp() {
+        this.validator = new CheckingAccountInputValidator();
+        this.validInput = CheckingAccount.of("DE89370400440532013000", "EUR", Customer.of(1234567L, "Mock Customer"));
+        this.invalidInput = CheckingAccount.of("", null, Customer.of(0L, ""));
+    }
+
+    @Benchmark
+    public CheckingAccount validInput() {
+        return validator.validate(validInput).block();
+    }
+
+    @Benchmark
+    public CheckingAccount invalidInput() {
+        return validator.validate(invalidInput).onErrorResume(ex -> Mono.empty()).block();
+    }
+
+}
@@ -19,11 +19,12 @@ class CheckingAccountInputValidatorTest {
     @Test
     void shouldDoNotRejectValidInput() {
         var customer = Customer.of(1, "Mock Customer");
-        var checkingAccount = CheckingAccount.of("IBAN", "EUR", customer);
+        var checkingAccount = CheckingAccount.of("DE89370400440532013000", "EUR", customer);
 
         StepVerifier
                 .create(this.inputValidator.validate(checkingAccount))
-                .expectNext(checkingAccount);
+                .expectNext(checkingAccount)
+                .verifyComplete();
     }
 
     @Test
@@ -74,4 +75,44 @@ class CheckingAccountInputValidatorTest {
                 .create(this.inputValidator.validate(checkingAccount))
                 .expectError(ViolationException.class);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldRejectIbanWithWrongChecksum() {
+        var customer = Customer.of(1, "Mock Customer");
+        var checkingAccount = CheckingAccount.of("DE88370400440532013000", "EUR", customer);
+
+        StepVerifier
+                .create(this.inputValidator.validate(checkingAccount))
+                .expectErrorMatches(ex -> hasSingleViolation(ex, "iban", "IBAN is invalid"))
+                .verify();
+    }
+
+    @Test
+    void shouldRejectUnknownCurrency() {
+        var customer = Customer.of(1, "Mock Customer");
+        var checkingAccount = CheckingAccount.of("DE89370400440532013000", "EUX", customer);
+
+        StepVerifier
+                .create(this.inputValidator.validate(checkingAccount))
+                .expectErrorMatches(ex -> hasSingleViolation(ex, "currency", "currency must be an ISO 4217 code"))
+                .verify();
+    }
+
+    @Test
+    void shouldReportOnlyMissingIban() {
+        var customer = Customer.of(1, "Mock Customer");
+        var checkingAccount = CheckingAccount.of(null, "EUR", customer);
+
+        StepVerifier
+                .create(this.inputValidator.validate(checkingAccount))
+                .expectErrorMatches(ex -> hasSingleViolation(ex, "iban", "IBAN is required"))
+                .verify();
+    }
+
+    private static boolean hasSingleViolation(Throwable ex, String property, String message) {
+        var violations = ((ViolationException) ex).getViolations();
+        return violations.size() == 1
+                && violations.get(0).getProperty().equals(property)
+                && violations.get(0).getMessage().equals(message);
+    }
+}
@@ -0,0 +1,67 @@
+package dev.emmanuel.account.validator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigInteger;
+import java.util.Currency;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IBAN and currency checks of the input validator against the textbook implementation (rearranged substring,
+ * letters expanded into a StringBuilder, BigInteger mod 97, {@link Currency#getInstance(String)} with its
+ * exception for unknown codes). Run with the gc profiler to compare the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IbanValidatorBenchmark {
+
+    private static final BigInteger NINETY_SEVEN = BigInteger.valueOf(97);
+    private static final Map<String, Integer> NAIVE_LENGTHS = Map.of("DE", 22, "FR", 27, "GB", 22, "MT", 31);
+
+    @Param({"DE89370400440532013000", "MT84MALT011000012345MTLCAST001S", "DE88370400440532013000"})
+    private String iban;
+
+    @Param({"EUR", "EUX"})
+    private String currency;
+
+    @Benchmark
+    public boolean validator() {
+        return IbanValidator.isValid(iban) & CurrencyCodes.isIsoCode(currency);
+    }
+
+    @Benchmark
+    public boolean naive() {
+        return naiveIsValidIban(iban) & naiveIsIsoCurrency(currency);
+    }
+
+    private static boolean naiveIsValidIban(String iban) {
+        var normalized = iban.replace(" ", "").toUpperCase();
+        var length = NAIVE_LENGTHS.get(normalized.substring(0, 2));
+        if (length == null || length != normalized.length()) {
+            return false;
+        }
+
+        var rearranged = normalized.substring(4) + normalized.substring(0, 4);
+        var digits = new StringBuilder();
+        for (char c : rearranged.toCharArray()) {
+            digits.append(Character.getNumericValue(c));
+        }
+
+        return new BigInteger(digits.toString()).mod(NINETY_SEVEN).intValue() == 1;
+    }
+
+    private static boolean naiveIsIsoCurrency(String code) {
+        try {
+            Currency.getInstance(code);
+            return true;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+}
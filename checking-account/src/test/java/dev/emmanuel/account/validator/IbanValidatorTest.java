@@ -0,0 +1,63 @@
+package dev.emmanuel.account.validator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IbanValidatorTest {
+
+    @Test
+    void shouldAcceptRegistryExamples() {
+        assertTrue(IbanValidator.isValid("DE89370400440532013000"));
+        assertTrue(IbanValidator.isValid("GB29NWBK60161331926819"));
+        assertTrue(IbanValidator.isValid("FR1420041010050500013M02606"));
+        assertTrue(IbanValidator.isValid("NO9386011117947"));
+        assertTrue(IbanValidator.isValid("MT84MALT011000012345MTLCAST001S"));
+        assertTrue(IbanValidator.isValid("BR1800360305000010009795493C1"));
+    }
+
+    @Test
+    void shouldRejectWrongChecksum() {
+        assertFalse(IbanValidator.isValid("DE88370400440532013000"));
+        assertFalse(IbanValidator.isValid("GB29NWBK60161331926818"));
+    }
+
+    @Test
+    void shouldRejectLengthNotRegisteredForCountry() {
+        assertFalse(IbanValidator.isValid("DE8937040044053201300"));
+        assertFalse(IbanValidator.isValid("DE893704004405320130000"));
+    }
+
+    @Test
+    void shouldRejectUnknownCountry() {
+        assertFalse(IbanValidator.isValid("US89370400440532013000"));
+    }
+
+    @Test
+    void shouldRejectNonElectronicFormat() {
+        assertFalse(IbanValidator.isValid("DE89 3704 0044 0532 0130 00"));
+        assertFalse(IbanValidator.isValid("de89370400440532013000"));
+        assertFalse(IbanValidator.isValid("gb29nwbk60161331926819"));
+        assertFalse(IbanValidator.isValid("DEXX370400440532013000"));
+        assertFalse(IbanValidator.isValid("DE89-70400440532013000"));
+    }
+
+    @Test
+    void shouldRejectMissingIban() {
+        assertFalse(IbanValidator.isValid(null));
+        assertFalse(IbanValidator.isValid(""));
+        assertFalse(IbanValidator.isValid("IBAN"));
+    }
+
+    @Test
+    void shouldLookUpIsoCurrencyCodes() {
+        assertTrue(CurrencyCodes.isIsoCode("EUR"));
+        assertTrue(CurrencyCodes.isIsoCode("BRL"));
+        assertFalse(CurrencyCodes.isIsoCode("EUX"));
+        assertFalse(CurrencyCodes.isIsoCode("eur"));
+        assertFalse(CurrencyCodes.isIsoCode("EURO"));
+        assertFalse(CurrencyCodes.isIsoCode(null));
+    }
+
+}
@@ -0,0 +1,99 @@
+package br.com.emmanuel.moneytransfer.infrastructure.kafka
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.module.scala.{DefaultScalaModule, ScalaObjectMapper}
+
+import java.nio.charset.StandardCharsets
+import java.time.format.DateTimeFormatter
+import java.time.{LocalDateTime, ZoneOffset}
+
+/**
+ * Decodes checking account events in both wire formats produced by checking-account:
+ * the compact binary layout (first byte 0xCA, see AccountEventBinaryCodec on the producer side)
+ * and the JSON documents produced before the binary format was enabled.
+ */
+private object AccountEventDecoder {
+
+  private val Magic: Byte   = 0xCA.toByte
+  private val Version: Byte = 1
+
+  private val FieldType            = 1
+  private val FieldTimestamp       = 1 << 1
+  private val FieldAccount         = 1 << 2
+  private val FieldAccountId       = 1 << 3
+  private val FieldAccountVersion  = 1 << 4
+  private val FieldIban            = 1 << 5
+  private val FieldCurrency        = 1 << 6
+  private val FieldCustomer        = 1 << 7
+  private val FieldCustomerName    = 1 << 8
+
+  private val timestampFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss")
+
+  private val mapper = new ObjectMapper() with ScalaObjectMapper
+  mapper.registerModule(DefaultScalaModule)
+
+  def decode(data: Array[Byte]): AccountEvent =
+    if (data.nonEmpty && data(0) == Magic) decodeBinary(data)
+    else mapper.readValue[AccountEvent](data)
+
+  private def decodeBinary(data: Array[Byte]): AccountEvent = {
+    require(data.length > 1 && data(1) == Version, s"unsupported binary account event version ${data.lift(1).getOrElse("?")}")
+
+    val reader   = new Reader(data, 2)
+    val presence = reader.readVarLong().toInt
+
+    def has(field: Int): Boolean = (presence & field) != 0
+
+    val eventType = if (has(FieldType)) reader.readString() else null
+    val timestamp =
+      if (has(FieldTimestamp)) {
+        val epochSecond = unZigZag(reader.readVarLong())
+        val nanos       = reader.readVarLong().toInt
+        LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC).format(timestampFormat)
+      } else null
+
+    val checkingAccount =
+      if (has(FieldAccount)) {
+        val id       = if (has(FieldAccountId)) unZigZag(reader.readVarLong()) else 0L
+        val version  = if (has(FieldAccountVersion)) unZigZag(reader.readVarLong()) else 0L
+        val iban     = if (has(FieldIban)) reader.readString() else null
+        val currency = if (has(FieldCurrency)) reader.readString() else null
+        val customer =
+          if (has(FieldCustomer)) {
+            val customerId   = unZigZag(reader.readVarLong())
+            val customerName = if (has(FieldCustomerName)) reader.readString() else null
+            Customer(customerId, customerName)
+          } else null
+        CheckingAccount(id, version, iban, currency, customer)
+      } else null
+
+    AccountEvent(eventType, timestamp, checkingAccount)
+  }
+
+  private def unZigZag(value: Long): Long = (value >>> 1) ^ -(value & 1)
+
+  private final class Reader(buffer: Array[Byte], private var position: Int) {
+
+    def readVarLong(): Long = {
+      var value = 0L
+      var shift = 0
+      while (shift < 64) {
+        require(position < buffer.length, "truncated binary account event")
+        val b = buffer(position)
+        position += 1
+        value |= (b & 0x7FL) << shift
+        if ((b & 0x80) == 0) return value
+        shift += 7
+      }
+      throw new IllegalArgumentException("malformed varint in binary account event")
+    }
+
+    def readString(): String = {
+      val length = readVarLong().toInt
+      require(length >= 0 && position + length <= buffer.length, "truncated binary account event")
+      val value = new String(buffer, position, length, StandardCharsets.UTF_8)
+      position += length
+      value
+    }
+  }
+}
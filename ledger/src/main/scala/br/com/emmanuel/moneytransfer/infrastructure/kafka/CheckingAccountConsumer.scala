@@ -13,10 +13,8 @@ import br.com.emmanuel.moneytransfer.infrastructure.actors.factory.ShardingAccou
 import br.com.emmanuel.moneytransfer.infrastructure.actors.ledger.AccountLedgerActor
 import br.com.emmanuel.moneytransfer.infrastructure.actors.ledger.AccountLedgerActor.OpenAccount
 import com.fasterxml.jackson.annotation.JsonProperty
-import com.fasterxml.jackson.databind.ObjectMapper
-import com.fasterxml.jackson.module.scala.{DefaultScalaModule, ScalaObjectMapper}
 import org.apache.kafka.clients.consumer.ConsumerConfig
-import org.apache.kafka.common.serialization.{LongDeserializer, StringDeserializer}
+import org.apache.kafka.common.serialization.{ByteArrayDeserializer, LongDeserializer}
 
 import scala.concurrent.duration.DurationInt
 import scala.concurrent.{ExecutionContext, Future}
@@ -36,13 +34,10 @@ object CheckingAccountConsumer {
     implicit val materializer: Materializer = Materializer(system)
     val entityFactory = ShardingAccountEntityFactory(sharding)
 
-    val mapper = new ObjectMapper() with ScalaObjectMapper
-    mapper.registerModule(DefaultScalaModule)
-
     val consumerSettings = ConsumerSettings(
       system,
       new LongDeserializer,
-      new StringDeserializer
+      new ByteArrayDeserializer
     ).withBootstrapServers("kafka.kafka.svc.cluster.local:9092")
      .withGroupId("ledger")
      .withProperty(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest")
@@ -52,16 +47,19 @@ object CheckingAccountConsumer {
     Consumer
       .committableSource(consumerSettings, Subscriptions.topics("checking_account_event"))
       .mapAsync(1)(message => {
-        system.log.debug(s"received new account kafka message key=${message.record.key()} - value=${message.record.value()}")
-        val accountEvent = mapper.readValue[AccountEvent](message.record.value())
-        Future.successful((accountEvent, message))
+        val consumedAt = TraceHeaders.epochMicros()
+        val accountEvent = AccountEventDecoder.decode(message.record.value())
+        val trace = TraceHeaders.read(message.record.headers()).filter(_.sampled)
+        system.log.debug(s"received new account kafka message key=${message.record.key()} - value=$accountEvent")
+        Future.successful((accountEvent, trace, consumedAt, message))
       })
       .mapAsync(1)(message => {
-        val (event, kafkaMessage) = message
+        val (event, trace, consumedAt, kafkaMessage) = message
         val accountEntity = entityFactory.getAccountEntity(event.checkingAccount.id.toString)
         processEvent(event, accountEntity)
           .map(result => {
             system.log.debug(s"${event.checkingAccount.id} - ${event.eventType} - creation result - $result")
+            trace.foreach(_.exportSpan("ledger_open_account", consumedAt, if (result.isSuccess) "success" else "failure"))
             kafkaMessage.committableOffset
           })
       })
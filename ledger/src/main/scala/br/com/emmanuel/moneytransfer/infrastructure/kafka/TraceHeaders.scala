@@ -0,0 +1,91 @@
+package br.com.emmanuel.moneytransfer.infrastructure.kafka
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.module.scala.DefaultScalaModule
+import org.apache.kafka.common.header.Headers
+import org.slf4j.LoggerFactory
+
+import java.nio.charset.StandardCharsets
+import java.time.Instant
+import java.time.temporal.ChronoUnit
+import java.util.concurrent.ThreadLocalRandom
+
+/**
+ * Trace headers stamped by checking-account on every account event (see AccountEventHeaders on the producer
+ * side): the W3C traceparent of the request that opened the account, when that request started and when the
+ * record was produced, in epoch microseconds.
+ */
+private case class TraceHeaders(traceId: String, parentSpanId: String, sampled: Boolean, requestStartedAt: Long, producedAt: Long) {
+
+  /**
+   * Logs the span of the ledger for this trace as one JSON line, in the same shape as the spans of
+   * checking-account, with the Kafka lag (consumed - produced) and the end-to-end latency of the account
+   * (opened - request started). Cross-process differences are only as precise as the clocks of both hosts.
+   */
+  def exportSpan(name: String, consumedAt: Long, outcome: String): Unit = {
+    val endedAt = TraceHeaders.epochMicros()
+    val span = TraceSpan(
+      traceId = traceId,
+      spanId = f"${ThreadLocalRandom.current().nextLong()}%016x",
+      parentSpanId = parentSpanId,
+      name = name,
+      startedAt = consumedAt,
+      duration = endedAt - consumedAt,
+      outcome = outcome,
+      attributes = Map("kafkaLag" -> (consumedAt - producedAt), "endToEnd" -> (endedAt - requestStartedAt))
+    )
+    TraceHeaders.spanLog.info(TraceHeaders.mapper.writeValueAsString(span))
+  }
+}
+
+private case class TraceSpan(traceId: String,
+                             spanId: String,
+                             parentSpanId: String,
+                             name: String,
+                             startedAt: Long,
+                             duration: Long,
+                             outcome: String,
+                             attributes: Map[String, Long])
+
+private object TraceHeaders {
+
+  val Traceparent      = "traceparent"
+  val RequestStartedAt = "request-started-at"
+  val ProducedAt       = "produced-at"
+
+  private val TraceparentLength = 55
+
+  private val spanLog = LoggerFactory.getLogger("br.com.emmanuel.moneytransfer.tracing")
+
+  private val mapper = new ObjectMapper()
+  mapper.registerModule(DefaultScalaModule)
+
+  /**
+   * The trace of the record, None for records without (a valid) one, e.g. the events of accounts opened outside
+   * of a request.
+   */
+  def read(headers: Headers): Option[TraceHeaders] =
+    for {
+      traceparent      <- header(headers, Traceparent) if isValid(traceparent)
+      requestStartedAt <- header(headers, RequestStartedAt).flatMap(_.toLongOption)
+      producedAt       <- header(headers, ProducedAt).flatMap(_.toLongOption)
+    } yield TraceHeaders(
+      traceId = traceparent.substring(3, 35),
+      parentSpanId = traceparent.substring(36, 52),
+      sampled = (Character.digit(traceparent.charAt(54), 16) & 1) == 1,
+      requestStartedAt = requestStartedAt,
+      producedAt = producedAt
+    )
+
+  def epochMicros(): Long = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now())
+
+  private def header(headers: Headers, key: String): Option[String] =
+    Option(headers.lastHeader(key)).map(header => new String(header.value(), StandardCharsets.US_ASCII))
+
+  private def isValid(traceparent: String): Boolean =
+    traceparent.length == TraceparentLength &&
+      traceparent.startsWith("00-") &&
+      traceparent.charAt(35) == '-' &&
+      traceparent.charAt(52) == '-' &&
+      traceparent.substring(3).filterNot(_ == '-').forall(c => Character.digit(c, 16) >= 0)
+}
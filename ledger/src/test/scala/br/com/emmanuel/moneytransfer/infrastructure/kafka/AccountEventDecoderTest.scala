@@ -0,0 +1,62 @@
+package br.com.emmanuel.moneytransfer.infrastructure.kafka
+
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import java.nio.charset.StandardCharsets
+
+class AccountEventDecoderTest extends AnyWordSpecLike with Matchers {
+
+  // encoded by AccountEventBinaryCodec of checking-account
+  private val openedEvent =
+    "ca01ff03066f70656e6564c09ae9880c00dc5800164445383933373034303034343035333230313330303003455552a4130d4d6f636b20437573746f6d6572"
+  private val eventWithMissingFields = "ca0145066f70656e656403455552"
+  private val eventWithNegativeIdAndUnicodeName =
+    "ca01ff03066f70656e6564c09ae9880c0001060444453030034555520e0c5a6fc3ab204dc3bc6c6c6572"
+
+  private val openedAccount = CheckingAccount(5678L, 0L, "DE89370400440532013000", "EUR", Customer(1234L, "Mock Customer"))
+
+  "A binary account event" must {
+
+    "be decoded" in {
+      AccountEventDecoder.decode(bytes(openedEvent)) shouldBe AccountEvent("opened", "2021-05-01T10:00:00", openedAccount)
+    }
+
+    "be decoded without its missing fields" in {
+      AccountEventDecoder.decode(bytes(eventWithMissingFields)) shouldBe
+        AccountEvent("opened", null, CheckingAccount(0L, 0L, null, "EUR", null))
+    }
+
+    "be decoded with negative numbers and non ASCII names" in {
+      AccountEventDecoder.decode(bytes(eventWithNegativeIdAndUnicodeName)) shouldBe
+        AccountEvent("opened", "2021-05-01T10:00:00", CheckingAccount(-1L, 3L, "DE00", "EUR", Customer(7L, "Zoë Müller")))
+    }
+
+    "be rejected with an unknown version" in {
+      val data = bytes(openedEvent)
+      data(1) = 99
+
+      an[IllegalArgumentException] should be thrownBy AccountEventDecoder.decode(data)
+    }
+
+    "be rejected when truncated" in {
+      val data = bytes(openedEvent)
+
+      an[IllegalArgumentException] should be thrownBy AccountEventDecoder.decode(data.take(data.length - 4))
+    }
+  }
+
+  "A legacy JSON account event" must {
+
+    "be decoded like its binary encoding" in {
+      val json =
+        """{"type":"opened","timestamp":"2021-05-01T10:00:00","checkingAccount":
+          |{"id":5678,"version":0,"iban":"DE89370400440532013000","currency":"EUR","customer":{"id":1234,"name":"Mock Customer"}}}""".stripMargin
+
+      AccountEventDecoder.decode(json.getBytes(StandardCharsets.UTF_8)) shouldBe AccountEventDecoder.decode(bytes(openedEvent))
+    }
+  }
+
+  private def bytes(hex: String): Array[Byte] =
+    hex.grouped(2).map(Integer.parseInt(_, 16).toByte).toArray
+}
@@ -0,0 +1,47 @@
+package br.com.emmanuel.moneytransfer.infrastructure.kafka
+
+import org.apache.kafka.common.header.internals.RecordHeaders
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import java.nio.charset.StandardCharsets
+
+class TraceHeadersTest extends AnyWordSpecLike with Matchers {
+
+  private val traceparent = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01"
+
+  "The trace headers" must {
+
+    "be read from the headers stamped by checking-account" in {
+      TraceHeaders.read(headers(traceparent, "1000", "1500")) shouldBe
+        Some(TraceHeaders("0af7651916cd43dd8448eb211c80319c", "b7ad6b7169203331", sampled = true, 1000L, 1500L))
+    }
+
+    "tell a trace that isn't sampled" in {
+      TraceHeaders.read(headers(traceparent.dropRight(2) + "00", "1000", "1500")).map(_.sampled) shouldBe Some(false)
+    }
+
+    "be missing for a record without trace" in {
+      val record = new RecordHeaders().add(TraceHeaders.ProducedAt, ascii("1500"))
+
+      TraceHeaders.read(record) shouldBe None
+    }
+
+    "be missing for a malformed traceparent" in {
+      TraceHeaders.read(headers("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331", "1000", "1500")) shouldBe None
+      TraceHeaders.read(headers(traceparent.replace('a', 'z'), "1000", "1500")) shouldBe None
+    }
+
+    "be missing for a malformed time" in {
+      TraceHeaders.read(headers(traceparent, "yesterday", "1500")) shouldBe None
+    }
+  }
+
+  private def headers(traceparent: String, requestStartedAt: String, producedAt: String) =
+    new RecordHeaders()
+      .add(TraceHeaders.ProducedAt, ascii(producedAt))
+      .add(TraceHeaders.Traceparent, ascii(traceparent))
+      .add(TraceHeaders.RequestStartedAt, ascii(requestStartedAt))
+
+  private def ascii(value: String): Array[Byte] = value.getBytes(StandardCharsets.US_ASCII)
+}
@@ -0,0 +1,185 @@
+package dev.emmanuel.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of the measured requests. Every request is recorded twice: from the time it was
+ * scheduled to start (corrected for coordinated omission, a stalled service or client delays the following
+ * requests and that wait counts) and from the time it was actually sent (the service time the client saw).
+ * Outcomes are the HTTP status, or {@code timeout}, {@code connection_error} or {@code client_overloaded}.
+ * <p>
+ * Recording is thread safe, snapshots must be taken from a single thread.
+ */
+public class LatencyReport {
+
+    private static final long HIGHEST_TRACKABLE_LATENCY = TimeUnit.MINUTES.toNanos(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Recorder corrected = new Recorder(HIGHEST_TRACKABLE_LATENCY, SIGNIFICANT_DIGITS);
+    private final Recorder uncorrected = new Recorder(HIGHEST_TRACKABLE_LATENCY, SIGNIFICANT_DIGITS);
+    private final Histogram correctedTotal = new Histogram(HIGHEST_TRACKABLE_LATENCY, SIGNIFICANT_DIGITS);
+    private final Histogram uncorrectedTotal = new Histogram(HIGHEST_TRACKABLE_LATENCY, SIGNIFICANT_DIGITS);
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> intervalOutcomes = new ConcurrentHashMap<>();
+
+    private Histogram correctedInterval;
+    private Histogram uncorrectedInterval;
+    private HistogramLogWriter logWriter;
+
+    public void record(long scheduledAt, long sentAt, long completedAt, String outcome) {
+        corrected.recordValue(Math.min(completedAt - scheduledAt, HIGHEST_TRACKABLE_LATENCY));
+        uncorrected.recordValue(Math.min(completedAt - sentAt, HIGHEST_TRACKABLE_LATENCY));
+        count(outcome);
+    }
+
+    /**
+     * A request that wasn't sent, it has no latency but fails.
+     */
+    public void recordNotSent(String outcome) {
+        count(outcome);
+    }
+
+    /**
+     * Writes every interval histogram to an HdrHistogram log, for HistogramLogAnalyzer or to compare runs.
+     */
+    public void logTo(Path histogramLog) throws FileNotFoundException {
+        this.logWriter = new HistogramLogWriter(new PrintStream(histogramLog.toFile()));
+        logWriter.outputLogFormatVersion();
+        logWriter.outputStartTime(System.currentTimeMillis());
+        logWriter.setBaseTime(System.currentTimeMillis());
+        logWriter.outputLegend();
+    }
+
+    /**
+     * Summary of the requests recorded since the previous interval, added to the total.
+     */
+    public Summary interval(Duration elapsed) {
+        this.correctedInterval = corrected.getIntervalHistogram(correctedInterval);
+        this.uncorrectedInterval = uncorrected.getIntervalHistogram(uncorrectedInterval);
+        correctedTotal.add(correctedInterval);
+        uncorrectedTotal.add(uncorrectedInterval);
+
+        if (logWriter != null) {
+            correctedInterval.setTag("corrected");
+            logWriter.outputIntervalHistogram(correctedInterval);
+        }
+
+        var counts = new TreeMap<String, Long>();
+        intervalOutcomes.forEach((outcome, count) -> counts.put(outcome, count.sumThenReset()));
+        return new Summary(elapsed, correctedInterval, uncorrectedInterval, counts);
+    }
+
+    /**
+     * Summary of every request recorded, the latest interval included.
+     */
+    public Summary total(Duration elapsed) {
+        interval(elapsed);
+
+        var counts = new TreeMap<String, Long>();
+        outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        return new Summary(elapsed, correctedTotal, uncorrectedTotal, counts);
+    }
+
+    public void close() {
+        if (logWriter != null) {
+            logWriter.close();
+        }
+    }
+
+    private void count(String outcome) {
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+        intervalOutcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    public static class Summary {
+
+        private final Duration elapsed;
+        private final Histogram corrected;
+        private final Histogram uncorrected;
+        private final Map<String, Long> outcomes;
+
+        Summary(Duration elapsed, Histogram corrected, Histogram uncorrected, Map<String, Long> outcomes) {
+            this.elapsed = elapsed;
+            this.corrected = corrected;
+            this.uncorrected = uncorrected;
+            this.outcomes = outcomes;
+        }
+
+        public long requests() {
+            return outcomes.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        public long errors() {
+            return outcomes.entrySet().stream()
+                    .filter(outcome -> !outcome.getKey().startsWith("2"))
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+        }
+
+        public double errorRate() {
+            return requests() == 0 ? 0 : (double) errors() / requests();
+        }
+
+        /**
+         * Successful requests per second.
+         */
+        public double throughput() {
+            return (requests() - errors()) / (elapsed.toNanos() / 1e9);
+        }
+
+        public double correctedMillis(double percentile) {
+            return corrected.getValueAtPercentile(percentile) / 1e6;
+        }
+
+        public double uncorrectedMillis(double percentile) {
+            return uncorrected.getValueAtPercentile(percentile) / 1e6;
+        }
+
+        public Map<String, Long> outcomes() {
+            return outcomes;
+        }
+
+        public String line() {
+            return String.format("%6.1fs %9.1f req/s  p50 %8.2fms  p99 %8.2fms  p99.9 %8.2fms  max %8.2fms  errors %6.2f%% %s",
+                    elapsed.toMillis() / 1e3, throughput(),
+                    correctedMillis(50), correctedMillis(99), correctedMillis(99.9), corrected.getMaxValue() / 1e6,
+                    errorRate() * 100, outcomes);
+        }
+
+        public Map<String, Object> toMap() {
+            var summary = new LinkedHashMap<String, Object>();
+            summary.put("durationSeconds", elapsed.toMillis() / 1e3);
+            summary.put("requests", requests());
+            summary.put("throughput", throughput());
+            summary.put("errorRate", errorRate());
+            summary.put("outcomes", outcomes);
+            summary.put("correctedMillis", percentiles(corrected));
+            summary.put("uncorrectedMillis", percentiles(uncorrected));
+            return summary;
+        }
+
+        private static Map<String, Double> percentiles(Histogram histogram) {
+            var percentiles = new LinkedHashMap<String, Double>();
+            percentiles.put("p50", histogram.getValueAtPercentile(50) / 1e6);
+            percentiles.put("p99", histogram.getValueAtPercentile(99) / 1e6);
+            percentiles.put("p999", histogram.getValueAtPercentile(99.9) / 1e6);
+            percentiles.put("max", histogram.getMaxValue() / 1e6);
+            return percentiles;
+        }
+
+    }
+
+}
@@ -0,0 +1,112 @@
+package dev.emmanuel.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens accounts on checking-account at {@code loadtest.rate} per second, every request for a new customer, and
+ * reports throughput, coordinated omission corrected latency percentiles and error rates every
+ * {@code loadtest.report-interval} and for the whole run. The summary (with the service side uncorrected
+ * percentiles), the interval histograms and the service log are written to {@code loadtest.output}. After the
+ * run, the accounts in the database are compared with the events published to Kafka.
+ */
+@Slf4j
+public class LoadTest {
+
+    private static final String ACCOUNT_EVENTS_TOPIC = "checking_account_event";
+    private static final Duration OUTBOX_DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    public static void main(String[] args) throws Exception {
+        var settings = LoadTestSettings.fromSystemProperties();
+        Files.createDirectories(settings.getOutput());
+
+        try (var standIns = StandIns.start(settings.getOutput());
+             var service = ServiceProcess.start(settings, standIns)) {
+
+            var report = new LatencyReport();
+            report.logTo(settings.getOutput().resolve("latency.hlog"));
+
+            var generator = new OpenModelLoadGenerator(
+                    service.baseUrl(),
+                    "/checking-accounts",
+                    LoadTest::openAccountBody,
+                    settings.getRate(),
+                    settings.getMaxInFlight(),
+                    settings.getRequestTimeout()
+            );
+
+            log.info("Warming up for {}s at {} requests/s", settings.getWarmup().toSeconds(), settings.getRate());
+            var progress = Executors.newSingleThreadScheduledExecutor();
+            var interval = settings.getReportInterval();
+            progress.scheduleAtFixedRate(() -> log.info(report.interval(interval).line()),
+                    settings.getWarmup().plus(interval).toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+
+            generator.run(settings.getWarmup(), settings.getDuration(), report);
+
+            progress.shutdown();
+            progress.awaitTermination(interval.toMillis(), TimeUnit.MILLISECONDS);
+            var summary = report.total(settings.getDuration());
+            report.close();
+
+            var accounts = standIns.countAccounts();
+            var events = awaitEvents(standIns, accounts);
+
+            log.info("Total {}", summary.line());
+            log.info(String.format("Service time (uncorrected) p50 %.2fms  p99 %.2fms  p99.9 %.2fms",
+                    summary.uncorrectedMillis(50), summary.uncorrectedMillis(99), summary.uncorrectedMillis(99.9)));
+            log.info("{} accounts opened, {} events published", accounts, events);
+
+            var result = new LinkedHashMap<String, Object>();
+            result.put("settings", settings.toString());
+            result.putAll(summary.toMap());
+            result.put("accountsOpened", accounts);
+            result.put("eventsPublished", events);
+            new ObjectMapper()
+                    .enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(settings.getOutput().resolve("summary.json").toFile(), result);
+            log.info("Report written to {}", settings.getOutput().toAbsolutePath());
+        }
+    }
+
+    /**
+     * The outbox relay publishes asynchronously, gives it some time to catch up.
+     */
+    private static long awaitEvents(StandIns standIns, long accounts) throws Exception {
+        var deadline = System.nanoTime() + OUTBOX_DRAIN_TIMEOUT.toNanos();
+        var events = standIns.recordsIn(ACCOUNT_EVENTS_TOPIC);
+        while (events < accounts && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(500);
+            events = standIns.recordsIn(ACCOUNT_EVENTS_TOPIC);
+        }
+        return events;
+    }
+
+    static String openAccountBody(long sequence) {
+        var customerId = sequence + 1;
+        return String.format("{\"iban\":\"%s\",\"currencyCode\":\"EUR\",\"customer\":{\"id\":%d,\"name\":\"Load Test Customer\"}}",
+                iban(customerId), customerId);
+    }
+
+    /**
+     * German IBAN unique to the customer, with valid check digits.
+     */
+    static String iban(long customerId) {
+        var bban = String.format("%018d", customerId);
+
+        // mod 97 of the BBAN followed by "DE00", with D = 13 and E = 14
+        int remainder = 0;
+        for (char c : (bban + "131400").toCharArray()) {
+            remainder = (remainder * 10 + (c - '0')) % 97;
+        }
+
+        return String.format("DE%02d%s", 98 - remainder, bban);
+    }
+
+}
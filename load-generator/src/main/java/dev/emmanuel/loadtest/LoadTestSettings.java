@@ -0,0 +1,83 @@
+package dev.emmanuel.loadtest;
+
+import lombok.Value;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Load test settings, read from {@code loadtest.*} system properties:
+ * <ul>
+ *     <li>{@code rate}: requests started per second, whatever the service latency (open model), default 500</li>
+ *     <li>{@code warmup}: time at the target rate before measuring, default 15s</li>
+ *     <li>{@code duration}: measured time, default 60s</li>
+ *     <li>{@code max-in-flight}: requests waiting for an answer beyond which new ones are counted as
+ *     {@code client_overloaded} instead of being sent, default 10000</li>
+ *     <li>{@code request-timeout}: default 10s</li>
+ *     <li>{@code report-interval}: progress line period, default 5s</li>
+ *     <li>{@code service-jar}: the checking-account release to test, default the one built next to this project</li>
+ *     <li>{@code service-jvm-args}: space separated, default {@code -Xmx512m}</li>
+ *     <li>{@code service-args}: space separated Spring arguments added to the service command line</li>
+ *     <li>{@code output}: directory of the summary and histogram log, default {@code target/loadtest}</li>
+ * </ul>
+ */
+@Value
+public class LoadTestSettings {
+
+    private static final String PREFIX = "loadtest.";
+    private static final Pattern DURATION = Pattern.compile("(\\d+)(ms|s|m|h)");
+
+    private final int rate;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int maxInFlight;
+    private final Duration requestTimeout;
+    private final Duration reportInterval;
+    private final Path serviceJar;
+    private final List<String> serviceJvmArgs;
+    private final List<String> serviceArgs;
+    private final Path output;
+
+    public static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.parseInt(property("rate", "500")),
+                duration("warmup", "15s"),
+                duration("duration", "60s"),
+                Integer.parseInt(property("max-in-flight", "10000")),
+                duration("request-timeout", "10s"),
+                duration("report-interval", "5s"),
+                Path.of(property("service-jar", "../checking-account/target/checking-account-0.0.1-SNAPSHOT.jar")),
+                list("service-jvm-args", "-Xmx512m"),
+                list("service-args", ""),
+                Path.of(property("output", "target/loadtest"))
+        );
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty(PREFIX + name, defaultValue);
+    }
+
+    private static Duration duration(String name, String defaultValue) {
+        var value = property(name, defaultValue).trim();
+        var matcher = DURATION.matcher(value);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(PREFIX + name + " must be like 500ms, 30s, 5m or 1h, not " + value);
+        }
+
+        var amount = Long.parseLong(matcher.group(1));
+        return switch (matcher.group(2)) {
+            case "ms" -> Duration.ofMillis(amount);
+            case "s" -> Duration.ofSeconds(amount);
+            case "m" -> Duration.ofMinutes(amount);
+            default -> Duration.ofHours(amount);
+        };
+    }
+
+    private static List<String> list(String name, String defaultValue) {
+        var value = property(name, defaultValue).trim();
+        return value.isEmpty() ? List.of() : List.of(value.split("\\s+"));
+    }
+
+}
@@ -0,0 +1,133 @@
+package dev.emmanuel.loadtest;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufMono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Sends requests at a fixed arrival rate, request {@code i} being scheduled at {@code start + i / rate} whether
+ * or not the previous ones were answered, as independent users would (open model). A closed loop of clients
+ * waiting for their answers would slow down with the service and hide its stalls.
+ */
+@Slf4j
+public class OpenModelLoadGenerator {
+
+    private final HttpClient httpClient;
+    private final String path;
+    private final LongFunction<String> bodies;
+    private final int rate;
+    private final int maxInFlight;
+    private final Duration requestTimeout;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public OpenModelLoadGenerator(String baseUrl,
+                                  String path,
+                                  LongFunction<String> bodies,
+                                  int rate,
+                                  int maxInFlight,
+                                  Duration requestTimeout) {
+        var connectionProvider = ConnectionProvider
+                .builder("load-generator")
+                .maxConnections(maxInFlight)
+                .pendingAcquireMaxCount(-1)
+                .build();
+
+        this.httpClient = HttpClient
+                .create(connectionProvider)
+                .baseUrl(baseUrl)
+                .headers(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON));
+        this.path = path;
+        this.bodies = bodies;
+        this.rate = rate;
+        this.maxInFlight = maxInFlight;
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Runs {@code warmup} then {@code duration} at the arrival rate, recording the requests scheduled during the
+     * latter, and waits for them to be answered. Blocks the calling thread, which does nothing but schedule.
+     */
+    public void run(Duration warmup, Duration duration, LatencyReport report) {
+        var interval = 1_000_000_000L / rate;
+        var start = System.nanoTime();
+        var measureFrom = start + warmup.toNanos();
+        var end = measureFrom + duration.toNanos();
+
+        for (long i = 0; ; i++) {
+            var scheduledAt = start + i * interval;
+            if (scheduledAt >= end) {
+                break;
+            }
+
+            long now;
+            while ((now = System.nanoTime()) < scheduledAt) {
+                LockSupport.parkNanos(scheduledAt - now);
+            }
+
+            var measured = scheduledAt >= measureFrom;
+            if (inFlight.get() >= maxInFlight) {
+                if (measured) {
+                    report.recordNotSent("client_overloaded");
+                }
+                continue;
+            }
+
+            send(i, scheduledAt, measured ? report : null);
+        }
+
+        awaitInFlight();
+    }
+
+    private void send(long sequence, long scheduledAt, LatencyReport report) {
+        inFlight.incrementAndGet();
+        var sentAt = System.nanoTime();
+
+        httpClient
+                .post()
+                .uri(path)
+                .send(ByteBufMono.fromString(Mono.just(bodies.apply(sequence))))
+                .responseSingle((response, content) -> content
+                        .asByteArray()
+                        .defaultIfEmpty(new byte[0])
+                        .map(ignored -> String.valueOf(response.status().code())))
+                .timeout(requestTimeout)
+                .onErrorResume(ex -> Mono.just(outcomeOf(ex)))
+                .subscribe(outcome -> {
+                    inFlight.decrementAndGet();
+                    if (report != null) {
+                        report.record(scheduledAt, sentAt, System.nanoTime(), outcome);
+                    }
+                });
+    }
+
+    private void awaitInFlight() {
+        var deadline = System.nanoTime() + requestTimeout.multipliedBy(2).toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(Duration.ofMillis(10).toNanos());
+        }
+    }
+
+    private static String outcomeOf(Throwable ex) {
+        if (ex instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (ex instanceof ConnectException || ex.getCause() instanceof ConnectException) {
+            return "connection_error";
+        }
+
+        log.debug("Request failure", ex);
+        return "io_error";
+    }
+
+}
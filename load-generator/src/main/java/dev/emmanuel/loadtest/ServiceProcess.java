@@ -0,0 +1,115 @@
+package dev.emmanuel.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The checking-account jar under test, run in its own JVM (so a release can be tested as it ships) against the
+ * stand-ins, with its output in {@code service.log}.
+ */
+@Slf4j
+public class ServiceProcess implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final Process process;
+    private final int port;
+
+    private ServiceProcess(Process process, int port) {
+        this.process = process;
+        this.port = port;
+    }
+
+    public static ServiceProcess start(LoadTestSettings settings, StandIns standIns) throws IOException, InterruptedException {
+        if (!Files.isRegularFile(settings.getServiceJar())) {
+            throw new IllegalStateException(settings.getServiceJar() + " doesn't exist, package checking-account or set -Dloadtest.service-jar");
+        }
+
+        var port = freePort();
+        var database = "127.0.0.1:" + standIns.databasePort() + "/" + StandIns.DATABASE;
+
+        var command = new ArrayList<String>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(settings.getServiceJvmArgs());
+        command.addAll(List.of(
+                "-jar", settings.getServiceJar().toString(),
+                "--server.port=" + port,
+                // the actuator on the same port, for the health check
+                "--management.server.port=" + port,
+                "--spring.kafka.bootstrap-servers=" + standIns.kafkaBootstrapServers(),
+                "--spring.r2dbc.url=r2dbc:mysql://" + StandIns.DATABASE_USER + "@" + database,
+                "--spring.flyway.url=jdbc:mysql://" + database,
+                "--spring.flyway.user=" + StandIns.DATABASE_USER,
+                "--spring.flyway.password=",
+                // the default DEBUG logging would weigh on the measurements
+                "--logging.level.org.springframework=INFO",
+                "--logging.level.org.springframework.data.r2dbc=INFO"
+        ));
+        command.addAll(settings.getServiceArgs());
+
+        var serviceLog = settings.getOutput().resolve("service.log");
+        var process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(serviceLog.toFile())
+                .start();
+
+        var service = new ServiceProcess(process, port);
+        service.awaitReady(serviceLog);
+        return service;
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + port;
+    }
+
+    private void awaitReady(Path serviceLog) throws InterruptedException {
+        var client = HttpClient.newHttpClient();
+        var health = HttpRequest.newBuilder(URI.create(baseUrl() + "/actuator/health")).build();
+        var deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("checking-account exited with " + process.exitValue() + ", see " + serviceLog);
+            }
+
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    log.info("checking-account ready on {}", baseUrl());
+                    return;
+                }
+            } catch (IOException ex) {
+                // not listening yet
+            }
+            TimeUnit.MILLISECONDS.sleep(500);
+        }
+
+        throw new IllegalStateException("checking-account not ready after " + STARTUP_TIMEOUT + ", see " + serviceLog);
+    }
+
+    private static int freePort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+
+}
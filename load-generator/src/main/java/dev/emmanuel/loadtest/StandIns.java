@@ -0,0 +1,117 @@
+package dev.emmanuel.loadtest;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Local replacements for the infrastructure checking-account runs against: a single Kafka broker and a MariaDB
+ * server (the service's SQL is MySQL's, H2 can't run the outbox claim), both on free ports and in this JVM's
+ * lifetime. MariaDB runs from the binaries bundled for Linux x86-64.
+ */
+@Slf4j
+public class StandIns implements AutoCloseable {
+
+    public static final String DATABASE = "checkingaccount";
+    public static final String DATABASE_USER = "root";
+
+    private final EmbeddedKafkaBroker kafka;
+    private final DB mariaDb;
+    private final int databasePort;
+
+    private StandIns(EmbeddedKafkaBroker kafka, DB mariaDb, int databasePort) {
+        this.kafka = kafka;
+        this.mariaDb = mariaDb;
+        this.databasePort = databasePort;
+    }
+
+    public static StandIns start(Path workDirectory) throws ManagedProcessException, SQLException {
+        var kafka = new EmbeddedKafkaBroker(1).brokerProperty("auto.create.topics.enable", "false");
+        kafka.afterPropertiesSet();
+        log.info("Kafka broker started on {}", kafka.getBrokersAsString());
+
+        var mariaDbDirectory = workDirectory.resolve("mariadb4j");
+        FileSystemUtils.deleteRecursively(mariaDbDirectory.toFile());
+
+        var configuration = DBConfigurationBuilder.newBuilder()
+                .setPort(0)
+                .setBaseDir(mariaDbDirectory.resolve("base").toString())
+                .setDataDir(mariaDbDirectory.resolve("data").toString());
+        if ("root".equals(System.getProperty("user.name"))) {
+            configuration.addArg("--user=root");
+        }
+
+        var mariaDb = DB.newEmbeddedDB(configuration.build());
+        mariaDb.start();
+        var databasePort = configuration.getPort();
+
+        // through JDBC, the bundled mysql client needs libraries most boxes don't have anymore
+        try (var connection = DriverManager.getConnection("jdbc:mysql://127.0.0.1:" + databasePort + "/?user=" + DATABASE_USER);
+             var statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + DATABASE);
+        }
+        log.info("MariaDB started on port {}", databasePort);
+
+        return new StandIns(kafka, mariaDb, databasePort);
+    }
+
+    public String kafkaBootstrapServers() {
+        return kafka.getBrokersAsString();
+    }
+
+    public int databasePort() {
+        return databasePort;
+    }
+
+    public long countAccounts() throws SQLException {
+        try (var connection = DriverManager.getConnection("jdbc:mysql://127.0.0.1:" + databasePort + "/" + DATABASE + "?user=" + DATABASE_USER);
+             var statement = connection.createStatement();
+             var resultSet = statement.executeQuery("SELECT COUNT(*) FROM checking_accounts")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    /**
+     * Records in the topic, to check that the opened accounts made it through the outbox.
+     */
+    public long recordsIn(String topic) throws ExecutionException, InterruptedException {
+        try (var admin = AdminClient.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers()))) {
+            var partitions = admin.describeTopics(List.of(topic)).all().get().get(topic).partitions();
+            var latest = partitions.stream()
+                    .map(partition -> new TopicPartition(topic, partition.partition()))
+                    .collect(Collectors.toMap(Function.identity(), partition -> OffsetSpec.latest()));
+
+            return admin.listOffsets(latest).all().get().values().stream()
+                    .mapToLong(ListOffsetsResultInfo::offset)
+                    .sum();
+        }
+    }
+
+    @Override
+    public void close() throws ManagedProcessException {
+        try {
+            mariaDb.stop();
+        } finally {
+            kafka.destroy();
+        }
+    }
+
+}
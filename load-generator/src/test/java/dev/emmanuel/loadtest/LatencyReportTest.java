@@ -0,0 +1,57 @@
+package dev.emmanuel.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LatencyReportTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void shouldMeasureLatencyFromTheScheduledStart() {
+        var report = new LatencyReport();
+
+        // sent 90ms late because the client was stalled, answered 10ms later
+        report.record(0, 90 * MILLIS, 100 * MILLIS, "200");
+
+        var summary = report.total(Duration.ofSeconds(1));
+        assertEquals(100, summary.correctedMillis(50), 0.1);
+        assertEquals(10, summary.uncorrectedMillis(50), 0.1);
+    }
+
+    @Test
+    void shouldCountEveryNonSuccessAsError() {
+        var report = new LatencyReport();
+        for (int i = 0; i < 6; i++) {
+            report.record(0, 0, MILLIS, "200");
+        }
+        report.record(0, 0, MILLIS, "503");
+        report.record(0, 0, MILLIS, "timeout");
+        report.recordNotSent("client_overloaded");
+        report.recordNotSent("client_overloaded");
+
+        var summary = report.total(Duration.ofSeconds(2));
+        assertEquals(10, summary.requests());
+        assertEquals(0.4, summary.errorRate(), 0.001);
+        assertEquals(3, summary.throughput(), 0.001);
+        assertEquals(Map.of("200", 6L, "503", 1L, "client_overloaded", 2L, "timeout", 1L), summary.outcomes());
+    }
+
+    @Test
+    void shouldResetIntervalsButKeepTotals() {
+        var report = new LatencyReport();
+        report.record(0, 0, MILLIS, "200");
+        assertEquals(1, report.interval(Duration.ofSeconds(1)).requests());
+
+        report.record(0, 0, MILLIS, "200");
+        assertEquals(1, report.interval(Duration.ofSeconds(1)).requests());
+
+        assertEquals(2, report.total(Duration.ofSeconds(2)).requests());
+    }
+
+}
@@ -0,0 +1,82 @@
+package dev.emmanuel.loadtest;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OpenModelLoadGeneratorTest {
+
+    private DisposableServer server;
+
+    @AfterEach
+    void tearDown() {
+        server.disposeNow();
+    }
+
+    @Test
+    void shouldSendAtTheArrivalRateAndOnlyRecordAfterTheWarmup() {
+        var received = new AtomicLong();
+        startServer(Duration.ZERO, HttpResponseStatus.OK, received);
+
+        var report = new LatencyReport();
+        generator(200, 1000).run(Duration.ofMillis(500), Duration.ofSeconds(1), report);
+
+        assertEquals(300, received.get(), 2);
+        var summary = report.total(Duration.ofSeconds(1));
+        assertEquals(200, summary.requests(), 2);
+        assertEquals(0, summary.errorRate());
+    }
+
+    @Test
+    void shouldKeepTheRateWhenTheServiceSlowsDown() {
+        startServer(Duration.ofMillis(300), HttpResponseStatus.SERVICE_UNAVAILABLE, new AtomicLong());
+
+        var report = new LatencyReport();
+        generator(100, 1000).run(Duration.ZERO, Duration.ofMillis(500), report);
+
+        var summary = report.total(Duration.ofMillis(500));
+        assertEquals(50, summary.requests(), 1);
+        assertEquals(1, summary.errorRate());
+        assertTrue(summary.correctedMillis(50) >= 300);
+    }
+
+    @Test
+    void shouldCountRequestsBeyondTheInFlightLimitAsErrors() {
+        startServer(Duration.ofMillis(500), HttpResponseStatus.OK, new AtomicLong());
+
+        var report = new LatencyReport();
+        generator(100, 10).run(Duration.ZERO, Duration.ofMillis(300), report);
+
+        var summary = report.total(Duration.ofMillis(300));
+        assertEquals(10, summary.outcomes().get("200"));
+        assertEquals(20, summary.outcomes().get("client_overloaded"));
+    }
+
+    private OpenModelLoadGenerator generator(int rate, int maxInFlight) {
+        return new OpenModelLoadGenerator("http://127.0.0.1:" + server.port(), "/checking-accounts",
+                sequence -> "{}", rate, maxInFlight, Duration.ofSeconds(5));
+    }
+
+    private void startServer(Duration delay, HttpResponseStatus status, AtomicLong received) {
+        this.server = HttpServer
+                .create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.post("/checking-accounts", (request, response) -> request
+                        .receive()
+                        .then(Mono.delay(delay))
+                        .doOnNext(ignored -> received.incrementAndGet())
+                        .then(response.status(status).send())))
+                .bindNow();
+    }
+
+}